@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks.help;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.benchmarks.suggester.LargeCli;
+import com.github.rvesse.airline.help.man.ManGlobalUsageGenerator;
+import com.github.rvesse.airline.help.man.ManSections;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * Renders the single page man page for a synthetic CLI with 1000 commands
+ * using the {@link ManGlobalUsageGenerator}, output is discarded so the
+ * benchmark measures the cost of generating and escaping the Troff
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ManPageBenchmark {
+
+    /**
+     * Number of groups, with three top level commands and three commands per
+     * group this gives 1000 commands
+     */
+    private static final int GROUPS = 333;
+
+    /**
+     * Output stream that counts and discards its output
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count = 0;
+
+        @Override
+        public void write(int b) {
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            this.count += len;
+        }
+    }
+
+    private GlobalMetadata<Runnable> metadata;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.metadata = LargeCli.create(GROUPS).getMetadata();
+    }
+
+    @Benchmark
+    public long manGlobal() throws IOException {
+        CountingOutputStream output = new CountingOutputStream();
+        new ManGlobalUsageGenerator<Runnable>(ManSections.GENERAL_COMMANDS).usage(this.metadata, output);
+        return output.count;
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks.help;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.benchmarks.suggester.LargeCli;
+import com.github.rvesse.airline.help.common.MultiPageWriter;
+import com.github.rvesse.airline.help.html.HtmlCommandUsageGenerator;
+import com.github.rvesse.airline.help.html.HtmlMultiPageGlobalUsageGenerator;
+import com.github.rvesse.airline.help.man.ManCommandUsageGenerator;
+import com.github.rvesse.airline.help.man.ManMultiPageGlobalUsageGenerator;
+import com.github.rvesse.airline.help.man.ManSections;
+import com.github.rvesse.airline.help.markdown.MarkdownCommandUsageGenerator;
+import com.github.rvesse.airline.help.markdown.MarkdownMultiPageGlobalUsageGenerator;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * Generates multi-page man, Markdown and HTML documentation for the
+ * {@link LargeCli}, comparing writing one page after the other against
+ * rendering pages concurrently with a {@link MultiPageWriter}
+ * <p>
+ * The {@code fresh} benchmarks start each invocation with an empty directory
+ * so every page is written, the {@code unchanged} benchmarks leave the pages
+ * from the previous invocation in place so no page is rewritten.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiPageBenchmark {
+
+    private static class ManGenerator extends ManMultiPageGlobalUsageGenerator<Runnable> {
+        private final File directory;
+
+        private ManGenerator(File directory, MultiPageWriter pageWriter) {
+            super(ManSections.GENERAL_COMMANDS, false,
+                    new ManCommandUsageGenerator(ManSections.GENERAL_COMMANDS, false), pageWriter);
+            this.directory = directory;
+        }
+
+        @Override
+        protected File getCommandFile(GlobalMetadata<Runnable> global, String[] groupNames, CommandMetadata command) {
+            return new File(this.directory, super.getCommandFile(global, groupNames, command).getName());
+        }
+    }
+
+    private static class MarkdownGenerator extends MarkdownMultiPageGlobalUsageGenerator<Runnable> {
+        private final File directory;
+
+        private MarkdownGenerator(File directory, MultiPageWriter pageWriter) {
+            super(false, new MarkdownCommandUsageGenerator(false), pageWriter);
+            this.directory = directory;
+        }
+
+        @Override
+        protected File getCommandFile(GlobalMetadata<Runnable> global, String[] groupNames, CommandMetadata command) {
+            return new File(this.directory, super.getCommandFile(global, groupNames, command).getName());
+        }
+    }
+
+    private static class HtmlGenerator extends HtmlMultiPageGlobalUsageGenerator<Runnable> {
+        private final File directory;
+
+        private HtmlGenerator(File directory, MultiPageWriter pageWriter) {
+            super(false, new HtmlCommandUsageGenerator(false), pageWriter);
+            this.directory = directory;
+        }
+
+        @Override
+        protected File getCommandFile(GlobalMetadata<Runnable> global, String[] groupNames, CommandMetadata command) {
+            return new File(this.directory, super.getCommandFile(global, groupNames, command).getName());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static abstract class OutputState {
+        protected GlobalMetadata<Runnable> metadata;
+        protected File directory;
+
+        @Setup(Level.Trial)
+        public void setupTrial() throws IOException {
+            this.metadata = LargeCli.create().getMetadata();
+            this.directory = Files.createTempDirectory("airline-benchmark").toFile();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() {
+            clear();
+            this.directory.delete();
+        }
+
+        protected void clear() {
+            for (File file : this.directory.listFiles()) {
+                file.delete();
+            }
+        }
+    }
+
+    public static class FreshState extends OutputState {
+        @Setup(Level.Invocation)
+        public void setupInvocation() {
+            clear();
+        }
+    }
+
+    public static class UnchangedState extends OutputState {
+    }
+
+    private static byte[] generate(ManMultiPageGlobalUsageGenerator<Runnable> generator, OutputState state)
+            throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        generator.usage(state.metadata, output);
+        return output.toByteArray();
+    }
+
+    private static byte[] generate(MarkdownMultiPageGlobalUsageGenerator<Runnable> generator, OutputState state)
+            throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        generator.usage(state.metadata, output);
+        return output.toByteArray();
+    }
+
+    private static byte[] generate(HtmlMultiPageGlobalUsageGenerator<Runnable> generator, OutputState state)
+            throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        generator.usage(state.metadata, output);
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] manSerialFresh(FreshState state) throws IOException {
+        return generate(new ManGenerator(state.directory, null), state);
+    }
+
+    @Benchmark
+    public byte[] manParallelFresh(FreshState state) throws IOException {
+        return generate(new ManGenerator(state.directory, new MultiPageWriter()), state);
+    }
+
+    @Benchmark
+    public byte[] manSerialUnchanged(UnchangedState state) throws IOException {
+        return generate(new ManGenerator(state.directory, null), state);
+    }
+
+    @Benchmark
+    public byte[] manParallelUnchanged(UnchangedState state) throws IOException {
+        return generate(new ManGenerator(state.directory, new MultiPageWriter()), state);
+    }
+
+    @Benchmark
+    public byte[] markdownSerialFresh(FreshState state) throws IOException {
+        return generate(new MarkdownGenerator(state.directory, null), state);
+    }
+
+    @Benchmark
+    public byte[] markdownParallelFresh(FreshState state) throws IOException {
+        return generate(new MarkdownGenerator(state.directory, new MultiPageWriter()), state);
+    }
+
+    @Benchmark
+    public byte[] htmlSerialFresh(FreshState state) throws IOException {
+        return generate(new HtmlGenerator(state.directory, null), state);
+    }
+
+    @Benchmark
+    public byte[] htmlParallelFresh(FreshState state) throws IOException {
+        return generate(new HtmlGenerator(state.directory, new MultiPageWriter()), state);
+    }
+}
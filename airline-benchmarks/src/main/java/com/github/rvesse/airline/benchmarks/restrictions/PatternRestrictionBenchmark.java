@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks.restrictions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.restrictions.common.PatternRestriction;
+
+/**
+ * Compares pattern restrictions against the naive approach of creating a new
+ * matcher for every value
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PatternRestrictionBenchmark {
+
+    private static final String[] SIMPLE_VALUES = { "alpha", "beta_2", "gamma", "delta_delta_delta", "x" };
+    private static final String[] COMPLEX_VALUES = { "alpha", "beta-gamma", "delta", "epsilon-zeta-eta", "x" };
+
+    private OptionMetadata simpleOption, complexOption;
+    private PatternRestriction simple, complex;
+    private Pattern simplePattern, complexPattern;
+
+    @Setup
+    public void setup(RestrictionBenchmarkState shared) {
+        this.simpleOption = shared.getOption("--simple");
+        this.complexOption = shared.getOption("--complex");
+        this.simple = shared.getRestriction("--simple", PatternRestriction.class);
+        this.complex = shared.getRestriction("--complex", PatternRestriction.class);
+        this.simplePattern = Pattern.compile("^[a-z0-9_]+$");
+        this.complexPattern = Pattern.compile("^[a-z]+(-[a-z]+)*$");
+    }
+
+    @Benchmark
+    public Object simpleRestriction(RestrictionBenchmarkState shared) {
+        String value = SIMPLE_VALUES[shared.next(SIMPLE_VALUES.length)];
+        this.simple.preValidate(shared.state, this.simpleOption, value);
+        return value;
+    }
+
+    @Benchmark
+    public boolean simpleMatcherPerValue(RestrictionBenchmarkState shared) {
+        return this.simplePattern.matcher(SIMPLE_VALUES[shared.next(SIMPLE_VALUES.length)]).find();
+    }
+
+    @Benchmark
+    public Object complexRestriction(RestrictionBenchmarkState shared) {
+        String value = COMPLEX_VALUES[shared.next(COMPLEX_VALUES.length)];
+        this.complex.preValidate(shared.state, this.complexOption, value);
+        return value;
+    }
+
+    @Benchmark
+    public boolean complexMatcherPerValue(RestrictionBenchmarkState shared) {
+        return this.complexPattern.matcher(COMPLEX_VALUES[shared.next(COMPLEX_VALUES.length)]).find();
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks.restrictions;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.restrictions.common.RangeRestriction;
+import com.github.rvesse.airline.utils.comparators.DoubleComparator;
+import com.github.rvesse.airline.utils.comparators.IntegerComparator;
+
+/**
+ * Compares the primitive fast paths used for numeric range restrictions with
+ * the generic comparator based range restriction
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RangeRestrictionBenchmark {
+
+    private OptionMetadata intOption, doubleOption;
+    private RangeRestriction intFastPath, intComparator, doubleFastPath, doubleComparator;
+    private Integer[] ints;
+    private Double[] doubles;
+
+    @Setup
+    public void setup(RestrictionBenchmarkState shared) {
+        this.intOption = shared.getOption("--int");
+        this.doubleOption = shared.getOption("--double");
+        this.intFastPath = shared.getRestriction("--int", RangeRestriction.class);
+        this.doubleFastPath = shared.getRestriction("--double", RangeRestriction.class);
+        this.intComparator = new RangeRestriction(0, true, 100, true, new IntegerComparator());
+        this.doubleComparator = new RangeRestriction(0d, true, 1d, false, new DoubleComparator());
+
+        this.ints = new Integer[101];
+        this.doubles = new Double[100];
+        for (int i = 0; i < this.ints.length; i++) {
+            this.ints[i] = i;
+        }
+        for (int i = 0; i < this.doubles.length; i++) {
+            this.doubles[i] = i / 100d;
+        }
+    }
+
+    @Benchmark
+    public Object integerFastPath(RestrictionBenchmarkState shared) {
+        Integer value = this.ints[shared.next(this.ints.length)];
+        this.intFastPath.postValidate(shared.state, this.intOption, value);
+        return value;
+    }
+
+    @Benchmark
+    public Object integerComparator(RestrictionBenchmarkState shared) {
+        Integer value = this.ints[shared.next(this.ints.length)];
+        this.intComparator.postValidate(shared.state, this.intOption, value);
+        return value;
+    }
+
+    @Benchmark
+    public Object doubleFastPath(RestrictionBenchmarkState shared) {
+        Double value = this.doubles[shared.next(this.doubles.length)];
+        this.doubleFastPath.postValidate(shared.state, this.doubleOption, value);
+        return value;
+    }
+
+    @Benchmark
+    public Object doubleComparator(RestrictionBenchmarkState shared) {
+        Double value = this.doubles[shared.next(this.doubles.length)];
+        this.doubleComparator.postValidate(shared.state, this.doubleOption, value);
+        return value;
+    }
+}
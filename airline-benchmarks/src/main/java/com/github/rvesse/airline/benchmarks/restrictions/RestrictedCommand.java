@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks.restrictions;
+
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.Pattern;
+import com.github.rvesse.airline.annotations.restrictions.ranges.DoubleRange;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+
+/**
+ * Command used by the restriction benchmarks
+ */
+@Command(name = "restricted")
+public class RestrictedCommand {
+
+    @Option(name = "--int")
+    @IntegerRange(min = 0, max = 100)
+    public int integer;
+
+    @Option(name = "--double")
+    @DoubleRange(min = 0, max = 1, maxInclusive = false)
+    public double floatingPoint;
+
+    @Option(name = "--simple")
+    @Pattern(pattern = "^[a-z0-9_]+$")
+    public String simple;
+
+    @Option(name = "--complex")
+    @Pattern(pattern = "^[a-z]+(-[a-z]+)*$")
+    public String complex;
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks.restrictions;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+
+/**
+ * Shared state for the restriction benchmarks, provides the parser state and
+ * option meta-data that restrictions are evaluated against
+ */
+@State(Scope.Thread)
+public class RestrictionBenchmarkState {
+
+    public SingleCommand<RestrictedCommand> parser;
+    public ParseState<RestrictedCommand> state;
+
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        this.parser = SingleCommand.singleCommand(RestrictedCommand.class);
+        this.state = ParseState.<RestrictedCommand> newInstance()
+                .withConfiguration(this.parser.getParserConfiguration())
+                .withCommand(this.parser.getCommandMetadata());
+    }
+
+    /**
+     * Gets the option with the given name
+     * 
+     * @param name
+     *            Name
+     * @return Option meta-data
+     */
+    public OptionMetadata getOption(String name) {
+        for (OptionMetadata option : this.parser.getCommandMetadata().getAllOptions()) {
+            if (option.getOptions().contains(name))
+                return option;
+        }
+        throw new IllegalArgumentException("No option " + name);
+    }
+
+    /**
+     * Gets the restriction of the given type declared on the option with the
+     * given name
+     * 
+     * @param name
+     *            Name
+     * @param type
+     *            Restriction type
+     * @return Restriction
+     */
+    public <R extends OptionRestriction> R getRestriction(String name, Class<R> type) {
+        for (OptionRestriction restriction : getOption(name).getRestrictions()) {
+            if (type.isInstance(restriction))
+                return type.cast(restriction);
+        }
+        throw new IllegalArgumentException("No " + type.getSimpleName() + " on option " + name);
+    }
+
+    /**
+     * Gets the next index into a set of values of the given size, used so
+     * benchmarks cycle through several values rather than a constant
+     * 
+     * @param size
+     *            Number of values
+     * @return Next index
+     */
+    public int next(int size) {
+        this.index++;
+        if (this.index >= size)
+            this.index = 0;
+        return this.index;
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks.suggester;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.builder.CliBuilder;
+
+/**
+ * A large CLI used by the suggester benchmarks, it has {@link #GROUPS} groups
+ * each containing three commands with many options
+ */
+public class LargeCli {
+
+    /**
+     * Number of groups
+     */
+    public static final int GROUPS = 300;
+
+    public static abstract class BaseCommand implements Runnable {
+        @Option(name = { "-v", "--verbose" }, type = OptionType.GLOBAL)
+        public boolean verbose;
+
+        @Option(name = { "-q", "--quiet" }, type = OptionType.GLOBAL)
+        public boolean quiet;
+
+        @Option(name = "--config")
+        public String config;
+
+        @Option(name = "--output")
+        public String output;
+
+        @Option(name = "--format")
+        public String format;
+
+        @Option(name = "--timeout")
+        public int timeout;
+
+        @Option(name = "--retries")
+        public int retries;
+
+        @Option(name = "--dry-run")
+        public boolean dryRun;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Command(name = "create")
+    public static class Create extends BaseCommand {
+        @Option(name = "--name")
+        public String name;
+
+        @Option(name = "--labels")
+        public List<String> labels;
+
+        @Arguments
+        public List<String> arguments = new ArrayList<String>();
+    }
+
+    @Command(name = "delete")
+    public static class Delete extends BaseCommand {
+        @Option(name = "--force")
+        public boolean force;
+
+        @Arguments
+        public List<String> arguments = new ArrayList<String>();
+    }
+
+    @Command(name = "list")
+    public static class ListResources extends BaseCommand {
+        @Option(name = "--all")
+        public boolean all;
+
+        @Option(name = "--sort")
+        public String sort;
+    }
+
+    /**
+     * Creates the CLI
+     * 
+     * @return CLI
+     */
+    public static Cli<Runnable> create() {
+        return create(GROUPS);
+    }
+
+    /**
+     * Creates the CLI with the given number of groups, the CLI has three
+     * top level commands plus three commands per group
+     * 
+     * @param groups
+     *            Number of groups
+     * @return CLI
+     */
+    @SuppressWarnings("unchecked")
+    public static Cli<Runnable> create(int groups) {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("large").withCommands(Create.class, Delete.class,
+                ListResources.class);
+        for (int i = 0; i < groups; i++) {
+            builder.withGroup("group" + i).withCommands(Create.class, Delete.class, ListResources.class);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks.suggester;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.Context;
+import com.github.rvesse.airline.help.suggester.CommandSuggester;
+import com.github.rvesse.airline.help.suggester.GlobalSuggester;
+import com.github.rvesse.airline.help.suggester.GroupSuggester;
+import com.github.rvesse.airline.help.suggester.Suggester;
+import com.github.rvesse.airline.help.suggester.SuggestionEngine;
+import com.github.rvesse.airline.help.suggester.Suggesters;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.ParserUtil;
+import com.github.rvesse.airline.parser.suggester.SuggestionParser;
+
+/**
+ * Issues {@link #REQUESTS} suggestion requests against a large CLI comparing
+ * creating and injecting a suggester for every request, as
+ * {@code SuggestCommand} used to, against reusing cached suggester meta-data,
+ * reusing singleton stateless suggesters and the {@link SuggestionEngine}
+ * <p>
+ * Requests are a random mix of global, group and command contexts. The
+ * suggester benchmarks use pre-parsed states so they only measure producing
+ * the suggestions, the engine benchmark includes parsing the input.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SuggesterBenchmark {
+
+    /**
+     * Number of requests per invocation
+     */
+    public static final int REQUESTS = 100000;
+
+    private static final int DISTINCT_REQUESTS = 1000;
+
+    private final Map<Context, Class<? extends Suggester>> suggesters = new EnumMap<>(Context.class);
+    private GlobalMetadata<Runnable> metadata;
+    private List<List<String>> inputs;
+    private List<ParseState<Runnable>> states;
+    private SuggestionEngine<Runnable> engine;
+
+    @Setup
+    public void setup() {
+        this.suggesters.put(Context.GLOBAL, GlobalSuggester.class);
+        this.suggesters.put(Context.GROUP, GroupSuggester.class);
+        this.suggesters.put(Context.COMMAND, CommandSuggester.class);
+
+        this.metadata = LargeCli.create().getMetadata();
+        this.engine = new SuggestionEngine<Runnable>(this.metadata);
+
+        String[] commands = { "create", "delete", "list" };
+        Random random = new Random(1234);
+        this.inputs = new ArrayList<List<String>>();
+        this.states = new ArrayList<ParseState<Runnable>>();
+        SuggestionParser<Runnable> parser = new SuggestionParser<Runnable>();
+        for (int i = 0; i < DISTINCT_REQUESTS; i++) {
+            List<String> input;
+            switch (random.nextInt(3)) {
+            case 0:
+                input = Collections.<String> emptyList();
+                break;
+            case 1:
+                input = Arrays.asList("group" + random.nextInt(LargeCli.GROUPS));
+                break;
+            default:
+                input = Arrays.asList("group" + random.nextInt(LargeCli.GROUPS), commands[random.nextInt(3)],
+                        "--verbose");
+                break;
+            }
+            this.inputs.add(input);
+            this.states.add(parser.parse(this.metadata, input));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void reflective_per_request(Blackhole blackhole) {
+        for (int i = 0; i < REQUESTS; i++) {
+            ParseState<Runnable> state = this.states.get(i % DISTINCT_REQUESTS);
+            Class<? extends Suggester> suggesterClass = this.suggesters.get(state.getLocation());
+
+            // Meta-data loaded and bindings copied for every request
+            Map<Class<?>, Object> bindings = new HashMap<Class<?>, Object>();
+            bindings.put(GlobalMetadata.class, this.metadata);
+            if (state.getGroup() != null)
+                bindings.put(CommandGroupMetadata.class, state.getGroup());
+            if (state.getCommand() != null)
+                bindings.put(CommandMetadata.class, state.getCommand());
+            Suggester suggester = ParserUtil.createInstance(suggesterClass,
+                    Collections.<OptionMetadata> emptyList(), null, null, null,
+                    loadInjections(suggesterClass),
+                    Collections.unmodifiableMap(new HashMap<Class<?>, Object>(bindings)));
+            blackhole.consume(suggester.suggest());
+        }
+    }
+
+    /**
+     * Discovers the injected fields of a class by reflection as loading
+     * suggester meta-data does
+     */
+    private static List<Accessor> loadInjections(Class<?> type) {
+        List<Accessor> injections = new ArrayList<Accessor>();
+        for (Class<?> cls = type; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+            for (Field field : cls.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Inject.class)) {
+                    field.setAccessible(true);
+                    injections.add(new Accessor(field));
+                }
+            }
+        }
+        return injections;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void cached_metadata(Blackhole blackhole) {
+        for (int i = 0; i < REQUESTS; i++) {
+            ParseState<Runnable> state = this.states.get(i % DISTINCT_REQUESTS);
+            blackhole.consume(Suggesters.createInstance(this.suggesters.get(state.getLocation()), state).suggest());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void stateless_singleton(Blackhole blackhole) {
+        for (int i = 0; i < REQUESTS; i++) {
+            ParseState<Runnable> state = this.states.get(i % DISTINCT_REQUESTS);
+            blackhole.consume(Suggesters.suggest(this.suggesters.get(state.getLocation()), state));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void suggestion_engine(Blackhole blackhole) {
+        for (int i = 0; i < REQUESTS; i++) {
+            blackhole.consume(this.engine.suggest(this.inputs.get(i % DISTINCT_REQUESTS)));
+        }
+    }
+}
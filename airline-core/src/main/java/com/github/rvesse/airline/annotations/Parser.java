@@ -224,4 +224,20 @@ public @interface Parser {
      * @return Flag negation prefix
      */
     String flagNegationPrefix() default "";
+
+    /**
+     * Sets the number of threads used to validate restrictions once parsing
+     * has completed
+     * <p>
+     * When greater than 1 independent restrictions, i.e. global restrictions,
+     * arguments restrictions and the restrictions of each option, are
+     * validated in parallel. Errors are still reported to the error handler in
+     * the same order as sequential validation. This is intended for commands
+     * with many restricted options or expensive restrictions such as
+     * {@link com.github.rvesse.airline.annotations.restrictions.Path}.
+     * </p>
+     * 
+     * @return Validation parallelism
+     */
+    int validationParallelism() default 1;
 }
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.annotations.help;
+
+import static java.lang.annotation.ElementType.FIELD;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import com.github.rvesse.airline.help.suggester.ValueSuggester;
+
+/**
+ * Annotates an option or arguments field with the {@link ValueSuggester} used
+ * to suggest values for it when completing
+ * <p>
+ * Fields without this annotation have their values suggested from their type
+ * and restrictions where possible e.g. enum constants and
+ * {@code @AllowedValues}.
+ * </p>
+ * 
+ */
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Target({ FIELD })
+@Documented
+public @interface ValueSuggestions {
+
+    /**
+     * Sets the value suggester, this must have a public no-argument
+     * constructor
+     * 
+     * @return Value suggester class
+     */
+    Class<? extends ValueSuggester> suggester();
+
+    /**
+     * Sets how long suggestions are cached for, zero or less disables caching
+     * <p>
+     * Once cached suggestions are older than this they continue to be used
+     * while they are refreshed in the background so slow suggesters do not
+     * block completion.
+     * </p>
+     * 
+     * @return Cache time to live
+     */
+    long cacheTtl() default 0;
+
+    /**
+     * Sets the units for {@link #cacheTtl()}
+     * 
+     * @return Cache time to live units
+     */
+    TimeUnit cacheTtlUnit() default TimeUnit.SECONDS;
+}
@@ -42,6 +42,14 @@ public @interface Version {
      * Sources are loaded using {@link Properties#load(java.io.InputStream)}
      * which supports either normal Java properties format (key value pairs
      * separated by {@code =} with one per line) or Java Manifest files.
+     * Alternatively a path of the form {@code manifest:<class>} uses the
+     * standard {@code Implementation-*} and {@code Specification-*} attributes
+     * from the manifest of the JAR the given class was loaded from, these are
+     * already held in memory so no further reads are needed.
+     * </p>
+     * <p>
+     * Sources are not read until the version information is first rendered
+     * and are cached for the lifetime of the process.
      * </p>
      * 
      * @return
@@ -63,4 +63,34 @@ public @interface Path {
      * @return Expected file kind
      */
     public PathKind kind() default PathKind.ANY;
+
+    /**
+     * Gets/Sets whether validation should be deferred until parsing has
+     * completed
+     * <p>
+     * When deferred all values are validated together which allows file system
+     * lookups for common ancestor directories to be shared between values,
+     * this is useful when many paths are passed to a single option or
+     * arguments.
+     * </p>
+     * 
+     * @return True if validation is deferred, false otherwise
+     */
+    public boolean deferred() default false;
+
+    /**
+     * Gets/Sets the maximum number of threads used to validate values when
+     * validation is {@link #deferred()}
+     * <p>
+     * Values less than or equal to 1 mean values are validated on the parsing
+     * thread. Validating in parallel may substantially reduce validation time
+     * for large numbers of paths on network file systems. Parallel validation
+     * uses the parsers validation executor so only happens when the parser is
+     * configured for parallel validation e.g. via
+     * {@code ParserBuilder.withParallelValidation()}.
+     * </p>
+     * 
+     * @return Maximum number of threads
+     */
+    public int parallelism() default 1;
 }
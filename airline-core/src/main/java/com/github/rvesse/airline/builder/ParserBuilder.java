@@ -20,10 +20,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
 import com.github.rvesse.airline.CommandFactory;
 import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.model.AliasMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.aliases.AliasTable;
+import com.github.rvesse.airline.parser.aliases.CachingUserAliasesSource;
+import com.github.rvesse.airline.parser.aliases.MappedUserAliasesSource;
 import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
 import com.github.rvesse.airline.parser.options.ClassicGetOptParser;
@@ -52,6 +57,8 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
     protected String argsSeparator, flagNegationPrefix;
     protected UserAliasesSource<C> userAliases;
     protected ParserErrorHandler errorHandler;
+    protected int validationParallelism = 1;
+    protected ExecutorService validationExecutor;
 
     public static <T> ParserMetadata<T> defaultConfiguration() {
         return new ParserBuilder<T>().build();
@@ -192,6 +199,27 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         return this;
     }
 
+    /**
+     * Reads in user aliases from the given source
+     * <p>
+     * This allows using alternative implementations of
+     * {@link UserAliasesSource} e.g. a {@link CachingUserAliasesSource} which
+     * only re-reads configuration files that have changed when the same source
+     * is used to build many parsers or a {@link MappedUserAliasesSource} which
+     * only decodes the aliases that are actually used. See
+     * {@link #withUserAliases(String, String, String...)} for details of the
+     * configuration format.
+     * </p>
+     * 
+     * @param source
+     *            User aliases source
+     * @return Builder
+     */
+    public ParserBuilder<C> withUserAliases(UserAliasesSource<C> source) {
+        this.userAliases = source;
+        return this;
+    }
+
     public ParserBuilder<C> withAliasesOverridingBuiltIns() {
         this.aliasesOverrideBuiltIns = true;
         return this;
@@ -255,6 +283,60 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         return this;
     }
 
+    /**
+     * Configures the parser to validate independent restrictions in parallel
+     * once parsing has completed using a pool of the given number of threads
+     * <p>
+     * Errors are still passed to the error handler in the same order that
+     * sequential validation would produce, this is intended for commands with
+     * large numbers of restricted options or expensive restrictions such as
+     * {@code @Path}
+     * </p>
+     * 
+     * @param parallelism
+     *            Number of threads, values less than or equal to 1 disable
+     *            parallel validation
+     * @return Builder
+     */
+    public ParserBuilder<C> withParallelValidation(int parallelism) {
+        this.validationParallelism = parallelism;
+        this.validationExecutor = null;
+        return this;
+    }
+
+    /**
+     * Configures the parser to validate independent restrictions in parallel
+     * once parsing has completed using the given executor
+     * <p>
+     * The executor is not shut down by the parser, errors are still passed to
+     * the error handler in the same order that sequential validation would
+     * produce
+     * </p>
+     * 
+     * @param executor
+     *            Executor
+     * @return Builder
+     */
+    public ParserBuilder<C> withParallelValidation(ExecutorService executor) {
+        if (executor == null)
+            throw new NullPointerException("executor cannot be null");
+        this.validationParallelism = Runtime.getRuntime().availableProcessors();
+        this.validationExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Configures the parser to validate restrictions sequentially, this is the
+     * default behaviour
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withSequentialValidation() {
+        this.validationParallelism = 1;
+        this.validationExecutor = null;
+        return this;
+    }
+
     /**
      * Configures the CLI to use the given option parser
      * <p>
@@ -378,7 +460,7 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         // These may override explicitly defined aliases
         if (this.userAliases != null) {
             try {
-                for (AliasMetadata alias : this.userAliases.load()) {
+                for (AliasMetadata alias : this.userAliases.loadForParser()) {
                     aliases.put(alias.getName(), new AliasBuilder<C>(alias.getName())
                             .withArguments(alias.getArguments().toArray(new String[alias.getArguments().size()])));
                 }
@@ -403,8 +485,16 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         }
         typeConverter.setNumericConverter(this.numericTypeConverter);
 
+        // User aliases sources compile the aliases, they may cache the
+        // compiled aliases or look up aliases on demand
+        AliasTable aliasTable = null;
+        if (this.userAliases != null) {
+            aliasTable = this.userAliases.getAliasTable(aliasData, aliasesMayChain);
+        }
+
         return new ParserMetadata<C>(commandFactory, optionParsers, typeConverter, errorHandler,
                 allowAbbreviatedCommands, allowAbbreviatedOptions, aliasData, userAliases, aliasesOverrideBuiltIns,
-                aliasesMayChain, argsSeparator, flagNegationPrefix);
+                aliasesMayChain, argsSeparator, flagNegationPrefix, validationParallelism, validationExecutor,
+                aliasTable);
     }
 }
\ No newline at end of file
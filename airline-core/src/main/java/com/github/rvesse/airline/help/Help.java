@@ -43,6 +43,8 @@ import java.util.concurrent.Callable;
 
 @Command(name = "help", description = "Display help information")
 public class Help<T> implements Runnable, Callable<Void> {
+    private static final int COLUMNS = 79;
+
     @Inject
     public GlobalMetadata<T> global;
 
@@ -113,8 +115,16 @@ public class Help<T> implements Runnable, Callable<Void> {
      *            Output stream
      * @throws IOException
      */
-    public static void help(CommandMetadata command, boolean includeHidden, OutputStream out) throws IOException {
-        new CliCommandUsageGenerator(includeHidden).usage(null, null, command.getName(), command, null, out);
+    public static void help(final CommandMetadata command, final boolean includeHidden, OutputStream out)
+            throws IOException {
+        HelpCache.getDefault().write(command, CliCommandUsageGenerator.class, includeHidden, COLUMNS, null,
+                new HelpCache.Renderer() {
+                    @Override
+                    public void render(OutputStream out) throws IOException {
+                        new CliCommandUsageGenerator(COLUMNS, includeHidden).usage(null, null, command.getName(),
+                                command, null, out);
+                    }
+                }, out);
     }
 
     /**
@@ -164,6 +174,10 @@ public class Help<T> implements Runnable, Callable<Void> {
 
     /**
      * Displays plain text format program help to the given output stream
+     * <p>
+     * Rendered help is cached in the {@link HelpCache#getDefault()} cache so
+     * repeatedly requesting the same help only renders it once
+     * </p>
      * 
      * @param global
      *            Program meta-data
@@ -173,10 +187,17 @@ public class Help<T> implements Runnable, Callable<Void> {
      *            Output Stream
      * @throws IOException
      */
-    public static <T> void help(GlobalMetadata<T> global, List<String> commandNames, boolean includeHidden,
-            OutputStream out) throws IOException {
+    public static <T> void help(final GlobalMetadata<T> global, List<String> commandNames,
+            final boolean includeHidden, OutputStream out) throws IOException {
+        HelpCache cache = HelpCache.getDefault();
         if (commandNames.isEmpty()) {
-            new CliGlobalUsageSummaryGenerator<T>(includeHidden).usage(global, out);
+            cache.write(global, CliGlobalUsageSummaryGenerator.class, includeHidden, COLUMNS, null,
+                    new HelpCache.Renderer() {
+                        @Override
+                        public void render(OutputStream out) throws IOException {
+                            new CliGlobalUsageSummaryGenerator<T>(COLUMNS, includeHidden).usage(global, out);
+                        }
+                    }, out);
             return;
         }
 
@@ -185,7 +206,13 @@ public class Help<T> implements Runnable, Callable<Void> {
         // Main program?
         if (name.equals(global.getName())) {
             // Main program help
-            new CliGlobalUsageGenerator<T>(includeHidden).usage(global, out);
+            cache.write(global, CliGlobalUsageGenerator.class, includeHidden, COLUMNS, null,
+                    new HelpCache.Renderer() {
+                        @Override
+                        public void render(OutputStream out) throws IOException {
+                            new CliGlobalUsageGenerator<T>(COLUMNS, includeHidden).usage(global, out);
+                        }
+                    }, out);
             return;
         }
 
@@ -199,17 +226,15 @@ public class Help<T> implements Runnable, Callable<Void> {
         //@formatter:on
 
         // A command in a group?
-        CommandMetadata command;
         CommandGroupMetadata group = CollectionUtils.find(global.getCommandGroups(), findGroupPredicate);
         if (group != null) {
-            List<CommandGroupMetadata> groupPath = new ArrayList<CommandGroupMetadata>();
+            final List<CommandGroupMetadata> groupPath = new ArrayList<CommandGroupMetadata>();
             groupPath.add(group);
 
             // General group help or specific group command help?
             if (commandNames.size() == 1) {
                 // General group help
-                new CliCommandGroupUsageGenerator<T>(includeHidden).usage(global,
-                        groupPath.toArray(new CommandGroupMetadata[0]), out);
+                groupHelp(cache, global, groupPath, includeHidden, out);
                 return;
             } else {
                 // Group/Sub-Group command help
@@ -232,8 +257,7 @@ public class Help<T> implements Runnable, Callable<Void> {
                         i++;
                         if (i == commandNames.size()) {
                             // General sub-group help
-                            new CliCommandGroupUsageGenerator<T>(includeHidden).usage(global,
-                                    groupPath.toArray(new CommandGroupMetadata[0]), out);
+                            groupHelp(cache, global, groupPath, includeHidden, out);
                             return;
                         }
                     } else {
@@ -250,10 +274,17 @@ public class Help<T> implements Runnable, Callable<Void> {
                                        ? new AbbreviatedCommandFinder(commandOrSubGroupName, group.getCommands())
                                        : new CommandFinder(commandOrSubGroupName);
                 //@formatter:on
-                command = CollectionUtils.find(group.getCommands(), findCommandPredicate);
+                final CommandMetadata command = CollectionUtils.find(group.getCommands(), findCommandPredicate);
                 if (command != null) {
-                    new CliCommandUsageGenerator().usage(global.getName(), UsageHelper.toGroupNames(groupPath),
-                            command.getName(), command, global.getParserConfiguration(), out);
+                    final String[] groupNames = UsageHelper.toGroupNames(groupPath);
+                    cache.write(global, CliCommandUsageGenerator.class, false, COLUMNS,
+                            target(groupNames, command.getName()), new HelpCache.Renderer() {
+                                @Override
+                                public void render(OutputStream out) throws IOException {
+                                    new CliCommandUsageGenerator(COLUMNS).usage(global.getName(), groupNames,
+                                            command.getName(), command, global.getParserConfiguration(), out);
+                                }
+                            }, out);
                     return;
                 }
 
@@ -273,11 +304,19 @@ public class Help<T> implements Runnable, Callable<Void> {
                                ? new AbbreviatedCommandFinder(name, global.getDefaultGroupCommands())
                                : new CommandFinder(name);
         //@formatter:on
-        command = CollectionUtils.find(global.getDefaultGroupCommands(), findCommandPredicate);
-        if (command != null) {
+        final CommandMetadata defaultGroupCommand = CollectionUtils.find(global.getDefaultGroupCommands(),
+                findCommandPredicate);
+        if (defaultGroupCommand != null) {
             // Command in default group help
-            new CliCommandUsageGenerator(includeHidden).usage(global.getName(), null, command.getName(), command,
-                    global.getParserConfiguration(), out);
+            cache.write(global, CliCommandUsageGenerator.class, includeHidden, COLUMNS,
+                    target(null, defaultGroupCommand.getName()), new HelpCache.Renderer() {
+                        @Override
+                        public void render(OutputStream out) throws IOException {
+                            new CliCommandUsageGenerator(COLUMNS, includeHidden).usage(global.getName(), null,
+                                    defaultGroupCommand.getName(), defaultGroupCommand,
+                                    global.getParserConfiguration(), out);
+                        }
+                    }, out);
             return;
         }
 
@@ -288,4 +327,27 @@ public class Help<T> implements Runnable, Callable<Void> {
             System.out.println("Unknown command " + name);
         }
     }
+
+    private static <T> void groupHelp(HelpCache cache, final GlobalMetadata<T> global,
+            List<CommandGroupMetadata> groupPath, final boolean includeHidden, OutputStream out) throws IOException {
+        final CommandGroupMetadata[] groups = groupPath.toArray(new CommandGroupMetadata[0]);
+        cache.write(global, CliCommandGroupUsageGenerator.class, includeHidden, COLUMNS,
+                UsageHelper.toGroupNames(groupPath), new HelpCache.Renderer() {
+                    @Override
+                    public void render(OutputStream out) throws IOException {
+                        new CliCommandGroupUsageGenerator<T>(COLUMNS, includeHidden).usage(global, groups, out);
+                    }
+                }, out);
+    }
+
+    private static String[] target(String[] groupNames, String commandName) {
+        List<String> target = new ArrayList<String>();
+        if (groupNames != null) {
+            for (String groupName : groupNames) {
+                target.add(groupName);
+            }
+        }
+        target.add(commandName);
+        return target.toArray(new String[target.size()]);
+    }
 }
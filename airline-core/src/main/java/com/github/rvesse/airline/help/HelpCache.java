@@ -0,0 +1,260 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * A cache of rendered help output
+ * <p>
+ * Rendered output is cached as bytes keyed by the identity of the meta-data it
+ * was rendered from, the class of the generator used, whether hidden commands
+ * and options were included, the column width and the target of the help e.g.
+ * the group and command names. Repeatedly requesting the same help therefore
+ * only renders it once and subsequently just copies the bytes to the output.
+ * </p>
+ * <p>
+ * Entries are held weakly by their meta-data so are discarded once the
+ * meta-data is no longer in use. Since command groups may have commands and
+ * sub-groups added to them after they are created each entry also records the
+ * number of groups and commands reachable from its meta-data at the time it
+ * was rendered, as groups only ever grow this changes whenever the meta-data
+ * is changed and the stale entry is rendered again.
+ * </p>
+ */
+public final class HelpCache {
+
+    private static final HelpCache DEFAULT = new HelpCache();
+
+    private final Map<Object, Map<Key, Rendered>> cache = new WeakHashMap<Object, Map<Key, Rendered>>();
+    private long renderCount = 0;
+
+    /**
+     * Gets the default cache used by {@link Help}
+     * 
+     * @return Default cache
+     */
+    public static HelpCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Interface for rendering help to an output stream
+     */
+    public interface Renderer {
+        /**
+         * Renders the help
+         * 
+         * @param out
+         *            Output stream
+         * @throws IOException
+         *             Thrown if there is a problem generating the help
+         */
+        void render(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes help to the given output stream, rendering it only if there is
+     * no valid cached rendering for the given key
+     * 
+     * @param metadata
+     *            Meta-data the help is rendered from
+     * @param generator
+     *            Class of the help generator
+     * @param includeHidden
+     *            Whether hidden commands and options are included
+     * @param columns
+     *            Column width
+     * @param target
+     *            Target of the help e.g. group and command names, may be empty
+     * @param renderer
+     *            Renderer that renders the help when it is not cached
+     * @param out
+     *            Output stream
+     * @throws IOException
+     *             Thrown if there is a problem generating or writing the help
+     */
+    public void write(Object metadata, Class<?> generator, boolean includeHidden, int columns, String[] target,
+            Renderer renderer, OutputStream out) throws IOException {
+        out.write(get(metadata, generator, includeHidden, columns, target, renderer));
+        out.flush();
+    }
+
+    /**
+     * Gets the rendered help, rendering it only if there is no valid cached
+     * rendering for the given key
+     * 
+     * @param metadata
+     *            Meta-data the help is rendered from
+     * @param generator
+     *            Class of the help generator
+     * @param includeHidden
+     *            Whether hidden commands and options are included
+     * @param columns
+     *            Column width
+     * @param target
+     *            Target of the help e.g. group and command names, may be empty
+     * @param renderer
+     *            Renderer that renders the help when it is not cached
+     * @return Rendered help, callers must not modify this
+     * @throws IOException
+     *             Thrown if there is a problem generating the help
+     */
+    public byte[] get(Object metadata, Class<?> generator, boolean includeHidden, int columns, String[] target,
+            Renderer renderer) throws IOException {
+        if (metadata == null)
+            throw new NullPointerException("metadata cannot be null");
+        Key key = new Key(generator, includeHidden, columns, target);
+        int stamp = stamp(metadata);
+
+        synchronized (this.cache) {
+            Map<Key, Rendered> entries = this.cache.get(metadata);
+            if (entries != null) {
+                Rendered rendered = entries.get(key);
+                if (rendered != null && rendered.owner.get() == metadata && rendered.stamp == stamp)
+                    return rendered.bytes;
+            }
+        }
+
+        // Render outside of the lock so slow rendering of one help does not
+        // block others, if several threads render the same help concurrently
+        // they produce identical output so the last one in wins
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        renderer.render(buffer);
+        byte[] bytes = buffer.toByteArray();
+
+        synchronized (this.cache) {
+            Map<Key, Rendered> entries = this.cache.get(metadata);
+            if (entries == null) {
+                entries = new HashMap<Key, Rendered>();
+                this.cache.put(metadata, entries);
+            }
+            entries.put(key, new Rendered(metadata, stamp, bytes));
+            this.renderCount++;
+        }
+        return bytes;
+    }
+
+    /**
+     * Discards all cached help rendered from the given meta-data
+     * 
+     * @param metadata
+     *            Meta-data
+     */
+    public void invalidate(Object metadata) {
+        synchronized (this.cache) {
+            this.cache.remove(metadata);
+        }
+    }
+
+    /**
+     * Discards all cached help
+     */
+    public void clear() {
+        synchronized (this.cache) {
+            this.cache.clear();
+        }
+    }
+
+    /**
+     * Gets the number of times help has been rendered by this cache i.e. the
+     * number of cache misses
+     * 
+     * @return Render count
+     */
+    public long getRenderCount() {
+        synchronized (this.cache) {
+            return this.renderCount;
+        }
+    }
+
+    /**
+     * Calculates the stamp for meta-data, this changes whenever commands or
+     * sub-groups are added to any group reachable from the meta-data
+     * 
+     * @param metadata
+     *            Meta-data
+     * @return Stamp
+     */
+    private static int stamp(Object metadata) {
+        if (metadata instanceof GlobalMetadata<?>) {
+            return ((GlobalMetadata<?>) metadata).getModificationStamp();
+        } else if (metadata instanceof CommandGroupMetadata) {
+            return ((CommandGroupMetadata) metadata).getModificationStamp();
+        }
+        // Other meta-data is immutable
+        return 0;
+    }
+
+    private static final class Key {
+        private final Class<?> generator;
+        private final boolean includeHidden;
+        private final int columns;
+        private final List<String> target;
+
+        private Key(Class<?> generator, boolean includeHidden, int columns, String[] target) {
+            if (generator == null)
+                throw new NullPointerException("generator cannot be null");
+            this.generator = generator;
+            this.includeHidden = includeHidden;
+            this.columns = columns;
+            this.target = target != null ? Arrays.asList(target.clone()) : new ArrayList<String>();
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = this.generator.hashCode();
+            hash = 31 * hash + (this.includeHidden ? 1 : 0);
+            hash = 31 * hash + this.columns;
+            return 31 * hash + this.target.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return this.generator == other.generator && this.includeHidden == other.includeHidden
+                    && this.columns == other.columns && this.target.equals(other.target);
+        }
+    }
+
+    private static final class Rendered {
+        private final WeakReference<Object> owner;
+        private final int stamp;
+        private final byte[] bytes;
+
+        private Rendered(Object owner, int stamp, byte[] bytes) {
+            this.owner = new WeakReference<Object>(owner);
+            this.stamp = stamp;
+            this.bytes = bytes;
+        }
+    }
+}
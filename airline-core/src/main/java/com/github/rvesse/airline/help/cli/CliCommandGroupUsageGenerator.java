@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.util.*;
 
 import com.github.rvesse.airline.help.UsageHelper;
+import com.github.rvesse.airline.help.common.Fingerprint;
 import com.github.rvesse.airline.help.common.AbstractPrintedCommandGroupUsageGenerator;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.io.printers.UsagePrinter;
@@ -144,7 +145,6 @@ public class CliCommandGroupUsageGenerator<T> extends AbstractPrintedCommandGrou
         boolean hasDefaultCommand = group.getDefaultCommand() != null;
 
         List<OptionMetadata> commonGroupOptions = null;
-        String commonGroupArgs = null;
         List<String> allCommandNames = new ArrayList<>();
         List<String> groupNames = new ArrayList<>();
         boolean hasCommandSpecificOptions = false, hasCommandSpecificArgs = false;
@@ -157,15 +157,13 @@ public class CliCommandGroupUsageGenerator<T> extends AbstractPrintedCommandGrou
             if (commonGroupOptions == null) {
                 commonGroupOptions = new ArrayList<>(command.getCommandOptions());
             }
-            if (commonGroupArgs == null) {
-                commonGroupArgs = (command.getArguments() != null ? toUsage(command.getArguments()) : "");
-            }
 
             commonGroupOptions.retainAll(command.getCommandOptions());
             if (command.getCommandOptions().size() > commonGroupOptions.size()) {
                 hasCommandSpecificOptions = true;
             }
-            if (commonGroupArgs != (command.getArguments() != null ? toUsage(command.getArguments()) : "")) {
+            if (command.getArguments() != null) {
+                // Arguments are always listed per command
                 hasCommandSpecificArgs = true;
             }
         }
@@ -317,4 +315,10 @@ public class CliCommandGroupUsageGenerator<T> extends AbstractPrintedCommandGrou
         }
         out.append(" - ").append(group.getDescription()).newline().newline();
     }
+
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.add(this.hideGlobalOptions);
+    }
 }
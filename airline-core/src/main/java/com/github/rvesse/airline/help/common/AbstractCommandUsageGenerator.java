@@ -121,6 +121,16 @@ public abstract class AbstractCommandUsageGenerator extends AbstractUsageGenerat
      */
     protected void findHelpSections(CommandMetadata command, List<HelpSection> preSections,
             List<HelpSection> postSections) {
+        HelpModel model = getModel(command);
+        if (model != null) {
+            List<HelpSection> pre = model.getPreSections(command);
+            List<HelpSection> post = model.getPostSections(command);
+            if (pre != null && post != null) {
+                preSections.addAll(pre);
+                postSections.addAll(post);
+                return;
+            }
+        }
         for (HelpSection section : command.getHelpSections()) {
             if (section.suggestedOrder() < 0) {
                 preSections.add(section);
@@ -132,4 +142,10 @@ public abstract class AbstractCommandUsageGenerator extends AbstractUsageGenerat
         Collections.sort(preSections, comparator);
         Collections.sort(postSections, comparator);
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.add(this.exitCodeComparator != null ? this.exitCodeComparator.getClass() : null);
+    }
+}
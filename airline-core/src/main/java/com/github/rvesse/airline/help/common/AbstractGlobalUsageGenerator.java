@@ -74,4 +74,10 @@ public abstract class AbstractGlobalUsageGenerator<T> extends AbstractUsageGener
         }
         return groups;
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.add(this.commandGroupComparator != null ? this.commandGroupComparator.getClass() : null);
+    }
+}
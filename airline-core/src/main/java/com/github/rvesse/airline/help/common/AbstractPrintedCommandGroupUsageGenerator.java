@@ -73,9 +73,15 @@ public abstract class AbstractPrintedCommandGroupUsageGenerator<T> extends Abstr
 
     @Override
     public void usage(GlobalMetadata<T> global, CommandGroupMetadata[] groups, OutputStream out) throws IOException {
+        useHelpModel(global);
         UsagePrinter printer = createUsagePrinter(out);
         usage(global, groups, printer);
         printer.flush();
     }
 
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.add(this.columnSize);
+    }
 }
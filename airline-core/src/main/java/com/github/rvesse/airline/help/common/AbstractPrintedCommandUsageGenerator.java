@@ -76,6 +76,7 @@ public abstract class AbstractPrintedCommandUsageGenerator extends AbstractComma
     @Override
     public <T> void usage(String programName, String[] groupNames, String commandName, CommandMetadata command,
             ParserMetadata<T> parserConfig, OutputStream out) throws IOException {
+        useHelpModel(command);
         UsagePrinter printer = createUsagePrinter(out);
         if (parserConfig == null) {
             parserConfig = MetadataLoader.loadParser(command.getType());
@@ -84,4 +85,9 @@ public abstract class AbstractPrintedCommandUsageGenerator extends AbstractComma
         printer.flush();
     }
 
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.add(this.columnSize);
+    }
 }
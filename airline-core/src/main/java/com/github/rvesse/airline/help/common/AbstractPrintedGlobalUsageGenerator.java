@@ -70,9 +70,15 @@ public abstract class AbstractPrintedGlobalUsageGenerator<T> extends AbstractGlo
 
     @Override
     public void usage(GlobalMetadata<T> global, OutputStream out) throws IOException {
+        useHelpModel(global);
         UsagePrinter printer = createUsagePrinter(out);
         usage(global, printer);
         printer.flush();
     }
 
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.add(this.columns);
+    }
 }
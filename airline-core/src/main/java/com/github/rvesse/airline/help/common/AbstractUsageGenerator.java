@@ -15,6 +15,9 @@
  */
 package com.github.rvesse.airline.help.common;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -28,6 +31,7 @@ import com.github.rvesse.airline.help.UsageHelper;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
@@ -39,6 +43,43 @@ public class AbstractUsageGenerator {
     private final Comparator<? super OptionMetadata> optionComparator;
     private final Comparator<? super CommandMetadata> commandComparator;
     private final boolean includeHidden;
+    private final HelpModel.Settings settings;
+    private volatile HelpModel model;
+
+    /**
+     * Records which of the formatting methods a generator class overrides,
+     * results cached in a {@link HelpModel} are only used for methods that are
+     * not overridden
+     */
+    private static final ClassValue<Overrides> OVERRIDES = new ClassValue<Overrides>() {
+        @Override
+        protected Overrides computeValue(Class<?> type) {
+            return new Overrides(type);
+        }
+    };
+
+    private static final class Overrides {
+        private final boolean optionUsage, argumentsUsage, optionDescription, argumentsDescription;
+
+        private Overrides(Class<?> type) {
+            this.optionDescription = overrides(type, "toDescription", OptionMetadata.class);
+            this.argumentsDescription = overrides(type, "toDescription", ArgumentsMetadata.class);
+            this.optionUsage = overrides(type, "toUsage", OptionMetadata.class);
+            this.argumentsUsage = this.argumentsDescription || overrides(type, "toUsage", ArgumentsMetadata.class);
+        }
+
+        private static boolean overrides(Class<?> type, String method, Class<?> parameterType) {
+            for (Class<?> cls = type; cls != AbstractUsageGenerator.class; cls = cls.getSuperclass()) {
+                try {
+                    cls.getDeclaredMethod(method, parameterType);
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // Not declared at this level, check the super class
+                }
+            }
+            return false;
+        }
+    }
 
     public AbstractUsageGenerator() {
         this(UsageHelper.DEFAULT_HINT_COMPARATOR, UsageHelper.DEFAULT_OPTION_COMPARATOR,
@@ -48,10 +89,78 @@ public class AbstractUsageGenerator {
     public AbstractUsageGenerator(Comparator<? super HelpHint> hintComparator,
             Comparator<? super OptionMetadata> optionComparator, Comparator<? super CommandMetadata> commandComparator,
             boolean includeHidden) {
+        this(hintComparator, optionComparator, commandComparator, includeHidden, true);
+    }
+
+    AbstractUsageGenerator(Comparator<? super HelpHint> hintComparator,
+            Comparator<? super OptionMetadata> optionComparator, Comparator<? super CommandMetadata> commandComparator,
+            boolean includeHidden, boolean useModels) {
         this.hintComparator = hintComparator;
         this.optionComparator = optionComparator;
         this.commandComparator = commandComparator;
         this.includeHidden = includeHidden;
+        this.settings = useModels
+                ? new HelpModel.Settings(hintComparator, optionComparator, commandComparator, includeHidden) : null;
+    }
+
+    /**
+     * Selects the help model for a CLI, building it if necessary, so that the
+     * analysis methods of this generator use the model
+     * <p>
+     * Global generators should call this at the start of generating help,
+     * this is done automatically by the {@code usage()} implementations of the
+     * abstract generators.
+     * </p>
+     * 
+     * @param global
+     *            Global meta-data
+     * @return Help model
+     */
+    protected final HelpModel useHelpModel(GlobalMetadata<?> global) {
+        if (this.settings == null || global == null)
+            return null;
+        // Always go via the registry so a stale model is rebuilt
+        HelpModel current = HelpModel.get(global, this.settings);
+        this.model = current;
+        return current;
+    }
+
+    /**
+     * Selects the help model for a command, if the command is part of a CLI
+     * that already has a model then that model is used, otherwise a model for
+     * just the command is built if necessary
+     * 
+     * @param command
+     *            Command meta-data
+     * @return Help model
+     */
+    protected final HelpModel useHelpModel(CommandMetadata command) {
+        if (this.settings == null || command == null)
+            return null;
+        HelpModel current = this.model;
+        if (current == null || !current.contains(command)) {
+            current = HelpModel.get(command, this.settings);
+            this.model = current;
+        }
+        return current;
+    }
+
+    /**
+     * Gets the help model selected by {@link #useHelpModel(GlobalMetadata)} or
+     * {@link #useHelpModel(CommandMetadata)} if it contains entries for the
+     * given key
+     * 
+     * @param key
+     *            Meta-data or list of meta-data
+     * @return Help model, or {@code null} if none available
+     */
+    final HelpModel getModel(Object key) {
+        HelpModel current = this.model;
+        return current != null && current.contains(key) ? current : null;
+    }
+
+    private Overrides getOverrides() {
+        return OVERRIDES.get(getClass());
     }
 
     /**
@@ -80,6 +189,12 @@ public class AbstractUsageGenerator {
      * @return Sorted options
      */
     protected List<OptionMetadata> sortOptions(List<OptionMetadata> options) {
+        HelpModel current = getModel(options);
+        if (current != null) {
+            List<OptionMetadata> cached = current.getSortedOptions(options);
+            if (cached != null)
+                return cached;
+        }
         if (optionComparator != null) {
             options = new ArrayList<OptionMetadata>(options);
             Collections.sort(options, optionComparator);
@@ -88,6 +203,12 @@ public class AbstractUsageGenerator {
     }
 
     protected List<HelpHint> sortOptionRestrictions(List<OptionRestriction> restrictions) {
+        HelpModel current = getModel(restrictions);
+        if (current != null) {
+            List<HelpHint> cached = current.getHelpHints(restrictions);
+            if (cached != null)
+                return cached;
+        }
         List<HelpHint> hints = new ArrayList<>();
         for (OptionRestriction restriction : restrictions) {
             if (restriction instanceof HelpHint) {
@@ -101,6 +222,12 @@ public class AbstractUsageGenerator {
     }
     
     protected List<HelpHint> sortArgumentsRestrictions(List<ArgumentsRestriction> restrictions) {
+        HelpModel current = getModel(restrictions);
+        if (current != null) {
+            List<HelpHint> cached = current.getHelpHints(restrictions);
+            if (cached != null)
+                return cached;
+        }
         List<HelpHint> hints = new ArrayList<>();
         for (ArgumentsRestriction restriction : restrictions) {
             if (restriction instanceof HelpHint) {
@@ -122,6 +249,12 @@ public class AbstractUsageGenerator {
      * @return Sorted commands
      */
     protected List<CommandMetadata> sortCommands(List<CommandMetadata> commands) {
+        HelpModel current = getModel(commands);
+        if (current != null) {
+            List<CommandMetadata> cached = current.getSortedCommands(commands);
+            if (cached != null)
+                return cached;
+        }
         if (commandComparator != null) {
             commands = new ArrayList<>(commands);
             Collections.sort(commands, commandComparator);
@@ -140,7 +273,65 @@ public class AbstractUsageGenerator {
     protected final String htmlize(final String value) {
         if (StringUtils.isEmpty(value))
             return "";
-        return value.replaceAll("<", "&lt;").replaceAll(">", "&gt;").replaceAll("\n", "<br/>");
+        if (findHtmlSpecial(value, 0) == -1)
+            return value;
+        StringWriter writer = new StringWriter(value.length() + 16);
+        try {
+            htmlize(writer, value);
+        } catch (IOException e) {
+            // Writing to a StringWriter never fails
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * HTMLizes a string directly into the given writer i.e. escapes HTML
+     * special characters into HTML entities and new lines into HTML line
+     * breaks
+     * <p>
+     * This produces the same output as {@link #htmlize(String)} in a single
+     * pass over the string, runs of characters that need no escaping are
+     * written as is.
+     * </p>
+     * 
+     * @param writer
+     *            Writer
+     * @param value
+     *            String to HTMLize
+     * @throws IOException
+     *             Thrown if the writer cannot be written to
+     */
+    protected final void htmlize(final Writer writer, final String value) throws IOException {
+        if (StringUtils.isEmpty(value))
+            return;
+        int start = 0;
+        int special = findHtmlSpecial(value, start);
+        while (special != -1) {
+            writer.write(value, start, special - start);
+            switch (value.charAt(special)) {
+            case '<':
+                writer.write("&lt;");
+                break;
+            case '>':
+                writer.write("&gt;");
+                break;
+            default:
+                writer.write("<br/>");
+            }
+            start = special + 1;
+            special = findHtmlSpecial(value, start);
+        }
+        writer.write(value, start, value.length() - start);
+    }
+
+    private static int findHtmlSpecial(String value, int start) {
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '<' || c == '>' || c == '\n')
+                return i;
+        }
+        return -1;
     }
 
     /**
@@ -172,6 +363,14 @@ public class AbstractUsageGenerator {
      * @return
      */
     protected List<String> toSynopsisUsage(List<OptionMetadata> options) {
+        if (!getOverrides().optionUsage) {
+            HelpModel current = getModel(options);
+            if (current != null) {
+                List<String> cached = current.getSynopsisUsage(options);
+                if (cached != null)
+                    return cached;
+            }
+        }
         List<String> synopsisOptions = new ArrayList<String>();
         for (OptionMetadata option : options) {
             if (option.isHidden() && !includeHidden)
@@ -182,6 +381,14 @@ public class AbstractUsageGenerator {
     }
 
     protected String toUsage(ArgumentsMetadata arguments) {
+        if (!getOverrides().argumentsUsage) {
+            HelpModel current = getModel(arguments);
+            if (current != null) {
+                String cached = current.getUsage(arguments);
+                if (cached != null)
+                    return cached;
+            }
+        }
         boolean required = arguments.isRequired();
         StringBuilder stringBuilder = new StringBuilder();
         if (!required) {
@@ -203,6 +410,14 @@ public class AbstractUsageGenerator {
     }
 
     protected String toUsage(OptionMetadata option) {
+        if (!getOverrides().optionUsage) {
+            HelpModel current = getModel(option);
+            if (current != null) {
+                String cached = current.getUsage(option);
+                if (cached != null)
+                    return cached;
+            }
+        }
         Set<String> options = option.getOptions();
         boolean required = option.isRequired();
         StringBuilder stringBuilder = new StringBuilder();
@@ -250,6 +465,14 @@ public class AbstractUsageGenerator {
     }
 
     protected String toDescription(ArgumentsMetadata arguments) {
+        if (!getOverrides().argumentsDescription) {
+            HelpModel current = getModel(arguments);
+            if (current != null) {
+                String cached = current.getDescription(arguments);
+                if (cached != null)
+                    return cached;
+            }
+        }
         List<String> descriptionTitles = arguments.getTitle();
         StringBuilder stringBuilder = new StringBuilder();
         for (String title : descriptionTitles) {
@@ -265,6 +488,14 @@ public class AbstractUsageGenerator {
     }
 
     protected String toDescription(OptionMetadata option) {
+        if (!getOverrides().optionDescription) {
+            HelpModel current = getModel(option);
+            if (current != null) {
+                String cached = current.getDescription(option);
+                if (cached != null)
+                    return cached;
+            }
+        }
         Set<String> options = option.getOptions();
         StringBuilder stringBuilder = new StringBuilder();
 
@@ -292,4 +523,22 @@ public class AbstractUsageGenerator {
 
         return stringBuilder.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds the settings of this generator that affect its output to a
+     * fingerprint
+     * <p>
+     * Derived generators with additional settings should override this and
+     * call the super implementation.
+     * </p>
+     * 
+     * @param fingerprint
+     *            Fingerprint
+     */
+    protected void addSettings(Fingerprint fingerprint) {
+        fingerprint.add(getClass()).add(this.includeHidden);
+        fingerprint.add(this.hintComparator != null ? this.hintComparator.getClass() : null);
+        fingerprint.add(this.optionComparator != null ? this.optionComparator.getClass() : null);
+        fingerprint.add(this.commandComparator != null ? this.commandComparator.getClass() : null);
+    }
+}
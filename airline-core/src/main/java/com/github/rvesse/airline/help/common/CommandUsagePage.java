@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.github.rvesse.airline.help.CommandUsageGenerator;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+
+/**
+ * A page containing the help for a single command generated by a
+ * {@link CommandUsageGenerator}
+ * <p>
+ * The fingerprint of the page covers the command, the parser configuration,
+ * the program and group names and the settings of the generator as given by
+ * {@link Fingerprint#addGenerator(Object)}. Any other inputs to the page should
+ * be supplied as additional settings.
+ * </p>
+ */
+public class CommandUsagePage extends MultiPageWriter.Page {
+
+    private final CommandUsageGenerator generator;
+    private final String programName;
+    private final String[] groupNames;
+    private final CommandMetadata command;
+    private final ParserMetadata<?> parserConfig;
+    private final String[] settings;
+
+    /**
+     * Creates a new page
+     * 
+     * @param file
+     *            File the page is written to
+     * @param generator
+     *            Command usage generator
+     * @param programName
+     *            Program name, may be null
+     * @param groupNames
+     *            Group names, may be null
+     * @param command
+     *            Command meta-data
+     * @param parserConfig
+     *            Parser configuration, may be null
+     * @param settings
+     *            Additional inputs that affect the output
+     */
+    public CommandUsagePage(File file, CommandUsageGenerator generator, String programName, String[] groupNames,
+            CommandMetadata command, ParserMetadata<?> parserConfig, String... settings) {
+        super(file);
+        if (generator == null)
+            throw new NullPointerException("generator cannot be null");
+        if (command == null)
+            throw new NullPointerException("command cannot be null");
+        this.generator = generator;
+        this.programName = programName;
+        this.groupNames = groupNames;
+        this.command = command;
+        this.parserConfig = parserConfig;
+        this.settings = settings;
+    }
+
+    /**
+     * Gets the program name
+     * 
+     * @return Program name, may be null
+     */
+    public String getProgramName() {
+        return this.programName;
+    }
+
+    /**
+     * Gets the group names
+     * 
+     * @return Group names, may be null
+     */
+    public String[] getGroupNames() {
+        return this.groupNames != null ? this.groupNames.clone() : null;
+    }
+
+    /**
+     * Gets the command
+     * 
+     * @return Command meta-data
+     */
+    public CommandMetadata getCommand() {
+        return this.command;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return new Fingerprint().addGenerator(this.generator).add(this.settings).add(this.programName)
+                .add(this.groupNames).add(this.command).add(this.parserConfig).complete();
+    }
+
+    @Override
+    public void render(OutputStream output) throws IOException {
+        this.generator.usage(this.programName, this.groupNames, this.command.getName(), this.command,
+                castParserConfig(), output);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ParserMetadata<T> castParserConfig() {
+        return (ParserMetadata<T>) this.parserConfig;
+    }
+}
@@ -0,0 +1,402 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.github.rvesse.airline.help.sections.HelpHint;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.model.AliasMetadata;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
+import com.github.rvesse.airline.parser.options.OptionParser;
+import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.restrictions.GlobalRestriction;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+
+/**
+ * Builds a fingerprint of the inputs to a page of documentation
+ * <p>
+ * A fingerprint is a SHA-256 hash of everything in the meta-data that help
+ * generators may include in their output e.g. names, descriptions, options,
+ * arguments, help sections and the help hints of restrictions. It does not
+ * depend on object identities so the same meta-data loaded in different
+ * processes has the same fingerprint, this allows {@link MultiPageWriter} to
+ * skip rendering pages whose inputs have not changed since they were last
+ * written.
+ * </p>
+ * <p>
+ * Settings of the help generator that affect its output must also be added to
+ * the fingerprint.
+ * </p>
+ */
+public final class Fingerprint {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final MessageDigest digest;
+
+    /**
+     * Creates a new empty fingerprint
+     */
+    public Fingerprint() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Adds a string, null and empty strings produce different fingerprints
+     * 
+     * @param value
+     *            Value
+     * @return Fingerprint
+     */
+    public Fingerprint add(String value) {
+        if (value == null) {
+            this.digest.update((byte) 0);
+            return this;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.digest.update((byte) 1);
+        add(bytes.length);
+        this.digest.update(bytes);
+        return this;
+    }
+
+    /**
+     * Adds an integer
+     * 
+     * @param value
+     *            Value
+     * @return Fingerprint
+     */
+    public Fingerprint add(int value) {
+        this.digest.update((byte) (value >>> 24));
+        this.digest.update((byte) (value >>> 16));
+        this.digest.update((byte) (value >>> 8));
+        this.digest.update((byte) value);
+        return this;
+    }
+
+    /**
+     * Adds a boolean
+     * 
+     * @param value
+     *            Value
+     * @return Fingerprint
+     */
+    public Fingerprint add(boolean value) {
+        this.digest.update((byte) (value ? 1 : 0));
+        return this;
+    }
+
+    /**
+     * Adds a class by name
+     * 
+     * @param cls
+     *            Class
+     * @return Fingerprint
+     */
+    public Fingerprint add(Class<?> cls) {
+        return add(cls != null ? cls.getName() : null);
+    }
+
+    /**
+     * Adds some strings
+     * 
+     * @param values
+     *            Values
+     * @return Fingerprint
+     */
+    public Fingerprint add(String[] values) {
+        if (values == null)
+            return add(-1);
+        add(values.length);
+        for (String value : values) {
+            add(value);
+        }
+        return this;
+    }
+
+    /**
+     * Adds some strings
+     * 
+     * @param values
+     *            Values
+     * @return Fingerprint
+     */
+    public Fingerprint addAll(Iterable<String> values) {
+        if (values == null)
+            return add(-1);
+        for (String value : values) {
+            add(value);
+        }
+        return add(-1);
+    }
+
+    /**
+     * Adds a help hint, this includes its help sections if it is also a
+     * {@link HelpSection}
+     * 
+     * @param hint
+     *            Help hint
+     * @return Fingerprint
+     */
+    public Fingerprint add(HelpHint hint) {
+        if (hint == null)
+            return add((String) null);
+        add(hint.getClass());
+        add(hint.getPreamble());
+        add(hint.getFormat() != null ? hint.getFormat().name() : null);
+        int blocks = hint.numContentBlocks();
+        add(blocks);
+        for (int i = 0; i < blocks; i++) {
+            add(hint.getContentBlock(i));
+        }
+        if (hint instanceof HelpSection) {
+            HelpSection section = (HelpSection) hint;
+            add(section.getTitle());
+            add(section.getPostamble());
+            add(section.suggestedOrder());
+        }
+        return this;
+    }
+
+    private Fingerprint addRestriction(Object restriction) {
+        if (restriction instanceof HelpHint)
+            return add((HelpHint) restriction);
+        return add(restriction != null ? restriction.getClass() : null);
+    }
+
+    /**
+     * Adds an option
+     * 
+     * @param option
+     *            Option meta-data
+     * @return Fingerprint
+     */
+    public Fingerprint add(OptionMetadata option) {
+        if (option == null)
+            return add((String) null);
+        add(option.getOptionType().name());
+        addAll(option.getOptions());
+        add(option.getTitle());
+        add(option.getDescription());
+        add(option.getArity());
+        add(option.isRequired());
+        add(option.isHidden());
+        add(option.isOverride());
+        add(option.isSealed());
+        add(option.isMultiValued());
+        add(option.getJavaType());
+        for (OptionRestriction restriction : option.getRestrictions()) {
+            addRestriction(restriction);
+        }
+        return add(-1);
+    }
+
+    /**
+     * Adds arguments
+     * 
+     * @param arguments
+     *            Arguments meta-data
+     * @return Fingerprint
+     */
+    public Fingerprint add(ArgumentsMetadata arguments) {
+        if (arguments == null)
+            return add((String) null);
+        addAll(arguments.getTitle());
+        add(arguments.getDescription());
+        add(arguments.isRequired());
+        add(arguments.isMultiValued());
+        add(arguments.getJavaType());
+        for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
+            addRestriction(restriction);
+        }
+        return add(-1);
+    }
+
+    /**
+     * Adds a command including all its options, arguments and help sections
+     * 
+     * @param command
+     *            Command meta-data
+     * @return Fingerprint
+     */
+    public Fingerprint add(CommandMetadata command) {
+        if (command == null)
+            return add((String) null);
+        add(command.getName());
+        add(command.getDescription());
+        add(command.isHidden());
+        add(command.getType());
+        addAll(command.getGroupNames());
+        addOptions(command.getGlobalOptions());
+        addOptions(command.getGroupOptions());
+        addOptions(command.getCommandOptions());
+        add(command.getDefaultOption());
+        add(command.getArguments());
+        for (HelpSection section : command.getHelpSections()) {
+            add(section);
+        }
+        return add(-1);
+    }
+
+    private Fingerprint addOptions(Iterable<OptionMetadata> options) {
+        if (options != null) {
+            for (OptionMetadata option : options) {
+                add(option);
+            }
+        }
+        return add(-1);
+    }
+
+    private Fingerprint addCommands(Iterable<CommandMetadata> commands) {
+        if (commands != null) {
+            for (CommandMetadata command : commands) {
+                add(command);
+            }
+        }
+        return add(-1);
+    }
+
+    /**
+     * Adds a command group including all its commands and sub-groups
+     * 
+     * @param group
+     *            Group meta-data
+     * @return Fingerprint
+     */
+    public Fingerprint add(CommandGroupMetadata group) {
+        if (group == null)
+            return add((String) null);
+        add(group.getName());
+        add(group.getDescription());
+        add(group.isHidden());
+        addOptions(group.getOptions());
+        add(group.getDefaultCommand());
+        addCommands(group.getCommands());
+        for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+            add(subGroup);
+        }
+        return add(-1);
+    }
+
+    /**
+     * Adds the parser configuration settings that may affect help output
+     * 
+     * @param parserConfig
+     *            Parser configuration
+     * @return Fingerprint
+     */
+    public Fingerprint add(ParserMetadata<?> parserConfig) {
+        if (parserConfig == null)
+            return add((String) null);
+        add(parserConfig.getArgumentsSeparator());
+        add(parserConfig.allowsAbbreviatedCommands());
+        add(parserConfig.allowsAbbreviatedOptions());
+        add(parserConfig.allowsFlagNegation());
+        add(parserConfig.getFlagNegationPrefix());
+        for (OptionParser<?> parser : parserConfig.getOptionParsers()) {
+            add(parser.getClass());
+        }
+        add(-1);
+        for (AliasMetadata alias : parserConfig.getAliases()) {
+            add(alias.getName());
+            addAll(alias.getArguments());
+        }
+        add(-1);
+        UserAliasesSource<?> userAliases = parserConfig.getUserAliasesSource();
+        if (userAliases == null)
+            return add((String) null);
+        add(userAliases.getFilename());
+        add(userAliases.getPrefix());
+        return addAll(userAliases.getSearchLocations());
+    }
+
+    /**
+     * Adds a CLI including all its commands, groups and parser configuration
+     * 
+     * @param global
+     *            Global meta-data
+     * @return Fingerprint
+     */
+    public Fingerprint add(GlobalMetadata<?> global) {
+        if (global == null)
+            return add((String) null);
+        add(global.getName());
+        add(global.getDescription());
+        addOptions(global.getOptions());
+        add(global.getDefaultCommand());
+        addCommands(global.getDefaultGroupCommands());
+        for (CommandGroupMetadata group : global.getCommandGroups()) {
+            add(group);
+        }
+        add(-1);
+        for (GlobalRestriction restriction : global.getRestrictions()) {
+            addRestriction(restriction);
+        }
+        add(-1);
+        return add(global.getParserConfiguration());
+    }
+
+    /**
+     * Adds the settings of a help generator that affect its output, for
+     * generators derived from {@link AbstractUsageGenerator} these are
+     * provided by {@link AbstractUsageGenerator#addSettings(Fingerprint)}
+     * otherwise only the class of the generator is added
+     * 
+     * @param generator
+     *            Help generator
+     * @return Fingerprint
+     */
+    public Fingerprint addGenerator(Object generator) {
+        if (generator instanceof AbstractUsageGenerator) {
+            ((AbstractUsageGenerator) generator).addSettings(this);
+            return this;
+        }
+        return add(generator != null ? generator.getClass() : null);
+    }
+
+    /**
+     * Completes the fingerprint, no further values should be added
+     * 
+     * @return Fingerprint as a hex string
+     */
+    public String complete() {
+        return toHex(this.digest.digest());
+    }
+
+    static String toHex(byte[] hash) {
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.github.rvesse.airline.help.GlobalUsageGenerator;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * A page containing the help for a whole CLI generated by a
+ * {@link GlobalUsageGenerator} e.g. a global man page or a completion script
+ * <p>
+ * The fingerprint of the page covers the whole CLI and the settings of the
+ * generator as given by {@link Fingerprint#addGenerator(Object)}. Any other
+ * inputs to the page should be supplied as additional settings.
+ * </p>
+ * 
+ * @param <T>
+ *            Command type
+ */
+public class GlobalUsagePage<T> extends MultiPageWriter.Page {
+
+    private final GlobalUsageGenerator<T> generator;
+    private final GlobalMetadata<T> global;
+    private final String[] settings;
+
+    /**
+     * Creates a new page
+     * 
+     * @param file
+     *            File the page is written to
+     * @param generator
+     *            Global usage generator
+     * @param global
+     *            Global meta-data
+     * @param settings
+     *            Additional inputs that affect the output
+     */
+    public GlobalUsagePage(File file, GlobalUsageGenerator<T> generator, GlobalMetadata<T> global,
+            String... settings) {
+        super(file);
+        if (generator == null)
+            throw new NullPointerException("generator cannot be null");
+        if (global == null)
+            throw new NullPointerException("global cannot be null");
+        this.generator = generator;
+        this.global = global;
+        this.settings = settings;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return new Fingerprint().addGenerator(this.generator).add(this.settings).add(this.global).complete();
+    }
+
+    @Override
+    public void render(OutputStream output) throws IOException {
+        this.generator.usage(this.global, output);
+    }
+}
@@ -0,0 +1,454 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.rvesse.airline.help.sections.HelpHint;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.utils.comparators.HelpSectionComparator;
+
+/**
+ * An immutable model of the help for a CLI or command, built once from the
+ * meta-data and shared by all the usage generators that use the same settings
+ * <p>
+ * Building the model performs the analysis that every usage generator would
+ * otherwise repeat i.e. sorting options and commands, building the usage and
+ * description strings of options and arguments, extracting and sorting the
+ * {@link HelpHint}s from restrictions and ordering the help sections of
+ * commands. When the same CLI is rendered in several formats this work is
+ * done once rather than once per format.
+ * </p>
+ * <p>
+ * Generators derived from {@link AbstractUsageGenerator} use the model
+ * automatically, the model for a CLI is built the first time a global
+ * generator renders it (or the first time a command generator renders a
+ * command that is not part of a CLI that already has a model) and the
+ * protected analysis methods of {@link AbstractUsageGenerator} look up their
+ * results in it. Entries are keyed by the identity of the meta-data objects
+ * and lists from which they were built, anything not in the model is computed
+ * as before.
+ * </p>
+ * <p>
+ * Models are attached to the meta-data they were built from, and the model for
+ * a CLI is also attached to each of its commands, so they share the lifetime of
+ * the meta-data and are found without searching.
+ * </p>
+ */
+public final class HelpModel {
+
+    private static final AtomicInteger BUILDS = new AtomicInteger();
+    private static final HelpSectionComparator SECTION_COMPARATOR = new HelpSectionComparator();
+
+    /**
+     * Settings of the generator(s) that a model is built for
+     */
+    static final class Settings {
+        private final Comparator<? super HelpHint> hintComparator;
+        private final Comparator<? super OptionMetadata> optionComparator;
+        private final Comparator<? super CommandMetadata> commandComparator;
+        private final boolean includeHidden;
+
+        Settings(Comparator<? super HelpHint> hintComparator, Comparator<? super OptionMetadata> optionComparator,
+                Comparator<? super CommandMetadata> commandComparator, boolean includeHidden) {
+            this.hintComparator = hintComparator;
+            this.optionComparator = optionComparator;
+            this.commandComparator = commandComparator;
+            this.includeHidden = includeHidden;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Settings))
+                return false;
+            Settings other = (Settings) obj;
+            return this.hintComparator == other.hintComparator && this.optionComparator == other.optionComparator
+                    && this.commandComparator == other.commandComparator
+                    && this.includeHidden == other.includeHidden;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(this.hintComparator);
+            hash = 31 * hash + System.identityHashCode(this.optionComparator);
+            hash = 31 * hash + System.identityHashCode(this.commandComparator);
+            return 31 * hash + (this.includeHidden ? 1 : 0);
+        }
+    }
+
+    private final int stamp;
+    private final Map<Object, Boolean> keys = new IdentityHashMap<Object, Boolean>();
+    private final Map<List<?>, List<?>> sorted = new IdentityHashMap<List<?>, List<?>>();
+    private final Map<List<OptionMetadata>, List<String>> synopses = new IdentityHashMap<List<OptionMetadata>, List<String>>();
+    private final Map<List<?>, List<HelpHint>> hints = new IdentityHashMap<List<?>, List<HelpHint>>();
+    private final Map<Object, String> usages = new IdentityHashMap<Object, String>();
+    private final Map<Object, String> descriptions = new IdentityHashMap<Object, String>();
+    private final Map<CommandMetadata, List<HelpSection>> preSections = new IdentityHashMap<CommandMetadata, List<HelpSection>>();
+    private final Map<CommandMetadata, List<HelpSection>> postSections = new IdentityHashMap<CommandMetadata, List<HelpSection>>();
+
+    private HelpModel(Object root, Settings settings) {
+        this.stamp = stamp(root);
+
+        // Analysis is done with the default implementations of the analysis
+        // methods
+        Analyzer analyzer = new Analyzer(settings);
+        if (root instanceof GlobalMetadata) {
+            GlobalMetadata<?> global = (GlobalMetadata<?>) root;
+            addOptions(analyzer, global.getOptions());
+            addCommands(analyzer, global.getDefaultGroupCommands());
+            for (CommandGroupMetadata group : global.getCommandGroups()) {
+                addGroup(analyzer, group);
+            }
+        } else {
+            addCommand(analyzer, (CommandMetadata) root);
+        }
+        BUILDS.incrementAndGet();
+    }
+
+    /**
+     * Analyzer that computes the model entries, this is an
+     * {@link AbstractUsageGenerator} that does not itself use models
+     */
+    private static final class Analyzer extends AbstractUsageGenerator {
+        private Analyzer(Settings settings) {
+            super(settings.hintComparator, settings.optionComparator, settings.commandComparator,
+                    settings.includeHidden, false);
+        }
+    }
+
+    private void addGroup(Analyzer analyzer, CommandGroupMetadata group) {
+        addOptions(analyzer, group.getOptions());
+        addCommands(analyzer, group.getCommands());
+        addKey(group.getSubGroups());
+        for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+            addGroup(analyzer, subGroup);
+        }
+    }
+
+    private void addCommands(Analyzer analyzer, List<CommandMetadata> commands) {
+        addKey(commands);
+        this.sorted.put(commands, Collections.unmodifiableList(analyzer.sortCommands(commands)));
+        for (CommandMetadata command : commands) {
+            addCommand(analyzer, command);
+        }
+    }
+
+    private void addCommand(Analyzer analyzer, CommandMetadata command) {
+        if (this.preSections.containsKey(command))
+            return;
+        addKey(command);
+
+        List<HelpSection> pre = new ArrayList<HelpSection>();
+        List<HelpSection> post = new ArrayList<HelpSection>();
+        for (HelpSection section : command.getHelpSections()) {
+            if (section.suggestedOrder() < 0) {
+                pre.add(section);
+            } else {
+                post.add(section);
+            }
+        }
+        Collections.sort(pre, SECTION_COMPARATOR);
+        Collections.sort(post, SECTION_COMPARATOR);
+        this.preSections.put(command, Collections.unmodifiableList(pre));
+        this.postSections.put(command, Collections.unmodifiableList(post));
+
+        addOptions(analyzer, command.getGlobalOptions());
+        addOptions(analyzer, command.getGroupOptions());
+        addOptions(analyzer, command.getCommandOptions());
+
+        ArgumentsMetadata arguments = command.getArguments();
+        if (arguments != null && !this.usages.containsKey(arguments)) {
+            addKey(arguments);
+            addKey(arguments.getRestrictions());
+            this.usages.put(arguments, analyzer.toUsage(arguments));
+            this.descriptions.put(arguments, analyzer.toDescription(arguments));
+            this.hints.put(arguments.getRestrictions(),
+                    Collections.unmodifiableList(analyzer.sortArgumentsRestrictions(arguments.getRestrictions())));
+        }
+    }
+
+    private void addOptions(Analyzer analyzer, List<OptionMetadata> options) {
+        if (this.sorted.containsKey(options))
+            return;
+        List<OptionMetadata> sortedOptions = Collections.unmodifiableList(analyzer.sortOptions(options));
+        List<String> synopsis = analyzer.toSynopsisUsage(options);
+        addKey(options);
+        addKey(sortedOptions);
+        this.sorted.put(options, sortedOptions);
+        this.sorted.put(sortedOptions, sortedOptions);
+        this.synopses.put(options, synopsis);
+        this.synopses.put(sortedOptions, analyzer.toSynopsisUsage(sortedOptions));
+
+        for (OptionMetadata option : options) {
+            if (this.usages.containsKey(option))
+                continue;
+            addKey(option);
+            addKey(option.getRestrictions());
+            this.usages.put(option, analyzer.toUsage(option));
+            this.descriptions.put(option, analyzer.toDescription(option));
+            this.hints.put(option.getRestrictions(),
+                    Collections.unmodifiableList(analyzer.sortOptionRestrictions(option.getRestrictions())));
+        }
+    }
+
+    private void addKey(Object key) {
+        this.keys.put(key, Boolean.TRUE);
+    }
+
+    private static int stamp(Object root) {
+        return root instanceof GlobalMetadata ? ((GlobalMetadata<?>) root).getModificationStamp() : 0;
+    }
+
+    /**
+     * Gets the model for the given CLI, building it if necessary
+     * 
+     * @param global
+     *            Global meta-data
+     * @param settings
+     *            Generator settings
+     * @return Help model
+     */
+    static HelpModel get(GlobalMetadata<?> global, Settings settings) {
+        ConcurrentMap<Settings, HelpModel> models = getModels(global);
+        synchronized (models) {
+            HelpModel model = models.get(settings);
+            if (model == null || model.stamp != stamp(global)) {
+                // Rebuild if commands or groups have been added since the
+                // model was built
+                model = new HelpModel(global, settings);
+                models.put(settings, model);
+                attachToCommands(global, settings, model);
+            }
+            return model;
+        }
+    }
+
+    /**
+     * Gets the model for the given command, if the command is part of a CLI
+     * that already has a model that model is returned, otherwise a model for
+     * just the command is built if necessary
+     * 
+     * @param command
+     *            Command meta-data
+     * @param settings
+     *            Generator settings
+     * @return Help model
+     */
+    static HelpModel get(CommandMetadata command, Settings settings) {
+        ConcurrentMap<Settings, HelpModel> models = getModels(command);
+        synchronized (models) {
+            HelpModel model = models.get(settings);
+            if (model == null) {
+                model = new HelpModel(command, settings);
+                models.put(settings, model);
+            }
+            return model;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Settings, HelpModel> getModels(GlobalMetadata<?> global) {
+        ConcurrentMap<Settings, HelpModel> models = (ConcurrentMap<Settings, HelpModel>) global
+                .getAttachment(HelpModel.class);
+        if (models == null)
+            models = (ConcurrentMap<Settings, HelpModel>) global.attach(HelpModel.class,
+                    new ConcurrentHashMap<Settings, HelpModel>());
+        return models;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Settings, HelpModel> getModels(CommandMetadata command) {
+        ConcurrentMap<Settings, HelpModel> models = (ConcurrentMap<Settings, HelpModel>) command
+                .getAttachment(HelpModel.class);
+        if (models == null)
+            models = (ConcurrentMap<Settings, HelpModel>) command.attach(HelpModel.class,
+                    new ConcurrentHashMap<Settings, HelpModel>());
+        return models;
+    }
+
+    private static void attachToCommands(GlobalMetadata<?> global, Settings settings, HelpModel model) {
+        for (CommandMetadata command : global.getDefaultGroupCommands()) {
+            getModels(command).put(settings, model);
+        }
+        for (CommandGroupMetadata group : global.getCommandGroups()) {
+            attachToCommands(group, settings, model);
+        }
+    }
+
+    private static void attachToCommands(CommandGroupMetadata group, Settings settings, HelpModel model) {
+        for (CommandMetadata command : group.getCommands()) {
+            getModels(command).put(settings, model);
+        }
+        for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+            attachToCommands(subGroup, settings, model);
+        }
+    }
+
+    /**
+     * Gets the number of models that have been built, intended for testing
+     * 
+     * @return Number of models built
+     */
+    static int getBuildCount() {
+        return BUILDS.get();
+    }
+
+    /**
+     * Gets whether the model contains entries for the given meta-data or list
+     * of meta-data
+     * 
+     * @param key
+     *            Meta-data or list of meta-data
+     * @return True if the model contains entries for the key
+     */
+    public boolean contains(Object key) {
+        return this.keys.containsKey(key);
+    }
+
+    /**
+     * Gets the sorted form of a list of options
+     * 
+     * @param options
+     *            Options
+     * @return Sorted options, or {@code null} if not in the model
+     */
+    @SuppressWarnings("unchecked")
+    public List<OptionMetadata> getSortedOptions(List<OptionMetadata> options) {
+        return (List<OptionMetadata>) this.sorted.get(options);
+    }
+
+    /**
+     * Gets the sorted form of a list of commands
+     * 
+     * @param commands
+     *            Commands
+     * @return Sorted commands, or {@code null} if not in the model or the
+     *         commands have changed since the model was built
+     */
+    @SuppressWarnings("unchecked")
+    public List<CommandMetadata> getSortedCommands(List<CommandMetadata> commands) {
+        List<CommandMetadata> sortedCommands = (List<CommandMetadata>) this.sorted.get(commands);
+        if (sortedCommands == null || sortedCommands.size() != commands.size())
+            return null;
+        return sortedCommands;
+    }
+
+    /**
+     * Gets the synopsis usage strings for a list of options
+     * 
+     * @param options
+     *            Options
+     * @return Synopsis usage strings, or {@code null} if not in the model
+     */
+    public List<String> getSynopsisUsage(List<OptionMetadata> options) {
+        return this.synopses.get(options);
+    }
+
+    /**
+     * Gets the sorted help hints for a list of option or arguments
+     * restrictions
+     * 
+     * @param restrictions
+     *            Restrictions
+     * @return Help hints, or {@code null} if not in the model
+     */
+    public List<HelpHint> getHelpHints(List<?> restrictions) {
+        return this.hints.get(restrictions);
+    }
+
+    /**
+     * Gets the usage string for an option
+     * 
+     * @param option
+     *            Option
+     * @return Usage string, or {@code null} if not in the model
+     */
+    public String getUsage(OptionMetadata option) {
+        return this.usages.get(option);
+    }
+
+    /**
+     * Gets the usage string for arguments
+     * 
+     * @param arguments
+     *            Arguments
+     * @return Usage string, or {@code null} if not in the model
+     */
+    public String getUsage(ArgumentsMetadata arguments) {
+        return this.usages.get(arguments);
+    }
+
+    /**
+     * Gets the description string for an option
+     * 
+     * @param option
+     *            Option
+     * @return Description string, or {@code null} if not in the model
+     */
+    public String getDescription(OptionMetadata option) {
+        return this.descriptions.get(option);
+    }
+
+    /**
+     * Gets the description string for arguments
+     * 
+     * @param arguments
+     *            Arguments
+     * @return Description string, or {@code null} if not in the model
+     */
+    public String getDescription(ArgumentsMetadata arguments) {
+        return this.descriptions.get(arguments);
+    }
+
+    /**
+     * Gets the help sections of a command that are placed before the base
+     * content
+     * 
+     * @param command
+     *            Command
+     * @return Sorted help sections, or {@code null} if not in the model
+     */
+    public List<HelpSection> getPreSections(CommandMetadata command) {
+        return this.preSections.get(command);
+    }
+
+    /**
+     * Gets the help sections of a command that are placed after the base
+     * content
+     * 
+     * @param command
+     *            Command
+     * @return Sorted help sections, or {@code null} if not in the model
+     */
+    public List<HelpSection> getPostSections(CommandMetadata command) {
+        return this.postSections.get(command);
+    }
+}
@@ -0,0 +1,456 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes multiple pages of documentation, rendering them concurrently
+ * <p>
+ * Each page is rendered into its own in-memory buffer on a fork-join pool so
+ * the content of each page is identical to rendering the pages one after the
+ * other. Pages are then written to their files using file channels, the number
+ * of files being written at once is bounded so that generating documentation
+ * for large CLIs does not open a file per command at once. If a file already
+ * has exactly the content of its page, as determined by comparing SHA-256
+ * hashes, it is not rewritten so its modification time is left unchanged.
+ * </p>
+ * <p>
+ * If a {@link PageManifest} file is given the writer generates documentation
+ * incrementally. Pages that provide a {@link Page#getFingerprint()
+ * fingerprint} are not rendered at all if the manifest records the same
+ * fingerprint for them and their file has not been modified since it was
+ * written. Pages recorded in the manifest that are no longer generated are
+ * deleted. Since a fingerprint covers everything a page is rendered from the
+ * resulting files are identical to generating all pages again.
+ * </p>
+ * <p>
+ * If several pages are for the same file the last one wins, as it would if the
+ * pages were written one after the other. If any page fails to render or write
+ * the error for the first such page in the list is thrown once all pages have
+ * been processed.
+ * </p>
+ */
+public class MultiPageWriter {
+
+    /**
+     * Default maximum number of files written at once
+     */
+    public static final int DEFAULT_MAX_OPEN_FILES = 4;
+
+    private static final int BATCH_SIZE = 4;
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final int parallelism, maxOpenFiles;
+    private final File manifest;
+    private final AtomicInteger written = new AtomicInteger(), unchanged = new AtomicInteger(),
+            skipped = new AtomicInteger(), pruned = new AtomicInteger();
+
+    /**
+     * A page to be written
+     */
+    public static abstract class Page {
+        private final File file;
+
+        /**
+         * Creates a new page
+         * 
+         * @param file
+         *            File the page is written to
+         */
+        public Page(File file) {
+            if (file == null)
+                throw new NullPointerException("file cannot be null");
+            this.file = file;
+        }
+
+        /**
+         * Gets the file the page is written to
+         * 
+         * @return File
+         */
+        public File getFile() {
+            return this.file;
+        }
+
+        /**
+         * Gets the fingerprint of the inputs to the page, when writing
+         * incrementally a page whose fingerprint is unchanged is not rendered
+         * again
+         * <p>
+         * The default implementation returns {@code null} meaning the page is
+         * always rendered.
+         * </p>
+         * 
+         * @return Fingerprint, null if the page should always be rendered
+         * @see Fingerprint
+         */
+        public String getFingerprint() {
+            return null;
+        }
+
+        /**
+         * Renders the page
+         * 
+         * @param output
+         *            Output stream to render to
+         * @throws IOException
+         *             Thrown if the page cannot be rendered
+         */
+        public abstract void render(OutputStream output) throws IOException;
+    }
+
+    /**
+     * Creates a new writer that uses as many threads as there are available
+     * processors
+     */
+    public MultiPageWriter() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_OPEN_FILES);
+    }
+
+    /**
+     * Creates a new writer
+     * 
+     * @param parallelism
+     *            Number of threads used to render pages
+     * @param maxOpenFiles
+     *            Maximum number of files written at once
+     */
+    public MultiPageWriter(int parallelism, int maxOpenFiles) {
+        this(parallelism, maxOpenFiles, null);
+    }
+
+    /**
+     * Creates a new writer that generates documentation incrementally
+     * 
+     * @param parallelism
+     *            Number of threads used to render pages
+     * @param maxOpenFiles
+     *            Maximum number of files written at once
+     * @param manifest
+     *            Manifest file recording the pages written, if null pages are
+     *            always rendered
+     */
+    public MultiPageWriter(int parallelism, int maxOpenFiles, File manifest) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("parallelism must be greater than 0");
+        if (maxOpenFiles <= 0)
+            throw new IllegalArgumentException("maxOpenFiles must be greater than 0");
+        this.parallelism = parallelism;
+        this.maxOpenFiles = maxOpenFiles;
+        this.manifest = manifest;
+    }
+
+    /**
+     * Gets the number of threads used to render pages
+     * 
+     * @return Parallelism
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Gets the maximum number of files written at once
+     * 
+     * @return Maximum open files
+     */
+    public int getMaxOpenFiles() {
+        return this.maxOpenFiles;
+    }
+
+    /**
+     * Gets the total number of pages written by this writer
+     * 
+     * @return Pages written
+     */
+    public int getPagesWritten() {
+        return this.written.get();
+    }
+
+    /**
+     * Gets the total number of pages that were not written by this writer
+     * because their files already had the same content
+     * 
+     * @return Pages unchanged
+     */
+    public int getPagesUnchanged() {
+        return this.unchanged.get();
+    }
+
+    /**
+     * Gets the manifest file used to generate documentation incrementally
+     * 
+     * @return Manifest file, null if documentation is not generated
+     *         incrementally
+     */
+    public File getManifest() {
+        return this.manifest;
+    }
+
+    /**
+     * Gets the total number of pages that were not rendered by this writer
+     * because their fingerprints were unchanged
+     * 
+     * @return Pages skipped
+     */
+    public int getPagesSkipped() {
+        return this.skipped.get();
+    }
+
+    /**
+     * Gets the total number of pages deleted by this writer because they were
+     * recorded in the manifest but are no longer generated
+     * 
+     * @return Pages pruned
+     */
+    public int getPagesPruned() {
+        return this.pruned.get();
+    }
+
+    /**
+     * Renders and writes the given pages
+     * 
+     * @param pages
+     *            Pages
+     * @throws IOException
+     *             Thrown if any page cannot be rendered or written
+     */
+    public void write(List<? extends Page> pages) throws IOException {
+        // Only the last page for each file is written
+        Map<File, Page> byFile = new LinkedHashMap<File, Page>();
+        for (Page page : pages) {
+            byFile.put(page.getFile().getAbsoluteFile(), page);
+        }
+        List<Page> toWrite = new ArrayList<Page>(byFile.values());
+        PageManifest previous = this.manifest != null ? PageManifest.load(this.manifest) : null;
+        if (toWrite.isEmpty() && previous == null)
+            return;
+
+        Batch batch = new Batch(toWrite, previous, this.maxOpenFiles);
+        if (this.parallelism == 1 || toWrite.size() <= BATCH_SIZE) {
+            write(batch, 0, toWrite.size());
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+            try {
+                pool.invoke(new PageTask(batch, 0, toWrite.size()));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        if (previous != null) {
+            // Record the pages successfully written, pages that failed are not
+            // recorded so they are always written next time
+            PageManifest current = new PageManifest(this.manifest);
+            Set<String> paths = new HashSet<String>();
+            for (int i = 0; i < toWrite.size(); i++) {
+                File file = toWrite.get(i).getFile();
+                paths.add(current.toPath(file));
+                if (batch.entries[i] != null)
+                    current.put(file, batch.entries[i]);
+            }
+
+            // Remove pages no longer generated
+            for (String path : previous.getPaths()) {
+                if (paths.contains(path))
+                    continue;
+                File stale = previous.toFile(path);
+                if (!stale.isFile() || stale.delete())
+                    this.pruned.incrementAndGet();
+            }
+            current.save();
+        }
+
+        for (IOException e : batch.errors) {
+            if (e != null)
+                throw e;
+        }
+    }
+
+    private void write(Batch batch, int start, int end) {
+        for (int i = start; i < end; i++) {
+            Page page = batch.pages.get(i);
+            try {
+                batch.entries[i] = write(page, batch.previous != null ? batch.previous.get(page.getFile()) : null,
+                        batch.openFiles);
+            } catch (IOException e) {
+                batch.errors[i] = e;
+            } catch (RuntimeException e) {
+                batch.errors[i] = new IOException("Failed to generate " + page.getFile() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Writes a single page
+     * 
+     * @param page
+     *            Page
+     * @param previous
+     *            Manifest entry for the page when it was previously written,
+     *            may be null
+     * @param openFiles
+     *            Semaphore bounding the number of files being written
+     * @return Manifest entry for the page
+     * @throws IOException
+     *             Thrown if the page cannot be rendered or written
+     */
+    private PageManifest.Entry write(Page page, PageManifest.Entry previous, Semaphore openFiles)
+            throws IOException {
+        File file = page.getFile();
+        String fingerprint = page.getFingerprint();
+        if (fingerprint != null && previous != null && fingerprint.equals(previous.getFingerprint())
+                && previous.isUnmodified(file)) {
+            this.skipped.incrementAndGet();
+            return previous;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        page.render(buffer);
+        byte[] content = buffer.toByteArray();
+        byte[] contentHash = hash(content);
+
+        openFiles.acquireUninterruptibly();
+        try {
+            if (file.length() == content.length && file.isFile()
+                    && MessageDigest.isEqual(contentHash, hash(file))) {
+                this.unchanged.incrementAndGet();
+                return new PageManifest.Entry(fingerprint, Fingerprint.toHex(contentHash), file.length(),
+                        file.lastModified());
+            }
+
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory())
+                throw new IOException("Unable to create directory " + parent);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer data = ByteBuffer.wrap(content);
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+            this.written.incrementAndGet();
+            return new PageManifest.Entry(fingerprint, Fingerprint.toHex(contentHash), file.length(),
+                    file.lastModified());
+        } finally {
+            openFiles.release();
+        }
+    }
+
+    /**
+     * Calculates the SHA-256 hash of some content
+     * 
+     * @param content
+     *            Content
+     * @return Hash
+     */
+    public static byte[] hash(byte[] content) {
+        return createDigest().digest(content);
+    }
+
+    /**
+     * Calculates the SHA-256 hash of the content of a file
+     * 
+     * @param file
+     *            File
+     * @return Hash
+     * @throws IOException
+     *             Thrown if the file cannot be read
+     */
+    public static byte[] hash(File file) throws IOException {
+        MessageDigest digest = createDigest();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * The pages being written by a single call to {@link #write(List)} and
+     * the results of writing each page
+     */
+    private static final class Batch {
+        private final List<Page> pages;
+        private final PageManifest previous;
+        private final PageManifest.Entry[] entries;
+        private final IOException[] errors;
+        private final Semaphore openFiles;
+
+        private Batch(List<Page> pages, PageManifest previous, int maxOpenFiles) {
+            this.pages = pages;
+            this.previous = previous;
+            this.entries = new PageManifest.Entry[pages.size()];
+            this.errors = new IOException[pages.size()];
+            this.openFiles = new Semaphore(maxOpenFiles);
+        }
+    }
+
+    private final class PageTask extends RecursiveAction {
+        private static final long serialVersionUID = 7387640117470474431L;
+
+        private final Batch batch;
+        private final int start, end;
+
+        private PageTask(Batch batch, int start, int end) {
+            this.batch = batch;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.end - this.start <= BATCH_SIZE) {
+                write(this.batch, this.start, this.end);
+                return;
+            }
+            int middle = (this.start + this.end) >>> 1;
+            invokeAll(new PageTask(this.batch, this.start, middle), new PageTask(this.batch, middle, this.end));
+        }
+    }
+}
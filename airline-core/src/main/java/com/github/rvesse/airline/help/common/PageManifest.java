@@ -0,0 +1,283 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.common;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A manifest of previously written pages of documentation
+ * <p>
+ * The manifest records for each page the fingerprint of its inputs, the
+ * SHA-256 hash of its content and the size and modification time of its file
+ * when it was written. {@link MultiPageWriter} uses this to skip rendering
+ * pages whose inputs are unchanged and whose files have not been modified
+ * since, and to remove pages that are no longer generated.
+ * </p>
+ * <p>
+ * The manifest is a UTF-8 text file with one tab separated line per page,
+ * paths are stored relative to the directory containing the manifest and
+ * lines are sorted by path so the manifest itself is deterministic.
+ * </p>
+ */
+public final class PageManifest {
+
+    private static final String HEADER = "# Airline page manifest";
+    private static final String NO_FINGERPRINT = "-";
+
+    private final File file;
+    private final Path base;
+    private final Map<String, Entry> entries = new TreeMap<String, Entry>();
+
+    /**
+     * An entry in the manifest
+     */
+    public static final class Entry {
+        private final String fingerprint, contentHash;
+        private final long length, lastModified;
+
+        /**
+         * Creates a new entry
+         * 
+         * @param fingerprint
+         *            Fingerprint of the page inputs, may be null if the page
+         *            has no fingerprint
+         * @param contentHash
+         *            Hash of the page content
+         * @param length
+         *            Length of the page file
+         * @param lastModified
+         *            Modification time of the page file
+         */
+        public Entry(String fingerprint, String contentHash, long length, long lastModified) {
+            this.fingerprint = fingerprint;
+            this.contentHash = contentHash;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Gets the fingerprint of the page inputs
+         * 
+         * @return Fingerprint, null if the page has no fingerprint
+         */
+        public String getFingerprint() {
+            return this.fingerprint;
+        }
+
+        /**
+         * Gets the hash of the page content
+         * 
+         * @return Content hash
+         */
+        public String getContentHash() {
+            return this.contentHash;
+        }
+
+        /**
+         * Gets the length of the page file when it was written
+         * 
+         * @return Length
+         */
+        public long getLength() {
+            return this.length;
+        }
+
+        /**
+         * Gets the modification time of the page file when it was written
+         * 
+         * @return Modification time
+         */
+        public long getLastModified() {
+            return this.lastModified;
+        }
+
+        /**
+         * Gets whether the page file still appears to be exactly as it was
+         * written i.e. it exists with the same length and modification time
+         * 
+         * @param page
+         *            Page file
+         * @return True if the page file is unmodified
+         */
+        public boolean isUnmodified(File page) {
+            return page.isFile() && page.length() == this.length && page.lastModified() == this.lastModified;
+        }
+    }
+
+    /**
+     * Creates a new empty manifest
+     * 
+     * @param file
+     *            File the manifest is saved to
+     */
+    public PageManifest(File file) {
+        if (file == null)
+            throw new NullPointerException("file cannot be null");
+        this.file = file.getAbsoluteFile();
+        File parent = this.file.getParentFile();
+        this.base = (parent != null ? parent : new File(".").getAbsoluteFile()).toPath().normalize();
+    }
+
+    /**
+     * Loads a manifest, if the file does not exist an empty manifest is
+     * returned
+     * 
+     * @param file
+     *            Manifest file
+     * @return Manifest
+     * @throws IOException
+     *             Thrown if the manifest exists but cannot be read
+     */
+    public static PageManifest load(File file) throws IOException {
+        PageManifest manifest = new PageManifest(file);
+        if (!manifest.file.isFile())
+            return manifest;
+
+        try (BufferedReader reader = Files.newBufferedReader(manifest.file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+                String[] fields = line.split("\t", 5);
+                if (fields.length != 5)
+                    continue;
+                try {
+                    manifest.entries.put(fields[4],
+                            new Entry(NO_FINGERPRINT.equals(fields[0]) ? null : fields[0], fields[1],
+                                    Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+                } catch (NumberFormatException e) {
+                    // Ignore malformed entries, the page will be written again
+                }
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Saves the manifest, the manifest file is replaced atomically where the
+     * file system supports this
+     * 
+     * @throws IOException
+     *             Thrown if the manifest cannot be saved
+     */
+    public void save() throws IOException {
+        Path target = this.file.toPath();
+        Files.createDirectories(this.base);
+        Path temp = Files.createTempFile(this.base, this.file.getName(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.write('\n');
+                for (Map.Entry<String, Entry> e : this.entries.entrySet()) {
+                    Entry entry = e.getValue();
+                    writer.write(entry.fingerprint != null ? entry.fingerprint : NO_FINGERPRINT);
+                    writer.write('\t');
+                    writer.write(entry.contentHash);
+                    writer.write('\t');
+                    writer.write(Long.toString(entry.length));
+                    writer.write('\t');
+                    writer.write(Long.toString(entry.lastModified));
+                    writer.write('\t');
+                    writer.write(e.getKey());
+                    writer.write('\n');
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Gets the manifest file
+     * 
+     * @return Manifest file
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Gets the path used to record a page in the manifest
+     * 
+     * @param page
+     *            Page file
+     * @return Path relative to the manifest directory
+     */
+    public String toPath(File page) {
+        String path = this.base.relativize(page.getAbsoluteFile().toPath().normalize()).toString();
+        return File.separatorChar == '/' ? path : path.replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Gets the file for a path recorded in the manifest
+     * 
+     * @param path
+     *            Path relative to the manifest directory
+     * @return Page file
+     */
+    public File toFile(String path) {
+        return this.base.resolve(path).toFile();
+    }
+
+    /**
+     * Gets the paths of the pages in the manifest
+     * 
+     * @return Paths
+     */
+    public Set<String> getPaths() {
+        return Collections.unmodifiableSet(this.entries.keySet());
+    }
+
+    /**
+     * Gets the entry for a page
+     * 
+     * @param page
+     *            Page file
+     * @return Entry, null if the page is not in the manifest
+     */
+    public Entry get(File page) {
+        return this.entries.get(toPath(page));
+    }
+
+    /**
+     * Records an entry for a page
+     * 
+     * @param page
+     *            Page file
+     * @param entry
+     *            Entry
+     */
+    public void put(File page, Entry entry) {
+        this.entries.put(toPath(page), entry);
+    }
+}
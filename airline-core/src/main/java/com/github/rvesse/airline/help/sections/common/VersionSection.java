@@ -26,15 +26,48 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpSection;
 
+/**
+ * A help section that provides version information
+ * <p>
+ * Version information is not loaded until the section is first rendered so
+ * parsing does not pay for reading the data sources when help is never
+ * requested, missing or unreadable data sources are still reported when the
+ * section is created unless errors are suppressed. Classpath resources are
+ * cached per class loader and shared by all sections that use them, files
+ * are read by each section that uses them.
+ * </p>
+ * <p>
+ * A data source of the form {@code manifest:<class>} uses the JAR manifest
+ * attributes of the package of the given class, i.e.
+ * {@code Implementation-Title}, {@code Implementation-Version},
+ * {@code Implementation-Vendor}, {@code Specification-Title},
+ * {@code Specification-Version} and {@code Specification-Vendor}. These are
+ * taken from the {@link Package} that the class loader defined from the
+ * manifest when it loaded the class so no further streams are opened.
+ * </p>
+ */
 public class VersionSection implements HelpSection {
 
-    private List<VersionInfo> versions = new ArrayList<>();
+    /**
+     * Prefix for data sources that use the manifest attributes of the package
+     * of a class
+     */
+    public static final String MANIFEST_PREFIX = "manifest:";
+
+    private static final Map<ClassLoader, ConcurrentMap<String, Properties>> RESOURCES = new WeakHashMap<>();
+
+    private volatile List<VersionInfo> versions;
+    private final String[] dataSources, additionalProperties;
+    private final String componentProperty, versionProperty, buildProperty, dateProperty;
     private final boolean tabular;
     private final String[] titles;
 
@@ -42,46 +75,81 @@ public class VersionSection implements HelpSection {
             String dateProperty, String[] additionalProperties, String[] additionalTitles, boolean suppressErrors,
             boolean tabular) {
 
+        this.dataSources = dataSources != null ? dataSources : new String[0];
+        this.componentProperty = componentProperty;
+        this.versionProperty = versionProperty;
+        this.buildProperty = buildProperty;
+        this.dateProperty = dateProperty;
+        this.additionalProperties = additionalProperties != null ? additionalProperties : new String[0];
         this.tabular = tabular;
-        this.titles = new String[additionalProperties != null ? additionalProperties.length : 0];
+        this.titles = new String[this.additionalProperties.length];
         for (int i = 0; i < this.titles.length; i++) {
             this.titles[i] = i < additionalTitles.length ? additionalTitles[i] : additionalProperties[i];
         }
 
-        for (String dataSource : dataSources) {
-            try {
-                Properties source = loadDataSource(dataSource);
-                if (source == null) {
-                    if (suppressErrors)
-                        continue;
+        // Still fail fast on data sources that don't exist or can't be read
+        // but only check that they can be found rather than reading them
+        if (!suppressErrors) {
+            if (this.dataSources.length == 0)
+                throw new IllegalArgumentException(
+                        String.format("@Version annotation specifies no valid version information sources - %s",
+                                StringUtils.join(this.dataSources, ',')));
+            for (String dataSource : this.dataSources) {
+                if (!dataSourceExists(dataSource))
                     sourceNotFound(dataSource);
-                }
-
-                VersionInfo info = new VersionInfo();
-                info.component = source.getProperty(componentProperty);
-                info.version = source.getProperty(versionProperty);
-                info.build = source.getProperty(buildProperty);
-                info.date = source.getProperty(dateProperty);
+            }
+        }
+    }
 
-                for (int i = 0; i < additionalProperties.length; i++) {
-                    String title = titles[i];
-                    info.additional.put(title, source.getProperty(additionalProperties[i]));
+    /**
+     * Gets the version information, loading it if this is the first time it
+     * has been needed
+     * 
+     * @return Version information
+     */
+    private List<VersionInfo> getVersions() {
+        List<VersionInfo> versions = this.versions;
+        if (versions == null) {
+            synchronized (this) {
+                versions = this.versions;
+                if (versions == null) {
+                    versions = loadVersions();
+                    this.versions = versions;
                 }
-
-                this.versions.add(info);
-            } catch (IOException e) {
-                if (suppressErrors)
-                    continue;
-                sourceNotFound(dataSource);
             }
         }
+        return versions;
+    }
 
-        if (this.versions.size() == 0) {
-            if (!suppressErrors)
-                throw new IllegalArgumentException(
-                        String.format("@Version annotation specifies no valid version information sources - %s",
-                                StringUtils.join(dataSources, ',')));
+    private List<VersionInfo> loadVersions() {
+        List<VersionInfo> versions = new ArrayList<>();
+        for (String dataSource : this.dataSources) {
+            Properties source;
+            try {
+                source = loadDataSource(dataSource);
+            } catch (IOException | IllegalArgumentException e) {
+                source = null;
+            }
+            // Errors were already reported by the constructor, a source that
+            // has since become unavailable is omitted rather than failing to
+            // render help
+            if (source == null)
+                continue;
+
+            VersionInfo info = new VersionInfo();
+            info.component = source.getProperty(this.componentProperty);
+            info.version = source.getProperty(this.versionProperty);
+            info.build = source.getProperty(this.buildProperty);
+            info.date = source.getProperty(this.dateProperty);
+
+            for (int i = 0; i < this.additionalProperties.length; i++) {
+                String title = this.titles[i];
+                info.additional.put(title, source.getProperty(this.additionalProperties[i]));
+            }
+
+            versions.add(info);
         }
+        return versions;
     }
 
     private void sourceNotFound(String dataSource) {
@@ -90,8 +158,21 @@ public class VersionSection implements HelpSection {
                 dataSource));
     }
 
-    private Properties loadDataSource(String source) throws IOException {
-        if (source.startsWith("file://")) {
+    private static boolean dataSourceExists(String source) {
+        if (source.startsWith(MANIFEST_PREFIX)) {
+            // Manifest attributes are already in memory so just load them
+            return loadManifest(source.substring(MANIFEST_PREFIX.length())) != null;
+        } else if (source.startsWith("file://")) {
+            return canReadFile(source);
+        } else {
+            return findResourceLoader(resourceName(source)) != null || canReadFile(source);
+        }
+    }
+
+    private static Properties loadDataSource(String source) throws IOException {
+        if (source.startsWith(MANIFEST_PREFIX)) {
+            return loadManifest(source.substring(MANIFEST_PREFIX.length()));
+        } else if (source.startsWith("file://")) {
             return loadFile(source);
         } else {
             Properties p = loadResource(source);
@@ -101,22 +182,112 @@ public class VersionSection implements HelpSection {
         }
     }
 
-    private Properties loadResource(String source) throws IOException {
-        try (InputStream input = VersionSection.class.getResourceAsStream(source)) {
+    private static Class<?> findClass(String className) {
+        try {
+            return Class.forName(className, false, VersionSection.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            if (loader == null)
+                return null;
+            try {
+                return Class.forName(className, false, loader);
+            } catch (ClassNotFoundException e2) {
+                return null;
+            }
+        }
+    }
+
+    private static Properties loadManifest(String className) {
+        Class<?> cls = findClass(className);
+        if (cls == null || cls.getPackage() == null)
+            return null;
+        Package pkg = cls.getPackage();
+        Properties p = new Properties();
+        putIfNotNull(p, "Implementation-Title", pkg.getImplementationTitle());
+        putIfNotNull(p, "Implementation-Version", pkg.getImplementationVersion());
+        putIfNotNull(p, "Implementation-Vendor", pkg.getImplementationVendor());
+        putIfNotNull(p, "Specification-Title", pkg.getSpecificationTitle());
+        putIfNotNull(p, "Specification-Version", pkg.getSpecificationVersion());
+        putIfNotNull(p, "Specification-Vendor", pkg.getSpecificationVendor());
+        // Classes that were not loaded from a JAR have no manifest attributes
+        return p.isEmpty() ? null : p;
+    }
+
+    private static void putIfNotNull(Properties p, String key, String value) {
+        if (value != null)
+            p.setProperty(key, value);
+    }
+
+    /**
+     * Resolves the name of a classpath resource in the same way as
+     * {@link Class#getResource(String)} does relative to this class
+     */
+    private static String resourceName(String source) {
+        if (source.startsWith("/"))
+            return source.substring(1);
+        String pkg = VersionSection.class.getName();
+        pkg = pkg.substring(0, pkg.lastIndexOf('.'));
+        return pkg.replace('.', '/') + "/" + source;
+    }
+
+    private static ClassLoader[] resourceLoaders() {
+        return new ClassLoader[] { VersionSection.class.getClassLoader(),
+                Thread.currentThread().getContextClassLoader() };
+    }
+
+    private static ClassLoader findResourceLoader(String name) {
+        for (ClassLoader loader : resourceLoaders()) {
+            if (loader != null && loader.getResource(name) != null)
+                return loader;
+        }
+        return null;
+    }
+
+    private static ConcurrentMap<String, Properties> getResourceCache(ClassLoader loader) {
+        synchronized (RESOURCES) {
+            ConcurrentMap<String, Properties> cache = RESOURCES.get(loader);
+            if (cache == null) {
+                cache = new ConcurrentHashMap<>();
+                RESOURCES.put(loader, cache);
+            }
+            return cache;
+        }
+    }
+
+    private static Properties loadResource(String source) throws IOException {
+        // Classpath resources don't change so loaded resources are cached per
+        // class loader, failures are never cached
+        String name = resourceName(source);
+        for (ClassLoader loader : resourceLoaders()) {
+            if (loader == null)
+                continue;
+            Properties cached = getResourceCache(loader).get(name);
+            if (cached != null)
+                return cached;
+        }
+
+        ClassLoader loader = findResourceLoader(name);
+        if (loader == null)
+            return null;
+        try (InputStream input = loader.getResourceAsStream(name)) {
             if (input == null)
                 return null;
             Properties p = new Properties();
             p.load(input);
-            input.close();
-            return p;
+            Properties existing = getResourceCache(loader).putIfAbsent(name, p);
+            return existing != null ? existing : p;
         }
     }
 
-    private Properties loadFile(String source) throws IOException, FileNotFoundException {
+    private static boolean canReadFile(String source) {
         File f = new File(source);
-        if (f.exists() && f.isFile() && f.canRead()) {
+        return f.exists() && f.isFile() && f.canRead();
+    }
+
+    private static Properties loadFile(String source) throws IOException, FileNotFoundException {
+        if (canReadFile(source)) {
             Properties p = new Properties();
-            try (InputStream input = new FileInputStream(f)) {
+            try (InputStream input = new FileInputStream(new File(source))) {
                 p.load(input);
                 input.close();
             }
@@ -132,7 +303,7 @@ public class VersionSection implements HelpSection {
 
     @Override
     public HelpFormat getFormat() {
-        if (this.versions.size() == 0)
+        if (getVersions().size() == 0)
             return HelpFormat.NONE_PRINTABLE;
         return this.tabular ? HelpFormat.TABLE_WITH_HEADERS : HelpFormat.LIST;
 
@@ -143,7 +314,7 @@ public class VersionSection implements HelpSection {
         if (this.tabular) {
             return 4 + this.titles.length;
         } else {
-            return this.versions.size();
+            return getVersions().size();
         }
     }
 
@@ -152,35 +323,36 @@ public class VersionSection implements HelpSection {
         if (blockNumber < 0 || blockNumber > this.numContentBlocks())
             throw new IndexOutOfBoundsException();
 
+        List<VersionInfo> versions = getVersions();
         if (this.tabular) {
-            String[] column = new String[this.versions.size() + 1];
-            for (int row = 0; row < this.versions.size(); row++) {
+            String[] column = new String[versions.size() + 1];
+            for (int row = 0; row < versions.size(); row++) {
                 switch (blockNumber) {
                 case 0:
                     column[0] = "Component";
-                    this.versions.get(row).addComponent(column, row + 1);
+                    versions.get(row).addComponent(column, row + 1);
                     break;
                 case 1:
                     column[0] = "Version";
-                    this.versions.get(row).addVersion(column, row + 1);
+                    versions.get(row).addVersion(column, row + 1);
                     break;
                 case 2:
                     column[0] = "Build";
-                    this.versions.get(row).addBuild(column, row + 1);
+                    versions.get(row).addBuild(column, row + 1);
                     break;
                 case 3:
                     column[0] = "Build Date";
-                    this.versions.get(row).addBuildDate(column, row + 1);
+                    versions.get(row).addBuildDate(column, row + 1);
                     break;
                 default:
                     column[0] = this.titles[blockNumber - 4];
-                    this.versions.get(row).addAdditionalColumn(column, row + 1, this.titles[blockNumber - 4]);
+                    versions.get(row).addAdditionalColumn(column, row + 1, this.titles[blockNumber - 4]);
                     break;
                 }
             }
             return column;
         } else {
-            return this.versions.get(blockNumber).toList();
+            return versions.get(blockNumber).toList();
         }
     }
 
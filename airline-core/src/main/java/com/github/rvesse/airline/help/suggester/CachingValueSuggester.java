@@ -0,0 +1,222 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * A value suggester that caches the suggestions of another suggester
+ * <p>
+ * Suggestions are cached per option/arguments for the given time to live.
+ * Once cached suggestions have expired they continue to be returned while
+ * they are refreshed in the background so a slow suggester, e.g. one that
+ * queries a remote service, only delays completion the first time it is used.
+ * Even then the caller waits at most the given time for the suggestions,
+ * receiving no suggestions if they are not available in time, and the
+ * suggestions are cached once they become available. Only one refresh runs
+ * at a time for each option/arguments.
+ * </p>
+ * <p>
+ * If the underlying suggester fails the previously cached suggestions, if
+ * any, continue to be used and the next request tries again.
+ * </p>
+ */
+public class CachingValueSuggester implements ValueSuggester {
+
+    /**
+     * Default time in milliseconds to wait for suggestions that have not yet
+     * been cached
+     */
+    public static final long DEFAULT_WAIT = 250;
+
+    private static final ExecutorService REFRESHER = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "airline-value-suggester");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    private final ValueSuggester suggester;
+    private final long ttl, wait;
+    private final ConcurrentMap<Object, CachedValues> cache = new ConcurrentHashMap<Object, CachedValues>();
+    private final AtomicLong loads = new AtomicLong();
+
+    /**
+     * Creates a new caching suggester with the default wait time
+     * 
+     * @param suggester
+     *            Suggester whose suggestions are cached
+     * @param ttl
+     *            Time to live
+     * @param unit
+     *            Time to live units
+     */
+    public CachingValueSuggester(ValueSuggester suggester, long ttl, TimeUnit unit) {
+        this(suggester, ttl, unit, DEFAULT_WAIT);
+    }
+
+    /**
+     * Creates a new caching suggester
+     * 
+     * @param suggester
+     *            Suggester whose suggestions are cached
+     * @param ttl
+     *            Time to live
+     * @param unit
+     *            Time to live units
+     * @param wait
+     *            Maximum time in milliseconds to wait for suggestions that
+     *            have not yet been cached
+     */
+    public CachingValueSuggester(ValueSuggester suggester, long ttl, TimeUnit unit, long wait) {
+        if (suggester == null)
+            throw new NullPointerException("suggester cannot be null");
+        if (ttl <= 0)
+            throw new IllegalArgumentException("ttl must be positive");
+        if (wait < 0)
+            throw new IllegalArgumentException("wait cannot be negative");
+        this.suggester = suggester;
+        this.ttl = unit.toNanos(ttl);
+        this.wait = wait;
+    }
+
+    /**
+     * Gets the suggester whose suggestions are cached
+     * 
+     * @return Suggester
+     */
+    public ValueSuggester getSuggester() {
+        return this.suggester;
+    }
+
+    /**
+     * Gets the number of times the underlying suggester has been called
+     * 
+     * @return Number of loads
+     */
+    public long getLoadCount() {
+        return this.loads.get();
+    }
+
+    /**
+     * Discards all cached suggestions
+     */
+    public void invalidate() {
+        this.cache.clear();
+    }
+
+    @Override
+    public <T> Iterable<String> suggestValues(final ParseState<T> state, final OptionMetadata option) {
+        return get(option, new Callable<Iterable<String>>() {
+            @Override
+            public Iterable<String> call() throws Exception {
+                return suggester.suggestValues(state, option);
+            }
+        });
+    }
+
+    @Override
+    public <T> Iterable<String> suggestValues(final ParseState<T> state, final ArgumentsMetadata arguments) {
+        return get(arguments, new Callable<Iterable<String>>() {
+            @Override
+            public Iterable<String> call() throws Exception {
+                return suggester.suggestValues(state, arguments);
+            }
+        });
+    }
+
+    private List<String> get(Object key, Callable<Iterable<String>> loader) {
+        CachedValues cached = this.cache.get(key);
+        if (cached == null) {
+            CachedValues created = new CachedValues();
+            cached = this.cache.putIfAbsent(key, created);
+            if (cached == null)
+                cached = created;
+        }
+        return cached.get(loader);
+    }
+
+    private final class CachedValues {
+        private volatile List<String> values;
+        private volatile long loaded;
+        private Future<List<String>> refresh;
+
+        List<String> get(Callable<Iterable<String>> loader) {
+            List<String> current = this.values;
+            if (current != null && System.nanoTime() - this.loaded < ttl)
+                return current;
+
+            Future<List<String>> future = refresh(loader);
+            if (current != null) {
+                // Serve the stale values while refreshing
+                return current;
+            }
+
+            try {
+                return future.get(wait, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Values will be cached once available
+            } catch (ExecutionException e) {
+                // Next request will try again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.emptyList();
+        }
+
+        private synchronized Future<List<String>> refresh(final Callable<Iterable<String>> loader) {
+            if (this.refresh != null && !this.refresh.isDone())
+                return this.refresh;
+            this.refresh = REFRESHER.submit(new Callable<List<String>>() {
+                @Override
+                public List<String> call() throws Exception {
+                    loads.incrementAndGet();
+                    List<String> values = new ArrayList<String>();
+                    Iterable<String> suggestions = loader.call();
+                    if (suggestions != null) {
+                        for (String suggestion : suggestions) {
+                            values.add(suggestion);
+                        }
+                    }
+                    values = Collections.unmodifiableList(values);
+                    loaded = System.nanoTime();
+                    CachedValues.this.values = values;
+                    return values;
+                }
+            });
+            return this.refresh;
+        }
+    }
+}
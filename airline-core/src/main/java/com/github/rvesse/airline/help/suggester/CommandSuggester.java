@@ -22,19 +22,31 @@ import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.ParseState;
 
 import javax.inject.Inject;
 
 import org.apache.commons.collections4.ListUtils;
 
 public class CommandSuggester
-        implements Suggester
+        implements Suggester, StatelessSuggester
 {
     @Inject
     public CommandMetadata command;
 
     @Override
     public Iterable<String> suggest()
+    {
+        return suggest(command, command.getArguments() != null ? MetadataLoader.loadParser(command.getType()) : null);
+    }
+
+    @Override
+    public <T> Iterable<String> suggest(ParseState<T> state)
+    {
+        return suggest(state.getCommand(), state.getParserConfiguration());
+    }
+
+    private static Iterable<String> suggest(CommandMetadata command, ParserMetadata<?> parserConfig)
     {
         List<String> suggestions = new ArrayList<String>();
         for (OptionMetadata option : command.getCommandOptions()) {
@@ -43,7 +55,6 @@ public class CommandSuggester
 
         if (command.getArguments() != null) {
             // Include arguments separator
-            ParserMetadata<?> parserConfig = MetadataLoader.loadParser(command.getType());
             suggestions.add(parserConfig.getArgumentsSeparator());
         }
 
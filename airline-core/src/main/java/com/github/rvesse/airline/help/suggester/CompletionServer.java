@@ -0,0 +1,506 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * A persistent completion server that answers completion requests using a
+ * {@link SuggestionEngine} so that shell completion does not need to start a
+ * JVM for every key press
+ * <p>
+ * The server listens on an ephemeral port on the loopback interface only and
+ * writes its port and a randomly generated token to a state file which is
+ * only readable by the current user where the file system supports POSIX
+ * permissions. Every request must present the token so only users able to
+ * read the state file can use the server. The state file is removed when the
+ * server stops.
+ * </p>
+ * <p>
+ * Requests are line based and UTF-8 encoded, a request consists of the token,
+ * the number of completed words, each completed word and finally the partial
+ * word being completed. Requests with overly long lines, or that are overly
+ * long in total, are rejected as soon as the limit is exceeded. The response
+ * to a valid request is the line {@code OK} followed by the matching
+ * suggestions one per line, the connection is closed after each response. An
+ * invalid request receives no response so clients can distinguish it from a
+ * request that has no suggestions and fall back to completing some other way.
+ * </p>
+ * <p>
+ * Requests are answered by a small bounded pool of threads so a slow client
+ * does not hold up others, connections are closed without a response if the
+ * pool is saturated. The server stops automatically once no valid requests
+ * have been received for the idle timeout, connections that do not present
+ * the correct token do not count as activity.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public class CompletionServer<T> implements Closeable {
+
+    /**
+     * Default idle timeout in milliseconds
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+
+    /**
+     * Line sent before the suggestions in response to a valid request
+     */
+    public static final String RESPONSE_OK = "OK";
+
+    private static final int MAX_WORDS = 4096;
+    private static final int MAX_WORD_LENGTH = 8192;
+    private static final int MAX_REQUEST_LENGTH = 256 * 1024;
+    private static final int MAX_THREADS = 4;
+    private static final int MAX_QUEUED = 16;
+    private static final int REQUEST_TIMEOUT = 5000;
+
+    private final SuggestionEngine<T> engine;
+    private final File stateFile;
+    private final long idleTimeout;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final AtomicLong requests = new AtomicLong();
+    private ServerSocket socket;
+    private ThreadPoolExecutor executor;
+    private String token;
+    private volatile long lastActivity;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new server with the default idle timeout
+     * 
+     * @param metadata
+     *            CLI meta-data
+     * @param stateFile
+     *            State file to which the port and token are written
+     */
+    public CompletionServer(GlobalMetadata<T> metadata, File stateFile) {
+        this(metadata, stateFile, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Creates a new server
+     * 
+     * @param metadata
+     *            CLI meta-data
+     * @param stateFile
+     *            State file to which the port and token are written
+     * @param idleTimeout
+     *            Idle timeout in milliseconds, the server stops once no
+     *            requests have been received for this long
+     */
+    public CompletionServer(GlobalMetadata<T> metadata, File stateFile, long idleTimeout) {
+        if (stateFile == null)
+            throw new NullPointerException("stateFile cannot be null");
+        if (idleTimeout <= 0 || idleTimeout > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("idleTimeout must be a positive number of milliseconds");
+        this.engine = SuggestCommand.getEngine(metadata);
+        this.stateFile = stateFile;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Gets the default state file for a CLI, this is in the
+     * {@code .airline} directory of the users home directory
+     * 
+     * @param cliName
+     *            CLI name
+     * @return Default state file
+     */
+    public static File getDefaultStateFile(String cliName) {
+        return new File(new File(System.getProperty("user.home"), ".airline"), cliName + ".completion");
+    }
+
+    /**
+     * Gets the state file
+     * 
+     * @return State file
+     */
+    public File getStateFile() {
+        return this.stateFile;
+    }
+
+    /**
+     * Gets the port the server is listening on
+     * 
+     * @return Port or {@code -1} if not started
+     */
+    public synchronized int getPort() {
+        return this.socket != null ? this.socket.getLocalPort() : -1;
+    }
+
+    /**
+     * Gets the number of requests answered
+     * 
+     * @return Number of requests
+     */
+    public long getRequestCount() {
+        return this.requests.get();
+    }
+
+    /**
+     * Gets whether the server is running
+     * 
+     * @return True if running, false otherwise
+     */
+    public boolean isRunning() {
+        return this.socket != null && this.stopped.getCount() > 0;
+    }
+
+    /**
+     * Starts the server on a background daemon thread
+     * 
+     * @throws IOException
+     *             Thrown if the server cannot be started
+     */
+    public synchronized void start() throws IOException {
+        if (this.socket != null)
+            throw new IllegalStateException("Server has already been started");
+        if (this.closed)
+            throw new IllegalStateException("Server has been closed");
+
+        byte[] random = new byte[16];
+        new SecureRandom().nextBytes(random);
+        this.token = toHex(random);
+
+        ServerSocket socket = new ServerSocket();
+        try {
+            socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            writeStateFile(socket.getLocalPort());
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        this.socket = socket;
+        this.lastActivity = System.nanoTime();
+        this.executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(MAX_QUEUED), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "airline-completion-request");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        // Don't hold on to idle threads
+        this.executor.allowCoreThreadTimeOut(true);
+
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                serve();
+            }
+        }, "airline-completion-server");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Waits for the server to stop
+     * 
+     * @param timeout
+     *            Maximum time to wait
+     * @param unit
+     *            Time unit
+     * @return True if the server stopped, false if the timeout elapsed first
+     * @throws InterruptedException
+     *             Thrown if interrupted while waiting
+     */
+    public boolean awaitStop(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.stopped.await(timeout, unit);
+    }
+
+    /**
+     * Waits for the server to stop
+     * 
+     * @throws InterruptedException
+     *             Thrown if interrupted while waiting
+     */
+    public void awaitStop() throws InterruptedException {
+        this.stopped.await();
+    }
+
+    /**
+     * Stops the server, waiting for it to stop and remove its state file
+     */
+    @Override
+    public void close() throws IOException {
+        ServerSocket socket;
+        synchronized (this) {
+            this.closed = true;
+            socket = this.socket;
+        }
+        if (socket != null) {
+            // Closing the socket wakes up the serving thread which removes
+            // the state file on its way out
+            socket.close();
+            try {
+                this.stopped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            this.stopped.countDown();
+        }
+    }
+
+    private void serve() {
+        try {
+            while (!this.closed) {
+                // Only valid requests count as activity
+                long idle = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.lastActivity);
+                if (idle >= this.idleTimeout)
+                    break;
+                this.socket.setSoTimeout((int) Math.max(1, this.idleTimeout - idle));
+
+                final Socket client;
+                try {
+                    client = this.socket.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                try {
+                    this.executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                handle(client);
+                            } catch (IOException e) {
+                                // Ignore, the client will fall back to
+                                // completing without the server
+                            } finally {
+                                closeQuietly(client);
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // Too many outstanding requests
+                    closeQuietly(client);
+                }
+            }
+        } catch (IOException e) {
+            // Socket closed
+        } finally {
+            closeQuietly(this.socket);
+            this.executor.shutdown();
+            try {
+                // Let outstanding requests complete
+                this.executor.awaitTermination(REQUEST_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            deleteStateFile();
+            this.stopped.countDown();
+        }
+    }
+
+    private void handle(Socket client) throws IOException {
+        client.setSoTimeout(REQUEST_TIMEOUT);
+        client.setTcpNoDelay(true);
+        RequestReader reader = new RequestReader(client.getInputStream(), MAX_REQUEST_LENGTH);
+
+        // Reject requests without the correct token, never reading more than
+        // the length of the token
+        String presented = reader.readLine(this.token.length());
+        if (presented == null || !MessageDigest.isEqual(this.token.getBytes(StandardCharsets.US_ASCII),
+                presented.getBytes(StandardCharsets.UTF_8)))
+            return;
+        this.lastActivity = System.nanoTime();
+
+        int count;
+        try {
+            count = Integer.parseInt(reader.readLine(10));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (count < 0 || count > MAX_WORDS)
+            return;
+        List<String> words = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            String word = reader.readLine(MAX_WORD_LENGTH);
+            if (word == null)
+                return;
+            words.add(word);
+        }
+        String partial = reader.readLine(MAX_WORD_LENGTH);
+        if (partial == null)
+            return;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8));
+        writer.write(RESPONSE_OK);
+        writer.write('\n');
+        for (String suggestion : this.engine.suggest(words, partial)) {
+            writer.write(suggestion);
+            writer.write('\n');
+        }
+        writer.flush();
+        this.requests.incrementAndGet();
+    }
+
+    private void writeStateFile(int port) throws IOException {
+        Path target = this.stateFile.getAbsoluteFile().toPath();
+        Path dir = target.getParent();
+        Path existing = existingAncestor(dir);
+        boolean posix = existing != null && Files.getFileStore(existing).supportsFileAttributeView("posix");
+
+        if (!Files.exists(dir)) {
+            if (posix) {
+                Files.createDirectories(dir,
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(dir);
+            }
+        }
+
+        Path temp;
+        if (posix) {
+            Set<PosixFilePermission> perms = PosixFilePermissions.fromString("rw-------");
+            temp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp",
+                    PosixFilePermissions.asFileAttribute(perms));
+        } else {
+            temp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+            File tempFile = temp.toFile();
+            tempFile.setReadable(false, false);
+            tempFile.setReadable(true, true);
+            tempFile.setWritable(false, false);
+            tempFile.setWritable(true, true);
+        }
+        try {
+            Files.write(temp, (port + " " + this.token + "\n").getBytes(StandardCharsets.US_ASCII));
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Path existingAncestor(Path dir) {
+        while (dir != null && !Files.exists(dir)) {
+            dir = dir.getParent();
+        }
+        return dir;
+    }
+
+    private void deleteStateFile() {
+        // Only remove the state file if it is still ours, another server may
+        // have replaced it since
+        try {
+            Path path = this.stateFile.toPath();
+            if (!Files.exists(path))
+                return;
+            String contents = new String(Files.readAllBytes(path), StandardCharsets.US_ASCII);
+            if (contents.trim().endsWith(this.token))
+                Files.delete(path);
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * Reads the lines of a request enforcing limits on the length of each line
+     * and the request as a whole
+     */
+    private static final class RequestReader {
+        private final InputStream input;
+        private int remaining;
+
+        private RequestReader(InputStream input, int limit) {
+            this.input = new BufferedInputStream(input);
+            this.remaining = limit;
+        }
+
+        /**
+         * Reads a line
+         * 
+         * @param max
+         *            Maximum length of the line in bytes
+         * @return Line, {@code null} if the stream ended before the end of the
+         *         line or the line or request exceeded its maximum length
+         * @throws IOException
+         *             Thrown if the line cannot be read
+         */
+        private String readLine(int max) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(Math.min(max, 64));
+            while (true) {
+                int b = this.input.read();
+                if (b == -1)
+                    return null;
+                if (b == '\n')
+                    break;
+                if (line.size() >= max || this.remaining <= 0)
+                    return null;
+                this.remaining--;
+                line.write(b);
+            }
+            return new String(line.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] digits = "0123456789abcdef".toCharArray();
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(digits[(b >> 4) & 0xf]).append(digits[b & 0xf]);
+        }
+        return builder.toString();
+    }
+}
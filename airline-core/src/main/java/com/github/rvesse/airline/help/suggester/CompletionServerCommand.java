@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * A command that runs a {@link CompletionServer} for the CLI until it has
+ * been idle for the idle timeout
+ * <p>
+ * Add this to a CLI alongside {@link SuggestCommand} and have the shell
+ * completion script start it in the background when no server is running.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+@Command(name = "completion-server", description = "Runs a completion server for shell completion", hidden = true)
+public class CompletionServerCommand<T> implements Runnable, Callable<Void> {
+
+    @Inject
+    public GlobalMetadata<T> metadata;
+
+    @Option(name = "--state-file", title = "File", description = "File to which the server port and access token are "
+            + "written, defaults to ~/.airline/<cli>.completion")
+    public String stateFile;
+
+    @Option(name = "--idle-timeout", title = "Seconds", description = "Seconds without requests after which the server "
+            + "stops, defaults to 1800")
+    public long idleTimeout = TimeUnit.MILLISECONDS.toSeconds(CompletionServer.DEFAULT_IDLE_TIMEOUT);
+
+    /**
+     * Creates the server
+     * 
+     * @return Completion server
+     */
+    public CompletionServer<T> createServer() {
+        File file = this.stateFile != null ? new File(this.stateFile)
+                : CompletionServer.getDefaultStateFile(this.metadata.getName());
+        return new CompletionServer<T>(this.metadata, file, TimeUnit.SECONDS.toMillis(this.idleTimeout));
+    }
+
+    @Override
+    public void run() {
+        try (CompletionServer<T> server = createServer()) {
+            server.start();
+            server.awaitStop();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to run completion server", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public Void call() {
+        run();
+        return null;
+    }
+}
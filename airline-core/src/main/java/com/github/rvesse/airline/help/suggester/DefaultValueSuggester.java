@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.github.rvesse.airline.annotations.restrictions.PortType;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.restrictions.common.AbstractAllowedValuesRestriction;
+import com.github.rvesse.airline.restrictions.common.IntegralRangeRestriction;
+import com.github.rvesse.airline.restrictions.common.PortRestriction;
+
+/**
+ * A value suggester that suggests values based upon the type and restrictions
+ * of an option/arguments
+ * <p>
+ * Suggests the constants of enum types, {@code true} and {@code false} for
+ * boolean types, the values permitted by {@code @AllowedRawValues} and
+ * {@code @AllowedValues} and the values of integral ranges and port
+ * restrictions provided these contain at most {@link #MAX_RANGE_VALUES}
+ * values.
+ * </p>
+ * <p>
+ * This is used by {@link SuggestionEngine} for options and arguments that do
+ * not declare their own suggester.
+ * </p>
+ */
+public class DefaultValueSuggester implements ValueSuggester {
+
+    /**
+     * Maximum number of values a range may contain for its values to be
+     * suggested
+     */
+    public static final int MAX_RANGE_VALUES = 1024;
+
+    @Override
+    public <T> Iterable<String> suggestValues(ParseState<T> state, OptionMetadata option) {
+        return suggest(option.getJavaType(), option.getRestrictions());
+    }
+
+    @Override
+    public <T> Iterable<String> suggestValues(ParseState<T> state, ArgumentsMetadata arguments) {
+        return suggest(arguments.getJavaType(), arguments.getRestrictions());
+    }
+
+    /**
+     * Gets whether this suggester may suggest values for something of the
+     * given type and restrictions
+     * 
+     * @param type
+     *            Java type
+     * @param restrictions
+     *            Restrictions
+     * @return True if values may be suggested
+     */
+    public boolean canSuggest(Class<?> type, Iterable<?> restrictions) {
+        if (type != null && (type.isEnum() || type == Boolean.class || type == boolean.class))
+            return true;
+        for (Object restriction : restrictions) {
+            if (restriction instanceof AbstractAllowedValuesRestriction
+                    || restriction instanceof IntegralRangeRestriction || restriction instanceof PortRestriction)
+                return true;
+        }
+        return false;
+    }
+
+    protected List<String> suggest(Class<?> type, Iterable<?> restrictions) {
+        Set<String> values = new LinkedHashSet<String>();
+        if (type != null && type.isEnum()) {
+            for (Object constant : type.getEnumConstants()) {
+                values.add(((Enum<?>) constant).name());
+            }
+        } else if (type == Boolean.class || type == boolean.class) {
+            values.add(Boolean.TRUE.toString());
+            values.add(Boolean.FALSE.toString());
+        }
+
+        for (Object restriction : restrictions) {
+            if (restriction instanceof AbstractAllowedValuesRestriction) {
+                values.addAll(((AbstractAllowedValuesRestriction) restriction).getAllowedValues());
+            } else if (restriction instanceof IntegralRangeRestriction) {
+                IntegralRangeRestriction range = (IntegralRangeRestriction) restriction;
+                addRange(values, range.getSmallestValue(), range.getLargestValue());
+            } else if (restriction instanceof PortRestriction) {
+                addPorts(values, ((PortRestriction) restriction).getAcceptablePorts());
+            }
+        }
+        return values.isEmpty() ? Collections.<String> emptyList() : new ArrayList<String>(values);
+    }
+
+    private static void addRange(Set<String> values, Long min, Long max) {
+        if (min == null || max == null || max < min || max - min >= MAX_RANGE_VALUES)
+            return;
+        for (long i = min; i <= max; i++) {
+            values.add(Long.toString(i));
+        }
+    }
+
+    private static void addPorts(Set<String> values, Set<PortType> portTypes) {
+        if (portTypes.isEmpty())
+            return;
+        BitSet ports = new BitSet();
+        for (PortType portType : portTypes) {
+            ports.set(portType.getMinimumPort(), portType.getMaximumPort() + 1);
+            if (ports.cardinality() > MAX_RANGE_VALUES)
+                return;
+        }
+        for (int port = ports.nextSetBit(0); port >= 0; port = ports.nextSetBit(port + 1)) {
+            values.add(Integer.toString(port));
+        }
+    }
+}
@@ -26,15 +26,27 @@ import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
 
 public class GlobalSuggester<T>
-    implements Suggester
+    implements Suggester, StatelessSuggester
 {
     @Inject
     public GlobalMetadata<T> metadata;
 
     @Override
     public Iterable<String> suggest()
+    {
+        return suggest(metadata);
+    }
+
+    @Override
+    public <S> Iterable<String> suggest(ParseState<S> state)
+    {
+        return suggest(state.getGlobal());
+    }
+
+    private static Iterable<String> suggest(GlobalMetadata<?> metadata)
     {
         List<String> suggestions = new ArrayList<String>();
         for (CommandGroupMetadata group : metadata.getCommandGroups()) {
@@ -25,13 +25,23 @@ import org.apache.commons.collections4.ListUtils;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
 
-public class GroupSuggester implements Suggester {
+public class GroupSuggester implements Suggester, StatelessSuggester {
     @Inject
     public CommandGroupMetadata group;
 
     @Override
     public Iterable<String> suggest() {
+        return suggest(group);
+    }
+
+    @Override
+    public <T> Iterable<String> suggest(ParseState<T> state) {
+        return suggest(state.getGroup());
+    }
+
+    private static Iterable<String> suggest(CommandGroupMetadata group) {
         List<String> suggestions = new ArrayList<String>();
         for (CommandMetadata command : group.getCommands()) {
             suggestions.add(command.getName());
@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * Interface for suggesters that receive the context of each request as a
+ * parameter rather than having it injected
+ * <p>
+ * Implementations must be thread safe and have a public no-argument
+ * constructor, {@link Suggesters} creates a single instance of each
+ * implementation which is used for every request.
+ * </p>
+ */
+public interface StatelessSuggester {
+
+    /**
+     * Suggests completions
+     * 
+     * @param state
+     *            Parser state for the input being completed
+     * @return Suggestions
+     */
+    public <T> Iterable<String> suggest(ParseState<T> state);
+}
@@ -15,77 +15,54 @@
  */
 package com.github.rvesse.airline.help.suggester;
 
-import com.github.rvesse.airline.Context;
-import com.github.rvesse.airline.annotations.Arguments;
-import com.github.rvesse.airline.annotations.Command;
-import com.github.rvesse.airline.model.CommandGroupMetadata;
-import com.github.rvesse.airline.model.CommandMetadata;
-import com.github.rvesse.airline.model.GlobalMetadata;
-import com.github.rvesse.airline.model.MetadataLoader;
-import com.github.rvesse.airline.model.OptionMetadata;
-import com.github.rvesse.airline.model.SuggesterMetadata;
-import com.github.rvesse.airline.parser.ParseState;
-import com.github.rvesse.airline.parser.suggester.SuggestionParser;
-import com.github.rvesse.airline.utils.AirlineUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.Callable;
-
-import static com.github.rvesse.airline.parser.ParserUtil.createInstance;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.model.GlobalMetadata;
 
 @Command(name = "suggest")
 public class SuggestCommand<T> implements Runnable, Callable<Void> {
-    private static final Map<Context, Class<? extends Suggester>> BUILTIN_SUGGESTERS = new HashMap<>();
-
-    static {
-        BUILTIN_SUGGESTERS.put(Context.GLOBAL, GlobalSuggester.class);
-        BUILTIN_SUGGESTERS.put(Context.GROUP, GroupSuggester.class);
-        BUILTIN_SUGGESTERS.put(Context.COMMAND, CommandSuggester.class);
-    }
-
     @Inject
     public GlobalMetadata<T> metadata;
 
     @Arguments
     public List<String> arguments = new ArrayList<>();
 
+    /**
+     * Generates suggestions for the word following the given arguments
+     * <p>
+     * The arguments are the completed words so there is no partial word, all
+     * the suggestions for the next word are returned and it is left to the
+     * caller e.g. the shell to filter them.
+     * </p>
+     * 
+     * @return Suggestions
+     */
     public Iterable<String> generateSuggestions() {
-        SuggestionParser<T> parser = new SuggestionParser<T>();
-        ParseState<T> state = parser.parse(metadata, arguments);
-
-        Class<? extends Suggester> suggesterClass = BUILTIN_SUGGESTERS.get(state.getLocation());
-        if (suggesterClass != null) {
-            SuggesterMetadata suggesterMetadata = MetadataLoader.loadSuggester(suggesterClass);
-
-            if (suggesterMetadata != null) {
-                Map<Class<?>, Object> bindings = new HashMap<Class<?>, Object>();
-                bindings.put(GlobalMetadata.class, metadata);
-
-                if (state.getGroup() != null) {
-                    bindings.put(CommandGroupMetadata.class, state.getGroup());
-                }
-
-                if (state.getCommand() != null) {
-                    bindings.put(CommandMetadata.class, state.getCommand());
-                }
-
-                Suggester suggester = createInstance(suggesterMetadata.getSuggesterClass(),
-                        Collections.<OptionMetadata> emptyList(), null, null, null,
-                        suggesterMetadata.getMetadataInjections(), AirlineUtils.unmodifiableMapCopy(bindings));
-
-                return suggester.suggest();
-            }
-        }
+        return getEngine(metadata).suggest(arguments, null);
+    }
 
-        return Collections.emptyList();
+    /**
+     * Gets the shared suggestion engine for a CLI, the engine is attached to
+     * the meta-data so is discarded along with it
+     * 
+     * @param metadata
+     *            CLI meta-data
+     * @return Suggestion engine
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> SuggestionEngine<T> getEngine(GlobalMetadata<T> metadata) {
+        Object engine = metadata.getAttachment(SuggestionEngine.class);
+        if (engine == null)
+            engine = metadata.attach(SuggestionEngine.class, new SuggestionEngine<T>(metadata));
+        return (SuggestionEngine<T>) engine;
     }
 
     @Override
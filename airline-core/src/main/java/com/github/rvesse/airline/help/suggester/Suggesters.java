@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.model.SuggesterMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.ParserUtil;
+
+/**
+ * Helper for obtaining suggestions from suggester classes
+ * <p>
+ * Suggesters that implement {@link StatelessSuggester} are created once per
+ * class and the single instance is passed the context of each request, all
+ * other suggesters are created and have the context injected for each request
+ * using the cached {@link SuggesterMetadata} for their class.
+ * </p>
+ */
+public final class Suggesters {
+
+    private static final ClassValue<StatelessSuggester> INSTANCES = new ClassValue<StatelessSuggester>() {
+        @Override
+        protected StatelessSuggester computeValue(Class<?> type) {
+            return (StatelessSuggester) ParserUtil.createInstance(type);
+        }
+    };
+
+    private Suggesters() {
+    }
+
+    /**
+     * Gets the single instance of a stateless suggester
+     * 
+     * @param suggesterClass
+     *            Suggester class
+     * @return Suggester instance
+     */
+    public static <S extends StatelessSuggester> S getInstance(Class<S> suggesterClass) {
+        return suggesterClass.cast(INSTANCES.get(suggesterClass));
+    }
+
+    /**
+     * Creates a suggester instance and injects the context of the request into
+     * it
+     * 
+     * @param suggesterClass
+     *            Suggester class
+     * @param state
+     *            Parser state for the input being completed
+     * @return Suggester instance
+     */
+    public static <T> Suggester createInstance(Class<? extends Suggester> suggesterClass, ParseState<T> state) {
+        SuggesterMetadata suggesterMetadata = MetadataLoader.loadSuggester(suggesterClass);
+
+        Map<Class<?>, Object> bindings = new HashMap<Class<?>, Object>();
+        bindings.put(GlobalMetadata.class, state.getGlobal());
+        if (state.getGroup() != null) {
+            bindings.put(CommandGroupMetadata.class, state.getGroup());
+        }
+        if (state.getCommand() != null) {
+            bindings.put(CommandMetadata.class, state.getCommand());
+        }
+
+        return ParserUtil.createInstance(suggesterMetadata.getSuggesterClass(),
+                Collections.<OptionMetadata> emptyList(), null, null, null,
+                suggesterMetadata.getMetadataInjections(), bindings);
+    }
+
+    /**
+     * Gets suggestions from a suggester
+     * 
+     * @param suggesterClass
+     *            Suggester class, either a {@link StatelessSuggester} or a
+     *            {@link Suggester}
+     * @param state
+     *            Parser state for the input being completed
+     * @return Suggestions
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Iterable<String> suggest(Class<?> suggesterClass, ParseState<T> state) {
+        if (StatelessSuggester.class.isAssignableFrom(suggesterClass)) {
+            return INSTANCES.get(suggesterClass).suggest(state);
+        } else if (Suggester.class.isAssignableFrom(suggesterClass)) {
+            return createInstance((Class<? extends Suggester>) suggesterClass, state).suggest();
+        }
+        throw new IllegalArgumentException(
+                String.format("%s is not a Suggester or StatelessSuggester", suggesterClass.getName()));
+    }
+}
@@ -0,0 +1,374 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.Context;
+import com.github.rvesse.airline.annotations.help.ValueSuggestions;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.ParserUtil;
+import com.github.rvesse.airline.parser.suggester.SuggestionParser;
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+/**
+ * An incremental suggestion engine intended for interactive completion
+ * <p>
+ * The engine provides the same candidates as the built-in
+ * {@link GlobalSuggester}, {@link GroupSuggester} and {@link CommandSuggester}
+ * but builds a {@link SuggestionIndex} for each CLI, group and command the
+ * first time it is needed so only candidates matching the partial word are
+ * returned. When the words being completed extend those from the previous call
+ * and the previous input was parsed up to the command, parsing resumes from
+ * the previous state rather than re-parsing all the input.
+ * </p>
+ * <p>
+ * When completing the value of an option or arguments the engine suggests
+ * values using the {@link ValueSuggester} given by the
+ * {@link ValueSuggestions} annotation, or a {@link DefaultValueSuggester}
+ * where there is no annotation. Value suggesters are created once per engine.
+ * </p>
+ * <p>
+ * Engines are thread safe, a single engine should be used for a CLI so that
+ * the indexes are reused. Since command groups may have commands and
+ * sub-groups added to them after they are created each group index records
+ * the number of commands and sub-groups it was built from and is rebuilt if
+ * this changes, all other meta-data is immutable.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public class SuggestionEngine<T> {
+
+    private static final DefaultValueSuggester DEFAULT_VALUES = new DefaultValueSuggester();
+
+    private final GlobalMetadata<T> metadata;
+    private final Map<Object, StampedIndex> indexes = new IdentityHashMap<Object, StampedIndex>();
+    private final AtomicReference<Checkpoint<T>> previous = new AtomicReference<Checkpoint<T>>();
+    private final AtomicLong resumed = new AtomicLong();
+    private final Map<Object, ValueSuggester> valueSuggesters = new IdentityHashMap<Object, ValueSuggester>();
+
+    /**
+     * Creates a new engine
+     * 
+     * @param metadata
+     *            CLI meta-data
+     */
+    public SuggestionEngine(GlobalMetadata<T> metadata) {
+        if (metadata == null)
+            throw new NullPointerException("metadata cannot be null");
+        this.metadata = metadata;
+    }
+
+    /**
+     * Gets the CLI meta-data
+     * 
+     * @return CLI meta-data
+     */
+    public GlobalMetadata<T> getMetadata() {
+        return this.metadata;
+    }
+
+    /**
+     * Gets all the suggestions for the given input
+     * 
+     * @param words
+     *            Completed words
+     * @return Suggestions
+     */
+    public List<String> suggest(List<String> words) {
+        return suggest(words, null);
+    }
+
+    /**
+     * Gets the suggestions for the given input
+     * 
+     * @param words
+     *            Completed words
+     * @param partial
+     *            Partial word being completed, if {@code null} or empty all
+     *            suggestions are returned
+     * @return Suggestions starting with the partial word
+     */
+    public List<String> suggest(List<String> words, String partial) {
+        ParseState<T> state = parse(words);
+        CommandMetadata command = state.getCommand();
+        switch (state.getLocation()) {
+        case OPTION:
+            // Completing the value of an option
+            return state.getCurrentOption() != null ? suggestValues(state, state.getCurrentOption(), partial)
+                    : Collections.<String> emptyList();
+        case ARGS:
+            // Completing arguments after the arguments separator
+            return command != null && command.getArguments() != null
+                    ? suggestValues(state, command.getArguments(), partial) : Collections.<String> emptyList();
+        default:
+            break;
+        }
+
+        SuggestionIndex index = getIndex(state);
+        List<String> suggestions = index != null ? index.find(partial) : Collections.<String> emptyList();
+        if (state.getLocation() == Context.COMMAND && command != null && command.getArguments() != null) {
+            // May also be completing an argument
+            List<String> values = suggestValues(state, command.getArguments(), partial);
+            if (!values.isEmpty()) {
+                Set<String> merged = new LinkedHashSet<String>(suggestions);
+                merged.addAll(values);
+                suggestions = new ArrayList<String>(merged);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Gets the value suggester for an option
+     * <p>
+     * This is the suggester given by the {@link ValueSuggestions} annotation
+     * on the option if present, otherwise a {@link DefaultValueSuggester} if
+     * that can suggest values for the option.
+     * </p>
+     * 
+     * @param option
+     *            Option
+     * @return Value suggester, {@code null} if values cannot be suggested
+     */
+    public ValueSuggester getValueSuggester(OptionMetadata option) {
+        return getValueSuggester(option, option.getAccessors(), option.getJavaType(), option.getRestrictions());
+    }
+
+    /**
+     * Gets the value suggester for arguments
+     * <p>
+     * This is the suggester given by the {@link ValueSuggestions} annotation
+     * on the arguments if present, otherwise a {@link DefaultValueSuggester}
+     * if that can suggest values for the arguments.
+     * </p>
+     * 
+     * @param arguments
+     *            Arguments
+     * @return Value suggester, {@code null} if values cannot be suggested
+     */
+    public ValueSuggester getValueSuggester(ArgumentsMetadata arguments) {
+        return getValueSuggester(arguments, arguments.getAccessors(), arguments.getJavaType(),
+                arguments.getRestrictions());
+    }
+
+    private ValueSuggester getValueSuggester(Object key, Iterable<Accessor> accessors, Class<?> type,
+            Iterable<?> restrictions) {
+        synchronized (this.valueSuggesters) {
+            if (this.valueSuggesters.containsKey(key))
+                return this.valueSuggesters.get(key);
+
+            ValueSuggester suggester = null;
+            ValueSuggestions annotation = null;
+            for (Accessor accessor : accessors) {
+                annotation = accessor.getAnnotation(ValueSuggestions.class);
+                if (annotation != null)
+                    break;
+            }
+            if (annotation != null) {
+                suggester = ParserUtil.createInstance(annotation.suggester());
+                if (annotation.cacheTtl() > 0)
+                    suggester = new CachingValueSuggester(suggester, annotation.cacheTtl(), annotation.cacheTtlUnit());
+            } else if (DEFAULT_VALUES.canSuggest(type, restrictions)) {
+                suggester = DEFAULT_VALUES;
+            }
+            this.valueSuggesters.put(key, suggester);
+            return suggester;
+        }
+    }
+
+    private List<String> suggestValues(ParseState<T> state, OptionMetadata option, String partial) {
+        ValueSuggester suggester = getValueSuggester(option);
+        return suggester != null ? filter(suggester.suggestValues(state, option), partial)
+                : Collections.<String> emptyList();
+    }
+
+    private List<String> suggestValues(ParseState<T> state, ArgumentsMetadata arguments, String partial) {
+        ValueSuggester suggester = getValueSuggester(arguments);
+        return suggester != null ? filter(suggester.suggestValues(state, arguments), partial)
+                : Collections.<String> emptyList();
+    }
+
+    private static List<String> filter(Iterable<String> values, String partial) {
+        if (values == null)
+            return Collections.<String> emptyList();
+        Set<String> matches = new LinkedHashSet<String>();
+        for (String value : values) {
+            if (value != null && (partial == null || value.startsWith(partial)))
+                matches.add(value);
+        }
+        return new ArrayList<String>(matches);
+    }
+
+    /**
+     * Parses the completed words, resuming from the previous parse if possible
+     * 
+     * @param words
+     *            Completed words
+     * @return Parser state
+     */
+    public ParseState<T> parse(List<String> words) {
+        List<String> input = AirlineUtils.unmodifiableListCopy(words);
+        SuggestionParser<T> parser = new SuggestionParser<T>();
+        ParseState<T> state;
+
+        Checkpoint<T> checkpoint = this.previous.get();
+        if (checkpoint != null && checkpoint.isExtendedBy(input)) {
+            state = parser.resume(checkpoint.state, input.subList(checkpoint.words.size(), input.size()));
+            this.resumed.incrementAndGet();
+        } else {
+            state = parser.parse(this.metadata, input);
+        }
+
+        if (SuggestionParser.canResume(state)) {
+            this.previous.set(new Checkpoint<T>(input, state));
+        }
+        return state;
+    }
+
+    /**
+     * Gets the number of parses that resumed from a previous parse
+     * 
+     * @return Number of resumed parses
+     */
+    public long getResumedCount() {
+        return this.resumed.get();
+    }
+
+    private SuggestionIndex getIndex(ParseState<T> state) {
+        Object key;
+        switch (state.getLocation()) {
+        case GLOBAL:
+            key = this.metadata;
+            break;
+        case GROUP:
+            key = state.getGroup();
+            break;
+        case COMMAND:
+            key = state.getCommand();
+            break;
+        default:
+            return null;
+        }
+        if (key == null)
+            return null;
+
+        int stamp = stamp(key);
+        synchronized (this.indexes) {
+            StampedIndex index = this.indexes.get(key);
+            if (index == null || index.stamp != stamp) {
+                index = new StampedIndex(new SuggestionIndex(candidates(key, state)), stamp);
+                this.indexes.put(key, index);
+            }
+            return index.index;
+        }
+    }
+
+    /**
+     * Calculates the stamp for the meta-data an index is built from, as groups
+     * only ever grow this changes whenever commands or sub-groups are added
+     * 
+     * @param key
+     *            Meta-data
+     * @return Stamp
+     */
+    private static int stamp(Object key) {
+        if (key instanceof CommandGroupMetadata) {
+            return ((CommandGroupMetadata) key).getModificationStamp();
+        }
+        // Other meta-data is immutable
+        return 0;
+    }
+
+    private List<String> candidates(Object key, ParseState<T> state) {
+        List<String> candidates = new ArrayList<String>();
+        if (key instanceof GlobalMetadata) {
+            for (CommandGroupMetadata group : this.metadata.getCommandGroups()) {
+                candidates.add(group.getName());
+            }
+            for (CommandMetadata command : this.metadata.getDefaultGroupCommands()) {
+                candidates.add(command.getName());
+            }
+            for (OptionMetadata option : this.metadata.getOptions()) {
+                candidates.addAll(option.getOptions());
+            }
+        } else if (key instanceof CommandGroupMetadata) {
+            CommandGroupMetadata group = (CommandGroupMetadata) key;
+            for (CommandMetadata command : group.getCommands()) {
+                candidates.add(command.getName());
+            }
+            for (OptionMetadata option : group.getOptions()) {
+                candidates.addAll(option.getOptions());
+            }
+        } else {
+            CommandMetadata command = (CommandMetadata) key;
+            for (OptionMetadata option : command.getCommandOptions()) {
+                candidates.addAll(option.getOptions());
+            }
+            if (command.getArguments() != null) {
+                // Include arguments separator
+                candidates.add(state.getParserConfiguration().getArgumentsSeparator());
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * An index and the stamp of the meta-data it was built from
+     */
+    private static final class StampedIndex {
+        private final SuggestionIndex index;
+        private final int stamp;
+
+        private StampedIndex(SuggestionIndex index, int stamp) {
+            this.index = index;
+            this.stamp = stamp;
+        }
+    }
+
+    /**
+     * The input and resulting state of a previous parse that may be resumed
+     */
+    private static final class Checkpoint<T> {
+        private final List<String> words;
+        private final ParseState<T> state;
+
+        private Checkpoint(List<String> words, ParseState<T> state) {
+            this.words = words;
+            this.state = state;
+        }
+
+        private boolean isExtendedBy(List<String> input) {
+            return input.size() >= this.words.size() && input.subList(0, this.words.size()).equals(this.words);
+        }
+    }
+}
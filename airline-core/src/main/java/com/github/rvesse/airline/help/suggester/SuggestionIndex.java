@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+/**
+ * A sorted prefix index over a fixed set of suggestion candidates
+ *
+ */
+public final class SuggestionIndex {
+
+    private final List<String> candidates;
+    private final String[] sorted;
+
+    /**
+     * Creates a new index
+     * 
+     * @param candidates
+     *            Candidates, in the order they should be returned when no
+     *            prefix is given
+     */
+    public SuggestionIndex(List<String> candidates) {
+        this.candidates = AirlineUtils.unmodifiableListCopy(candidates);
+        TreeSet<String> unique = new TreeSet<String>();
+        for (String candidate : this.candidates) {
+            if (candidate != null)
+                unique.add(candidate);
+        }
+        this.sorted = unique.toArray(new String[unique.size()]);
+    }
+
+    /**
+     * Gets all the candidates in their original order
+     * 
+     * @return Candidates
+     */
+    public List<String> getCandidates() {
+        return this.candidates;
+    }
+
+    /**
+     * Finds the candidates starting with the given prefix
+     * 
+     * @param prefix
+     *            Prefix, if {@code null} or empty all candidates are returned
+     *            in their original order
+     * @return Matching candidates in sorted order
+     */
+    public List<String> find(String prefix) {
+        if (prefix == null || prefix.isEmpty())
+            return this.candidates;
+
+        // Find the first candidate that is not less than the prefix, all
+        // matches follow it consecutively
+        int start = Arrays.binarySearch(this.sorted, prefix);
+        if (start < 0)
+            start = -start - 1;
+        int end = start;
+        while (end < this.sorted.length && this.sorted[end].startsWith(prefix)) {
+            end++;
+        }
+        if (start == end)
+            return Collections.emptyList();
+        return Collections.unmodifiableList(new ArrayList<String>(Arrays.asList(this.sorted).subList(start, end)));
+    }
+
+    /**
+     * Gets the number of distinct candidates
+     * 
+     * @return Number of distinct candidates
+     */
+    public int size() {
+        return this.sorted.length;
+    }
+}
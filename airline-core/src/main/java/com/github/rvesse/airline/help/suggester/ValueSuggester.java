@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * Interface for things that suggest values for options and arguments
+ * <p>
+ * Implementations are created once per {@link SuggestionEngine} and so may be
+ * called concurrently, the context of each request is passed as parameters.
+ * Implementations need not filter their values by the partial word being
+ * completed since the engine does this.
+ * </p>
+ * 
+ * @see com.github.rvesse.airline.annotations.help.ValueSuggestions
+ */
+public interface ValueSuggester {
+
+    /**
+     * Suggests values for an option
+     * 
+     * @param state
+     *            Parser state
+     * @param option
+     *            Option
+     * @return Suggested values
+     */
+    public <T> Iterable<String> suggestValues(ParseState<T> state, OptionMetadata option);
+
+    /**
+     * Suggests values for arguments
+     * 
+     * @param state
+     *            Parser state
+     * @param arguments
+     *            Arguments
+     * @return Suggested values
+     */
+    public <T> Iterable<String> suggestValues(ParseState<T> state, ArgumentsMetadata arguments);
+}
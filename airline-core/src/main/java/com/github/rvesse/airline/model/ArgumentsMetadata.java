@@ -17,6 +17,7 @@ package com.github.rvesse.airline.model;
 
 import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.restrictions.ArgumentsRestrictionPipeline;
 import com.github.rvesse.airline.types.DefaultTypeConverterProvider;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 import com.github.rvesse.airline.utils.AirlineUtils;
@@ -39,6 +40,7 @@ public class ArgumentsMetadata {
     private final String description;
     private final Set<Accessor> accessors;
     private final List<ArgumentsRestriction> restrictions;
+    private final ArgumentsRestrictionPipeline pipeline;
     private final TypeConverterProvider provider;
 
     //@formatter:off
@@ -59,6 +61,7 @@ public class ArgumentsMetadata {
         this.description = description;
         this.restrictions = restrictions != null ? AirlineUtils.unmodifiableListCopy(restrictions)
                 : Collections.<ArgumentsRestriction> emptyList();
+        this.pipeline = ArgumentsRestrictionPipeline.compile(this.restrictions);
         this.provider = typeConverterProvider != null ? typeConverterProvider : new DefaultTypeConverterProvider();
         this.accessors = SetUtils.unmodifiableSet(AirlineUtils.singletonSet(new Accessor(path)));
     }
@@ -74,6 +77,7 @@ public class ArgumentsMetadata {
         this.titles = first.titles;
         this.description = first.description;
         this.restrictions = first.restrictions;
+        this.pipeline = first.pipeline;
         this.provider = first.provider;
 
         Set<Accessor> accessors = new HashSet<>();
@@ -114,6 +118,16 @@ public class ArgumentsMetadata {
     public List<ArgumentsRestriction> getRestrictions() {
         return this.restrictions;
     }
+
+    /**
+     * Gets the compiled form of the restrictions which is used to efficiently
+     * validate argument values
+     * 
+     * @return Restriction pipeline
+     */
+    public ArgumentsRestrictionPipeline getRestrictionPipeline() {
+        return this.pipeline;
+    }
     
     public TypeConverterProvider getTypeConverterProvider() {
         return this.provider;
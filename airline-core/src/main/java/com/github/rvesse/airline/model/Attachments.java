@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds values attached to meta-data
+ * <p>
+ * Attachments allow state derived from meta-data e.g. indexes used for
+ * completion or precomputed help to share the lifetime of the meta-data rather
+ * than being held in static caches. By convention the class that owns an
+ * attachment is used as its key.
+ * </p>
+ * <p>
+ * Attachments are thread safe, values may be retrieved and attached
+ * concurrently from any thread. A value is only attached if no value is
+ * already attached for its key and once attached it is never replaced, so
+ * threads racing to attach values for the same key all observe the same
+ * winning value. Attached values are published
+ * safely but must themselves be thread safe if they are mutated after being
+ * attached.
+ * </p>
+ */
+public final class Attachments {
+
+    private final ConcurrentMap<Object, Object> values = new ConcurrentHashMap<>();
+
+    /**
+     * Gets a value previously attached
+     * 
+     * @param key
+     *            Key
+     * @return Attached value, {@code null} if none
+     */
+    public Object get(Object key) {
+        return this.values.get(key);
+    }
+
+    /**
+     * Attaches a value unless a value is already attached for the given key
+     * 
+     * @param key
+     *            Key
+     * @param value
+     *            Value
+     * @return The value now attached for the key, this is the existing value
+     *         if there was one
+     */
+    public Object attach(Object key, Object value) {
+        if (key == null)
+            throw new NullPointerException("key cannot be null");
+        if (value == null)
+            throw new NullPointerException("value cannot be null");
+        Object existing = this.values.putIfAbsent(key, value);
+        return existing != null ? existing : value;
+    }
+}
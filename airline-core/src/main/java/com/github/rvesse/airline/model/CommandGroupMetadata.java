@@ -32,8 +32,8 @@ public class CommandGroupMetadata {
     private final boolean hidden;
     private final List<OptionMetadata> options;
     private final CommandMetadata defaultCommand;
-    private final List<CommandMetadata> commands;
-    private final List<CommandGroupMetadata> subGroups;
+    private final List<CommandMetadata> commands, commandsView;
+    private final List<CommandGroupMetadata> subGroups, subGroupsView;
     private CommandGroupMetadata parentGroup;
 
     //@formatter:off
@@ -60,6 +60,8 @@ public class CommandGroupMetadata {
         if (this.defaultCommand != null && !this.commands.contains(this.defaultCommand)) {
             this.commands.add(this.defaultCommand);
         }
+        this.commandsView = Collections.unmodifiableList(this.commands);
+        this.subGroupsView = Collections.unmodifiableList(this.subGroups);
     }
 
     /**
@@ -113,7 +115,7 @@ public class CommandGroupMetadata {
      * @return Commands
      */
     public List<CommandMetadata> getCommands() {
-        return Collections.unmodifiableList(commands);
+        return commandsView;
     }
 
     /**
@@ -134,7 +136,7 @@ public class CommandGroupMetadata {
      * @return Sub-groups
      */
     public List<CommandGroupMetadata> getSubGroups() {
-        return Collections.unmodifiableList(subGroups);
+        return subGroupsView;
     }
 
     /**
@@ -170,6 +172,25 @@ public class CommandGroupMetadata {
         return this.parentGroup;
     }
 
+    /**
+     * Gets a stamp that changes whenever commands or sub-groups are added to
+     * this group or any of its sub-groups
+     * <p>
+     * Groups only ever grow so this may be compared with a previously
+     * obtained stamp to detect whether state derived from the group is
+     * stale.
+     * </p>
+     * 
+     * @return Modification stamp
+     */
+    public int getModificationStamp() {
+        int stamp = this.commands.size();
+        for (CommandGroupMetadata subGroup : this.subGroups) {
+            stamp += 1 + subGroup.getModificationStamp();
+        }
+        return stamp;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
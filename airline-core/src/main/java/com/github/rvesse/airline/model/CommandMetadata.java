@@ -40,6 +40,7 @@ public class CommandMetadata {
     private final List<String> groupNames;
     private final List<Group> groups;
     private final List<HelpSection> sections;
+    private final Attachments attachments = new Attachments();
 
     //@formatter:off
     public CommandMetadata(String name, 
@@ -146,6 +147,34 @@ public class CommandMetadata {
     public List<Group> getGroups() {
         return groups;
     }
+
+    /**
+     * Gets a value previously attached to this meta-data, see
+     * {@link Attachments} for details
+     * 
+     * @param key
+     *            Key
+     * @return Attached value, {@code null} if none
+     */
+    public Object getAttachment(Object key) {
+        return this.attachments.get(key);
+    }
+
+    /**
+     * Attaches a value to this meta-data unless a value is already attached
+     * for the given key, see {@link Attachments} for details
+     * 
+     * @param key
+     *            Key
+     * @param value
+     *            Value
+     * @return The value now attached for the key, this is the existing value
+     *         if there was one
+     */
+    public Object attach(Object key, Object value) {
+        return this.attachments.attach(key, value);
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
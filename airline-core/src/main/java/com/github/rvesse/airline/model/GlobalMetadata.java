@@ -36,6 +36,7 @@ public class GlobalMetadata<T> {
     private final List<CommandGroupMetadata> commandGroups;
     private final ParserMetadata<T> parserConfig;
     private final List<GlobalRestriction> restrictions;
+    private final Attachments attachments = new Attachments();
 
     public GlobalMetadata(String name, String description, Iterable<OptionMetadata> options,
             CommandMetadata defaultCommand, Iterable<CommandMetadata> defaultGroupCommands,
@@ -88,6 +89,48 @@ public class GlobalMetadata<T> {
         return parserConfig;
     }
 
+    /**
+     * Gets a value previously attached to this meta-data, see
+     * {@link Attachments} for details
+     * 
+     * @param key
+     *            Key
+     * @return Attached value, {@code null} if none
+     */
+    public Object getAttachment(Object key) {
+        return this.attachments.get(key);
+    }
+
+    /**
+     * Attaches a value to this meta-data unless a value is already attached
+     * for the given key, see {@link Attachments} for details
+     * 
+     * @param key
+     *            Key
+     * @param value
+     *            Value
+     * @return The value now attached for the key, this is the existing value
+     *         if there was one
+     */
+    public Object attach(Object key, Object value) {
+        return this.attachments.attach(key, value);
+    }
+
+    /**
+     * Gets a stamp that changes whenever commands or sub-groups are added to
+     * any of the command groups, see
+     * {@link CommandGroupMetadata#getModificationStamp()}
+     * 
+     * @return Modification stamp
+     */
+    public int getModificationStamp() {
+        int stamp = this.defaultGroupCommands.size();
+        for (CommandGroupMetadata group : this.commandGroups) {
+            stamp += 1 + group.getModificationStamp();
+        }
+        return stamp;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
@@ -66,6 +66,15 @@ import java.util.*;
  */
 public class MetadataLoader {
 
+    private static final ClassValue<SuggesterMetadata> SUGGESTERS = new ClassValue<SuggesterMetadata>() {
+        @SuppressWarnings("unchecked")
+        @Override
+        protected SuggesterMetadata computeValue(Class<?> type) {
+            InjectionMetadata injectionMetadata = loadInjectionMetadata(type);
+            return new SuggesterMetadata((Class<? extends Suggester>) type, injectionMetadata.metadataInjections);
+        }
+    };
+
     public static <C> ParserMetadata<C> loadParser(Class<?> cliClass) {
         if (cliClass == null)
             return ParserBuilder.<C> defaultConfiguration();
@@ -144,6 +153,11 @@ public class MetadataLoader {
             builder = builder.withDefaultOptionParsers();
         }
 
+        // Validation options
+        if (parserConfig.validationParallelism() > 1) {
+            builder = builder.withParallelValidation(parserConfig.validationParallelism());
+        }
+
         return builder.build();
     }
 
@@ -453,14 +467,17 @@ public class MetadataLoader {
 
     /**
      * Loads suggester meta-data
+     * <p>
+     * Suggester meta-data is immutable so it is only loaded once per class
+     * and then reused.
+     * </p>
      * 
      * @param suggesterClass
      *            Suggester class
      * @return Suggester meta-data
      */
     public static SuggesterMetadata loadSuggester(Class<? extends Suggester> suggesterClass) {
-        InjectionMetadata injectionMetadata = loadInjectionMetadata(suggesterClass);
-        return new SuggesterMetadata(suggesterClass, injectionMetadata.metadataInjections);
+        return SUGGESTERS.get(suggesterClass);
     }
 
     /**
@@ -18,6 +18,7 @@ package com.github.rvesse.airline.model;
 import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.annotations.OptionType;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.OptionRestrictionPipeline;
 import com.github.rvesse.airline.types.DefaultTypeConverterProvider;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 import com.github.rvesse.airline.utils.AirlineUtils;
@@ -39,6 +40,7 @@ public class OptionMetadata {
     private final int arity;
     private final boolean hidden, overrides, sealed;
     private final List<OptionRestriction> restrictions;
+    private final OptionRestrictionPipeline pipeline;
     private final TypeConverterProvider provider;
     private Set<Accessor> accessors;
 
@@ -73,6 +75,7 @@ public class OptionMetadata {
         this.overrides = overrides;
         this.sealed = sealed;
         this.restrictions = restrictions != null ? AirlineUtils.unmodifiableListCopy(restrictions) : Collections.<OptionRestriction>emptyList();
+        this.pipeline = OptionRestrictionPipeline.compile(this.restrictions);
         this.provider = typeConverterProvider != null ? typeConverterProvider : new DefaultTypeConverterProvider();
 
         if (path != null) {
@@ -97,6 +100,7 @@ public class OptionMetadata {
         this.overrides = option.overrides;
         this.sealed = option.sealed;
         this.restrictions = option.restrictions;
+        this.pipeline = option.pipeline;
         this.provider = option.provider;
 
         Set<Accessor> accessors = new LinkedHashSet<Accessor>();
@@ -164,6 +168,16 @@ public class OptionMetadata {
     public List<OptionRestriction> getRestrictions() {
         return this.restrictions;
     }
+
+    /**
+     * Gets the compiled form of the restrictions which is used to efficiently
+     * validate option values
+     * 
+     * @return Restriction pipeline
+     */
+    public OptionRestrictionPipeline getRestrictionPipeline() {
+        return this.pipeline;
+    }
     
     public TypeConverterProvider getTypeConverterProvider() {
         return this.provider;
@@ -16,11 +16,18 @@
 package com.github.rvesse.airline.model;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.CommandFactory;
 import com.github.rvesse.airline.DefaultCommandFactory;
+import com.github.rvesse.airline.parser.aliases.AliasLookup;
+import com.github.rvesse.airline.parser.aliases.AliasTable;
 import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
 import com.github.rvesse.airline.parser.errors.handlers.FailFast;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
@@ -42,17 +49,120 @@ public class ParserMetadata<T> {
     private final boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain;
     private final List<OptionParser<T>> optionParsers;
     private final List<AliasMetadata> aliases;
+    private final AliasTable aliasTable;
     private final UserAliasesSource<T> userAliases;
     private final TypeConverter typeConverter;
     private final CommandFactory<T> commandFactory;
     private final String argsSeparator, flagNegationPrefix;
     private final ParserErrorHandler errorHandler;
+    private final int validationParallelism;
+    private final ExecutorService validationExecutor;
+    private final DefaultValidationExecutor defaultValidationExecutor;
 
     public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
             TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
             boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
             boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
             String flagNegationPrefix) {
+        this(commandFactory, optionParsers, typeConverter, errorHandler, allowAbbreviateCommands,
+                allowAbbreviatedOptions, aliases, userAliases, aliasesOverrideBuiltIns, aliasesMayChain,
+                argumentsSeparator, flagNegationPrefix, 1, null);
+    }
+
+    /**
+     * Creates new parser meta-data
+     * 
+     * @param commandFactory
+     *            Command factory
+     * @param optionParsers
+     *            Option parsers
+     * @param typeConverter
+     *            Type converter
+     * @param errorHandler
+     *            Error handler
+     * @param allowAbbreviateCommands
+     *            Whether command names may be abbreviated
+     * @param allowAbbreviatedOptions
+     *            Whether option names may be abbreviated
+     * @param aliases
+     *            Aliases
+     * @param userAliases
+     *            User aliases source
+     * @param aliasesOverrideBuiltIns
+     *            Whether aliases may override built-in commands
+     * @param aliasesMayChain
+     *            Whether aliases may chain
+     * @param argumentsSeparator
+     *            Arguments separator
+     * @param flagNegationPrefix
+     *            Flag negation prefix
+     * @param validationParallelism
+     *            Number of threads to use for final validation of
+     *            restrictions, values less than or equal to 1 validate
+     *            sequentially
+     * @param validationExecutor
+     *            Executor to use for parallel validation, if {@code null} and
+     *            {@code validationParallelism} is greater than 1 a pool of
+     *            daemon threads is created on first use, see
+     *            {@link #shutdownValidationExecutor()}
+     */
+    public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
+            TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
+            boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
+            boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
+            String flagNegationPrefix, int validationParallelism, ExecutorService validationExecutor) {
+        this(commandFactory, optionParsers, typeConverter, errorHandler, allowAbbreviateCommands,
+                allowAbbreviatedOptions, aliases, userAliases, aliasesOverrideBuiltIns, aliasesMayChain,
+                argumentsSeparator, flagNegationPrefix, validationParallelism, validationExecutor, null);
+    }
+
+    /**
+     * Creates new parser meta-data
+     * 
+     * @param commandFactory
+     *            Command factory
+     * @param optionParsers
+     *            Option parsers
+     * @param typeConverter
+     *            Type converter
+     * @param errorHandler
+     *            Error handler
+     * @param allowAbbreviateCommands
+     *            Whether command names may be abbreviated
+     * @param allowAbbreviatedOptions
+     *            Whether option names may be abbreviated
+     * @param aliases
+     *            Aliases
+     * @param userAliases
+     *            User aliases source
+     * @param aliasesOverrideBuiltIns
+     *            Whether aliases may override built-in commands
+     * @param aliasesMayChain
+     *            Whether aliases may chain
+     * @param argumentsSeparator
+     *            Arguments separator
+     * @param flagNegationPrefix
+     *            Flag negation prefix
+     * @param validationParallelism
+     *            Number of threads to use for final validation of
+     *            restrictions, values less than or equal to 1 validate
+     *            sequentially
+     * @param validationExecutor
+     *            Executor to use for parallel validation, if {@code null} and
+     *            {@code validationParallelism} is greater than 1 a pool of
+     *            daemon threads is created on first use, see
+     *            {@link #shutdownValidationExecutor()}
+     * @param aliasTable
+     *            Compiled alias table for {@code aliases}, if {@code null}
+     *            the aliases are compiled together with any aliases the user
+     *            aliases source looks up on demand
+     */
+    public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
+            TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
+            boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
+            boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
+            String flagNegationPrefix, int validationParallelism, ExecutorService validationExecutor,
+            AliasTable aliasTable) {
         if (optionParsers == null)
             throw new NullPointerException("optionParsers cannot be null");
         if (aliases == null)
@@ -75,6 +185,13 @@ public class ParserMetadata<T> {
         this.userAliases = userAliases;
         this.aliasesOverrideBuiltIns = aliasesOverrideBuiltIns;
         this.aliasesMayChain = aliasesMayChain;
+        AliasLookup aliasLookup = userAliases instanceof AliasLookup ? (AliasLookup) userAliases : null;
+        if (aliasTable != null) {
+            this.aliasTable = aliasTable;
+        } else {
+            this.aliasTable = this.aliases.isEmpty() && aliasLookup == null ? AliasTable.empty()
+                    : new AliasTable(this.aliases, aliasesMayChain, aliasLookup);
+        }
 
         // Arguments Separator
         if (StringUtils.isNotEmpty(argumentsSeparator)) {
@@ -87,6 +204,42 @@ public class ParserMetadata<T> {
         // Flag negation
         this.flagNegationPrefix = StringUtils.isNotEmpty(flagNegationPrefix) ? flagNegationPrefix : null;
 
+        // Validation
+        this.validationParallelism = validationExecutor != null ? Math.max(2, validationParallelism)
+                : Math.max(1, validationParallelism);
+        this.validationExecutor = validationExecutor;
+        this.defaultValidationExecutor = validationExecutor == null && this.validationParallelism > 1
+                ? new DefaultValidationExecutor(this.validationParallelism) : null;
+    }
+
+    private ParserMetadata(ParserMetadata<T> other, ParserErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+        this.commandFactory = other.commandFactory;
+        this.allowAbbreviatedCommands = other.allowAbbreviatedCommands;
+        this.typeConverter = other.typeConverter;
+        this.optionParsers = other.optionParsers;
+        this.allowAbbreviatedOptions = other.allowAbbreviatedOptions;
+        this.aliases = other.aliases;
+        this.aliasTable = other.aliasTable;
+        this.userAliases = other.userAliases;
+        this.aliasesOverrideBuiltIns = other.aliasesOverrideBuiltIns;
+        this.aliasesMayChain = other.aliasesMayChain;
+        this.argsSeparator = other.argsSeparator;
+        this.flagNegationPrefix = other.flagNegationPrefix;
+        this.validationParallelism = other.validationParallelism;
+        this.validationExecutor = other.validationExecutor;
+        this.defaultValidationExecutor = other.defaultValidationExecutor;
+    }
+
+    /**
+     * Creates a copy of this configuration that uses a different error handler
+     * 
+     * @param errorHandler
+     *            Error handler
+     * @return Parser configuration
+     */
+    public ParserMetadata<T> withErrorHandler(ParserErrorHandler errorHandler) {
+        return new ParserMetadata<T>(this, errorHandler != null ? errorHandler : new FailFast());
     }
 
     /**
@@ -116,6 +269,44 @@ public class ParserMetadata<T> {
         return errorHandler;
     }
 
+    /**
+     * Gets the number of threads used for final validation of restrictions,
+     * if this is greater than 1 then independent restrictions are validated in
+     * parallel
+     * 
+     * @return Validation parallelism
+     */
+    public int getValidationParallelism() {
+        return validationParallelism;
+    }
+
+    /**
+     * Gets the executor used for parallel validation
+     * 
+     * @return Executor, {@code null} if validation is sequential
+     */
+    public ExecutorService getValidationExecutor() {
+        if (this.validationExecutor != null)
+            return this.validationExecutor;
+        return this.defaultValidationExecutor != null ? this.defaultValidationExecutor.get() : null;
+    }
+
+    /**
+     * Shuts down the pool of threads created for parallel validation, if any
+     * <p>
+     * The pool is shared with copies of this configuration, e.g. those created
+     * by {@link #withErrorHandler(ParserErrorHandler)}, and a new pool is
+     * created if parallel validation is subsequently needed. Pool threads are
+     * daemon threads that exit when idle so calling this is only necessary to
+     * release them promptly. An executor provided by the caller is never shut
+     * down.
+     * </p>
+     */
+    public void shutdownValidationExecutor() {
+        if (this.defaultValidationExecutor != null)
+            this.defaultValidationExecutor.shutdown();
+    }
+
     /**
      * Gets the defined command aliases
      * 
@@ -125,6 +316,15 @@ public class ParserMetadata<T> {
         return aliases;
     }
 
+    /**
+     * Gets the compiled alias table used to resolve aliases
+     * 
+     * @return Alias table
+     */
+    public AliasTable getAliasTable() {
+        return aliasTable;
+    }
+
     /**
      * Gets the user aliases source (if any)
      * 
@@ -220,7 +420,53 @@ public class ParserMetadata<T> {
         sb.append(", aliasesOverrideBuiltIns=").append(aliasesOverrideBuiltIns);
         sb.append(", argumentsSeparator='").append(argsSeparator).append("'");
         sb.append(", flagNegationPrefix='").append(flagNegationPrefix).append("'");
+        sb.append(", validationParallelism=").append(validationParallelism);
         sb.append("}");
         return sb.toString();
     }
+
+    /**
+     * Lazily created pool of daemon threads used for parallel validation when
+     * the caller does not provide an executor
+     */
+    private static final class DefaultValidationExecutor {
+        private final int threads;
+        private volatile ExecutorService executor;
+
+        DefaultValidationExecutor(int threads) {
+            this.threads = threads;
+        }
+
+        ExecutorService get() {
+            ExecutorService executor = this.executor;
+            if (executor == null) {
+                synchronized (this) {
+                    executor = this.executor;
+                    if (executor == null) {
+                        ThreadPoolExecutor pool = new ThreadPoolExecutor(this.threads, this.threads, 30,
+                                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                                    @Override
+                                    public Thread newThread(Runnable r) {
+                                        Thread t = new Thread(r, "airline-validation");
+                                        t.setDaemon(true);
+                                        return t;
+                                    }
+                                });
+                        // Don't hold on to idle threads
+                        pool.allowCoreThreadTimeOut(true);
+                        executor = pool;
+                        this.executor = executor;
+                    }
+                }
+            }
+            return executor;
+        }
+
+        synchronized void shutdown() {
+            if (this.executor != null) {
+                this.executor.shutdown();
+                this.executor = null;
+            }
+        }
+    }
 }
@@ -23,14 +23,23 @@ import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.aliases.AliasResolver;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.AbstractCollectingHandler;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
 import com.github.rvesse.airline.parser.options.OptionParser;
+import com.github.rvesse.airline.restrictions.GlobalRestriction;
 import com.github.rvesse.airline.utils.AirlineUtils;
 import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedCommandFinder;
 import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedGroupFinder;
 import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
 import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.Predicate;
@@ -45,6 +54,161 @@ import org.apache.commons.collections4.iterators.PeekingIterator;
  */
 public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
 
+    /**
+     * Determines whether parse exceptions should skip capturing stack traces
+     * while parsing with the given error handler
+     * 
+     * @param handler
+     *            Error handler
+     * @return True if exceptions should be stackless
+     */
+    protected boolean isStackless(ParserErrorHandler handler) {
+        return handler instanceof AbstractCollectingHandler && ((AbstractCollectingHandler) handler).isStackless();
+    }
+
+    /**
+     * Validates the restrictions once parsing has completed
+     * <p>
+     * Global restrictions, arguments restrictions and then the restrictions of
+     * each option are validated in that order. If the parser configuration
+     * specifies parallel validation (see
+     * {@link ParserMetadata#getValidationParallelism()}) these are validated
+     * concurrently and any errors are then passed to the error handler in the
+     * same order that sequential validation would produce.
+     * </p>
+     * 
+     * @param state
+     *            Parser state
+     * @param restrictions
+     *            Global restrictions
+     */
+    protected void validateRestrictions(ParseState<T> state, List<GlobalRestriction> restrictions) {
+        ExecutorService executor = state.getParserConfiguration().getValidationExecutor();
+        List<ValidationTask<T>> tasks = new ArrayList<ValidationTask<T>>();
+
+        // Global restrictions
+        for (final GlobalRestriction restriction : restrictions) {
+            if (restriction == null)
+                continue;
+            tasks.add(new ValidationTask<T>() {
+                @Override
+                void validate(ParseState<T> state) {
+                    try {
+                        restriction.validate(state);
+                    } catch (ParseException e) {
+                        state.getParserConfiguration().getErrorHandler().handleError(e);
+                    }
+                }
+            });
+        }
+        CommandMetadata command = state.getCommand();
+        if (command != null) {
+            // Arguments restrictions
+            final ArgumentsMetadata arguments = command.getArguments();
+            if (arguments != null && !arguments.getRestrictionPipeline().getFinalValidators().isEmpty()) {
+                tasks.add(new ValidationTask<T>() {
+                    @Override
+                    void validate(ParseState<T> state) {
+                        arguments.getRestrictionPipeline().finalValidate(state, arguments);
+                    }
+                });
+            }
+
+            // Option restrictions
+            for (final OptionMetadata option : command.getAllOptions()) {
+                if (option == null || option.getRestrictionPipeline().getFinalValidators().isEmpty())
+                    continue;
+                tasks.add(new ValidationTask<T>() {
+                    @Override
+                    void validate(ParseState<T> state) {
+                        option.getRestrictionPipeline().finalValidate(state, option);
+                    }
+                });
+            }
+        }
+
+        if (executor == null || tasks.size() < 2) {
+            for (ValidationTask<T> task : tasks) {
+                task.validate(state);
+            }
+        } else {
+            validateInParallel(state, tasks, executor);
+        }
+    }
+
+    private void validateInParallel(final ParseState<T> state, List<ValidationTask<T>> tasks,
+            ExecutorService executor) {
+        // Each task reports errors to its own handler so that they can be
+        // passed on to the real handler in a deterministic order
+        final boolean stackless = ParseException.isStacklessMode();
+        List<Future<List<ParseException>>> results = new ArrayList<Future<List<ParseException>>>();
+        for (final ValidationTask<T> task : tasks) {
+            results.add(executor.submit(new Callable<List<ParseException>>() {
+                @Override
+                public List<ParseException> call() {
+                    boolean previousStackless = ParseException.setStacklessMode(stackless);
+                    TaskErrorHandler errors = new TaskErrorHandler();
+                    try {
+                        task.validate(state.withConfiguration(state.getParserConfiguration().withErrorHandler(errors)));
+                    } catch (ParseException e) {
+                        errors.handleError(e);
+                    } finally {
+                        ParseException.setStacklessMode(previousStackless);
+                    }
+                    return errors.errors;
+                }
+            }));
+        }
+
+        ParserErrorHandler handler = state.getParserConfiguration().getErrorHandler();
+        try {
+            for (Future<List<ParseException>> result : results) {
+                for (ParseException e : result.get()) {
+                    handler.handleError(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParseException(e, "Interrupted while validating restrictions");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new ParseException(e, "Error validating restrictions");
+        } finally {
+            // If the handler failed fast don't continue any outstanding
+            // validation
+            for (Future<List<ParseException>> result : results) {
+                result.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * A unit of validation that is independent of the other units
+     */
+    private static abstract class ValidationTask<T> {
+        abstract void validate(ParseState<T> state);
+    }
+
+    /**
+     * Error handler that records the errors for a single validation task
+     */
+    private static class TaskErrorHandler implements ParserErrorHandler {
+        private final List<ParseException> errors = new ArrayList<ParseException>();
+
+        @Override
+        public void handleError(ParseException e) {
+            this.errors.add(e);
+        }
+
+        @Override
+        public <T> ParseResult<T> finished(ParseState<T> state) {
+            return null;
+        }
+    }
+
     /**
      * Tries to parse the arguments
      * 
@@ -27,7 +27,10 @@ import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.errors.ParseErrorAggregate;
+import com.github.rvesse.airline.parser.errors.ParseErrorSummary;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.results.ParseResultView;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 /**
@@ -41,13 +44,32 @@ import com.github.rvesse.airline.utils.AirlineUtils;
 public class ParseResult<T> {
     private final ParseState<T> state;
     private final Collection<ParseException> errors;
+    private ParseErrorSummary summary;
+    private ParseResultView<T> view;
 
     public ParseResult(ParseState<T> state, Collection<ParseException> errors) {
+        this(state, errors, null);
+    }
+
+    /**
+     * Creates a new result
+     * 
+     * @param state
+     *            Parser state
+     * @param errors
+     *            Errors retained by the error handler
+     * @param summary
+     *            Summary of all the errors that occurred, may be {@code null}
+     *            in which case {@code errors} is assumed to contain every
+     *            error and is summarised on demand
+     */
+    public ParseResult(ParseState<T> state, Collection<ParseException> errors, ParseErrorSummary summary) {
         if (state == null)
             throw new NullPointerException("state cannot be null");
         this.state = state;
         this.errors = errors != null ? Collections.<ParseException> unmodifiableCollection(errors)
                 : Collections.<ParseException> emptyList();
+        this.summary = summary;
     }
 
     /**
@@ -56,7 +78,7 @@ public class ParseResult<T> {
      * @return True if successful, false if any errors occurred
      */
     public boolean wasSuccessful() {
-        return this.errors.size() == 0;
+        return getErrorCount() == 0;
     }
 
     /**
@@ -68,6 +90,20 @@ public class ParseResult<T> {
         return this.state;
     }
 
+    /**
+     * Gets a read-only, index based view of the parsed command, options and
+     * arguments suitable for forwarding the results e.g. via
+     * {@link com.github.rvesse.airline.parser.results.JsonResultWriter}
+     * 
+     * @return View
+     */
+    public synchronized ParseResultView<T> getView() {
+        if (this.view == null) {
+            this.view = new ParseResultView<T>(this.state);
+        }
+        return this.view;
+    }
+
     /**
      * Gets the collection of errors that occurred, may be empty if parsing was
      * successful
@@ -78,6 +114,51 @@ public class ParseResult<T> {
         return this.errors;
     }
 
+    /**
+     * Gets the total number of errors that occurred, this may be greater than
+     * the size of {@link #getErrors()} if the error handler only retains a
+     * limited number of errors e.g.
+     * {@link com.github.rvesse.airline.parser.errors.handlers.CollectBounded}
+     * 
+     * @return Number of errors
+     */
+    public long getErrorCount() {
+        return this.summary != null ? this.summary.getCount() : this.errors.size();
+    }
+
+    /**
+     * Gets the summary of the errors that occurred aggregated by exception
+     * type and option
+     * 
+     * @return Error summary
+     */
+    public synchronized ParseErrorSummary getErrorSummary() {
+        if (this.summary == null) {
+            this.summary = ParseErrorSummary.of(this.errors);
+        }
+        return this.summary;
+    }
+
+    /**
+     * Gets the errors that occurred aggregated by exception type
+     * 
+     * @return Aggregates by exception type
+     */
+    public Map<Class<? extends ParseException>, ParseErrorAggregate> getErrorsByType() {
+        return getErrorSummary().getByType();
+    }
+
+    /**
+     * Gets the errors that occurred aggregated by the title of the option or
+     * arguments they relate to, errors that do not relate to a specific option
+     * or arguments are not included
+     * 
+     * @return Aggregates by option
+     */
+    public Map<String, ParseErrorAggregate> getErrorsByOption() {
+        return getErrorSummary().getByOption();
+    }
+
     /**
      * Gets the command if one was successfully parsed
      * <p>
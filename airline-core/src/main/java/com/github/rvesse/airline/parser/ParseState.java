@@ -24,14 +24,14 @@ import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.errors.ParseException;
-import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
-import com.github.rvesse.airline.restrictions.OptionRestriction;
 import com.github.rvesse.airline.types.TypeConverter;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -45,15 +45,17 @@ public class ParseState<T> {
     private final List<Object> parsedArguments;
     private final OptionMetadata currentOption;
     private final List<String> unparsedInput;
+    private final ConcurrentMap<Object, Object> caches;
 
     ParseState(GlobalMetadata<T> global, ParserMetadata<T> parserConfig, CommandGroupMetadata group,
             CommandMetadata command, List<Pair<OptionMetadata, Object>> parsedOptions, List<Context> locationStack,
-            List<Object> parsedArguments, OptionMetadata currentOption, List<String> unparsedInput) {
+            List<Object> parsedArguments, OptionMetadata currentOption, List<String> unparsedInput,
+            ConcurrentMap<Object, Object> caches) {
         this.global = global;
-        if (global != null) {
-            this.parserConfig = global.getParserConfiguration();
-        } else if (parserConfig != null) {
+        if (parserConfig != null) {
             this.parserConfig = parserConfig;
+        } else if (global != null) {
+            this.parserConfig = global.getParserConfiguration();
         } else {
             this.parserConfig = ParserBuilder.<T> defaultConfiguration();
         }
@@ -64,12 +66,13 @@ public class ParseState<T> {
         this.parsedArguments = parsedArguments;
         this.currentOption = currentOption;
         this.unparsedInput = unparsedInput;
+        this.caches = caches;
     }
 
     public static <T> ParseState<T> newInstance() {
         return new ParseState<T>(null, null, null, null, new ArrayList<Pair<OptionMetadata, Object>>(),
                 Collections.<Context> emptyList(), Collections.<Object> emptyList(), null,
-                Collections.<String> emptyList());
+                Collections.<String> emptyList(), new ConcurrentHashMap<Object, Object>());
     }
 
     public ParseState<T> pushContext(Context location) {
@@ -77,25 +80,19 @@ public class ParseState<T> {
         locations.add(location);
 
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locations, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, caches);
     }
 
     public ParseState<T> popContext() {
         List<Context> locationStack = AirlineUtils
                 .unmodifiableListCopy(this.locationStack.subList(0, this.locationStack.size() - 1));
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, caches);
     }
 
     public ParseState<T> withOptionValue(OptionMetadata option, String rawValue) {
         // Pre-validate
-        for (OptionRestriction restriction : option.getRestrictions()) {
-            try {
-                restriction.preValidate(this, option, rawValue);
-            } catch (ParseException e) {
-                this.parserConfig.getErrorHandler().handleError(e);
-            }
-        }
+        option.getRestrictionPipeline().preValidate(this, option, rawValue);
 
         try {
             // Convert value
@@ -103,19 +100,13 @@ public class ParseState<T> {
             Object value = converter.convert(option.getTitle(), option.getJavaType(), rawValue);
 
             // Post-validate
-            for (OptionRestriction restriction : option.getRestrictions()) {
-                try {
-                    restriction.postValidate(this, option, value);
-                } catch (ParseException e) {
-                    this.parserConfig.getErrorHandler().handleError(e);
-                }
-            }
+            option.getRestrictionPipeline().postValidate(this, option, value);
 
             List<Pair<OptionMetadata, Object>> newOptions = AirlineUtils.listCopy(parsedOptions);
             newOptions.add(Pair.of(option, value));
 
             return new ParseState<T>(global, parserConfig, group, command, newOptions, locationStack, parsedArguments,
-                    currentOption, unparsedInput);
+                    currentOption, unparsedInput, caches);
         } catch (ParseException e) {
             this.parserConfig.getErrorHandler().handleError(e);
 
@@ -123,44 +114,38 @@ public class ParseState<T> {
             newUnparsed.add(rawValue);
 
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+                    parsedArguments, currentOption, newUnparsed, caches);
         }
     }
 
     public ParseState<T> withGlobal(GlobalMetadata<T> global) {
-        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+        return new ParseState<T>(global, global != null ? global.getParserConfiguration() : parserConfig, group,
+                command, parsedOptions, locationStack, parsedArguments, currentOption, unparsedInput, caches);
     }
 
     public ParseState<T> withConfiguration(ParserMetadata<T> parserConfig) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, caches);
     }
 
     public ParseState<T> withGroup(CommandGroupMetadata group) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, caches);
     }
 
     public ParseState<T> withCommand(CommandMetadata command) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, caches);
     }
 
     public ParseState<T> withOption(OptionMetadata option) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                option, unparsedInput);
+                option, unparsedInput, caches);
     }
 
     public ParseState<T> withArgument(ArgumentsMetadata arguments, String rawValue) {
         // Pre-validate
-        for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-            try {
-                restriction.preValidate(this, arguments, rawValue);
-            } catch (ParseException e) {
-                this.parserConfig.getErrorHandler().handleError(e);
-            }
-        }
+        arguments.getRestrictionPipeline().preValidate(this, arguments, rawValue);
 
         // Convert value
         try {
@@ -168,19 +153,13 @@ public class ParseState<T> {
             Object value = converter.convert(arguments.getTitle().get(0), arguments.getJavaType(), rawValue);
 
             // Post-validate
-            for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-                try {
-                    restriction.postValidate(this, arguments, value);
-                } catch (ParseException e) {
-                    this.parserConfig.getErrorHandler().handleError(e);
-                }
-            }
+            arguments.getRestrictionPipeline().postValidate(this, arguments, value);
 
             List<Object> newArguments = AirlineUtils.listCopy(parsedArguments);
             newArguments.add(value);
 
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, newArguments,
-                    currentOption, unparsedInput);
+                    currentOption, unparsedInput, caches);
         } catch (ParseException e) {
             this.parserConfig.getErrorHandler().handleError(e);
 
@@ -188,7 +167,7 @@ public class ParseState<T> {
             newUnparsed.add(rawValue);
 
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+                    parsedArguments, currentOption, newUnparsed, caches);
         }
     }
 
@@ -197,7 +176,7 @@ public class ParseState<T> {
         newUnparsedInput.add(input);
 
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, newUnparsedInput);
+                currentOption, newUnparsedInput, caches);
     }
 
     @Override
@@ -216,7 +195,7 @@ public class ParseState<T> {
     }
 
     public ParserMetadata<T> getParserConfiguration() {
-        return this.global != null ? this.global.getParserConfiguration() : this.parserConfig;
+        return this.parserConfig;
     }
 
     public CommandGroupMetadata getGroup() {
@@ -242,4 +221,28 @@ public class ParseState<T> {
     public List<String> getUnparsedInput() {
         return unparsedInput;
     }
+
+    /**
+     * Gets a cache scoped to the current parse
+     * <p>
+     * Caches are shared by all states derived from the same initial state so
+     * restrictions can use them to share work between options and values
+     * within a single parse, they are discarded with the parse state.
+     * </p>
+     * 
+     * @param key
+     *            Cache key, typically a private constant of the caller
+     * @return Thread-safe cache
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> ConcurrentMap<K, V> getCache(Object key) {
+        Object cache = this.caches.get(key);
+        if (cache == null) {
+            ConcurrentMap<K, V> created = new ConcurrentHashMap<K, V>();
+            cache = this.caches.putIfAbsent(key, created);
+            if (cache == null)
+                return created;
+        }
+        return (ConcurrentMap<K, V>) cache;
+    }
 }
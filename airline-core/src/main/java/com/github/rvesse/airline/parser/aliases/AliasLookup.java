@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import com.github.rvesse.airline.model.AliasMetadata;
+
+/**
+ * Interface for user alias sources that look up aliases on demand during alias
+ * resolution rather than loading all their aliases up front
+ * <p>
+ * A {@link UserAliasesSource} implementing this interface typically returns no
+ * aliases from {@link UserAliasesSource#loadForParser()} and compiles an
+ * {@link AliasTable} that consults this lookup whenever a token may be an alias
+ * from {@link UserAliasesSource#getAliasTable(java.util.List, boolean)}.
+ * As with loaded user aliases, aliases found by the lookup take precedence
+ * over explicitly defined aliases. Aliases that are only available via a
+ * lookup are not included in {@code ParserMetadata.getAliases()}.
+ * </p>
+ *
+ */
+public interface AliasLookup {
+
+    /**
+     * Looks up an alias, implementations must be thread safe
+     * <p>
+     * Implementations should return the same instance for an alias while its
+     * definition is unchanged since the {@link AliasTable} only recompiles an
+     * alias when the lookup returns a different instance.
+     * </p>
+     * 
+     * @param name
+     *            Alias name
+     * @return Alias or {@code null} if no such alias
+     */
+    public AliasMetadata lookup(String name);
+
+    /**
+     * Gets whether the lookup may have any aliases, used to skip alias
+     * resolution entirely when it does not
+     * 
+     * @return True if there may be aliases, false if there are definitely none
+     */
+    public boolean hasAliases();
+}
@@ -24,19 +24,21 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.Predicate;
 import org.apache.commons.collections4.iterators.PeekingIterator;
 
-import com.github.rvesse.airline.model.AliasMetadata;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.parser.AbstractParser;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseAliasCircularReferenceException;
-import com.github.rvesse.airline.utils.predicates.parser.AliasFinder;
 import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
 import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 
 /**
  * Resolves aliases
+ * <p>
+ * Aliases are looked up in the {@link AliasTable} compiled by the parser
+ * configuration and expanded using their precompiled {@link AliasTemplate}.
+ * </p>
  *
  * @param <T>
  *            Command type
@@ -44,102 +46,91 @@ import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 public class AliasResolver<T> extends AbstractParser<T> {
 
     public PeekingIterator<String> resolveAliases(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<? super CommandGroupMetadata> findGroupPredicate;
-        Predicate<? super CommandMetadata> findCommandPredicate;
-
         // Nothing to do if no further tokens
         if (!tokens.hasNext())
             return tokens;
 
         // Nothing to do if no aliases defined
-        if (state.getParserConfiguration().getAliases().size() == 0)
+        AliasTable aliases = state.getParserConfiguration().getAliasTable();
+        if (aliases.isEmpty())
             return tokens;
 
-        Set<String> aliasesSeen = new TreeSet<String>();
+        boolean mayChain = state.getParserConfiguration().aliasesMayChain();
+        List<String> resolved = new ArrayList<String>();
+        // Chains where each alias expands to the name of another alias were
+        // checked for circular references when the alias table was built so
+        // only need checking here once the chain depends upon the input
+        boolean checkResolved = false;
 
         do {
             // Try to find an alias
-            AliasMetadata alias = CollectionUtils.find(state.getParserConfiguration().getAliases(),
-                    new AliasFinder(tokens.peek()));
+            AliasTemplate alias = aliases.get(tokens.peek());
 
             // Nothing further to do if no aliases found
             if (alias == null)
                 return tokens;
 
             // Check for circular references
-            if (!aliasesSeen.add(alias.getName())) {
+            if (resolved.isEmpty() && alias.isCircular()) {
+                if (!shadowsBuiltIns(alias.getCircularChain(), state)) {
+                    // Handle the error and exit alias resolution
+                    state.getParserConfiguration().getErrorHandler().handleError(
+                            new ParseAliasCircularReferenceException(alias.getCircularAlias(),
+                                    new TreeSet<String>(alias.getCircularChain())));
+                    return tokens;
+                }
+                // Resolution will stop at a built-in before the circular
+                // reference
+                checkResolved = true;
+            } else if (checkResolved && resolved.contains(alias.getName())) {
                 // Handle the error and exit alias resolution
-                state.getParserConfiguration().getErrorHandler()
-                        .handleError(new ParseAliasCircularReferenceException(alias.getName(), aliasesSeen));
+                state.getParserConfiguration().getErrorHandler().handleError(
+                        new ParseAliasCircularReferenceException(alias.getName(), new TreeSet<String>(resolved)));
                 return tokens;
             }
 
             // Can we override built-ins?
-            if (!state.getParserConfiguration().aliasesOverrideBuiltIns()) {
-                // If not we must check we don't have a default
-                // group/command with the same name as otherwise that
-                // would take precedence
-                if (state.getGlobal() != null) {
-                    GlobalMetadata<T> metadata = state.getGlobal();
-                    findGroupPredicate = new GroupFinder(tokens.peek());
-                    findCommandPredicate = new CommandFinder(tokens.peek());
-                    if (CollectionUtils.find(metadata.getCommandGroups(), findGroupPredicate) != null
-                            || CollectionUtils.find(metadata.getDefaultGroupCommands(), findCommandPredicate) != null)
-                        return tokens;
-                }
-            }
+            if (shadowsBuiltIn(tokens.peek(), state))
+                return tokens;
 
             // Discard the alias token
             tokens.next();
 
             // Apply the alias
-            List<String> newParams = new ArrayList<String>();
             List<String> remainingParams = new ArrayList<String>();
             while (tokens.hasNext()) {
                 remainingParams.add(tokens.next());
             }
-
-            // Process alias arguments
-            Set<Integer> used = new TreeSet<Integer>();
-            for (String arg : alias.getArguments()) {
-                if (arg.startsWith("$")) {
-                    // May be a positional parameter
-                    try {
-                        int num = Integer.parseInt(arg.substring(1));
-                        num--;
-
-                        if (num >= 0 && num < remainingParams.size()) {
-                            // Valid positional parameter
-                            newParams.add(remainingParams.get(num));
-                            used.add(num);
-                            continue;
-                        }
-                    } catch (NumberFormatException e) {
-                        // Ignore - the number was invalid so we'll
-                        // treat it as an ordinary parameter
-                    }
-                }
-
-                // Some other parameter
-                newParams.add(arg);
-            }
-
-            // Remove used positional parameters
-            int removed = 0;
-            for (int pos : used) {
-                remainingParams.remove(pos - removed);
-                removed++;
-            }
-
-            // Pass through any remaining parameters
-            for (String arg : remainingParams) {
-                newParams.add(arg);
-            }
+            resolved.add(alias.getName());
+            if (alias.getFirstLiteral() == null)
+                checkResolved = true;
 
             // Prepare a new tokens iterator
-            tokens = new PeekingIterator<String>(newParams.iterator());
-        } while (state.getParserConfiguration().aliasesMayChain());
+            tokens = new PeekingIterator<String>(alias.expand(remainingParams).iterator());
+        } while (mayChain && tokens.hasNext());
 
         return tokens;
     }
+
+    private boolean shadowsBuiltIns(Set<String> names, ParseState<T> state) {
+        for (String name : names) {
+            if (shadowsBuiltIn(name, state))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean shadowsBuiltIn(String name, ParseState<T> state) {
+        // If aliases can't override built-ins we must check we don't have a
+        // default group/command with the same name as otherwise that would
+        // take precedence
+        if (state.getParserConfiguration().aliasesOverrideBuiltIns() || state.getGlobal() == null)
+            return false;
+
+        GlobalMetadata<T> metadata = state.getGlobal();
+        Predicate<? super CommandGroupMetadata> findGroupPredicate = new GroupFinder(name);
+        Predicate<? super CommandMetadata> findCommandPredicate = new CommandFinder(name);
+        return CollectionUtils.find(metadata.getCommandGroups(), findGroupPredicate) != null
+                || CollectionUtils.find(metadata.getDefaultGroupCommands(), findCommandPredicate) != null;
+    }
 }
@@ -0,0 +1,208 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.github.rvesse.airline.model.AliasMetadata;
+
+/**
+ * A hash indexed table of compiled aliases
+ * <p>
+ * If aliases may chain then any chains of aliases that are known to lead to a
+ * circular reference regardless of the input, i.e. where each alias expands to
+ * the name of another alias, are detected when the table is built. Chains that
+ * depend on the input, e.g. an alias whose first argument is a positional
+ * parameter, can only be checked during alias resolution.
+ * </p>
+ * <p>
+ * A table may also have an {@link AliasLookup} which is consulted before the
+ * explicitly defined aliases, aliases found via the lookup are compiled, and
+ * checked for circular references, the first time they are used and are only
+ * recompiled if the lookup subsequently returns a different alias.
+ * </p>
+ *
+ */
+public final class AliasTable {
+
+    private static final AliasTable EMPTY = new AliasTable(Collections.<AliasMetadata> emptyList(), false);
+
+    private final Map<String, AliasTemplate> templates;
+    private final AliasLookup lookup;
+    private final ConcurrentMap<String, AliasTemplate> lookedUp = new ConcurrentHashMap<String, AliasTemplate>();
+    private final boolean aliasesMayChain;
+
+    /**
+     * Creates a new alias table
+     * 
+     * @param aliases
+     *            Aliases, if several aliases have the same name the first is
+     *            used
+     * @param aliasesMayChain
+     *            Whether aliases may chain
+     */
+    public AliasTable(List<AliasMetadata> aliases, boolean aliasesMayChain) {
+        this(aliases, aliasesMayChain, null);
+    }
+
+    /**
+     * Creates a new alias table
+     * 
+     * @param aliases
+     *            Aliases, if several aliases have the same name the first is
+     *            used
+     * @param aliasesMayChain
+     *            Whether aliases may chain
+     * @param lookup
+     *            Lookup for aliases that are resolved on demand, these take
+     *            precedence over {@code aliases}, may be {@code null}
+     */
+    public AliasTable(List<AliasMetadata> aliases, boolean aliasesMayChain, AliasLookup lookup) {
+        Map<String, AliasTemplate> templates = new HashMap<String, AliasTemplate>();
+        for (AliasMetadata alias : aliases) {
+            if (alias == null || templates.containsKey(alias.getName()))
+                continue;
+            templates.put(alias.getName(), new AliasTemplate(alias));
+        }
+        this.templates = templates;
+        this.lookup = lookup;
+        this.aliasesMayChain = aliasesMayChain;
+
+        if (aliasesMayChain) {
+            for (AliasTemplate template : this.templates.values()) {
+                detectCircularReference(template);
+            }
+        }
+    }
+
+    /**
+     * Gets an empty alias table
+     * 
+     * @return Empty table
+     */
+    public static AliasTable empty() {
+        return EMPTY;
+    }
+
+    private void detectCircularReference(AliasTemplate template) {
+        // Follow the chain while each alias expands to the name of another
+        // alias regardless of the input
+        Set<String> chain = new LinkedHashSet<String>();
+        AliasTemplate current = template;
+        while (current != null) {
+            if (!chain.add(current.getName())) {
+                template.circularAlias = current.getName();
+                template.circularChain = Collections.unmodifiableSet(new TreeSet<String>(chain));
+                break;
+            }
+            String next = current.getFirstLiteral();
+            current = next != null ? find(next) : null;
+        }
+    }
+
+    /**
+     * Finds an alias without checking aliases found via the lookup for
+     * circular references
+     */
+    private AliasTemplate find(String name) {
+        if (this.lookup != null) {
+            AliasMetadata alias = this.lookup.lookup(name);
+            if (alias != null) {
+                AliasTemplate template = this.lookedUp.get(name);
+                return template != null && template.getAlias() == alias ? template : new AliasTemplate(alias);
+            }
+        }
+        return this.templates.get(name);
+    }
+
+    /**
+     * Gets the compiled alias with the given name
+     * 
+     * @param name
+     *            Name
+     * @return Compiled alias or {@code null} if no such alias
+     */
+    public AliasTemplate get(String name) {
+        if (name == null)
+            return null;
+        if (this.lookup != null) {
+            AliasMetadata alias = this.lookup.lookup(name);
+            if (alias != null) {
+                AliasTemplate template = this.lookedUp.get(name);
+                if (template == null || template.getAlias() != alias) {
+                    // First use or the alias has changed since
+                    template = new AliasTemplate(alias);
+                    if (this.aliasesMayChain)
+                        detectCircularReference(template);
+                    this.lookedUp.put(name, template);
+                }
+                return template;
+            } else if (!this.lookedUp.isEmpty()) {
+                this.lookedUp.remove(name);
+            }
+        }
+        return this.templates.get(name);
+    }
+
+    /**
+     * Gets whether the table is empty, a table with a lookup is only
+     * considered empty if the lookup has no aliases
+     * 
+     * @return True if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.templates.isEmpty() && (this.lookup == null || !this.lookup.hasAliases());
+    }
+
+    /**
+     * Gets the number of aliases in the table, this does not include aliases
+     * that are only available via the lookup
+     * 
+     * @return Number of aliases
+     */
+    public int size() {
+        return this.templates.size();
+    }
+
+    /**
+     * Gets the names of aliases that chain to a circular reference regardless
+     * of the input, for aliases found via the lookup only those that have
+     * been used so far are included
+     * 
+     * @return Alias names
+     */
+    public List<String> getCircularAliases() {
+        Set<String> names = new TreeSet<String>();
+        for (AliasTemplate template : this.templates.values()) {
+            if (template.isCircular())
+                names.add(template.getName());
+        }
+        for (AliasTemplate template : this.lookedUp.values()) {
+            if (template.isCircular())
+                names.add(template.getName());
+        }
+        return new ArrayList<String>(names);
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.github.rvesse.airline.model.AliasMetadata;
+
+/**
+ * A compiled form of an alias
+ * <p>
+ * The arguments of the alias are compiled into a sequence of literal and
+ * positional slots once so that expanding the alias is a single pass over the
+ * slots and the remaining input.
+ * </p>
+ *
+ */
+public final class AliasTemplate {
+
+    private final AliasMetadata alias;
+    private final String[] literals;
+    private final int[] positions;
+    // Set by the alias table once all aliases are compiled
+    Set<String> circularChain;
+    String circularAlias;
+
+    /**
+     * Compiles an alias template
+     * 
+     * @param alias
+     *            Alias
+     */
+    public AliasTemplate(AliasMetadata alias) {
+        if (alias == null)
+            throw new NullPointerException("alias cannot be null");
+        this.alias = alias;
+
+        List<String> arguments = alias.getArguments();
+        this.literals = arguments.toArray(new String[arguments.size()]);
+        this.positions = new int[this.literals.length];
+        for (int i = 0; i < this.literals.length; i++) {
+            this.positions[i] = toPosition(this.literals[i]);
+        }
+    }
+
+    private static int toPosition(String arg) {
+        if (!arg.startsWith("$"))
+            return -1;
+        try {
+            int num = Integer.parseInt(arg.substring(1));
+            return num >= 1 ? num - 1 : -1;
+        } catch (NumberFormatException e) {
+            // Ignore - the number was invalid so we'll treat it as an
+            // ordinary parameter
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the alias this template was compiled from
+     * 
+     * @return Alias
+     */
+    public AliasMetadata getAlias() {
+        return this.alias;
+    }
+
+    /**
+     * Gets the name of the alias
+     * 
+     * @return Name
+     */
+    public String getName() {
+        return this.alias.getName();
+    }
+
+    /**
+     * Gets the first token the alias expands to if it does not depend upon
+     * the input
+     * 
+     * @return First token or {@code null} if the first token is a positional
+     *         parameter or the alias has no arguments
+     */
+    public String getFirstLiteral() {
+        return this.literals.length > 0 && this.positions[0] < 0 ? this.literals[0] : null;
+    }
+
+    /**
+     * Gets whether chaining this alias is known to lead to a circular
+     * reference regardless of the input
+     * 
+     * @return True if circular
+     */
+    public boolean isCircular() {
+        return this.circularAlias != null;
+    }
+
+    /**
+     * Gets the alias that is referenced a second time when chaining this alias
+     * leads to a circular reference
+     * 
+     * @return Offending alias, {@code null} if not circular
+     */
+    public String getCircularAlias() {
+        return this.circularAlias;
+    }
+
+    /**
+     * Gets the chain of aliases resolved before a circular reference is
+     * encountered when chaining this alias
+     * 
+     * @return Alias chain, {@code null} if not circular
+     */
+    public Set<String> getCircularChain() {
+        return this.circularChain;
+    }
+
+    /**
+     * Expands the alias
+     * <p>
+     * Positional parameters e.g. {@code $1} are replaced with the
+     * corresponding remaining token, any remaining tokens not referenced by a
+     * positional parameter are appended after the alias arguments. Positional
+     * parameters which do not refer to an available token are treated as
+     * ordinary arguments.
+     * </p>
+     * 
+     * @param remaining
+     *            Remaining tokens following the alias
+     * @return Expanded tokens
+     */
+    public List<String> expand(List<String> remaining) {
+        int available = remaining.size();
+        if (this.literals.length == 0)
+            return available == 0 ? Collections.<String> emptyList() : remaining;
+
+        List<String> expanded = new ArrayList<String>(this.literals.length + available);
+        boolean[] used = null;
+        for (int i = 0; i < this.literals.length; i++) {
+            int position = this.positions[i];
+            if (position >= 0 && position < available) {
+                expanded.add(remaining.get(position));
+                if (used == null)
+                    used = new boolean[available];
+                used[position] = true;
+            } else {
+                expanded.add(this.literals[i]);
+            }
+        }
+        for (int i = 0; i < available; i++) {
+            if (used == null || !used[i])
+                expanded.add(remaining.get(i));
+        }
+        return expanded;
+    }
+
+    @Override
+    public String toString() {
+        return this.alias.toString();
+    }
+}
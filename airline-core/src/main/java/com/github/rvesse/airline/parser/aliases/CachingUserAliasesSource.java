@@ -0,0 +1,341 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.rvesse.airline.model.AliasMetadata;
+
+/**
+ * A user aliases source that caches the aliases loaded from each
+ * configuration file
+ * <p>
+ * This is intended for long running processes that build parsers repeatedly.
+ * Each file is cached keyed by its path, last modified time and size and is
+ * only re-read when one of these changes. When files change the merged aliases
+ * are updated incrementally, only the aliases defined in the changed files are
+ * re-resolved and the usual search location precedence is preserved.
+ * </p>
+ * <p>
+ * The compiled {@link AliasTable} is also cached, keyed by a stamp that
+ * changes whenever the merged aliases change, so that parsers built
+ * repeatedly via {@link com.github.rvesse.airline.builder.ParserBuilder} only
+ * recompile their aliases when the configuration files have actually changed.
+ * </p>
+ * <p>
+ * Optionally a {@link WatchService} may be used, in which case the file
+ * system is only checked for changes in search locations where the watch
+ * service has reported events since the previous load. Search locations that
+ * do not exist when the source is created cannot be watched and are always
+ * checked. Instances using a watch service should be closed when no longer
+ * needed.
+ * </p>
+ * <p>
+ * Note that a file rewritten such that its size is unchanged within the
+ * resolution of the file system modification times will not be reloaded.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public class CachingUserAliasesSource<C> extends UserAliasesSource<C> implements Closeable {
+
+    private final Map<Path, CachedFile> cache = new HashMap<Path, CachedFile>();
+    private final Map<String, AliasMetadata> merged = new LinkedHashMap<String, AliasMetadata>();
+    private final WatchService watcher;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<WatchKey, Path>();
+    private List<Path> files = null;
+    private List<AliasMetadata> aliases = null;
+    private long stamp = 0;
+    private CompiledTable compiled = null;
+
+    /**
+     * Creates a new caching source that checks the files for changes each
+     * time aliases are loaded
+     * 
+     * @param filename
+     *            Configuration file name
+     * @param prefix
+     *            Alias prefix
+     * @param searchLocations
+     *            Search locations in order of preference
+     */
+    public CachingUserAliasesSource(String filename, String prefix, String... searchLocations) {
+        super(filename, prefix, searchLocations);
+        this.watcher = null;
+    }
+
+    /**
+     * Creates a new caching source
+     * 
+     * @param watch
+     *            Whether to use a watch service to detect changes
+     * @param filename
+     *            Configuration file name
+     * @param prefix
+     *            Alias prefix
+     * @param searchLocations
+     *            Search locations in order of preference
+     * @throws IOException
+     *             Thrown if the watch service cannot be created
+     */
+    public CachingUserAliasesSource(boolean watch, String filename, String prefix, String... searchLocations)
+            throws IOException {
+        super(filename, prefix, searchLocations);
+        this.watcher = watch ? FileSystems.getDefault().newWatchService() : null;
+    }
+
+    /**
+     * Gets whether a watch service is used to detect changes
+     * 
+     * @return True if watching, false otherwise
+     */
+    public boolean isWatching() {
+        return this.watcher != null;
+    }
+
+    @Override
+    public synchronized List<AliasMetadata> load() throws IOException {
+        if (this.files == null) {
+            // Search locations are only resolved once
+            this.files = new ArrayList<Path>();
+            for (File f : getAliasFiles()) {
+                Path file = f.toPath().toAbsolutePath().normalize();
+                this.files.add(file);
+                watch(file.getParent());
+            }
+        }
+
+        Set<Path> changedDirectories = pollWatcher();
+        boolean changed = false;
+        for (int i = 0; i < this.files.size(); i++) {
+            Path file = this.files.get(i);
+            CachedFile cached = this.cache.get(file);
+            if (cached != null && cached.watched && !changedDirectories.contains(file.getParent()))
+                continue;
+
+            CachedFile current = read(file, cached);
+            if (current != cached) {
+                this.cache.put(file, current);
+                remerge(i, cached, current);
+                changed = true;
+            }
+        }
+
+        if (changed || this.aliases == null) {
+            this.aliases = Collections.unmodifiableList(new ArrayList<AliasMetadata>(this.merged.values()));
+            this.stamp++;
+        }
+        return this.aliases;
+    }
+
+    /**
+     * Gets a compiled alias table for the given aliases
+     * <p>
+     * The aliases are expected to be those loaded from this source, as
+     * returned by the most recent call to {@link #load()}, merged with any
+     * explicitly defined aliases. The previously compiled table is returned if
+     * the aliases loaded from this source have not changed since it was
+     * compiled and the given aliases are the same.
+     * </p>
+     * 
+     * @param aliases
+     *            Aliases
+     * @param aliasesMayChain
+     *            Whether aliases may chain
+     * @return Compiled alias table
+     */
+    @Override
+    public synchronized AliasTable getAliasTable(List<AliasMetadata> aliases, boolean aliasesMayChain) {
+        CompiledTable compiled = this.compiled;
+        if (compiled != null && compiled.stamp == this.stamp && compiled.aliasesMayChain == aliasesMayChain
+                && sameAliases(compiled.aliases, aliases))
+            return compiled.table;
+
+        compiled = new CompiledTable(this.stamp, new ArrayList<AliasMetadata>(aliases), aliasesMayChain,
+                new AliasTable(aliases, aliasesMayChain));
+        this.compiled = compiled;
+        return compiled.table;
+    }
+
+    private static boolean sameAliases(List<AliasMetadata> a, List<AliasMetadata> b) {
+        if (a.size() != b.size())
+            return false;
+        for (int i = 0; i < a.size(); i++) {
+            AliasMetadata x = a.get(i), y = b.get(i);
+            if (x == y)
+                continue;
+            if (x == null || y == null || !x.getName().equals(y.getName())
+                    || !x.getArguments().equals(y.getArguments()))
+                return false;
+        }
+        return true;
+    }
+
+    private void watch(Path dir) throws IOException {
+        if (this.watcher == null || dir == null || this.watchedDirectories.containsValue(dir))
+            return;
+        if (!Files.isDirectory(dir))
+            return;
+        WatchKey key = dir.register(this.watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.watchedDirectories.put(key, dir);
+    }
+
+    private Set<Path> pollWatcher() {
+        if (this.watcher == null)
+            return Collections.<Path> emptySet();
+
+        Set<Path> changed = new HashSet<Path>();
+        WatchKey key;
+        while ((key = this.watcher.poll()) != null) {
+            Path dir = this.watchedDirectories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                    // Events may have been lost so check everything
+                    changed.addAll(this.watchedDirectories.values());
+                    continue;
+                }
+                Object context = event.context();
+                if (context instanceof Path && ((Path) context).getFileName().toString().equals(getFilename()))
+                    changed.add(dir);
+            }
+            if (!key.reset()) {
+                // Directory no longer accessible, fall back to checking its
+                // file every time
+                this.watchedDirectories.remove(key);
+                if (dir != null) {
+                    for (CachedFile cached : this.cache.values()) {
+                        if (cached.file.getParent().equals(dir))
+                            cached.watched = false;
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private CachedFile read(Path file, CachedFile cached) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            attrs = null;
+        }
+        boolean watched = this.watchedDirectories.containsValue(file.getParent());
+
+        if (attrs == null || !attrs.isRegularFile() || !Files.isReadable(file)) {
+            if (cached != null && cached.aliases.isEmpty()) {
+                cached.watched = watched;
+                return cached;
+            }
+            return new CachedFile(file, -1, -1, Collections.<String, AliasMetadata> emptyMap(), watched);
+        }
+
+        long modified = attrs.lastModifiedTime().toMillis();
+        long size = attrs.size();
+        if (cached != null && cached.modified == modified && cached.size == size) {
+            cached.watched = watched;
+            return cached;
+        }
+        return new CachedFile(file, modified, size, loadFile(file.toFile()), watched);
+    }
+
+    /**
+     * Updates the merged aliases for a file that has changed
+     * 
+     * @param index
+     *            Index of the file in order of increasing precedence
+     * @param previous
+     *            Previous file contents, may be {@code null}
+     * @param current
+     *            Current file contents
+     */
+    private void remerge(int index, CachedFile previous, CachedFile current) {
+        Set<String> affected = new HashSet<String>(current.aliases.keySet());
+        if (previous != null)
+            affected.addAll(previous.aliases.keySet());
+
+        for (String name : affected) {
+            // Find the highest precedence file that defines this alias
+            AliasMetadata alias = null;
+            for (int i = this.files.size() - 1; i >= 0 && alias == null; i--) {
+                CachedFile cached = i == index ? current : this.cache.get(this.files.get(i));
+                if (cached != null)
+                    alias = cached.aliases.get(name);
+            }
+            if (alias != null) {
+                this.merged.put(name, alias);
+            } else {
+                this.merged.remove(name);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.watcher != null)
+            this.watcher.close();
+    }
+
+    private static final class CompiledTable {
+        private final long stamp;
+        private final List<AliasMetadata> aliases;
+        private final boolean aliasesMayChain;
+        private final AliasTable table;
+
+        CompiledTable(long stamp, List<AliasMetadata> aliases, boolean aliasesMayChain, AliasTable table) {
+            this.stamp = stamp;
+            this.aliases = aliases;
+            this.aliasesMayChain = aliasesMayChain;
+            this.table = table;
+        }
+    }
+
+    private static final class CachedFile {
+        private final Path file;
+        private final long modified, size;
+        private final Map<String, AliasMetadata> aliases;
+        private boolean watched;
+
+        CachedFile(Path file, long modified, long size, Map<String, AliasMetadata> aliases, boolean watched) {
+            this.file = file;
+            this.modified = modified;
+            this.size = size;
+            this.aliases = aliases;
+            this.watched = watched;
+        }
+    }
+}
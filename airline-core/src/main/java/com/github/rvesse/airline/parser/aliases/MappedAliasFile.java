@@ -0,0 +1,271 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * A memory mapped properties file with a compact index of the keys
+ * <p>
+ * Indexing only determines where each logical line starts and ends and
+ * computes the hash code of its key, no strings are created. Values are only
+ * decoded, using {@link Properties} so that the format is interpreted
+ * identically, when they are requested.
+ * </p>
+ */
+final class MappedAliasFile {
+
+    private final ByteBuffer buffer;
+    private final int[] hashes, starts, ends;
+
+    /**
+     * Maps and indexes a file, if the file cannot be mapped it is read into
+     * memory instead
+     * 
+     * @param file
+     *            File
+     * @param size
+     *            Expected size of the file
+     * @throws IOException
+     *             Thrown if the file cannot be read or no longer has the
+     *             expected size
+     */
+    MappedAliasFile(Path file, long size) throws IOException {
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Aliases file " + file + " is too large to map");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != size)
+                throw new IOException("Aliases file " + file + " changed while being mapped");
+            this.buffer = map(channel, (int) size);
+        }
+
+        // Find the logical lines
+        int limit = this.buffer.limit();
+        int[] lineHashes = new int[64], lineStarts = new int[64], lineEnds = new int[64];
+        int count = 0;
+        int pos = 0;
+        while (pos < limit) {
+            char c = charAt(pos);
+            if (isWhitespace(c) || c == '\r' || c == '\n') {
+                pos++;
+                continue;
+            }
+            if (c == '#' || c == '!') {
+                // Comment lines are never continued
+                while (pos < limit && charAt(pos) != '\r' && charAt(pos) != '\n') {
+                    pos++;
+                }
+                continue;
+            }
+
+            int end = findLineEnd(pos);
+            if (count == lineStarts.length) {
+                lineHashes = Arrays.copyOf(lineHashes, count * 2);
+                lineStarts = Arrays.copyOf(lineStarts, count * 2);
+                lineEnds = Arrays.copyOf(lineEnds, count * 2);
+            }
+            lineHashes[count] = keyHash(pos, end);
+            lineStarts[count] = pos;
+            lineEnds[count] = end;
+            count++;
+            pos = end;
+        }
+
+        // Sort by hash preserving file order for equal hashes
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = ((long) lineHashes[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        this.hashes = new int[count];
+        this.starts = new int[count];
+        this.ends = new int[count];
+        for (int i = 0; i < count; i++) {
+            int line = (int) order[i];
+            this.hashes[i] = lineHashes[line];
+            this.starts[i] = lineStarts[line];
+            this.ends[i] = lineEnds[line];
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, int size) throws IOException {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Fall back to reading the file into a heap buffer
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0)
+                    throw new IOException("Unexpected end of file");
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    private char charAt(int pos) {
+        // Properties files are ISO-8859-1
+        return (char) (this.buffer.get(pos) & 0xFF);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    /**
+     * Skips a line terminator and the leading whitespace of the following
+     * line
+     */
+    private int skipContinuation(int pos) {
+        int limit = this.buffer.limit();
+        if (charAt(pos) == '\r' && pos + 1 < limit && charAt(pos + 1) == '\n')
+            pos++;
+        pos++;
+        while (pos < limit && isWhitespace(charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Finds the end of the logical line starting at the given position taking
+     * line continuations into account
+     */
+    private int findLineEnd(int pos) {
+        int limit = this.buffer.limit();
+        boolean escaped = false;
+        while (pos < limit) {
+            char c = charAt(pos);
+            if (c == '\r' || c == '\n') {
+                if (!escaped)
+                    return pos;
+                pos = skipContinuation(pos);
+                escaped = false;
+                continue;
+            }
+            escaped = c == '\\' && !escaped;
+            pos++;
+        }
+        return limit;
+    }
+
+    /**
+     * Computes the {@link String#hashCode()} of the key of a logical line
+     * without creating the string
+     */
+    private int keyHash(int pos, int end) {
+        int hash = 0;
+        while (pos < end) {
+            char c = charAt(pos);
+            if (c == '\\') {
+                pos++;
+                if (pos >= end)
+                    break;
+                c = charAt(pos);
+                if (c == '\r' || c == '\n') {
+                    pos = skipContinuation(pos);
+                    continue;
+                }
+                switch (c) {
+                case 't':
+                    c = '\t';
+                    break;
+                case 'n':
+                    c = '\n';
+                    break;
+                case 'r':
+                    c = '\r';
+                    break;
+                case 'f':
+                    c = '\f';
+                    break;
+                case 'u':
+                    int value = 0;
+                    for (int i = 1; i <= 4 && pos + i < end; i++) {
+                        value = (value << 4) + Character.digit(charAt(pos + i), 16);
+                    }
+                    c = (char) value;
+                    pos += 4;
+                    break;
+                default:
+                    break;
+                }
+            } else if (c == '=' || c == ':' || isWhitespace(c)) {
+                break;
+            }
+            hash = 31 * hash + c;
+            pos++;
+        }
+        return hash;
+    }
+
+    /**
+     * Gets the number of entries in the file
+     * 
+     * @return Number of entries
+     */
+    int size() {
+        return this.starts.length;
+    }
+
+    /**
+     * Gets the value for a key
+     * 
+     * @param key
+     *            Key
+     * @return Value or {@code null} if the key is not defined in the file
+     */
+    String get(String key) {
+        int hash = key.hashCode();
+        int index = Arrays.binarySearch(this.hashes, hash);
+        if (index < 0)
+            return null;
+
+        // Find the last of the lines with this hash since the last definition
+        // in a file wins
+        while (index + 1 < this.hashes.length && this.hashes[index + 1] == hash) {
+            index++;
+        }
+        for (; index >= 0 && this.hashes[index] == hash; index--) {
+            String value = decode(this.starts[index], this.ends[index]).getProperty(key);
+            if (value != null)
+                return value;
+        }
+        return null;
+    }
+
+    private Properties decode(int start, int end) {
+        byte[] line = new byte[end - start];
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(start);
+        view.get(line);
+
+        Properties properties = new Properties();
+        try {
+            properties.load(new ByteArrayInputStream(line));
+        } catch (IOException | IllegalArgumentException e) {
+            // Malformed line, treat as if not defined
+        }
+        return properties;
+    }
+}
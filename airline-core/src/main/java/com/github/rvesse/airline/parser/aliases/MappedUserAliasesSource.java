@@ -0,0 +1,322 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.github.rvesse.airline.model.AliasMetadata;
+
+/**
+ * A user aliases source intended for very large alias files which memory maps
+ * the configuration files and only decodes the aliases that are actually used
+ * <p>
+ * When used with a parser the files are mapped and indexed the first time a
+ * possible alias is resolved. Indexing records the offset of each definition
+ * together with the hash of its name, the definition itself is only decoded
+ * and tokenized when that alias is looked up, after which it is cached. Files
+ * are checked for changes to their size or modification time at most once per
+ * check interval and are re-mapped, discarding any cached aliases, if they
+ * have changed. Before an alias is decoded the size and modification time of
+ * the files are also compared against those recorded when they were mapped so
+ * that a file which has been truncated is re-mapped rather than read. A file
+ * that cannot be mapped is read into memory instead, a file that cannot be read
+ * is treated as if it did not exist until it next changes.
+ * </p>
+ * <p>
+ * Files should be replaced, e.g. by renaming a new file over the old one,
+ * rather than modified in place since a file truncated by another process in
+ * the middle of a lookup may still fault.
+ * </p>
+ * <p>
+ * Precedence is the same as for {@link UserAliasesSource}, a definition from
+ * an earlier search location takes precedence over one from a later search
+ * location and within a file the last definition of an alias is used. Since
+ * aliases are looked up on demand they are not included in
+ * {@code ParserMetadata.getAliases()}, {@link #load()} may still be called
+ * explicitly and will decode every alias.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public class MappedUserAliasesSource<C> extends UserAliasesSource<C> implements AliasLookup {
+
+    /**
+     * Default interval in milliseconds between checks for changes to the
+     * files
+     */
+    public static final long DEFAULT_CHECK_INTERVAL = 1000;
+
+    private final long checkInterval;
+    private List<Path> candidates = null;
+    private MappedEntry[] entries = null;
+    private volatile Snapshot snapshot = null;
+    private volatile long nextCheck = 0;
+
+    /**
+     * Creates a new mapped source that checks the files for changes at the
+     * default interval
+     * 
+     * @param filename
+     *            Configuration file name
+     * @param prefix
+     *            Prefix used to distinguish alias definitions, may be
+     *            null/empty/blank if no prefix is in effect
+     * @param searchLocations
+     *            Search locations in order of preference
+     */
+    public MappedUserAliasesSource(String filename, String prefix, String... searchLocations) {
+        this(DEFAULT_CHECK_INTERVAL, filename, prefix, searchLocations);
+    }
+
+    /**
+     * Creates a new mapped source
+     * 
+     * @param checkInterval
+     *            Minimum interval in milliseconds between checks for changes
+     *            to the files, values less than or equal to zero check on
+     *            every lookup
+     * @param filename
+     *            Configuration file name
+     * @param prefix
+     *            Prefix used to distinguish alias definitions, may be
+     *            null/empty/blank if no prefix is in effect
+     * @param searchLocations
+     *            Search locations in order of preference
+     */
+    public MappedUserAliasesSource(long checkInterval, String filename, String prefix, String... searchLocations) {
+        super(filename, prefix, searchLocations);
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Returns no aliases since aliases are looked up on demand via the alias
+     * table, see {@link #getAliasTable(List, boolean)}
+     */
+    @Override
+    public List<AliasMetadata> loadForParser() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public AliasTable getAliasTable(List<AliasMetadata> aliases, boolean aliasesMayChain) {
+        return new AliasTable(aliases, aliasesMayChain, this);
+    }
+
+    @Override
+    public AliasMetadata lookup(String name) {
+        if (name == null)
+            return null;
+        Snapshot snapshot = getSnapshot();
+        AliasMetadata cached = snapshot.cache.get(name);
+        if (cached != null)
+            return cached;
+
+        // Never read a mapped file that has changed since it was mapped
+        if (!snapshot.isCurrent())
+            snapshot = refresh(true);
+
+        String key = StringUtils.isNotBlank(getPrefix()) ? getPrefix() + name : name;
+        String value = snapshot.get(key);
+        if (value == null)
+            return null;
+
+        // Only hits are cached, misses are resolved via the index
+        AliasMetadata alias = createAlias(name, value);
+        AliasMetadata existing = snapshot.cache.putIfAbsent(name, alias);
+        return existing != null ? existing : alias;
+    }
+
+    @Override
+    public boolean hasAliases() {
+        for (MappedAliasFile file : getSnapshot().files) {
+            if (file.size() > 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of alias definitions that have been indexed, this
+     * includes definitions that are shadowed by other definitions and when a
+     * prefix is in effect any other properties in the files
+     * 
+     * @return Number of indexed definitions
+     */
+    public int getIndexedCount() {
+        int count = 0;
+        for (MappedAliasFile file : getSnapshot().files) {
+            count += file.size();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of aliases that have been decoded since the files were
+     * last mapped
+     * 
+     * @return Number of decoded aliases
+     */
+    public int getDecodedCount() {
+        return getSnapshot().cache.size();
+    }
+
+    /**
+     * Gets the current mapped files, mapping and indexing them if this has not
+     * yet happened or if they have changed since the last check
+     * 
+     * @return Mapped files
+     */
+    private Snapshot getSnapshot() {
+        Snapshot snapshot = this.snapshot;
+        if (snapshot != null && System.currentTimeMillis() < this.nextCheck)
+            return snapshot;
+        return refresh(false);
+    }
+
+    private synchronized Snapshot refresh(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && this.snapshot != null && now < this.nextCheck)
+            return this.snapshot;
+
+        if (this.candidates == null) {
+            // Search locations are only resolved once
+            this.candidates = new ArrayList<Path>();
+            for (File f : getAliasFiles()) {
+                this.candidates.add(f.toPath());
+            }
+            this.entries = new MappedEntry[this.candidates.size()];
+        }
+
+        boolean changed = this.snapshot == null;
+        for (int i = 0; i < this.candidates.size(); i++) {
+            Path file = this.candidates.get(i);
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (IOException e) {
+                attrs = null;
+            }
+            if (attrs == null || !attrs.isRegularFile() || !Files.isReadable(file)) {
+                if (this.entries[i] != null) {
+                    this.entries[i] = null;
+                    changed = true;
+                }
+                continue;
+            }
+
+            long modified = attrs.lastModifiedTime().toMillis();
+            long size = attrs.size();
+            MappedEntry entry = this.entries[i];
+            if (entry != null && entry.modified == modified && entry.size == size)
+                continue;
+            MappedAliasFile mapped;
+            try {
+                mapped = new MappedAliasFile(file, size);
+            } catch (IOException e) {
+                // Not read until the file next changes
+                mapped = null;
+            }
+            this.entries[i] = new MappedEntry(file, modified, size, mapped);
+            changed = true;
+        }
+
+        if (changed) {
+            List<MappedEntry> mapped = new ArrayList<MappedEntry>();
+            List<MappedAliasFile> files = new ArrayList<MappedAliasFile>();
+            for (MappedEntry entry : this.entries) {
+                if (entry != null && entry.file != null) {
+                    mapped.add(entry);
+                    files.add(entry.file);
+                }
+            }
+            // Alias files are in reverse order of preference
+            Collections.reverse(files);
+            this.snapshot = new Snapshot(mapped, Collections.unmodifiableList(files));
+        }
+        this.nextCheck = this.checkInterval > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + this.checkInterval;
+        return this.snapshot;
+    }
+
+    private static final class MappedEntry {
+        private final Path path;
+        private final long modified, size;
+        private final MappedAliasFile file;
+
+        MappedEntry(Path path, long modified, long size, MappedAliasFile file) {
+            this.path = path;
+            this.modified = modified;
+            this.size = size;
+            this.file = file;
+        }
+
+        /**
+         * Gets whether the file still has the size and modification time it
+         * had when it was mapped
+         */
+        boolean isCurrent() {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(this.path, BasicFileAttributes.class);
+                return attrs.size() == this.size && attrs.lastModifiedTime().toMillis() == this.modified;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The mapped files in order of preference together with the aliases
+     * decoded from them
+     */
+    private static final class Snapshot {
+        private final List<MappedEntry> entries;
+        private final List<MappedAliasFile> files;
+        private final ConcurrentMap<String, AliasMetadata> cache = new ConcurrentHashMap<String, AliasMetadata>();
+
+        Snapshot(List<MappedEntry> entries, List<MappedAliasFile> files) {
+            this.entries = entries;
+            this.files = files;
+        }
+
+        boolean isCurrent() {
+            for (MappedEntry entry : this.entries) {
+                if (!entry.isCurrent())
+                    return false;
+            }
+            return true;
+        }
+
+        String get(String key) {
+            for (MappedAliasFile file : this.files) {
+                String value = file.get(key);
+                if (value != null)
+                    return value;
+            }
+            return null;
+        }
+    }
+}
@@ -23,7 +23,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -90,18 +92,94 @@ public class UserAliasesSource<C> {
         return this.prefix;
     }
 
+    /**
+     * Loads the aliases
+     * <p>
+     * Each search location is checked for the configuration file, where an
+     * alias is defined in several files the definition from the earliest
+     * search location takes precedence.
+     * </p>
+     * 
+     * @return Aliases
+     * @throws FileNotFoundException
+     *             Thrown if a configuration file cannot be found
+     * @throws IOException
+     *             Thrown if a configuration file cannot be read
+     */
     public List<AliasMetadata> load() throws FileNotFoundException, IOException {
-        Properties properties = new Properties();
+        Map<String, AliasMetadata> aliases = new LinkedHashMap<String, AliasMetadata>();
+
+        // Load files in reverse order of preference overwriting previously
+        // found values each time. Thus the first location in the list has
+        // highest precedence
+        for (File f : getAliasFiles()) {
+            if (f.exists() && f.isFile() && f.canRead()) {
+                aliases.putAll(loadFile(f));
+            }
+        }
+        return new ArrayList<AliasMetadata>(aliases.values());
+    }
+
+    /**
+     * Loads the aliases that should be included in the aliases of a parser,
+     * called by {@link com.github.rvesse.airline.builder.ParserBuilder} when
+     * building a parser
+     * <p>
+     * The default implementation calls {@link #load()}, sources that look up
+     * aliases on demand may return no aliases and instead provide them via
+     * {@link #getAliasTable(List, boolean)}.
+     * </p>
+     * 
+     * @return Aliases
+     * @throws IOException
+     *             Thrown if a configuration file cannot be read
+     */
+    public List<AliasMetadata> loadForParser() throws IOException {
+        return load();
+    }
 
+    /**
+     * Gets the compiled alias table for a parser, called by
+     * {@link com.github.rvesse.airline.builder.ParserBuilder} when building a
+     * parser
+     * <p>
+     * The given aliases are the explicitly defined aliases merged with those
+     * returned by {@link #loadForParser()}. The default implementation
+     * compiles a new table, subclasses may override this to cache the compiled
+     * table or to look up aliases on demand.
+     * </p>
+     * 
+     * @param aliases
+     *            Aliases
+     * @param aliasesMayChain
+     *            Whether aliases may chain
+     * @return Compiled alias table
+     */
+    public AliasTable getAliasTable(List<AliasMetadata> aliases, boolean aliasesMayChain) {
+        return aliases.isEmpty() ? AliasTable.empty() : new AliasTable(aliases, aliasesMayChain);
+    }
+
+    /**
+     * Gets the configuration files that may contain alias definitions in
+     * reverse order of preference i.e. the file from the first search location
+     * is last
+     * <p>
+     * Blank search locations and search locations relative to the user home
+     * directory when it is not known are omitted, as are duplicate search
+     * locations. The returned files may not exist.
+     * </p>
+     * 
+     * @return Configuration files
+     */
+    protected List<File> getAliasFiles() {
         // Find the home directory since we will use this
         File homeDir = null;
         if (!StringUtils.isEmpty(System.getProperty("user.home"))) {
             homeDir = new File(System.getProperty("user.home"));
         }
 
-        // Search locations in reverse order overwriting previously found values
-        // each time. Thus the first location in the list has highest precedence
-        Set<String> loaded = new HashSet<>();
+        List<File> files = new ArrayList<File>();
+        Set<String> seen = new HashSet<>();
         for (int i = searchLocations.size() - 1; i >= 0; i--) {
             // Check an actual location
             String loc = searchLocations.get(i);
@@ -117,54 +195,58 @@ public class UserAliasesSource<C> {
             }
 
             // Don't read property files multiple times
-            if (loaded.contains(loc))
+            if (!seen.add(loc))
                 continue;
 
-            File f = new File(loc);
-            f = new File(f, filename);
-            if (f.exists() && f.isFile() && f.canRead()) {
-                try (FileInputStream input = new FileInputStream(f)) {
-                    properties.load(input);
-                } finally {
-                    // Remember we've tried to read this file so we don't try
-                    // and read it multiple times
-                    loaded.add(loc);
-                }
-            }
+            files.add(new File(new File(loc), filename));
         }
+        return files;
+    }
 
-        // Strip any irrelevant properties
-        if (StringUtils.isNotBlank(prefix)) {
-            List<Object> keysToRemove = new ArrayList<Object>();
-            for (Object key : properties.keySet()) {
-                if (!key.toString().startsWith(prefix))
-                    keysToRemove.add(key);
-            }
-            for (Object key : keysToRemove) {
-                properties.remove(key);
-            }
+    /**
+     * Loads the alias definitions from a single configuration file
+     * 
+     * @param f
+     *            Configuration file
+     * @return Aliases defined in the file keyed by name
+     * @throws IOException
+     *             Thrown if the file cannot be read
+     */
+    protected Map<String, AliasMetadata> loadFile(File f) throws IOException {
+        Properties properties = new Properties();
+        try (FileInputStream input = new FileInputStream(f)) {
+            properties.load(input);
         }
 
-        // Generate the aliases
-        List<AliasMetadata> aliases = new ArrayList<>();
-        for (Object key : properties.keySet()) {
-            String name = key.toString();
-            if (!StringUtils.isBlank(prefix))
-                name = name.substring(prefix.length());
-            AliasBuilder<C> alias = new AliasBuilder<C>(name);
-
-            String value = properties.getProperty(key.toString());
-            if (StringUtils.isEmpty(value)) {
-                aliases.add(alias.build());
+        // Generate the aliases, ignoring any irrelevant properties
+        Map<String, AliasMetadata> aliases = new LinkedHashMap<String, AliasMetadata>();
+        boolean hasPrefix = StringUtils.isNotBlank(prefix);
+        for (String key : properties.stringPropertyNames()) {
+            if (hasPrefix && !key.startsWith(prefix))
                 continue;
-            }
-
-            // Process property value into arguments
-            List<String> args = AliasArgumentsParser.parse(value);
-            alias.withArguments(args.toArray(new String[args.size()]));
-            aliases.add(alias.build());
+            String name = hasPrefix ? key.substring(prefix.length()) : key;
+            aliases.put(name, createAlias(name, properties.getProperty(key)));
         }
-
         return aliases;
     }
+
+    /**
+     * Creates an alias from its definition
+     * 
+     * @param name
+     *            Alias name
+     * @param value
+     *            Alias definition, tokenized into arguments
+     * @return Alias
+     */
+    protected AliasMetadata createAlias(String name, String value) {
+        AliasBuilder<C> alias = new AliasBuilder<C>(name);
+        if (StringUtils.isEmpty(value))
+            return alias.build();
+
+        // Process property value into arguments
+        List<String> args = AliasArgumentsParser.parse(value);
+        alias.withArguments(args.toArray(new String[args.size()]));
+        return alias.build();
+    }
 }
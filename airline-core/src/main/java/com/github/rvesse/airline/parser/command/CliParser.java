@@ -15,17 +15,12 @@
  */
 package com.github.rvesse.airline.parser.command;
 
-import com.github.rvesse.airline.model.ArgumentsMetadata;
-import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
-import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseException;
-import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
-import com.github.rvesse.airline.restrictions.GlobalRestriction;
-import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
 
 public class CliParser<T> extends AbstractCommandParser<T> {
 
@@ -33,20 +28,27 @@ public class CliParser<T> extends AbstractCommandParser<T> {
         if (args == null)
             throw new NullPointerException("args cannot be null");
 
-        ParseState<T> state = tryParse(metadata, args);
+        ParserErrorHandler handler = metadata.getParserConfiguration().getErrorHandler();
+        boolean previousStackless = ParseException.setStacklessMode(isStackless(handler));
+        ParseState<T> state;
+        try {
+            state = tryParse(metadata, args);
 
-        // If we did not find a command choose the appropriate default command
-        // (if any)
-        if (state.getCommand() == null) {
-            if (state.getGroup() != null) {
-                state = state.withCommand(state.getGroup().getDefaultCommand());
-            } else {
-                state = state.withCommand(metadata.getDefaultCommand());
+            // If we did not find a command choose the appropriate default
+            // command (if any)
+            if (state.getCommand() == null) {
+                if (state.getGroup() != null) {
+                    state = state.withCommand(state.getGroup().getDefaultCommand());
+                } else {
+                    state = state.withCommand(metadata.getDefaultCommand());
+                }
             }
-        }
 
-        validate(state);
-        return metadata.getParserConfiguration().getErrorHandler().finished(state);
+            validate(state);
+        } finally {
+            ParseException.setStacklessMode(previousStackless);
+        }
+        return handler.finished(state);
     }
 
     public T parse(GlobalMetadata<T> metadata, Iterable<String> args) {
@@ -65,47 +67,6 @@ public class CliParser<T> extends AbstractCommandParser<T> {
      *            Parser state
      */
     protected void validate(ParseState<T> state) {
-        // Global restrictions
-        for (GlobalRestriction restriction : state.getGlobal().getRestrictions()) {
-            if (restriction == null)
-                continue;
-            try {
-                restriction.validate(state);
-            } catch (ParseException e) {
-                state.getParserConfiguration().getErrorHandler().handleError(e);
-            }
-        }
-        CommandMetadata command = state.getCommand();
-        if (command != null) {
-
-            // Argument restrictions
-            ArgumentsMetadata arguments = command.getArguments();
-            if (arguments != null) {
-                for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-                    if (restriction == null)
-                        continue;
-                    try {
-                        restriction.finalValidate(state, arguments);
-                    } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
-                    }
-                }
-            }
-
-            // Option restrictions
-            for (OptionMetadata option : command.getAllOptions()) {
-                if (option == null)
-                    continue;
-                for (OptionRestriction restriction : option.getRestrictions()) {
-                    if (restriction == null)
-                        continue;
-                    try {
-                        restriction.finalValidate(state, option);
-                    } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
-                    }
-                }
-            }
-        }
+        validateRestrictions(state, state.getGlobal().getRestrictions());
     }
 }
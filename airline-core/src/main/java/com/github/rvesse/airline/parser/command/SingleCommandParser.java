@@ -19,17 +19,13 @@ import java.util.List;
 
 import org.apache.commons.collections4.IteratorUtils;
 
-import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
-import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseException;
-import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
-import com.github.rvesse.airline.restrictions.OptionRestriction;
 
 public class SingleCommandParser<T> extends AbstractCommandParser<T> {
 
@@ -38,8 +34,14 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
         if (args == null)
             throw new NullPointerException("args is null");
 
-        ParseState<T> state = tryParse(parserConfig, commandMetadata, args);
-        validate(state, IteratorUtils.toList(restrictions.iterator()));
+        boolean previousStackless = ParseException.setStacklessMode(isStackless(parserConfig.getErrorHandler()));
+        ParseState<T> state;
+        try {
+            state = tryParse(parserConfig, commandMetadata, args);
+            validate(state, IteratorUtils.toList(restrictions.iterator()));
+        } finally {
+            ParseException.setStacklessMode(previousStackless);
+        }
 
         return state.getParserConfiguration().getErrorHandler().finished(state);
 
@@ -62,46 +64,6 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
      *            Parser state
      */
     protected void validate(ParseState<T> state, List<GlobalRestriction> restrictions) {
-        // Global restrictions
-        for (GlobalRestriction restriction : restrictions) {
-            if (restriction == null)
-                continue;
-            try {
-                restriction.validate(state);
-            } catch (ParseException e) {
-                state.getParserConfiguration().getErrorHandler().handleError(e);
-            }
-        }
-        CommandMetadata command = state.getCommand();
-        if (command != null) {
-            // Arguments restrictions
-            ArgumentsMetadata arguments = command.getArguments();
-            if (arguments != null) {
-                for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-                    if (restriction == null)
-                        continue;
-                    try {
-                        restriction.finalValidate(state, arguments);
-                    } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
-                    }
-                }
-            }
-
-            // Option restrictions
-            for (OptionMetadata option : command.getAllOptions()) {
-                if (option == null)
-                    continue;
-                for (OptionRestriction restriction : option.getRestrictions()) {
-                    if (restriction == null)
-                        continue;
-                    try {
-                        restriction.finalValidate(state, option);
-                    } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
-                    }
-                }
-            }
-        }
+        validateRestrictions(state, restrictions);
     }
 }
@@ -26,27 +26,17 @@ import com.github.rvesse.airline.utils.AirlineUtils;
 public class ParseArgumentsIllegalValueException extends ParseRestrictionViolatedException {
     private static final long serialVersionUID = 810812151673279427L;
 
-    private final String optionTitle;
     private final Object illegalValue;
     private final Set<Object> allowedValues;
 
     public ParseArgumentsIllegalValueException(String optionTitle, Object value, Set<Object> allowedValues) {
         super("Value for argument '%s' was given as '%s' which is not in the list of allowed values: %s", optionTitle,
                 value, allowedValues);
-        this.optionTitle = optionTitle;
+        setOptionTitle(optionTitle);
         this.illegalValue = value;
         this.allowedValues = AirlineUtils.unmodifiableSetCopy(allowedValues);
     }
 
-    /**
-     * Gets the option title
-     * 
-     * @return Option title
-     */
-    public String getOptionTitle() {
-        return optionTitle;
-    }
-
     /**
      * Gets the illegal value
      * 
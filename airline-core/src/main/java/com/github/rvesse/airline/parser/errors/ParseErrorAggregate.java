@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An aggregate of similar parse errors i.e. those of the same type or for the
+ * same option, holding the count of errors and a bounded number of samples
+ *
+ */
+public final class ParseErrorAggregate {
+
+    private final String key;
+    private final int maxSamples;
+    private final List<ParseException> samples = new ArrayList<ParseException>();
+    private long count = 0;
+
+    ParseErrorAggregate(String key, int maxSamples) {
+        this.key = key;
+        this.maxSamples = maxSamples;
+    }
+
+    void add(ParseException e) {
+        this.count++;
+        if (this.samples.size() < this.maxSamples)
+            this.samples.add(e);
+    }
+
+    /**
+     * Gets the key for the aggregate i.e. the exception type name or the
+     * option title
+     * 
+     * @return Key
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Gets the number of errors
+     * 
+     * @return Number of errors
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets samples of the errors, these are the first errors encountered
+     * 
+     * @return Samples
+     */
+    public List<ParseException> getSamples() {
+        return Collections.unmodifiableList(this.samples);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d error(s)", this.key, this.count);
+    }
+}
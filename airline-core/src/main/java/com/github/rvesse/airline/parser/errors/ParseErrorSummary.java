@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A summary of the errors encountered during parsing aggregated by exception
+ * type and by option
+ * <p>
+ * The memory used by a summary is bounded by the number of distinct exception
+ * types and options, and the number of samples retained for each, regardless
+ * of how many errors are added. Errors are aggregated by option using
+ * {@link ParseException#getOptionTitle()}, errors that do not relate to an
+ * option are only aggregated by type.
+ * </p>
+ *
+ */
+public final class ParseErrorSummary {
+
+    private final int maxSamples;
+    private final Map<Class<? extends ParseException>, ParseErrorAggregate> byType = new LinkedHashMap<>();
+    private final Map<String, ParseErrorAggregate> byOption = new LinkedHashMap<>();
+    private long count = 0;
+
+    /**
+     * Creates a new summary
+     * 
+     * @param maxSamples
+     *            Maximum number of samples to retain for each aggregate
+     */
+    public ParseErrorSummary(int maxSamples) {
+        if (maxSamples < 0)
+            throw new IllegalArgumentException("maxSamples cannot be negative");
+        this.maxSamples = maxSamples;
+    }
+
+    /**
+     * Creates a summary of the given errors retaining all of them as samples
+     * 
+     * @param errors
+     *            Errors
+     * @return Summary
+     */
+    public static ParseErrorSummary of(Iterable<ParseException> errors) {
+        ParseErrorSummary summary = new ParseErrorSummary(Integer.MAX_VALUE);
+        for (ParseException e : errors) {
+            summary.add(e);
+        }
+        return summary;
+    }
+
+    /**
+     * Adds an error to the summary
+     * 
+     * @param e
+     *            Error
+     */
+    public void add(ParseException e) {
+        if (e == null)
+            return;
+        this.count++;
+
+        ParseErrorAggregate aggregate = this.byType.get(e.getClass());
+        if (aggregate == null) {
+            aggregate = new ParseErrorAggregate(e.getClass().getName(), this.maxSamples);
+            this.byType.put(e.getClass(), aggregate);
+        }
+        aggregate.add(e);
+
+        String option = e.getOptionTitle();
+        if (option != null) {
+            aggregate = this.byOption.get(option);
+            if (aggregate == null) {
+                aggregate = new ParseErrorAggregate(option, this.maxSamples);
+                this.byOption.put(option, aggregate);
+            }
+            aggregate.add(e);
+        }
+    }
+
+    /**
+     * Gets the total number of errors added
+     * 
+     * @return Number of errors
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets the maximum number of samples retained for each aggregate
+     * 
+     * @return Maximum samples
+     */
+    public int getMaxSamples() {
+        return this.maxSamples;
+    }
+
+    /**
+     * Gets the errors aggregated by exception type in the order the types
+     * were first encountered
+     * 
+     * @return Aggregates by type
+     */
+    public Map<Class<? extends ParseException>, ParseErrorAggregate> getByType() {
+        return Collections.unmodifiableMap(this.byType);
+    }
+
+    /**
+     * Gets the errors aggregated by option/arguments title in the order the
+     * options were first encountered
+     * 
+     * @return Aggregates by option
+     */
+    public Map<String, ParseErrorAggregate> getByOption() {
+        return Collections.unmodifiableMap(this.byOption);
+    }
+}
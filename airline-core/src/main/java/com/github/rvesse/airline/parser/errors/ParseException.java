@@ -15,21 +15,222 @@
  */
 package com.github.rvesse.airline.parser.errors;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.rvesse.airline.utils.AirlineUtils;
+
 /**
  * Super class of all command line parsing exceptions
+ * <p>
+ * Exception messages are formatted lazily the first time
+ * {@link #getMessage()} is called, so error handlers that collect errors
+ * without inspecting their messages do not pay the cost of formatting them.
+ * The raw format string and arguments are available via
+ * {@link #getMessageFormat()} and {@link #getMessageArguments()}.
+ * </p>
+ * <p>
+ * When {@link #setStacklessMode(boolean)} has been enabled on the current
+ * thread exceptions do not capture stack traces, parsers enable this for the
+ * duration of parsing when configured with a collecting error handler that
+ * requests it e.g. {@code new CollectAll(true)}.
+ * </p>
+ * <p>
+ * Similarly {@link #setOptionContext(String)} sets the title of the option or
+ * arguments currently being validated on the current thread, exceptions
+ * created while this is set record it as their option title unless they are
+ * specific to some other option.
+ * </p>
  *
  */
 public class ParseException extends RuntimeException
 {
     private static final long serialVersionUID = 3772132549207742875L;
 
+    private static final ThreadLocal<Boolean> STACKLESS = new ThreadLocal<Boolean>() {
+        @Override
+        protected Boolean initialValue() {
+            return Boolean.FALSE;
+        }
+    };
+
+    private static final ThreadLocal<String> OPTION_CONTEXT = new ThreadLocal<String>();
+
+    private final String format;
+    private transient Object[] args;
+    private volatile String message;
+    private String optionTitle;
+    private List<String> suggestions = Collections.emptyList();
+
     public ParseException(String string, Object... args)
     {
-        super(String.format(string, args));
+        this(null, string, args);
     }
 
     public ParseException(Exception cause, String string, Object... args)
     {
-        super(String.format(string, args), cause);
+        super(null, cause);
+        this.format = string;
+        this.args = args;
+        this.optionTitle = OPTION_CONTEXT.get();
+    }
+
+    /**
+     * Sets whether parse exceptions created on the current thread should skip
+     * capturing stack traces
+     * 
+     * @param stackless
+     *            Whether exceptions should be stackless
+     * @return The previous setting
+     */
+    public static boolean setStacklessMode(boolean stackless) {
+        boolean previous = STACKLESS.get();
+        STACKLESS.set(stackless);
+        return previous;
+    }
+
+    /**
+     * Gets whether parse exceptions created on the current thread skip
+     * capturing stack traces
+     * 
+     * @return True if stackless, false otherwise
+     */
+    public static boolean isStacklessMode() {
+        return STACKLESS.get();
+    }
+
+    /**
+     * Sets the title of the option or arguments whose values are being
+     * validated on the current thread, this is recorded as the option title of
+     * exceptions created on the current thread
+     * 
+     * @param optionTitle
+     *            Option/arguments title, {@code null} to clear
+     * @return The previous title
+     */
+    public static String setOptionContext(String optionTitle) {
+        String previous = OPTION_CONTEXT.get();
+        OPTION_CONTEXT.set(optionTitle);
+        return previous;
+    }
+
+    /**
+     * Gets the title of the option or arguments whose values are being
+     * validated on the current thread
+     * 
+     * @return Option/arguments title, {@code null} if none
+     */
+    public static String getOptionContext() {
+        return OPTION_CONTEXT.get();
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        if (STACKLESS.get())
+            return this;
+        return super.fillInStackTrace();
+    }
+
+    /**
+     * Gets the format string for the exception message
+     * 
+     * @return Message format
+     */
+    public String getMessageFormat() {
+        return this.format;
+    }
+
+    /**
+     * Gets the arguments used to format the exception message, these will
+     * typically be the option/argument title, the value and any further
+     * details relevant to the error e.g. restriction bounds
+     * 
+     * @return Message arguments, empty if the exception has been deserialized
+     */
+    public Object[] getMessageArguments() {
+        return this.args != null ? this.args.clone() : new Object[0];
+    }
+
+    /**
+     * Gets the title of the option or arguments that this error relates to
+     * <p>
+     * This is set by exceptions that are specific to an option and from the
+     * option context (see {@link #setOptionContext(String)}) for errors
+     * produced by the restrictions of an option or arguments, it is used by error handlers that aggregate errors
+     * per option e.g. {@link com.github.rvesse.airline.parser.errors.handlers.CollectBounded}.
+     * </p>
+     * 
+     * @return Option/arguments title, {@code null} if the error does not
+     *         relate to a specific option or arguments or this is unknown
+     */
+    public String getOptionTitle() {
+        return this.optionTitle;
+    }
+
+    /**
+     * Sets the title of the option or arguments that this error relates to,
+     * only intended to be called from the constructors of option specific
+     * exceptions
+     * 
+     * @param optionTitle
+     *            Option/arguments title
+     */
+    void setOptionTitle(String optionTitle) {
+        this.optionTitle = optionTitle;
+    }
+
+    /**
+     * Gets suggestions for what the user may have meant, e.g. the names of
+     * commands or options similar to an unrecognized command or option
+     * 
+     * @return Suggestions ordered closest first, empty if there are none
+     */
+    public List<String> getSuggestions() {
+        return this.suggestions;
+    }
+
+    /**
+     * Sets suggestions for what the user may have meant
+     * 
+     * @param suggestions
+     *            Suggestions ordered closest first
+     */
+    public void setSuggestions(List<String> suggestions) {
+        this.suggestions = suggestions != null ? AirlineUtils.unmodifiableListCopy(suggestions)
+                : Collections.<String> emptyList();
+    }
+
+    /**
+     * Formats the exception message, called at most once the first time the
+     * message is requested
+     * 
+     * @return Formatted message
+     */
+    protected String formatMessage() {
+        return this.format != null ? String.format(this.format, this.args) : null;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = this.message;
+        if (message == null) {
+            if (this.format == null) {
+                // Instances serialized prior to lazy formatting only carry
+                // the message in the super class
+                return super.getMessage();
+            }
+            message = formatMessage();
+            this.message = message;
+        }
+        return message;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // Ensure the message is formatted since the arguments are not
+        // serialized
+        getMessage();
+        out.defaultWriteObject();
     }
 }
@@ -23,26 +23,23 @@ package com.github.rvesse.airline.parser.errors;
 public class ParseOptionConversionException extends ParseException {
     private static final long serialVersionUID = -9105701233341582179L;
 
-    private final String optionTitle;
     private final String value;
     private final String typeName;
 
     public ParseOptionConversionException(String optionTitle, String value, String typeName) {
-        this(String.format("%s: can not convert \"%s\" to a %s", optionTitle, value, typeName), optionTitle, value,
-                typeName);
+        super("%s: can not convert \"%s\" to a %s", optionTitle, value, typeName);
+        setOptionTitle(optionTitle);
+        this.value = value;
+        this.typeName = typeName;
     }
 
     public ParseOptionConversionException(String message, String optionTitle, String value, String typeName) {
         super(message);
-        this.optionTitle = optionTitle;
+        setOptionTitle(optionTitle);
         this.value = value;
         this.typeName = typeName;
     }
 
-    public String getOptionTitle() {
-        return optionTitle;
-    }
-
     public String getValue() {
         return value;
     }
@@ -22,17 +22,10 @@ package com.github.rvesse.airline.parser.errors;
 public class ParseOptionMissingException extends ParseRestrictionViolatedException
 {
     private static final long serialVersionUID = -2256462221508393062L;
-    
-    private final String optionTitle;
 
     public ParseOptionMissingException(String optionTitle)
     {
         super("Required option '%s' is missing", optionTitle);
-        this.optionTitle = optionTitle;
-    }
-
-    public String getOptionTitle()
-    {
-        return optionTitle;
+        setOptionTitle(optionTitle);
     }
 }
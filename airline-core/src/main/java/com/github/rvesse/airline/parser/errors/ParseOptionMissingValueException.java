@@ -22,20 +22,14 @@ package com.github.rvesse.airline.parser.errors;
  */
 public class ParseOptionMissingValueException extends ParseRestrictionViolatedException {
     private static final long serialVersionUID = -731926542936989571L;
-    
-    private final String optionTitle;
 
     public ParseOptionMissingValueException(String optionTitle) {
         super("Required values for option '%s' not provided", optionTitle);
-        this.optionTitle = optionTitle;
+        setOptionTitle(optionTitle);
     }
     
     public ParseOptionMissingValueException(String message, String optionTitle, Object... args) {
         super(message, args);
-        this.optionTitle = optionTitle;
-    }
-
-    public String getOptionTitle() {
-        return optionTitle;
+        setOptionTitle(optionTitle);
     }
 }
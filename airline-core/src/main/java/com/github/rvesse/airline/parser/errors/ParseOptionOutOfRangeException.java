@@ -47,6 +47,7 @@ public class ParseOptionOutOfRangeException extends ParseRestrictionViolatedExce
             Object max, boolean maxInclusive) {
         super("Value for option '%s' was given as '%s' which is not in the acceptable range: %s", optionTitle, value,
                 AirlineUtils.toRangeString(min, minInclusive, max, maxInclusive));
+        setOptionTitle(optionTitle);
         this.illegalValue = value;
         this.min = min;
         this.minInclusive = minInclusive;
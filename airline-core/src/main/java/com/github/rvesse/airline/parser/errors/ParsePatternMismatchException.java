@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+import java.util.regex.Pattern;
+
+/**
+ * Error that indicates that a value did not match a required regular expression
+ *
+ */
+public class ParsePatternMismatchException extends ParseRestrictionViolatedException {
+    private static final long serialVersionUID = 6265343436915062528L;
+
+    private final String illegalValue;
+    private final Pattern pattern;
+    private final String description;
+
+    /**
+     * Creates a new pattern mismatch exception
+     * 
+     * @param message
+     *            Message format, formatted with the title, the value, the
+     *            regular expression and the description
+     * @param title
+     *            Option/argument title
+     * @param value
+     *            The value which does not match
+     * @param pattern
+     *            The regular expression
+     * @param description
+     *            Description of the regular expression, may be empty
+     */
+    public ParsePatternMismatchException(String message, String title, String value, Pattern pattern,
+            String description) {
+        super(message, title, value, pattern.toString(), description);
+        this.illegalValue = value;
+        this.pattern = pattern;
+        this.description = description;
+    }
+
+    public String getIllegalValue() {
+        return this.illegalValue;
+    }
+
+    public Pattern getPattern() {
+        return this.pattern;
+    }
+
+    public String getDescription() {
+        return this.description;
+    }
+}
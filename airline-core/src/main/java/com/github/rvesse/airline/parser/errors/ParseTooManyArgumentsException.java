@@ -23,10 +23,10 @@ public class ParseTooManyArgumentsException extends ParseRestrictionViolatedExce
     private static final long serialVersionUID = -4597154963755198959L;
 
     public ParseTooManyArgumentsException(String string, Object... args) {
-        super(String.format(string, args));
+        super(string, args);
     }
 
     public ParseTooManyArgumentsException(Exception cause, String string, Object... args) {
-        super(String.format(string, args), cause);
+        super(cause, string, args);
     }
 }
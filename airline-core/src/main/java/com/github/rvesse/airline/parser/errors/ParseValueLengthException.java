@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+/**
+ * Error that indicates that a value was longer or shorter than permitted
+ *
+ */
+public class ParseValueLengthException extends ParseRestrictionViolatedException {
+    private static final long serialVersionUID = -1817562466102734915L;
+
+    private final String illegalValue;
+    private final int length;
+    private final boolean maximum;
+
+    /**
+     * Creates a new length exception
+     * 
+     * @param message
+     *            Message format, formatted with the title, the value, the
+     *            length of the value and the permitted length
+     * @param title
+     *            Option/argument title
+     * @param value
+     *            The value whose length is not permitted
+     * @param length
+     *            The permitted length
+     * @param maximum
+     *            Whether the permitted length is a maximum, otherwise it is a
+     *            minimum
+     */
+    public ParseValueLengthException(String message, String title, String value, int length, boolean maximum) {
+        super(message, title, value, value.length(), length);
+        this.illegalValue = value;
+        this.length = length;
+        this.maximum = maximum;
+    }
+
+    public String getIllegalValue() {
+        return this.illegalValue;
+    }
+
+    /**
+     * Gets the permitted length
+     * 
+     * @return Permitted length
+     */
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Gets whether the permitted length is a maximum
+     * 
+     * @return True if a maximum, false if a minimum
+     */
+    public boolean isMaximum() {
+        return this.maximum;
+    }
+}
@@ -23,9 +23,33 @@ import com.github.rvesse.airline.parser.errors.ParseException;
 public abstract class AbstractCollectingHandler implements ParserErrorHandler {
 
     protected List<ParseException> errors = new ArrayList<>();
+    private final boolean stackless;
 
     public AbstractCollectingHandler() {
+        this(false);
+    }
+
+    /**
+     * Creates a new collecting handler
+     * 
+     * @param stackless
+     *            Whether parse exceptions should skip capturing stack traces
+     *            while parsing with this handler, this substantially reduces
+     *            the cost of collecting large numbers of errors
+     */
+    public AbstractCollectingHandler(boolean stackless) {
         super();
+        this.stackless = stackless;
+    }
+
+    /**
+     * Gets whether parse exceptions should skip capturing stack traces while
+     * parsing with this handler
+     * 
+     * @return True if stackless, false otherwise
+     */
+    public boolean isStackless() {
+        return this.stackless;
     }
 
     @Override
@@ -26,6 +26,21 @@ import com.github.rvesse.airline.parser.ParseState;
  */
 public class CollectAll extends AbstractCollectingHandler {
 
+    public CollectAll() {
+        super();
+    }
+
+    /**
+     * Creates a new handler
+     * 
+     * @param stackless
+     *            Whether parse exceptions should skip capturing stack traces
+     *            while parsing with this handler
+     */
+    public CollectAll(boolean stackless) {
+        super(stackless);
+    }
+
     @Override
     public <T> ParseResult<T> finished(ParseState<T> state) {
         ParseResult<T> result = new ParseResult<>(state, getCollection());
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors.handlers;
+
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseErrorSummary;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+/**
+ * Error handler which collects errors for later inspection using bounded
+ * memory
+ * <p>
+ * Unlike {@link CollectAll} only the first {@code maxErrors} errors are
+ * retained, every error is counted and aggregated by exception type and by
+ * option with the first {@code maxSamples} errors of each retained as samples.
+ * The aggregates are available via {@link ParseResult#getErrorSummary()}, and
+ * {@link ParseResult#getErrorCount()} gives the total number of errors. This is
+ * intended for parsing very large inputs where a systematic problem could
+ * otherwise produce vast numbers of errors, for the same reason this defaults
+ * to being stackless.
+ * </p>
+ *
+ */
+public class CollectBounded extends AbstractCollectingHandler {
+
+    /**
+     * Default maximum number of errors retained
+     */
+    public static final int DEFAULT_MAX_ERRORS = 100;
+    /**
+     * Default maximum number of samples retained per aggregate
+     */
+    public static final int DEFAULT_MAX_SAMPLES = 10;
+
+    private final int maxErrors, maxSamples;
+    private ParseErrorSummary summary;
+
+    /**
+     * Creates a new stackless handler with the default limits
+     */
+    public CollectBounded() {
+        this(DEFAULT_MAX_ERRORS, DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * Creates a new stackless handler
+     * 
+     * @param maxErrors
+     *            Maximum number of errors to retain
+     * @param maxSamples
+     *            Maximum number of samples to retain for each exception type
+     *            and option, must be positive
+     */
+    public CollectBounded(int maxErrors, int maxSamples) {
+        this(maxErrors, maxSamples, true);
+    }
+
+    /**
+     * Creates a new handler
+     * 
+     * @param maxErrors
+     *            Maximum number of errors to retain
+     * @param maxSamples
+     *            Maximum number of samples to retain for each exception type
+     *            and option, must be positive
+     * @param stackless
+     *            Whether parse exceptions should skip capturing stack traces
+     *            while parsing with this handler
+     */
+    public CollectBounded(int maxErrors, int maxSamples, boolean stackless) {
+        super(stackless);
+        if (maxErrors < 0)
+            throw new IllegalArgumentException("maxErrors cannot be negative");
+        if (maxSamples <= 0)
+            throw new IllegalArgumentException("maxSamples must be positive");
+        this.maxErrors = maxErrors;
+        this.maxSamples = maxSamples;
+        this.summary = new ParseErrorSummary(maxSamples);
+    }
+
+    /**
+     * Gets the maximum number of errors retained
+     * 
+     * @return Maximum errors
+     */
+    public int getMaxErrors() {
+        return this.maxErrors;
+    }
+
+    /**
+     * Gets the maximum number of samples retained for each exception type and
+     * option
+     * 
+     * @return Maximum samples
+     */
+    public int getMaxSamples() {
+        return this.maxSamples;
+    }
+
+    @Override
+    public void handleError(ParseException e) {
+        this.summary.add(e);
+        if (this.errors.size() < this.maxErrors)
+            this.errors.add(e);
+    }
+
+    @Override
+    protected void resetCollection() {
+        super.resetCollection();
+        this.summary = new ParseErrorSummary(this.maxSamples);
+    }
+
+    @Override
+    public <T> ParseResult<T> finished(ParseState<T> state) {
+        ParseResult<T> result = new ParseResult<>(state, getCollection(), this.summary);
+        resetCollection();
+        return result;
+    }
+}
@@ -23,6 +23,21 @@ import com.github.rvesse.airline.parser.errors.ParseException;
 
 public class FailAll extends AbstractCollectingHandler {
 
+    public FailAll() {
+        super();
+    }
+
+    /**
+     * Creates a new handler
+     * 
+     * @param stackless
+     *            Whether parse exceptions should skip capturing stack traces
+     *            while parsing with this handler
+     */
+    public FailAll(boolean stackless) {
+        super(stackless);
+    }
+
     @Override
     public <T> ParseResult<T> finished(ParseState<T> state) {
         Collection<ParseException> errors = getCollection();
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.results;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming serializer that writes a {@link ParseResultView} in a compact
+ * binary form
+ * <p>
+ * The output is written directly to the stream, which should be buffered,
+ * without building any intermediate collections. The format is as follows,
+ * where {@code varint} is an unsigned LEB128 integer and {@code string} is a
+ * {@code varint} of the UTF-8 length plus one, zero for {@code null},
+ * followed by the UTF-8 bytes:
+ * </p>
+ * 
+ * <pre>
+ * magic    'A' 'R' version(1)
+ * header   string(cli) string(group) string(command)
+ * options  varint(count) { string(title) varint(count) value* }*
+ * args     varint(count) value*
+ * unparsed varint(count) string*
+ * </pre>
+ * <p>
+ * Each value is a tag byte followed by its data: {@link #NULL}, {@link #FALSE}
+ * and {@link #TRUE} have no data, {@link #INTEGRAL} is followed by a ZigZag
+ * encoded {@code varint}, {@link #FLOATING} by the 8 bytes of the IEEE 754
+ * representation in big endian order and {@link #STRING} by a
+ * {@code string}, values of other types are written as strings using their
+ * {@code toString()} form. Instances are stateless and may be shared.
+ * </p>
+ *
+ */
+public final class BinaryResultWriter {
+
+    /**
+     * Format version
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Value tags
+     */
+    public static final int NULL = 0, FALSE = 1, TRUE = 2, INTEGRAL = 3, FLOATING = 4, STRING = 5;
+
+    /**
+     * Writes a view
+     * 
+     * @param view
+     *            View
+     * @param out
+     *            Output stream
+     * @throws IOException
+     *             Thrown if the output cannot be written
+     */
+    public void write(ParseResultView<?> view, OutputStream out) throws IOException {
+        out.write('A');
+        out.write('R');
+        out.write(VERSION);
+        writeString(view.getGlobal() != null ? view.getGlobal().getName() : null, out);
+        writeString(view.getGroup() != null ? view.getGroup().getName() : null, out);
+        writeString(view.getCommand() != null ? view.getCommand().getName() : null, out);
+
+        int present = 0;
+        for (int i = 0; i < view.getOptionCount(); i++) {
+            if (view.isPresent(i))
+                present++;
+        }
+        writeVarint(present, out);
+        for (int i = 0; i < view.getOptionCount(); i++) {
+            int count = view.getValueCount(i);
+            if (count == 0)
+                continue;
+            writeString(view.getOption(i).getTitle(), out);
+            writeVarint(count, out);
+            for (int j = 0; j < count; j++) {
+                writeValue(view.getValue(i, j), out);
+            }
+        }
+
+        writeVarint(view.getArgumentCount(), out);
+        for (int i = 0; i < view.getArgumentCount(); i++) {
+            writeValue(view.getArgument(i), out);
+        }
+        writeVarint(view.getUnparsedCount(), out);
+        for (int i = 0; i < view.getUnparsedCount(); i++) {
+            writeString(view.getUnparsed(i), out);
+        }
+    }
+
+    private static void writeValue(Object value, OutputStream out) throws IOException {
+        if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof Boolean) {
+            out.write(((Boolean) value).booleanValue() ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte) {
+            long l = ((Number) value).longValue();
+            out.write(INTEGRAL);
+            writeVarint((l << 1) ^ (l >> 63), out);
+        } else if (value instanceof Double || value instanceof Float) {
+            long bits = Double.doubleToLongBits(((Number) value).doubleValue());
+            out.write(FLOATING);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (bits >>> shift));
+            }
+        } else {
+            out.write(STRING);
+            writeString(value.toString(), out);
+        }
+    }
+
+    private static void writeVarint(long value, OutputStream out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeString(String value, OutputStream out) throws IOException {
+        if (value == null) {
+            writeVarint(0, out);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length + 1L, out);
+        out.write(bytes);
+    }
+}
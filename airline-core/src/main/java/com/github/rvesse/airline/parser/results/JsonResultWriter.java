@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.results;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Streaming serializer that writes a {@link ParseResultView} as compact JSON
+ * <p>
+ * The output is a single JSON object of the following form, written directly
+ * to the output without building any intermediate collections:
+ * </p>
+ * 
+ * <pre>
+ * {"cli":"name","group":"name","command":"name",
+ *  "options":[{"title":"title","names":["name",...],"values":[value,...]},...],
+ *  "arguments":[value,...],
+ *  "unparsed":["input",...]}
+ * </pre>
+ * <p>
+ * Fields that do not apply are written as {@code null}. Options are written
+ * as an array in option index order rather than keyed by title since several
+ * options, e.g. a CLI option and a command option, may share a title. Each
+ * option always has an array of values since options may be given several
+ * times. Booleans and finite numbers are written as JSON literals, all
+ * other values are written as strings using their {@code toString()} form.
+ * Instances are stateless and may be shared.
+ * </p>
+ *
+ */
+public final class JsonResultWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Writes a view as JSON
+     * 
+     * @param view
+     *            View
+     * @param out
+     *            Output
+     * @throws IOException
+     *             Thrown if the output cannot be written
+     */
+    public void write(ParseResultView<?> view, Appendable out) throws IOException {
+        out.append("{\"cli\":");
+        writeString(view.getGlobal() != null ? view.getGlobal().getName() : null, out);
+        out.append(",\"group\":");
+        writeString(view.getGroup() != null ? view.getGroup().getName() : null, out);
+        out.append(",\"command\":");
+        writeString(view.getCommand() != null ? view.getCommand().getName() : null, out);
+
+        out.append(",\"options\":[");
+        boolean first = true;
+        for (int i = 0; i < view.getOptionCount(); i++) {
+            int count = view.getValueCount(i);
+            if (count == 0)
+                continue;
+            if (!first)
+                out.append(',');
+            first = false;
+            out.append("{\"title\":");
+            writeString(view.getOption(i).getTitle(), out);
+            out.append(",\"names\":[");
+            boolean firstName = true;
+            for (String name : view.getOption(i).getOptions()) {
+                if (!firstName)
+                    out.append(',');
+                firstName = false;
+                writeString(name, out);
+            }
+            out.append("],\"values\":[");
+            for (int j = 0; j < count; j++) {
+                if (j > 0)
+                    out.append(',');
+                writeValue(view.getValue(i, j), out);
+            }
+            out.append("]}");
+        }
+
+        out.append("],\"arguments\":[");
+        for (int i = 0; i < view.getArgumentCount(); i++) {
+            if (i > 0)
+                out.append(',');
+            writeValue(view.getArgument(i), out);
+        }
+        out.append("],\"unparsed\":[");
+        for (int i = 0; i < view.getUnparsedCount(); i++) {
+            if (i > 0)
+                out.append(',');
+            writeString(view.getUnparsed(i), out);
+        }
+        out.append("]}");
+    }
+
+    /**
+     * Writes a view as a JSON string
+     * 
+     * @param view
+     *            View
+     * @return JSON
+     */
+    public String toJson(ParseResultView<?> view) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            write(view, builder);
+        } catch (IOException e) {
+            // Cannot happen when writing to a StringBuilder
+            throw new IllegalStateException(e);
+        }
+        return builder.toString();
+    }
+
+    private static void writeValue(Object value, Appendable out) throws IOException {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Boolean) {
+            out.append(((Boolean) value).booleanValue() ? "true" : "false");
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte || value instanceof BigInteger || value instanceof BigDecimal) {
+            out.append(value.toString());
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                writeString(value.toString(), out);
+            } else {
+                out.append(value.toString());
+            }
+        } else {
+            writeString(value.toString(), out);
+        }
+    }
+
+    private static void writeString(String value, Appendable out) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\')
+                continue;
+
+            // Write the run of characters that need no escaping
+            out.append(value, start, i);
+            start = i + 1;
+            switch (c) {
+            case '"':
+                out.append("\\\"");
+                break;
+            case '\\':
+                out.append("\\\\");
+                break;
+            case '\n':
+                out.append("\\n");
+                break;
+            case '\r':
+                out.append("\\r");
+                break;
+            case '\t':
+                out.append("\\t");
+                break;
+            default:
+                out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                break;
+            }
+        }
+        out.append(value, start, value.length());
+        out.append('"');
+    }
+}
@@ -0,0 +1,382 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.results;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * A read-only, index based view over the results of parsing
+ * <p>
+ * Options are identified by an index, the options of the parsed command (or
+ * of the CLI if no command was parsed) in declaration order followed by any
+ * other options that were parsed. Values are read directly from the parser
+ * state by index so creating a view does not copy any values, it only builds
+ * a compact index over the parsed options and a hash index of the options
+ * themselves. The typed accessors e.g.
+ * {@link #getLongValue(int, int)} return primitive values so callers need not
+ * cast and unbox the values themselves.
+ * </p>
+ * <p>
+ * Views may be walked using a {@link ParseResultVisitor} or serialized using
+ * {@link JsonResultWriter} or {@link BinaryResultWriter}.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public final class ParseResultView<T> {
+
+    private final ParseState<T> state;
+    private final List<Pair<OptionMetadata, Object>> parsedOptions;
+    private final OptionMetadata[] options;
+    private final Map<OptionMetadata, Integer> optionIndexes;
+    private Map<String, Integer> nameIndexes;
+    private final int[] offsets, positions;
+
+    /**
+     * Creates a new view
+     * 
+     * @param state
+     *            Parser state
+     */
+    public ParseResultView(ParseState<T> state) {
+        if (state == null)
+            throw new NullPointerException("state cannot be null");
+        this.state = state;
+        this.parsedOptions = state.getParsedOptions();
+
+        // Determine the option index
+        List<OptionMetadata> declared;
+        if (state.getCommand() != null) {
+            declared = state.getCommand().getAllOptions();
+        } else if (state.getGlobal() != null) {
+            declared = state.getGlobal().getOptions();
+        } else {
+            declared = null;
+        }
+        int size = 0;
+        OptionMetadata[] options = new OptionMetadata[(declared != null ? declared.size() : 0)
+                + this.parsedOptions.size()];
+        this.optionIndexes = new HashMap<OptionMetadata, Integer>();
+        if (declared != null) {
+            for (OptionMetadata option : declared) {
+                if (!this.optionIndexes.containsKey(option)) {
+                    this.optionIndexes.put(option, size);
+                    options[size++] = option;
+                }
+            }
+        }
+
+        // Count the values for each option
+        int[] optionIndexes = new int[this.parsedOptions.size()];
+        int[] counts = new int[options.length];
+        for (int i = 0; i < optionIndexes.length; i++) {
+            OptionMetadata option = this.parsedOptions.get(i).getLeft();
+            Integer index = this.optionIndexes.get(option);
+            if (index == null) {
+                index = size;
+                this.optionIndexes.put(option, index);
+                options[size++] = option;
+            }
+            optionIndexes[i] = index;
+            counts[index]++;
+        }
+        this.options = size == options.length ? options : Arrays.copyOf(options, size);
+
+        // Group the positions of the values by option
+        this.offsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            this.offsets[i + 1] = this.offsets[i] + counts[i];
+        }
+        this.positions = new int[optionIndexes.length];
+        int[] next = Arrays.copyOf(this.offsets, size);
+        for (int i = 0; i < optionIndexes.length; i++) {
+            this.positions[next[optionIndexes[i]]++] = i;
+        }
+    }
+
+    /**
+     * Gets the underlying parser state
+     * 
+     * @return Parser state
+     */
+    public ParseState<T> getState() {
+        return this.state;
+    }
+
+    /**
+     * Gets the CLI meta-data, if any
+     * 
+     * @return CLI meta-data or {@code null} if parsing a single command
+     */
+    public GlobalMetadata<T> getGlobal() {
+        return this.state.getGlobal();
+    }
+
+    /**
+     * Gets the group meta-data, if any
+     * 
+     * @return Group meta-data or {@code null}
+     */
+    public CommandGroupMetadata getGroup() {
+        return this.state.getGroup();
+    }
+
+    /**
+     * Gets the command meta-data, if any
+     * 
+     * @return Command meta-data or {@code null} if no command was parsed
+     */
+    public CommandMetadata getCommand() {
+        return this.state.getCommand();
+    }
+
+    /**
+     * Gets the number of options in the index
+     * 
+     * @return Number of options
+     */
+    public int getOptionCount() {
+        return this.options.length;
+    }
+
+    /**
+     * Gets the option with the given index
+     * 
+     * @param optionIndex
+     *            Option index
+     * @return Option meta-data
+     */
+    public OptionMetadata getOption(int optionIndex) {
+        return this.options[optionIndex];
+    }
+
+    /**
+     * Gets the index of an option
+     * 
+     * @param option
+     *            Option meta-data
+     * @return Option index or {@code -1} if the option is not in the index
+     */
+    public int indexOf(OptionMetadata option) {
+        Integer index = option != null ? this.optionIndexes.get(option) : null;
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Gets the index of the option with the given name
+     * 
+     * @param name
+     *            Option name e.g. {@code --verbose}
+     * @return Option index or {@code -1} if no such option is in the index
+     */
+    public int indexOf(String name) {
+        Map<String, Integer> names = this.nameIndexes;
+        if (names == null) {
+            // Only built if names are actually used
+            names = new HashMap<String, Integer>();
+            for (int i = 0; i < this.options.length; i++) {
+                for (String optionName : this.options[i].getOptions()) {
+                    if (!names.containsKey(optionName))
+                        names.put(optionName, i);
+                }
+            }
+            this.nameIndexes = names;
+        }
+        Integer index = names.get(name);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Gets the number of values parsed for an option
+     * 
+     * @param optionIndex
+     *            Option index
+     * @return Number of values, zero if the option was not given
+     */
+    public int getValueCount(int optionIndex) {
+        return this.offsets[optionIndex + 1] - this.offsets[optionIndex];
+    }
+
+    /**
+     * Gets whether an option was given
+     * 
+     * @param optionIndex
+     *            Option index
+     * @return True if the option was given at least once
+     */
+    public boolean isPresent(int optionIndex) {
+        return getValueCount(optionIndex) > 0;
+    }
+
+    private int position(int optionIndex, int valueIndex) {
+        if (valueIndex < 0 || valueIndex >= getValueCount(optionIndex))
+            throw new IndexOutOfBoundsException("Value index " + valueIndex + " out of range for option "
+                    + this.options[optionIndex].getTitle());
+        return this.positions[this.offsets[optionIndex] + valueIndex];
+    }
+
+    /**
+     * Gets a value of an option, values are in the order they were given
+     * 
+     * @param optionIndex
+     *            Option index
+     * @param valueIndex
+     *            Value index
+     * @return Value
+     */
+    public Object getValue(int optionIndex, int valueIndex) {
+        return this.parsedOptions.get(position(optionIndex, valueIndex)).getRight();
+    }
+
+    /**
+     * Gets a value of an option whose type is integral
+     * 
+     * @param optionIndex
+     *            Option index
+     * @param valueIndex
+     *            Value index
+     * @return Value
+     * @throws ClassCastException
+     *             Thrown if the value is not a number
+     */
+    public long getLongValue(int optionIndex, int valueIndex) {
+        return ((Number) getValue(optionIndex, valueIndex)).longValue();
+    }
+
+    /**
+     * Gets a value of an option whose type is floating point
+     * 
+     * @param optionIndex
+     *            Option index
+     * @param valueIndex
+     *            Value index
+     * @return Value
+     * @throws ClassCastException
+     *             Thrown if the value is not a number
+     */
+    public double getDoubleValue(int optionIndex, int valueIndex) {
+        return ((Number) getValue(optionIndex, valueIndex)).doubleValue();
+    }
+
+    /**
+     * Gets a value of an option whose type is boolean
+     * 
+     * @param optionIndex
+     *            Option index
+     * @param valueIndex
+     *            Value index
+     * @return Value
+     * @throws ClassCastException
+     *             Thrown if the value is not a boolean
+     */
+    public boolean getBooleanValue(int optionIndex, int valueIndex) {
+        return ((Boolean) getValue(optionIndex, valueIndex)).booleanValue();
+    }
+
+    /**
+     * Gets the arguments meta-data, if any
+     * 
+     * @return Arguments meta-data or {@code null}
+     */
+    public ArgumentsMetadata getArguments() {
+        return this.state.getCommand() != null ? this.state.getCommand().getArguments() : null;
+    }
+
+    /**
+     * Gets the number of parsed arguments
+     * 
+     * @return Number of arguments
+     */
+    public int getArgumentCount() {
+        return this.state.getParsedArguments().size();
+    }
+
+    /**
+     * Gets a parsed argument
+     * 
+     * @param index
+     *            Argument index
+     * @return Argument
+     */
+    public Object getArgument(int index) {
+        return this.state.getParsedArguments().get(index);
+    }
+
+    /**
+     * Gets the number of inputs that could not be parsed
+     * 
+     * @return Number of unparsed inputs
+     */
+    public int getUnparsedCount() {
+        return this.state.getUnparsedInput().size();
+    }
+
+    /**
+     * Gets an input that could not be parsed
+     * 
+     * @param index
+     *            Index
+     * @return Unparsed input
+     */
+    public String getUnparsed(int index) {
+        return this.state.getUnparsedInput().get(index);
+    }
+
+    /**
+     * Walks the view with a visitor
+     * <p>
+     * The visitor sees the command, then each option that was given with its
+     * values in option index order, then the arguments and finally any
+     * unparsed input.
+     * </p>
+     * 
+     * @param visitor
+     *            Visitor
+     */
+    public void accept(ParseResultVisitor visitor) {
+        visitor.visitCommand(getGlobal(), getGroup(), getCommand());
+        for (int i = 0; i < this.options.length; i++) {
+            int count = getValueCount(i);
+            if (count == 0)
+                continue;
+            visitor.visitOption(this.options[i], i, count);
+            for (int j = 0; j < count; j++) {
+                visitor.visitOptionValue(this.options[i], j, getValue(i, j));
+            }
+        }
+        ArgumentsMetadata arguments = getArguments();
+        for (int i = 0; i < getArgumentCount(); i++) {
+            visitor.visitArgument(arguments, i, getArgument(i));
+        }
+        for (int i = 0; i < getUnparsedCount(); i++) {
+            visitor.visitUnparsed(i, getUnparsed(i));
+        }
+        visitor.visitEnd();
+    }
+}
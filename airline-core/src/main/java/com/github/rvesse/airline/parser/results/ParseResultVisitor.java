@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.results;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+
+/**
+ * Visitor for walking a {@link ParseResultView}
+ *
+ */
+public interface ParseResultVisitor {
+
+    /**
+     * Visits the parsed command, always called first
+     * 
+     * @param global
+     *            CLI meta-data, {@code null} if parsing a single command
+     * @param group
+     *            Group meta-data, may be {@code null}
+     * @param command
+     *            Command meta-data, {@code null} if no command was parsed
+     */
+    public void visitCommand(GlobalMetadata<?> global, CommandGroupMetadata group, CommandMetadata command);
+
+    /**
+     * Visits an option that was given, followed by calls to
+     * {@link #visitOptionValue(OptionMetadata, int, Object)} for each of its
+     * values
+     * 
+     * @param option
+     *            Option meta-data
+     * @param optionIndex
+     *            Option index within the view
+     * @param valueCount
+     *            Number of values
+     */
+    public void visitOption(OptionMetadata option, int optionIndex, int valueCount);
+
+    /**
+     * Visits a value of an option
+     * 
+     * @param option
+     *            Option meta-data
+     * @param valueIndex
+     *            Value index
+     * @param value
+     *            Value
+     */
+    public void visitOptionValue(OptionMetadata option, int valueIndex, Object value);
+
+    /**
+     * Visits a parsed argument
+     * 
+     * @param arguments
+     *            Arguments meta-data
+     * @param index
+     *            Argument index
+     * @param value
+     *            Value
+     */
+    public void visitArgument(ArgumentsMetadata arguments, int index, Object value);
+
+    /**
+     * Visits an input that could not be parsed
+     * 
+     * @param index
+     *            Index
+     * @param input
+     *            Unparsed input
+     */
+    public void visitUnparsed(int index, String input);
+
+    /**
+     * Called once the whole view has been visited
+     */
+    public void visitEnd();
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.suggester;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An index of names that finds the names within a given edit distance of some
+ * input
+ * <p>
+ * The names are held in a BK-tree keyed by Levenshtein distance so a search
+ * only computes the distance to a small fraction of the names rather than
+ * scanning them all. Searches may be given a time budget after which the
+ * closest names found so far are returned.
+ * </p>
+ * <p>
+ * Indexes are immutable and thread safe.
+ * </p>
+ */
+public final class NameIndex {
+
+    private static final int BUDGET_CHECK_INTERVAL = 64;
+
+    private final Node root;
+    private final int size;
+
+    /**
+     * Creates a new index
+     * 
+     * @param names
+     *            Names, duplicates and {@code null} names are ignored
+     */
+    public NameIndex(Iterable<String> names) {
+        Set<String> unique = new LinkedHashSet<String>();
+        for (String name : names) {
+            if (name != null)
+                unique.add(name);
+        }
+
+        Node root = null;
+        for (String name : unique) {
+            if (root == null) {
+                root = new Node(name);
+            } else {
+                root.add(name);
+            }
+        }
+        this.root = root;
+        this.size = unique.size();
+    }
+
+    /**
+     * Gets the number of names in the index
+     * 
+     * @return Number of names
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Finds the names within the given distance of the input
+     * 
+     * @param input
+     *            Input
+     * @param maxDistance
+     *            Maximum edit distance
+     * @param maxResults
+     *            Maximum number of results
+     * @param budgetNanos
+     *            Time budget in nanoseconds, zero or less for no budget
+     * @return Names ordered by distance and then by name, closest first
+     */
+    public List<String> find(String input, int maxDistance, int maxResults, long budgetNanos) {
+        if (this.root == null || input == null || maxResults <= 0 || maxDistance < 0)
+            return Collections.emptyList();
+
+        long start = System.nanoTime();
+        List<Match> matches = new ArrayList<Match>();
+        Deque<Node> pending = new ArrayDeque<Node>();
+        pending.push(this.root);
+        int visited = 0;
+        while (!pending.isEmpty()) {
+            if (budgetNanos > 0 && ++visited % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() - start > budgetNanos)
+                break;
+
+            Node node = pending.pop();
+            int distance = distance(input, node.name);
+            if (distance <= maxDistance)
+                matches.add(new Match(node.name, distance));
+
+            // Triangle inequality means only children whose distance from
+            // this node is within maxDistance of the input's distance can
+            // contain matches
+            for (int i = 0; i < node.childCount; i++) {
+                if (Math.abs(node.distances[i] - distance) <= maxDistance)
+                    pending.push(node.children[i]);
+            }
+        }
+
+        Collections.sort(matches, new Comparator<Match>() {
+            @Override
+            public int compare(Match a, Match b) {
+                int c = Integer.compare(a.distance, b.distance);
+                return c != 0 ? c : a.name.compareTo(b.name);
+            }
+        });
+        List<String> results = new ArrayList<String>(Math.min(maxResults, matches.size()));
+        for (int i = 0; i < matches.size() && i < maxResults; i++) {
+            results.add(matches.get(i).name);
+        }
+        return results;
+    }
+
+    /**
+     * Calculates the Levenshtein distance between two strings
+     * 
+     * @param a
+     *            First string
+     * @param b
+     *            Second string
+     * @return Edit distance
+     */
+    public static int distance(String a, String b) {
+        if (a.length() < b.length()) {
+            String temp = a;
+            a = b;
+            b = temp;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = c == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class Node {
+        private final String name;
+        private int[] distances = new int[0];
+        private Node[] children = new Node[0];
+        private int childCount = 0;
+
+        private Node(String name) {
+            this.name = name;
+        }
+
+        private void add(String name) {
+            Node node = this;
+            while (true) {
+                int distance = distance(name, node.name);
+                Node child = node.getChild(distance);
+                if (child == null) {
+                    node.addChild(distance, new Node(name));
+                    return;
+                }
+                node = child;
+            }
+        }
+
+        private Node getChild(int distance) {
+            for (int i = 0; i < this.childCount; i++) {
+                if (this.distances[i] == distance)
+                    return this.children[i];
+            }
+            return null;
+        }
+
+        private void addChild(int distance, Node child) {
+            if (this.childCount == this.children.length) {
+                int capacity = Math.max(4, this.childCount * 2);
+                int[] distances = new int[capacity];
+                Node[] children = new Node[capacity];
+                System.arraycopy(this.distances, 0, distances, 0, this.childCount);
+                System.arraycopy(this.children, 0, children, 0, this.childCount);
+                this.distances = distances;
+                this.children = children;
+            }
+            this.distances[this.childCount] = distance;
+            this.children[this.childCount++] = child;
+        }
+    }
+
+    private static final class Match {
+        private final String name;
+        private final int distance;
+
+        private Match(String name, int distance) {
+            this.name = name;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.suggester;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * Finds near-miss suggestions for unrecognized commands and options
+ * <p>
+ * A {@link NameIndex} is built the first time suggestions are needed for a
+ * CLI, group or command and is attached to the CLI meta-data so that it is
+ * reused thereafter, it is rebuilt if commands or sub-groups are added to the
+ * CLI or group it was built from. Hidden commands, groups and
+ * options are never suggested. Each search is limited to
+ * {@link #DEFAULT_BUDGET} so producing suggestions never noticeably delays
+ * reporting an error.
+ * </p>
+ */
+public final class NearMisses {
+
+    /**
+     * Default time budget for a search
+     */
+    public static final long DEFAULT_BUDGET = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Maximum number of suggestions produced
+     */
+    public static final int MAX_SUGGESTIONS = 5;
+
+    private NearMisses() {
+    }
+
+    /**
+     * Gets the maximum edit distance for a suggestion, this grows with the
+     * length of the input so short inputs do not match everything
+     * 
+     * @param input
+     *            Input
+     * @return Maximum edit distance
+     */
+    public static int getMaxDistance(String input) {
+        int length = input.length();
+        if (length <= 3)
+            return 1;
+        if (length <= 6)
+            return 2;
+        return 3;
+    }
+
+    /**
+     * Suggests commands and groups similar to an unrecognized command
+     * 
+     * @param state
+     *            Parser state
+     * @param input
+     *            Unrecognized input
+     * @return Suggestions, closest first
+     */
+    public static <T> List<String> suggestCommands(ParseState<T> state, String input) {
+        Object scope = state.getGroup() != null ? state.getGroup() : state.getGlobal();
+        if (scope == null || input == null || input.isEmpty())
+            return Collections.emptyList();
+        return find(getIndex(state, scope, false), input);
+    }
+
+    /**
+     * Suggests options similar to an unrecognized option
+     * 
+     * @param state
+     *            Parser state
+     * @param input
+     *            Unrecognized input
+     * @return Suggestions, closest first
+     */
+    public static <T> List<String> suggestOptions(ParseState<T> state, String input) {
+        Object scope = state.getCommand() != null ? state.getCommand()
+                : state.getGroup() != null ? state.getGroup() : state.getGlobal();
+        if (scope == null || input == null || input.isEmpty())
+            return Collections.emptyList();
+        return find(getIndex(state, scope, true), input);
+    }
+
+    private static List<String> find(NameIndex index, String input) {
+        return index.find(input, getMaxDistance(input), MAX_SUGGESTIONS, DEFAULT_BUDGET);
+    }
+
+    private static <T> NameIndex getIndex(ParseState<T> state, Object scope, boolean options) {
+        GlobalMetadata<T> global = state.getGlobal();
+        if (global == null)
+            return buildIndex(scope, options);
+
+        Indexes indexes = (Indexes) global.getAttachment(NearMisses.class);
+        if (indexes == null)
+            indexes = (Indexes) global.attach(NearMisses.class, new Indexes());
+        ConcurrentMap<Object, StampedIndex> scoped = options ? indexes.options : indexes.commands;
+        int stamp = stamp(scope);
+        StampedIndex index = scoped.get(scope);
+        if (index == null || index.stamp != stamp) {
+            // Concurrent callers may build the same index, the result is
+            // identical so whichever is stored last wins
+            index = new StampedIndex(buildIndex(scope, options), stamp);
+            scoped.put(scope, index);
+        }
+        return index.index;
+    }
+
+    private static NameIndex buildIndex(Object scope, boolean options) {
+        return new NameIndex(options ? optionNames(scope) : commandNames(scope));
+    }
+
+    private static int stamp(Object scope) {
+        if (scope instanceof GlobalMetadata) {
+            return ((GlobalMetadata<?>) scope).getModificationStamp();
+        } else if (scope instanceof CommandGroupMetadata) {
+            return ((CommandGroupMetadata) scope).getModificationStamp();
+        }
+        // Other meta-data is immutable
+        return 0;
+    }
+
+    private static List<String> commandNames(Object scope) {
+        List<String> names = new ArrayList<String>();
+        if (scope instanceof GlobalMetadata) {
+            GlobalMetadata<?> global = (GlobalMetadata<?>) scope;
+            for (CommandGroupMetadata group : global.getCommandGroups()) {
+                if (!group.isHidden())
+                    names.add(group.getName());
+            }
+            addCommands(names, global.getDefaultGroupCommands());
+        } else {
+            CommandGroupMetadata group = (CommandGroupMetadata) scope;
+            for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+                if (!subGroup.isHidden())
+                    names.add(subGroup.getName());
+            }
+            addCommands(names, group.getCommands());
+        }
+        return names;
+    }
+
+    private static void addCommands(List<String> names, List<CommandMetadata> commands) {
+        for (CommandMetadata command : commands) {
+            if (!command.isHidden())
+                names.add(command.getName());
+        }
+    }
+
+    private static List<String> optionNames(Object scope) {
+        List<String> names = new ArrayList<String>();
+        if (scope instanceof GlobalMetadata) {
+            addOptions(names, ((GlobalMetadata<?>) scope).getOptions());
+        } else if (scope instanceof CommandGroupMetadata) {
+            addOptions(names, ((CommandGroupMetadata) scope).getOptions());
+        } else {
+            addOptions(names, ((CommandMetadata) scope).getAllOptions());
+        }
+        return names;
+    }
+
+    private static void addOptions(List<String> names, List<OptionMetadata> options) {
+        for (OptionMetadata option : options) {
+            if (!option.isHidden())
+                names.addAll(option.getOptions());
+        }
+    }
+
+    /**
+     * The indexes attached to the meta-data of a CLI, keyed by the CLI, group
+     * or command they were built from
+     */
+    private static final class Indexes {
+        private final ConcurrentMap<Object, StampedIndex> commands = new ConcurrentHashMap<Object, StampedIndex>();
+        private final ConcurrentMap<Object, StampedIndex> options = new ConcurrentHashMap<Object, StampedIndex>();
+    }
+
+    /**
+     * An index and the stamp of the meta-data it was built from
+     */
+    private static final class StampedIndex {
+        private final NameIndex index;
+        private final int stamp;
+
+        StampedIndex(NameIndex index, int stamp) {
+            this.index = index;
+            this.stamp = stamp;
+        }
+    }
+}
@@ -15,6 +15,9 @@
  */
 package com.github.rvesse.airline.parser.suggester;
 
+import org.apache.commons.collections4.iterators.PeekingIterator;
+
+import com.github.rvesse.airline.Context;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseState;
@@ -24,4 +27,40 @@ public class SuggestionParser<T> extends AbstractCommandParser<T> {
     public ParseState<T> parse(GlobalMetadata<T> metadata, Iterable<String> args) {
         return tryParse(metadata, args);
     }
+
+    /**
+     * Continues parsing from a previous state
+     * <p>
+     * This is only possible when the previous state is in the command context,
+     * i.e. a command was found and the previous input did not end part way
+     * through an option or after the arguments separator, in which case the
+     * result is the same as parsing the previous input followed by the
+     * additional input.
+     * </p>
+     * 
+     * @param state
+     *            Previous state
+     * @param args
+     *            Additional arguments
+     * @return Parser state
+     * @throws IllegalArgumentException
+     *             Thrown if parsing cannot be continued from the given state
+     */
+    public ParseState<T> resume(ParseState<T> state, Iterable<String> args) {
+        if (!canResume(state))
+            throw new IllegalArgumentException("Cannot resume parsing from a state not in the command context");
+        return parseCommandOptionsAndArguments(new PeekingIterator<String>(args.iterator()), state,
+                state.getCommand());
+    }
+
+    /**
+     * Gets whether parsing can be continued from the given state
+     * 
+     * @param state
+     *            State
+     * @return True if parsing can be continued
+     */
+    public static boolean canResume(ParseState<?> state) {
+        return state != null && state.getCommand() != null && state.getLocation() == Context.COMMAND;
+    }
 }
@@ -0,0 +1,221 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.restrictions.common.AbstractStringRestriction;
+import com.github.rvesse.airline.restrictions.common.FusedStringRestriction;
+
+/**
+ * Abstract compiled form of the restrictions on an option/arguments
+ * <p>
+ * Restrictions are partitioned by the validation phases they actually
+ * implement, as declared via {@link PhasedRestriction}, so restrictions are not
+ * called for phases in which they do no work. Adjacent string restrictions are
+ * fused so that they are evaluated in a single check. Any errors are passed to
+ * the error handler for the parser in the same order that evaluating the
+ * restrictions individually would produce. While restrictions are evaluated
+ * the title of the option/arguments is set as the option context (see
+ * {@link ParseException#setOptionContext(String)}) so errors record the option
+ * they relate to.
+ * </p>
+ *
+ * @author rvesse
+ *
+ * @param <R>
+ *            Restriction type
+ * @param <M>
+ *            Meta-data type
+ */
+public abstract class AbstractRestrictionPipeline<R, M> {
+
+    private final Class<R> type;
+    private final List<R> preValidators, postValidators, finalValidators;
+
+    protected AbstractRestrictionPipeline(Iterable<R> restrictions, Class<R> type) {
+        this.type = type;
+        List<R> pre = new ArrayList<R>();
+        List<R> post = new ArrayList<R>();
+        List<R> fin = new ArrayList<R>();
+        if (restrictions != null) {
+            for (R restriction : restrictions) {
+                if (restriction == null)
+                    continue;
+                if (RestrictionPipelines.implementsPhase(restriction, ValidationPhase.PRE))
+                    pre.add(restriction);
+                if (RestrictionPipelines.implementsPhase(restriction, ValidationPhase.POST))
+                    post.add(restriction);
+                if (RestrictionPipelines.implementsPhase(restriction, ValidationPhase.FINAL))
+                    fin.add(restriction);
+            }
+        }
+        this.preValidators = toArrayList(RestrictionPipelines.fuseStringRestrictions(pre, type));
+        this.postValidators = toArrayList(post);
+        this.finalValidators = toArrayList(fin);
+    }
+
+    private List<R> toArrayList(List<R> restrictions) {
+        @SuppressWarnings("unchecked")
+        R[] array = (R[]) Array.newInstance(this.type, restrictions.size());
+        return Collections.unmodifiableList(Arrays.asList(restrictions.toArray(array)));
+    }
+
+    /**
+     * Gets the restrictions that will be evaluated prior to type conversion
+     *
+     * @return Pre-validation restrictions
+     */
+    public List<R> getPreValidators() {
+        return this.preValidators;
+    }
+
+    /**
+     * Gets the restrictions that will be evaluated after type conversion
+     *
+     * @return Post-validation restrictions
+     */
+    public List<R> getPostValidators() {
+        return this.postValidators;
+    }
+
+    /**
+     * Gets the restrictions that will be evaluated once parsing has completed
+     *
+     * @return Final validation restrictions
+     */
+    public List<R> getFinalValidators() {
+        return this.finalValidators;
+    }
+
+    /**
+     * Validates a raw value prior to type conversion
+     *
+     * @param state
+     *            Parser state
+     * @param metadata
+     *            Option/arguments meta-data
+     * @param value
+     *            String value
+     */
+    public <T> void preValidate(ParseState<T> state, M metadata, String value) {
+        if (this.preValidators.isEmpty())
+            return;
+        String previous = ParseException.setOptionContext(getTitle(metadata));
+        try {
+            for (int i = 0; i < this.preValidators.size(); i++) {
+                R restriction = this.preValidators.get(i);
+                try {
+                    preValidate(restriction, state, metadata, value);
+                } catch (ParseException e) {
+                    if (restriction instanceof FusedStringRestriction) {
+                        // Report every violation not just the first
+                        for (AbstractStringRestriction fused : ((FusedStringRestriction) restriction)
+                                .getRestrictions()) {
+                            try {
+                                preValidate(this.type.cast(fused), state, metadata, value);
+                            } catch (ParseException fusedError) {
+                                handleError(state, fusedError);
+                            }
+                        }
+                    } else {
+                        handleError(state, e);
+                    }
+                }
+            }
+        } finally {
+            ParseException.setOptionContext(previous);
+        }
+    }
+
+    /**
+     * Validates a value after type conversion
+     *
+     * @param state
+     *            Parser state
+     * @param metadata
+     *            Option/arguments meta-data
+     * @param value
+     *            Strongly typed value
+     */
+    public <T> void postValidate(ParseState<T> state, M metadata, Object value) {
+        if (this.postValidators.isEmpty())
+            return;
+        String previous = ParseException.setOptionContext(getTitle(metadata));
+        try {
+            for (int i = 0; i < this.postValidators.size(); i++) {
+                try {
+                    postValidate(this.postValidators.get(i), state, metadata, value);
+                } catch (ParseException e) {
+                    handleError(state, e);
+                }
+            }
+        } finally {
+            ParseException.setOptionContext(previous);
+        }
+    }
+
+    /**
+     * Validates the option/arguments once parsing has completed
+     *
+     * @param state
+     *            Parser state
+     * @param metadata
+     *            Option/arguments meta-data
+     */
+    public <T> void finalValidate(ParseState<T> state, M metadata) {
+        if (this.finalValidators.isEmpty())
+            return;
+        String previous = ParseException.setOptionContext(getTitle(metadata));
+        try {
+            for (int i = 0; i < this.finalValidators.size(); i++) {
+                try {
+                    finalValidate(this.finalValidators.get(i), state, metadata);
+                } catch (ParseException e) {
+                    handleError(state, e);
+                }
+            }
+        } finally {
+            ParseException.setOptionContext(previous);
+        }
+    }
+
+    private <T> void handleError(ParseState<T> state, ParseException e) {
+        state.getParserConfiguration().getErrorHandler().handleError(e);
+    }
+
+    protected abstract <T> void preValidate(R restriction, ParseState<T> state, M metadata, String value);
+
+    protected abstract <T> void postValidate(R restriction, ParseState<T> state, M metadata, Object value);
+
+    protected abstract <T> void finalValidate(R restriction, ParseState<T> state, M metadata);
+
+    /**
+     * Gets the title of the option/arguments recorded on any errors produced
+     * by their restrictions
+     * 
+     * @param metadata
+     *            Option/arguments meta-data
+     * @return Title
+     */
+    protected abstract String getTitle(M metadata);
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * A compiled form of the restrictions on arguments
+ *
+ * @author rvesse
+ *
+ */
+public final class ArgumentsRestrictionPipeline extends AbstractRestrictionPipeline<ArgumentsRestriction, ArgumentsMetadata> {
+
+    private ArgumentsRestrictionPipeline(Iterable<ArgumentsRestriction> restrictions) {
+        super(restrictions, ArgumentsRestriction.class);
+    }
+
+    /**
+     * Compiles a pipeline for the given restrictions
+     *
+     * @param restrictions
+     *            Restrictions
+     * @return Compiled pipeline
+     */
+    public static ArgumentsRestrictionPipeline compile(Iterable<ArgumentsRestriction> restrictions) {
+        return new ArgumentsRestrictionPipeline(restrictions);
+    }
+
+    @Override
+    protected <T> void preValidate(ArgumentsRestriction restriction, ParseState<T> state, ArgumentsMetadata arguments, String value) {
+        restriction.preValidate(state, arguments, value);
+    }
+
+    @Override
+    protected <T> void postValidate(ArgumentsRestriction restriction, ParseState<T> state, ArgumentsMetadata arguments, Object value) {
+        restriction.postValidate(state, arguments, value);
+    }
+
+    @Override
+    protected <T> void finalValidate(ArgumentsRestriction restriction, ParseState<T> state, ArgumentsMetadata arguments) {
+        restriction.finalValidate(state, arguments);
+    }
+
+    @Override
+    protected String getTitle(ArgumentsMetadata arguments) {
+        return arguments.getTitle().isEmpty() ? null : arguments.getTitle().get(0);
+    }
+}
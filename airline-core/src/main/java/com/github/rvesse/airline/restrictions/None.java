@@ -15,15 +15,23 @@
  */
 package com.github.rvesse.airline.restrictions;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import com.github.rvesse.airline.parser.ParseState;
 
 /**
  * A restriction which doesn't actually impose any restrictions
  */
-public class None extends AbstractCommonRestriction implements GlobalRestriction {
+public class None extends AbstractCommonRestriction implements GlobalRestriction, PhasedRestriction {
 
     @Override
     public <T> void validate(ParseState<T> state) {
         // Imposes no restrictions
     }
+
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.noneOf(ValidationPhase.class);
+    }
 }
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * A compiled form of the restrictions on an option
+ *
+ * @author rvesse
+ *
+ */
+public final class OptionRestrictionPipeline extends AbstractRestrictionPipeline<OptionRestriction, OptionMetadata> {
+
+    private OptionRestrictionPipeline(Iterable<OptionRestriction> restrictions) {
+        super(restrictions, OptionRestriction.class);
+    }
+
+    /**
+     * Compiles a pipeline for the given restrictions
+     *
+     * @param restrictions
+     *            Restrictions
+     * @return Compiled pipeline
+     */
+    public static OptionRestrictionPipeline compile(Iterable<OptionRestriction> restrictions) {
+        return new OptionRestrictionPipeline(restrictions);
+    }
+
+    @Override
+    protected <T> void preValidate(OptionRestriction restriction, ParseState<T> state, OptionMetadata option, String value) {
+        restriction.preValidate(state, option, value);
+    }
+
+    @Override
+    protected <T> void postValidate(OptionRestriction restriction, ParseState<T> state, OptionMetadata option, Object value) {
+        restriction.postValidate(state, option, value);
+    }
+
+    @Override
+    protected <T> void finalValidate(OptionRestriction restriction, ParseState<T> state, OptionMetadata option) {
+        restriction.finalValidate(state, option);
+    }
+
+    @Override
+    protected String getTitle(OptionMetadata option) {
+        return option.getTitle();
+    }
+}
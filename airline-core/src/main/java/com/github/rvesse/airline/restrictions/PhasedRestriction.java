@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.util.Set;
+
+/**
+ * Interface for restrictions that declare which validation phases they
+ * actually implement
+ * <p>
+ * Restriction pipelines only call a restriction in the phases it declares,
+ * restrictions that do not implement this interface are called in every
+ * phase. Classes that extend a restriction implementing this interface and
+ * add validation in further phases should override
+ * {@link #getValidationPhases()} accordingly, subclasses that override the
+ * validation method of a phase without doing so are also called in that
+ * phase.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public interface PhasedRestriction {
+
+    /**
+     * Gets the validation phases this restriction implements
+     * 
+     * @return Validation phases
+     */
+    public abstract Set<ValidationPhase> getValidationPhases();
+}
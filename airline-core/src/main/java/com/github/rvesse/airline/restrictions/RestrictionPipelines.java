@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.github.rvesse.airline.restrictions.common.AbstractStringRestriction;
+import com.github.rvesse.airline.restrictions.common.FusedStringRestriction;
+
+/**
+ * Helper methods used when compiling restriction pipelines
+ *
+ * @author rvesse
+ *
+ */
+final class RestrictionPipelines {
+
+    private RestrictionPipelines() {
+    }
+
+    /**
+     * Records the phases whose validation methods a restriction class
+     * overrides below the class that declares its phases, such subclasses may
+     * not have updated {@link PhasedRestriction#getValidationPhases()} so are
+     * also called in those phases
+     */
+    private static final ClassValue<Set<ValidationPhase>> UNDECLARED_PHASES = new ClassValue<Set<ValidationPhase>>() {
+        @Override
+        protected Set<ValidationPhase> computeValue(Class<?> type) {
+            Class<?> declaring;
+            try {
+                declaring = type.getMethod("getValidationPhases").getDeclaringClass();
+            } catch (NoSuchMethodException e) {
+                return EnumSet.allOf(ValidationPhase.class);
+            }
+            Set<ValidationPhase> phases = EnumSet.noneOf(ValidationPhase.class);
+            for (Class<?> cls = type; cls != null && cls != declaring; cls = cls.getSuperclass()) {
+                for (Method method : cls.getDeclaredMethods()) {
+                    if (method.isBridge() || method.isSynthetic())
+                        continue;
+                    switch (method.getName()) {
+                    case "preValidate":
+                        phases.add(ValidationPhase.PRE);
+                        break;
+                    case "postValidate":
+                        phases.add(ValidationPhase.POST);
+                        break;
+                    case "finalValidate":
+                        phases.add(ValidationPhase.FINAL);
+                        break;
+                    default:
+                        break;
+                    }
+                }
+            }
+            return Collections.unmodifiableSet(phases);
+        }
+    };
+
+    /**
+     * Determines whether a restriction does work in a validation phase
+     *
+     * @param restriction
+     *            Restriction
+     * @param phase
+     *            Validation phase
+     * @return True if the restriction declares the phase via
+     *         {@link PhasedRestriction}, overrides the validation method for
+     *         the phase in a subclass of the class that declares its phases or
+     *         does not declare its phases at all
+     */
+    static boolean implementsPhase(Object restriction, ValidationPhase phase) {
+        if (restriction instanceof PhasedRestriction)
+            return ((PhasedRestriction) restriction).getValidationPhases().contains(phase)
+                    || UNDECLARED_PHASES.get(restriction.getClass()).contains(phase);
+        // Be conservative for restrictions that don't declare their phases
+        return true;
+    }
+
+    /**
+     * Fuses runs of adjacent string restrictions into a single
+     * {@link FusedStringRestriction}, restrictions that are not string
+     * restrictions are left in place so the order in which restrictions are
+     * evaluated is unchanged
+     *
+     * @param restrictions
+     *            Restrictions
+     * @param type
+     *            Restriction type
+     * @return Restrictions with adjacent string restrictions fused
+     */
+    static <R> List<R> fuseStringRestrictions(List<R> restrictions, Class<R> type) {
+        List<R> fused = new ArrayList<R>();
+        List<AbstractStringRestriction> run = new ArrayList<AbstractStringRestriction>();
+        for (R restriction : restrictions) {
+            if (restriction instanceof AbstractStringRestriction) {
+                run.add((AbstractStringRestriction) restriction);
+                continue;
+            }
+            endRun(run, fused, type);
+            fused.add(restriction);
+        }
+        endRun(run, fused, type);
+        return fused;
+    }
+
+    private static <R> void endRun(List<AbstractStringRestriction> run, List<R> fused, Class<R> type) {
+        if (run.size() == 1) {
+            fused.add(type.cast(run.get(0)));
+        } else if (run.size() > 1) {
+            fused.add(type.cast(new FusedStringRestriction(run)));
+        }
+        run.clear();
+    }
+}
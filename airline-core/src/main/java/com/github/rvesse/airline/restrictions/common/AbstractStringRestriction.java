@@ -15,11 +15,16 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
+import com.github.rvesse.airline.restrictions.PhasedRestriction;
+import com.github.rvesse.airline.restrictions.ValidationPhase;
 
 /**
  * Abstract restrictions on string values for options and arguments
@@ -27,7 +32,7 @@ import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
  * @author rvesse
  *
  */
-public abstract class AbstractStringRestriction extends AbstractCommonRestriction {
+public abstract class AbstractStringRestriction extends AbstractCommonRestriction implements PhasedRestriction {
 
     @Override
     public final <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
@@ -82,4 +87,9 @@ public abstract class AbstractStringRestriction extends AbstractCommonRestrictio
      */
     protected abstract <T> ParseRestrictionViolatedException violated(ParseState<T> state, ArgumentsMetadata arguments,
             String value);
+
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.of(ValidationPhase.PRE);
+    }
 }
@@ -15,7 +15,9 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
+import java.util.EnumSet;
 import java.util.Locale;
+import java.util.Set;
 
 import org.apache.commons.collections4.CollectionUtils;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
@@ -24,9 +26,11 @@ import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsIllegalValueException;
 import com.github.rvesse.airline.parser.errors.ParseOptionIllegalValueException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
+import com.github.rvesse.airline.restrictions.PhasedRestriction;
+import com.github.rvesse.airline.restrictions.ValidationPhase;
 import com.github.rvesse.airline.utils.predicates.LocaleSensitiveStringFinder;
 
-public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestriction {
+public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestriction implements PhasedRestriction {
 
     private final Locale locale;
 
@@ -64,4 +68,9 @@ public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestrictio
             throw new ParseArgumentsIllegalValueException(AbstractCommonRestriction.getArgumentTitle(state, arguments), value, asObjects(rawValues));
         }
     }
+
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.of(ValidationPhase.PRE);
+    }
 }
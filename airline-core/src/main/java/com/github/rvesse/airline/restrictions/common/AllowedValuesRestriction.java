@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
+import java.util.EnumSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -24,11 +25,13 @@ import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsIllegalValueException;
 import com.github.rvesse.airline.parser.errors.ParseInvalidRestrictionException;
 import com.github.rvesse.airline.parser.errors.ParseOptionIllegalValueException;
+import com.github.rvesse.airline.restrictions.PhasedRestriction;
+import com.github.rvesse.airline.restrictions.ValidationPhase;
 import com.github.rvesse.airline.types.DefaultTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
-public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
+public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction implements PhasedRestriction {
 
     private Object currentState = null;
     private Set<Object> allowedValues = null;
@@ -92,4 +95,8 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
         }
     }
 
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.of(ValidationPhase.POST);
+    }
 }
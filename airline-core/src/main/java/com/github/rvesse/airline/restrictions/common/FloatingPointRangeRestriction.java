@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions.common;
+
+import java.util.Comparator;
+
+/**
+ * A range restriction specialized for floating point types i.e. {@code double}
+ * and {@code float}
+ * <p>
+ * Values of the expected type are compared as primitive {@code double} values
+ * rather than via the comparator, any other values fall back to the
+ * comparator based behaviour of {@link RangeRestriction}.
+ * </p>
+ *
+ */
+public class FloatingPointRangeRestriction extends RangeRestriction {
+
+    private final Class<? extends Number> type;
+    private final boolean hasMin, hasMax, minInclusive, maxInclusive;
+    private final double min, max;
+
+    /**
+     * Creates a new floating point range restriction
+     * 
+     * @param type
+     *            Expected value type e.g. {@code Double.class}
+     * @param min
+     *            Minimum value, may be {@code null} for no minimum
+     * @param minInclusive
+     *            Whether the minimum is inclusive
+     * @param max
+     *            Maximum value, may be {@code null} for no maximum
+     * @param maxInclusive
+     *            Whether the maximum is inclusive
+     * @param comparator
+     *            Comparator used for values not of the expected type
+     */
+    public FloatingPointRangeRestriction(Class<? extends Number> type, Number min, boolean minInclusive, Number max,
+            boolean maxInclusive, Comparator<Object> comparator) {
+        super(min, minInclusive, max, maxInclusive, comparator);
+        if (type == null)
+            throw new NullPointerException("type cannot be null");
+        this.type = type;
+        this.hasMin = min != null;
+        this.min = min != null ? min.doubleValue() : 0;
+        this.minInclusive = minInclusive;
+        this.hasMax = max != null;
+        this.max = max != null ? max.doubleValue() : 0;
+        this.maxInclusive = maxInclusive;
+    }
+
+    @Override
+    protected boolean inRange(Object value) {
+        if (value == null || value.getClass() != this.type)
+            return super.inRange(value);
+
+        double v = ((Number) value).doubleValue();
+        // Use Double.compare() to keep the same ordering as the comparators
+        // for NaN and signed zeros
+        if (this.hasMin) {
+            int minComparison = Double.compare(this.min, v);
+            if (minComparison == 0)
+                return this.minInclusive;
+            if (minComparison > 0)
+                return false;
+        }
+        if (this.hasMax) {
+            int maxComparison = Double.compare(v, this.max);
+            if (maxComparison == 0)
+                return this.maxInclusive;
+            if (maxComparison > 0)
+                return false;
+        }
+        return true;
+    }
+}
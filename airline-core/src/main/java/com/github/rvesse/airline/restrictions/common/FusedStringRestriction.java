@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+
+/**
+ * A restriction that fuses several adjacent string restrictions e.g.
+ * {@code @NotBlank}, {@code @Pattern} and {@code @MaxLength} into a single
+ * check
+ * <p>
+ * Compatible checks are merged when the restrictions are fused, all the length
+ * restrictions, including {@code @NotEmpty} and {@code @NotBlank} which imply
+ * a minimum length of 1, become a single pair of length bounds and the blank
+ * check only scans the value up to its first non-whitespace character. Any
+ * remaining restrictions e.g. patterns are then checked in turn. When the
+ * value is valid for all of them, which is the common case, no further work is
+ * done. When a value is invalid the exception of the first restriction
+ * violated is produced, callers wishing to report every violation should use
+ * {@link #getRestrictions()} to validate each fused restriction individually.
+ * </p>
+ * <p>
+ * This is used by the restriction pipelines and is not intended to be
+ * declared on options and arguments directly.
+ * </p>
+ *
+ * @author rvesse
+ *
+ */
+public final class FusedStringRestriction extends AbstractStringRestriction {
+
+    private final AbstractStringRestriction[] restrictions, others;
+    private final int minLength, maxLength;
+    private final boolean notBlank;
+
+    /**
+     * Creates a new fused restriction
+     *
+     * @param restrictions
+     *            Restrictions to fuse
+     */
+    public FusedStringRestriction(List<AbstractStringRestriction> restrictions) {
+        if (restrictions == null)
+            throw new NullPointerException("restrictions cannot be null");
+        this.restrictions = restrictions.toArray(new AbstractStringRestriction[restrictions.size()]);
+
+        // Merge the length bounds, subclasses may change the checks so only
+        // the exact classes are merged
+        int min = 0, max = Integer.MAX_VALUE;
+        boolean blank = false;
+        List<AbstractStringRestriction> remaining = new ArrayList<>();
+        for (AbstractStringRestriction restriction : this.restrictions) {
+            if (restriction.getClass() == LengthRestriction.class) {
+                LengthRestriction length = (LengthRestriction) restriction;
+                if (length.isMaximum()) {
+                    max = Math.min(max, length.getLength());
+                } else {
+                    min = Math.max(min, length.getLength());
+                }
+            } else if (restriction.getClass() == NotEmptyRestriction.class) {
+                min = Math.max(min, 1);
+            } else if (restriction.getClass() == NotBlankRestriction.class) {
+                min = Math.max(min, 1);
+                blank = true;
+            } else {
+                remaining.add(restriction);
+            }
+        }
+        this.minLength = min;
+        this.maxLength = max;
+        this.notBlank = blank;
+        this.others = remaining.toArray(new AbstractStringRestriction[remaining.size()]);
+    }
+
+    /**
+     * Gets the restrictions that have been fused
+     *
+     * @return Fused restrictions
+     */
+    public List<AbstractStringRestriction> getRestrictions() {
+        return Collections.unmodifiableList(Arrays.asList(this.restrictions));
+    }
+
+    @Override
+    protected boolean isValid(String value) {
+        int length = value.length();
+        if (length < this.minLength || length > this.maxLength)
+            return false;
+        if (this.notBlank && StringUtils.isBlank(value))
+            return false;
+        for (int i = 0; i < this.others.length; i++) {
+            if (!this.others[i].isValid(value))
+                return false;
+        }
+        return true;
+    }
+
+    private AbstractStringRestriction firstViolated(String value) {
+        for (int i = 0; i < this.restrictions.length; i++) {
+            if (!this.restrictions[i].isValid(value))
+                return this.restrictions[i];
+        }
+        throw new IllegalStateException("Value does not violate any of the fused restrictions");
+    }
+
+    @Override
+    protected <T> ParseRestrictionViolatedException violated(ParseState<T> state, OptionMetadata option,
+            String value) {
+        return firstViolated(value).violated(state, option, value);
+    }
+
+    @Override
+    protected <T> ParseRestrictionViolatedException violated(ParseState<T> state, ArgumentsMetadata arguments,
+            String value) {
+        return firstViolated(value).violated(state, arguments, value);
+    }
+}
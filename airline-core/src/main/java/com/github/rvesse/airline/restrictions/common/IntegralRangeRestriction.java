@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions.common;
+
+import java.util.Comparator;
+
+/**
+ * A range restriction specialized for integral types i.e. {@code long},
+ * {@code int}, {@code short} and {@code byte}
+ * <p>
+ * Values of the expected type are compared as primitive {@code long} values
+ * rather than via the comparator, any other values fall back to the
+ * comparator based behaviour of {@link RangeRestriction}.
+ * </p>
+ *
+ */
+public class IntegralRangeRestriction extends RangeRestriction {
+
+    private final Class<? extends Number> type;
+    private final boolean hasMin, hasMax, minInclusive, maxInclusive;
+    private final long min, max;
+
+    /**
+     * Creates a new integral range restriction
+     * 
+     * @param type
+     *            Expected value type e.g. {@code Integer.class}
+     * @param min
+     *            Minimum value, may be {@code null} for no minimum
+     * @param minInclusive
+     *            Whether the minimum is inclusive
+     * @param max
+     *            Maximum value, may be {@code null} for no maximum
+     * @param maxInclusive
+     *            Whether the maximum is inclusive
+     * @param comparator
+     *            Comparator used for values not of the expected type
+     */
+    public IntegralRangeRestriction(Class<? extends Number> type, Number min, boolean minInclusive, Number max,
+            boolean maxInclusive, Comparator<Object> comparator) {
+        super(min, minInclusive, max, maxInclusive, comparator);
+        if (type == null)
+            throw new NullPointerException("type cannot be null");
+        this.type = type;
+        this.hasMin = min != null;
+        this.min = min != null ? min.longValue() : 0;
+        this.minInclusive = minInclusive;
+        this.hasMax = max != null;
+        this.max = max != null ? max.longValue() : 0;
+        this.maxInclusive = maxInclusive;
+    }
+
+    /**
+     * Gets the smallest value in the range
+     * 
+     * @return Smallest value, {@code null} if there is no minimum
+     */
+    public Long getSmallestValue() {
+        if (!this.hasMin)
+            return null;
+        return this.minInclusive ? this.min : this.min + 1;
+    }
+
+    /**
+     * Gets the largest value in the range
+     * 
+     * @return Largest value, {@code null} if there is no maximum
+     */
+    public Long getLargestValue() {
+        if (!this.hasMax)
+            return null;
+        return this.maxInclusive ? this.max : this.max - 1;
+    }
+
+    @Override
+    protected boolean inRange(Object value) {
+        if (value == null || value.getClass() != this.type)
+            return super.inRange(value);
+
+        long v = ((Number) value).longValue();
+        if (this.hasMin) {
+            if (v == this.min)
+                return this.minInclusive;
+            if (v < this.min)
+                return false;
+        }
+        if (this.hasMax) {
+            if (v == this.max)
+                return this.maxInclusive;
+            if (v > this.max)
+                return false;
+        }
+        return true;
+    }
+}
@@ -15,6 +15,9 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import org.apache.commons.collections4.CollectionUtils;
 
 import com.github.rvesse.airline.model.ArgumentsMetadata;
@@ -23,13 +26,15 @@ import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsMissingException;
 import com.github.rvesse.airline.parser.errors.ParseOptionMissingException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
+import com.github.rvesse.airline.restrictions.PhasedRestriction;
+import com.github.rvesse.airline.restrictions.ValidationPhase;
 import com.github.rvesse.airline.utils.AirlineUtils;
 import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
 /**
  * A restriction that options/arguments are required
  */
-public class IsRequiredRestriction extends AbstractCommonRestriction {
+public class IsRequiredRestriction extends AbstractCommonRestriction implements PhasedRestriction {
 
     @Override
     public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
@@ -43,4 +48,8 @@ public class IsRequiredRestriction extends AbstractCommonRestriction {
             throw new ParseArgumentsMissingException(arguments.getTitle());
     }
 
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.of(ValidationPhase.FINAL);
+    }
 }
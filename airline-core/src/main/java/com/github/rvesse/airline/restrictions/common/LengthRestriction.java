@@ -21,6 +21,7 @@ import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.parser.errors.ParseValueLengthException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
 
 /**
@@ -39,6 +40,14 @@ public class LengthRestriction extends AbstractStringRestriction implements Help
         this.maximum = maximum;
     }
 
+    int getLength() {
+        return this.length;
+    }
+
+    boolean isMaximum() {
+        return this.maximum;
+    }
+
     @Override
     protected boolean isValid(String value) {
         if (maximum) {
@@ -51,13 +60,13 @@ public class LengthRestriction extends AbstractStringRestriction implements Help
     @Override
     protected <T> ParseRestrictionViolatedException violated(ParseState<T> state, OptionMetadata option, String value) {
         if (maximum) {
-            return new ParseRestrictionViolatedException(
+            return new ParseValueLengthException(
                     "Option '%s' was given value '%s' that has length %d which exceeds the maximum permitted length of %d",
-                    option.getTitle(), value, value.length(), this.length);
+                    option.getTitle(), value, this.length, maximum);
         } else {
-            return new ParseRestrictionViolatedException(
+            return new ParseValueLengthException(
                     "Option '%s' was given value '%s' that has length %d which is below the minimum required length of %d",
-                    option.getTitle(), value, value.length(), this.length);
+                    option.getTitle(), value, this.length, maximum);
         }
     }
 
@@ -65,14 +74,14 @@ public class LengthRestriction extends AbstractStringRestriction implements Help
     protected <T> ParseRestrictionViolatedException violated(ParseState<T> state, ArgumentsMetadata arguments,
             String value) {
         if (maximum) {
-            return new ParseRestrictionViolatedException(
+            return new ParseValueLengthException(
                     "Argument '%s' was given value '%s' that has length %d which exceeds the maximum permitted length of %d",
-                    AbstractCommonRestriction.getArgumentTitle(state, arguments), value, value.length(), this.length);
+                    AbstractCommonRestriction.getArgumentTitle(state, arguments), value, this.length, maximum);
 
         } else {
-            return new ParseRestrictionViolatedException(
+            return new ParseValueLengthException(
                     "Argument '%s' was given value '%s' that has length %d which is below the minimum required length of %d",
-                    AbstractCommonRestriction.getArgumentTitle(state, arguments), value, value.length(), this.length);
+                    AbstractCommonRestriction.getArgumentTitle(state, arguments), value, this.length, maximum);
         }
     }
 
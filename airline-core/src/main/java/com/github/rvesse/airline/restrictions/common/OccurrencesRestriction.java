@@ -17,7 +17,9 @@ package com.github.rvesse.airline.restrictions.common;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -31,9 +33,11 @@ import com.github.rvesse.airline.parser.errors.ParseArgumentsMissingException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.parser.errors.ParseTooManyArgumentsException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
+import com.github.rvesse.airline.restrictions.PhasedRestriction;
+import com.github.rvesse.airline.restrictions.ValidationPhase;
 import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
-public class OccurrencesRestriction extends AbstractCommonRestriction implements HelpHint {
+public class OccurrencesRestriction extends AbstractCommonRestriction implements HelpHint, PhasedRestriction {
 
     private final int occurrences;
     private final boolean maximum;
@@ -111,4 +115,8 @@ public class OccurrencesRestriction extends AbstractCommonRestriction implements
         }
     }
 
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.of(ValidationPhase.FINAL);
+    }
 }
@@ -17,6 +17,7 @@
 package com.github.rvesse.airline.restrictions.common;
 
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -30,10 +31,12 @@ import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.PhasedRestriction;
+import com.github.rvesse.airline.restrictions.ValidationPhase;
 import com.github.rvesse.airline.utils.AirlineUtils;
 import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
-public class PartialRestriction extends AbstractCommonRestriction implements HelpHint {
+public class PartialRestriction extends AbstractCommonRestriction implements HelpHint, PhasedRestriction {
 
     private final Set<Integer> indices = new TreeSet<>();
     private final OptionRestriction optionRestriction;
@@ -172,4 +175,9 @@ public class PartialRestriction extends AbstractCommonRestriction implements Hel
             throw new IndexOutOfBoundsException();
         }
     }
+
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.of(ValidationPhase.PRE, ValidationPhase.POST);
+    }
 }
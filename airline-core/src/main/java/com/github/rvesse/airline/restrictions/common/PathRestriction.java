@@ -16,26 +16,73 @@
 package com.github.rvesse.airline.restrictions.common;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.tuple.Pair;
+
 import com.github.rvesse.airline.annotations.restrictions.PathKind;
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
+import com.github.rvesse.airline.restrictions.PhasedRestriction;
+import com.github.rvesse.airline.restrictions.ValidationPhase;
+import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
 /**
  * Implements restriction on options and arguments that expect to receive a path
  * to a file and/or directory
+ * <p>
+ * The existence and kind of a path is determined with a single file system
+ * lookup, permissions are only checked when required. When the restriction is
+ * deferred all values are validated together once parsing has completed,
+ * lookups of common ancestor directories for paths that do not exist are
+ * shared between values and values may optionally be validated in parallel
+ * which can substantially reduce validation time for large numbers of paths on
+ * network file systems.
+ * </p>
  * 
  * @author rvesse
  *
  */
-public class PathRestriction extends AbstractCommonRestriction implements HelpHint {
+public class PathRestriction extends AbstractCommonRestriction implements HelpHint, PhasedRestriction {
 
-    private final boolean mustExist, readable, writable, executable;
+    private final boolean mustExist, readable, writable, executable, deferred;
     private final PathKind kind;
+    private final int parallelism;
+
+    /**
+     * Keys for the per-parse caches of ancestor access, indexed by the
+     * permissions that are checked since only those are recorded
+     */
+    private static final Object[] ANCESTOR_CACHES = new Object[8];
+    static {
+        for (int i = 0; i < ANCESTOR_CACHES.length; i++) {
+            ANCESTOR_CACHES[i] = new Object();
+        }
+    }
 
     /**
      * Creates a new path restriction
@@ -55,93 +102,223 @@ public class PathRestriction extends AbstractCommonRestriction implements HelpHi
      *            not exist then this check validates that the first parent in
      *            the path that exists is executable
      * @param kind
+     *            Kind of path expected
      */
     public PathRestriction(boolean mustExist, boolean readable, boolean writable, boolean executable, PathKind kind) {
+        this(mustExist, readable, writable, executable, kind, false, 1);
+    }
+
+    /**
+     * Creates a new path restriction
+     * 
+     * @param mustExist
+     *            Whether the path must exist
+     * @param readable
+     *            Whether the path must be readable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is readable
+     * @param writable
+     *            Whether the path must be writable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is writable
+     * @param executable
+     *            Whether the path must be executable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is executable
+     * @param kind
+     *            Kind of path expected
+     * @param deferred
+     *            Whether validation is deferred until parsing has completed at
+     *            which point all values are validated together
+     * @param parallelism
+     *            Maximum number of threads used to validate deferred values,
+     *            values less than or equal to 1 validate values on the parsing
+     *            thread, parallel validation uses the parsers validation
+     *            executor and only happens when one is configured
+     */
+    public PathRestriction(boolean mustExist, boolean readable, boolean writable, boolean executable, PathKind kind,
+            boolean deferred, int parallelism) {
         this.mustExist = mustExist;
         this.readable = readable;
         this.writable = writable;
         this.executable = executable;
         this.kind = kind;
+        this.deferred = deferred;
+        this.parallelism = parallelism;
     }
 
     protected void validate(String title, String path) {
+        validate(title, path, null);
+    }
+
+    private void validate(String title, String path, Map<Path, AncestorAccess> ancestors) {
         if (path == null)
             throw new ParseRestrictionViolatedException("%s must be given a non-null path", title, path);
 
-        File f = new File(path);
+        // Nothing further to check so avoid touching the file system at all
+        if (!this.mustExist && !this.readable && !this.writable && !this.executable)
+            return;
+
+        Path p;
+        try {
+            p = Paths.get(path);
+        } catch (InvalidPathException e) {
+            if (this.mustExist)
+                throw new ParseRestrictionViolatedException(e, "%s was given value '%s' which is not a valid path",
+                        title, path);
+
+            // An invalid path can never exist so as for any other path that
+            // does not exist verify the first portion of the path that exists
+            Path parent = findValidParent(path);
+            if (parent != null)
+                checkAncestorAccess(title, path, parent, ancestors);
+            return;
+        }
 
-        if (this.mustExist && !f.exists())
+        // Single lookup determines both existence and kind, an empty path
+        // never exists
+        BasicFileAttributes attributes = path.isEmpty() ? null : readAttributes(p);
+
+        if (this.mustExist && attributes == null)
             throw new ParseRestrictionViolatedException(
                     "%s was given value '%s' which is not a path to an existing file/directory", title, path);
 
-        if (this.mustExist && f.exists()) {
+        if (this.mustExist) {
             // Some things require the file to exist in order for direct
             // validation to be applied
             switch (kind) {
             case FILE:
-                if (!f.isFile())
+                if (!attributes.isRegularFile())
                     throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a path to a file",
                             title, path);
                 break;
             case DIRECTORY:
-                if (!f.isDirectory())
+                if (!attributes.isDirectory())
                     throw new ParseRestrictionViolatedException(
                             "%s was given value '%s' which is not a path to a directory", title, path);
                 break;
             default:
-                if (!f.isFile() && !f.isDirectory())
+                if (!attributes.isRegularFile() && !attributes.isDirectory())
                     throw new ParseRestrictionViolatedException(
                             "%s was given value '%s' which is not a path to a file/directory", title, path);
                 break;
             }
+        }
+
+        if (this.readable || this.writable || this.executable) {
+            if (attributes != null) {
+                // May be able to check the conditions directly if the file
+                // exists
+                checkAccess(title, path, p);
+            } else if (path.isEmpty()) {
+                // Empty path resolves to the working directory
+                checkAccess(title, path, p.toAbsolutePath());
+            } else {
+                // Otherwise verify that the first portion of the path that
+                // exists has the desired properties
+                Path parent = p.toAbsolutePath().getParent();
+                if (parent != null)
+                    checkAncestorAccess(title, path, parent, ancestors);
+            }
+        }
+    }
 
-            // Check permissions
-            if (this.readable && !f.canRead())
+    private void checkAncestorAccess(String title, String path, Path parent, Map<Path, AncestorAccess> ancestors) {
+        AncestorAccess access = findExistingAncestor(parent, ancestors);
+        if (access != null) {
+            // All conditions must be met by first part of the path that
+            // exists
+            if (this.readable && !access.readable)
                 notReadable(title, path);
 
-            if (this.writable && !f.canWrite())
+            if (this.writable && !access.writable)
                 notWritable(title, path);
 
-            if (this.executable && !f.canExecute())
+            if (this.executable && !access.executable)
                 notExecutable(title, path);
-        } else if (this.readable || this.writable || this.executable) {
-            if (!f.isAbsolute())
-                f = f.getAbsoluteFile();
+        }
+    }
 
-            // May be able to check the conditions directly if the file exists
-            if (f.exists()) {
-                if (this.readable && !f.canRead())
-                    notReadable(title, path);
+    /**
+     * Finds the closest parent of an invalid path that is itself a valid path
+     * 
+     * @param path
+     *            Invalid path
+     * @return Absolute parent path, or {@code null} if there is no valid
+     *         parent
+     */
+    private static Path findValidParent(String path) {
+        File parent = new File(path).getAbsoluteFile().getParentFile();
+        while (parent != null) {
+            try {
+                return parent.toPath();
+            } catch (InvalidPathException e) {
+                parent = parent.getParentFile();
+            }
+        }
+        return null;
+    }
 
-                if (this.writable && !f.canWrite())
-                    notWritable(title, path);
+    private static BasicFileAttributes readAttributes(Path p) {
+        try {
+            return Files.readAttributes(p, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // Does not exist or is otherwise inaccessible
+            return null;
+        }
+    }
 
-                if (this.executable && !f.canExecute())
-                    notExecutable(title, path);
-            } else {
-                // Otherwise verify that the first portion of the path that
-                // exists has the desired properties
-                while (f.getParentFile() != null) {
-                    f = f.getParentFile();
-                    if (f.exists()) {
-                        // All conditions must be met by first part of the path
-                        // that exists
-                        if (this.readable && !f.canRead())
-                            notReadable(title, path);
-
-                        if (this.writable && !f.canWrite())
-                            notWritable(title, path);
-
-                        if (this.executable && !f.canExecute())
-                            notExecutable(title, path);
-
-                        // All conditions satisfied so no need to continue going
-                        // up the path
-                        break;
-                    }
+    private void checkAccess(String title, String path, Path p) {
+        if (this.readable && !Files.isReadable(p))
+            notReadable(title, path);
+
+        if (this.writable && !Files.isWritable(p))
+            notWritable(title, path);
+
+        if (this.executable && !Files.isExecutable(p))
+            notExecutable(title, path);
+    }
+
+    /**
+     * Finds the first ancestor of a path that exists and determines its access
+     * permissions
+     * 
+     * @param parent
+     *            Absolute path of the parent of the path, this is the first
+     *            ancestor considered
+     * @param ancestors
+     *            Cache of previously determined ancestor access, may be null
+     * @return Access of the first ancestor that exists or {@code null} if no
+     *         ancestor exists
+     */
+    private AncestorAccess findExistingAncestor(Path parent, Map<Path, AncestorAccess> ancestors) {
+        List<Path> visited = new ArrayList<Path>();
+        AncestorAccess access = AncestorAccess.NONE;
+        while (parent != null) {
+            if (ancestors != null) {
+                AncestorAccess cached = ancestors.get(parent);
+                if (cached != null) {
+                    access = cached;
+                    break;
                 }
             }
+            visited.add(parent);
+            if (readAttributes(parent) != null) {
+                // Only check the permissions we actually need
+                access = new AncestorAccess(this.readable && Files.isReadable(parent),
+                        this.writable && Files.isWritable(parent), this.executable && Files.isExecutable(parent));
+                break;
+            }
+            parent = parent.getParent();
         }
+
+        // Every ancestor we visited shares the same first existing ancestor
+        if (ancestors != null) {
+            for (Path visitedPath : visited) {
+                ancestors.put(visitedPath, access);
+            }
+        }
+        return access != AncestorAccess.NONE ? access : null;
     }
 
     private void notExecutable(String title, String path) {
@@ -161,13 +338,177 @@ public class PathRestriction extends AbstractCommonRestriction implements HelpHi
 
     @Override
     public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
-        this.validate(String.format("Option '%s'", option.getTitle()), value);
+        if (this.deferred)
+            return;
+        this.validate(String.format("Option '%s'", option.getTitle()), value, getAncestors(state));
     }
 
     @Override
     public <T> void preValidate(ParseState<T> state, ArgumentsMetadata arguments, String value) {
+        if (this.deferred)
+            return;
         this.validate(String.format("Argument '%s'", AbstractCommonRestriction.getArgumentTitle(state, arguments)),
-                value);
+                value, getAncestors(state));
+    }
+
+    @Override
+    public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
+        if (!this.deferred)
+            return;
+
+        Collection<Pair<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
+                new ParsedOptionFinder(option));
+        if (parsedOptions.isEmpty())
+            return;
+        List<String> titles = new ArrayList<String>();
+        List<String> values = new ArrayList<String>();
+        String title = String.format("Option '%s'", option.getTitle());
+        for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
+            titles.add(title);
+            values.add(toPath(parsedOption.getRight()));
+        }
+        validateAll(state, option.getTitle(), titles, values);
+    }
+
+    @Override
+    public <T> void finalValidate(ParseState<T> state, ArgumentsMetadata arguments) {
+        if (!this.deferred)
+            return;
+
+        List<Object> parsedArguments = state.getParsedArguments();
+        if (parsedArguments.isEmpty())
+            return;
+        List<String> titles = new ArrayList<String>();
+        List<String> values = new ArrayList<String>();
+        for (int i = 0; i < parsedArguments.size(); i++) {
+            titles.add(String.format("Argument '%s'", AbstractCommonRestriction.getArgumentTitle(arguments, i)));
+            values.add(toPath(parsedArguments.get(i)));
+        }
+        validateAll(state, arguments.getTitle().isEmpty() ? null : arguments.getTitle().get(0), titles, values);
+    }
+
+    /**
+     * Gets the cache of ancestor access for the current parse, this is shared
+     * with other path restrictions that check the same permissions
+     * 
+     * @param state
+     *            Parser state
+     * @return Ancestor access cache
+     */
+    private <T> Map<Path, AncestorAccess> getAncestors(ParseState<T> state) {
+        return state.getCache(ANCESTOR_CACHES[(this.readable ? 1 : 0) | (this.writable ? 2 : 0)
+                | (this.executable ? 4 : 0)]);
+    }
+
+    private static String toPath(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Validates a batch of values sharing ancestor lookups between them
+     * <p>
+     * Values are validated in parallel using the parsers validation executor
+     * (see {@link com.github.rvesse.airline.model.ParserMetadata#getValidationExecutor()})
+     * when one is configured, the calling thread also validates values so this
+     * cannot starve the executor when final validation is itself running on
+     * it. Violations are passed to the error handler in the order of the
+     * values regardless of whether validation happens in parallel.
+     * </p>
+     * 
+     * @param state
+     *            Parser state
+     * @param optionTitle
+     *            Title of the option/arguments, set as the option context
+     *            while validating so it is recorded on any errors
+     * @param titles
+     *            Titles for the values
+     * @param values
+     *            Values
+     */
+    private <T> void validateAll(ParseState<T> state, final String optionTitle, final List<String> titles,
+            final List<String> values) {
+        final Map<Path, AncestorAccess> ancestors = getAncestors(state);
+        final ParseException[] errors = new ParseException[values.size()];
+        final AtomicInteger next = new AtomicInteger();
+        final boolean stackless = ParseException.isStacklessMode();
+        final Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                boolean previousStackless = ParseException.setStacklessMode(stackless);
+                String previousContext = ParseException.setOptionContext(optionTitle);
+                try {
+                    int i;
+                    while ((i = next.getAndIncrement()) < values.size()) {
+                        try {
+                            validate(titles.get(i), values.get(i), ancestors);
+                        } catch (ParseException e) {
+                            errors[i] = e;
+                        }
+                    }
+                } finally {
+                    ParseException.setOptionContext(previousContext);
+                    ParseException.setStacklessMode(previousStackless);
+                }
+            }
+        };
+
+        ExecutorService executor = state.getParserConfiguration().getValidationExecutor();
+        int helpers = executor != null ? Math.min(this.parallelism, values.size()) - 1 : 0;
+        List<Future<?>> results = new ArrayList<Future<?>>();
+        List<AtomicBoolean> claims = new ArrayList<AtomicBoolean>();
+        for (int i = 0; i < helpers; i++) {
+            final AtomicBoolean claimed = new AtomicBoolean();
+            try {
+                results.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (claimed.compareAndSet(false, true))
+                            worker.run();
+                    }
+                }));
+                claims.add(claimed);
+            } catch (RejectedExecutionException e) {
+                // Executor was shut down, validate on this thread instead
+                break;
+            }
+        }
+        try {
+            worker.run();
+            for (int i = 0; i < results.size(); i++) {
+                // Helpers that have not started have nothing left to do so
+                // are claimed to stop them running, otherwise wait for them to
+                // finish validating their values
+                if (!claims.get(i).compareAndSet(false, true))
+                    results.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParseRestrictionViolatedException(e, "Interrupted while validating paths");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new ParseRestrictionViolatedException(e, "Error validating paths");
+        }
+
+        for (ParseException e : errors) {
+            if (e != null)
+                state.getParserConfiguration().getErrorHandler().handleError(e);
+        }
+    }
+
+    /**
+     * Access permissions of the first ancestor of a path that exists
+     */
+    private static final class AncestorAccess {
+        private static final AncestorAccess NONE = new AncestorAccess(false, false, false);
+
+        private final boolean readable, writable, executable;
+
+        private AncestorAccess(boolean readable, boolean writable, boolean executable) {
+            this.readable = readable;
+            this.writable = writable;
+            this.executable = executable;
+        }
     }
 
     @Override
@@ -245,4 +586,8 @@ public class PathRestriction extends AbstractCommonRestriction implements HelpHi
         return new String[] { builder.toString() };
     }
 
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.of(ValidationPhase.PRE, ValidationPhase.FINAL);
+    }
 }
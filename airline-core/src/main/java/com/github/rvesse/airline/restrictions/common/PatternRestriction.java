@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
@@ -24,16 +25,26 @@ import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParsePatternMismatchException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
 
 /**
  * A restriction which requires the raw values to match a given regular
  * expression
+ * <p>
+ * The pattern is compiled once when the restriction is created. Simple
+ * patterns such as anchored literals and anchored character classes e.g.
+ * {@code ^[a-z]+$} are evaluated without the regular expression engine, for
+ * other patterns a {@link Matcher} is reused per thread rather than created for
+ * each value.
+ * </p>
  */
-public class PatternRestriction extends AbstractCommonRestriction implements HelpHint {
+public class PatternRestriction extends AbstractStringRestriction implements HelpHint {
 
     private final Pattern pattern;
+    private final SimplePattern simple;
+    private final ThreadLocal<Matcher> matchers;
     private final String description;
 
     /**
@@ -49,25 +60,45 @@ public class PatternRestriction extends AbstractCommonRestriction implements Hel
      */
     public PatternRestriction(String pattern, int flags, String description) {
         this.pattern = Pattern.compile(pattern, flags);
+        this.simple = SimplePattern.compile(pattern, flags);
+        this.matchers = this.simple != null ? null : new ThreadLocal<Matcher>() {
+            @Override
+            protected Matcher initialValue() {
+                return PatternRestriction.this.pattern.matcher("");
+            }
+        };
         this.description = description;
     }
 
     @Override
-    public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
-        if (!this.pattern.matcher(value).find())
-            throw new ParseRestrictionViolatedException(
-                    "Option '%s' was given value '%s' which does not match the regular expression '%s'.  %s",
-                    option.getTitle(), value, this.pattern.toString(),
-                    StringUtils.isNotBlank(this.description) ? this.description : "");
+    protected boolean isValid(String value) {
+        if (this.simple != null)
+            return this.simple.matches(value);
+
+        Matcher matcher = this.matchers.get();
+        try {
+            return matcher.reset(value).find();
+        } finally {
+            // Don't hold a reference to the value
+            matcher.reset("");
+        }
+    }
+
+    @Override
+    protected <T> ParseRestrictionViolatedException violated(ParseState<T> state, OptionMetadata option, String value) {
+        return new ParsePatternMismatchException(
+                "Option '%s' was given value '%s' which does not match the regular expression '%s'.  %s",
+                option.getTitle(), value, this.pattern,
+                StringUtils.isNotBlank(this.description) ? this.description : "");
     }
 
     @Override
-    public <T> void preValidate(ParseState<T> state, ArgumentsMetadata arguments, String value) {
-        if (!this.pattern.matcher(value).find())
-            throw new ParseRestrictionViolatedException(
-                    "Argument '%s' was given value '%s' which does not match the regular expression '%s'.  %s",
-                    AbstractCommonRestriction.getArgumentTitle(state, arguments), value, this.pattern.toString(),
-                    StringUtils.isNotBlank(this.description) ? this.description : "");
+    protected <T> ParseRestrictionViolatedException violated(ParseState<T> state, ArgumentsMetadata arguments,
+            String value) {
+        return new ParsePatternMismatchException(
+                "Argument '%s' was given value '%s' which does not match the regular expression '%s'.  %s",
+                AbstractCommonRestriction.getArgumentTitle(state, arguments), value, this.pattern,
+                StringUtils.isNotBlank(this.description) ? this.description : "");
     }
 
     @Override
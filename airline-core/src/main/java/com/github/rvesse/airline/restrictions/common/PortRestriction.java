@@ -15,6 +15,8 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -27,9 +29,11 @@ import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseInvalidRestrictionException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
+import com.github.rvesse.airline.restrictions.PhasedRestriction;
+import com.github.rvesse.airline.restrictions.ValidationPhase;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
-public class PortRestriction extends AbstractCommonRestriction implements HelpHint {
+public class PortRestriction extends AbstractCommonRestriction implements HelpHint, PhasedRestriction {
     private static final int MIN_PORT = 0, MAX_PORT = 65535;
 
     private Set<PortType> acceptablePorts = new HashSet<>();
@@ -38,6 +42,15 @@ public class PortRestriction extends AbstractCommonRestriction implements HelpHi
         this.acceptablePorts.addAll(AirlineUtils.arrayToList(portTypes));
     }
 
+    /**
+     * Gets the acceptable port types
+     * 
+     * @return Acceptable port types, empty if any port is acceptable
+     */
+    public Set<PortType> getAcceptablePorts() {
+        return Collections.unmodifiableSet(this.acceptablePorts);
+    }
+
     @Override
     public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
         if (acceptablePorts.isEmpty())
@@ -159,4 +172,9 @@ public class PortRestriction extends AbstractCommonRestriction implements HelpHi
 
         }
     }
+
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.of(ValidationPhase.POST);
+    }
 }
@@ -16,6 +16,8 @@
 package com.github.rvesse.airline.restrictions.common;
 
 import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Set;
 
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
@@ -25,6 +27,8 @@ import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseInvalidRestrictionException;
 import com.github.rvesse.airline.parser.errors.ParseOptionOutOfRangeException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
+import com.github.rvesse.airline.restrictions.PhasedRestriction;
+import com.github.rvesse.airline.restrictions.ValidationPhase;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 /**
@@ -32,7 +36,7 @@ import com.github.rvesse.airline.utils.AirlineUtils;
  * given range
  *
  */
-public class RangeRestriction extends AbstractCommonRestriction implements HelpHint {
+public class RangeRestriction extends AbstractCommonRestriction implements HelpHint, PhasedRestriction {
 
     private final Object min, max;
     private final boolean minInclusive, maxInclusive, singleValue;
@@ -129,4 +133,8 @@ public class RangeRestriction extends AbstractCommonRestriction implements HelpH
         }
     }
 
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.of(ValidationPhase.POST);
+    }
 }
@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions.common;
+
+import java.util.BitSet;
+
+/**
+ * Matchers for simple regular expressions that can be evaluated without the
+ * regular expression engine
+ * <p>
+ * Only patterns compiled with no flags and of the following forms are
+ * recognised, anything else yields {@code null} from
+ * {@link #compile(String, int)} and must be evaluated with
+ * {@link java.util.regex.Pattern} as normal:
+ * </p>
+ * <ul>
+ * <li>A literal e.g. {@code abc}</li>
+ * <li>An anchored literal e.g. {@code ^abc}, {@code abc$} or {@code ^abc$}</li>
+ * <li>An anchored character class e.g. {@code ^[a-z0-9_]+$} or
+ * {@code ^[a-z]*$}</li>
+ * </ul>
+ * <p>
+ * Matching follows the semantics of {@link java.util.regex.Matcher#find()}
+ * exactly, in particular {@code $} also matches prior to a final line
+ * terminator.
+ * </p>
+ */
+abstract class SimplePattern {
+
+    private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    /**
+     * Determines whether the value matches
+     * 
+     * @param value
+     *            Value
+     * @return True if the value matches, false otherwise
+     */
+    abstract boolean matches(String value);
+
+    /**
+     * Compiles a simple pattern
+     * 
+     * @param regex
+     *            Regular expression, assumed to already have been validated
+     *            by {@link java.util.regex.Pattern#compile(String, int)}
+     * @param flags
+     *            Regular expression flags
+     * @return Simple pattern or {@code null} if the expression is not simple
+     */
+    static SimplePattern compile(String regex, int flags) {
+        if (regex == null || flags != 0)
+            return null;
+
+        boolean start = regex.startsWith("^");
+        boolean end = regex.endsWith("$") && regex.length() > (start ? 1 : 0);
+        String body = regex.substring(start ? 1 : 0, end ? regex.length() - 1 : regex.length());
+
+        if (isLiteral(body))
+            return new LiteralPattern(body, start, end);
+
+        if (start && end && body.length() > 3 && body.charAt(0) == '[') {
+            char quantifier = body.charAt(body.length() - 1);
+            if ((quantifier == '+' || quantifier == '*') && body.charAt(body.length() - 2) == ']') {
+                BitSet members = parseClass(body.substring(1, body.length() - 2));
+                if (members != null)
+                    return new ClassPattern(members, quantifier == '+');
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSpecial(char c) {
+        return isLineTerminator(c) || Character.isSurrogate(c);
+    }
+
+    private static boolean isLiteral(String body) {
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (META_CHARACTERS.indexOf(c) >= 0 || isSpecial(c))
+                return false;
+        }
+        return true;
+    }
+
+    private static BitSet parseClass(String spec) {
+        // Negation, escapes, nested classes and intersections are not
+        // supported, nor are dangling range operators
+        if (spec.isEmpty() || spec.charAt(0) == '^' || spec.charAt(0) == '-' || spec.endsWith("-"))
+            return null;
+        BitSet members = new BitSet();
+        for (int i = 0; i < spec.length(); i++) {
+            char c = spec.charAt(i);
+            if (c == '\\' || c == '[' || c == ']' || c == '&' || c == '-' || isSpecial(c))
+                return null;
+            char to = c;
+            if (i + 2 < spec.length() && spec.charAt(i + 1) == '-') {
+                to = spec.charAt(i + 2);
+                if (to < c || to == '\\' || to == '[' || to == ']' || to == '&' || to == '-')
+                    return null;
+                i += 2;
+            }
+            for (int member = c; member <= to; member++) {
+                if (isSpecial((char) member))
+                    return null;
+                members.set(member);
+            }
+        }
+        return members;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Gets the length of the value ignoring a final line terminator
+     * 
+     * @param value
+     *            Value
+     * @return Length prior to any final line terminator
+     */
+    static int lengthBeforeTerminator(String value) {
+        int length = value.length();
+        if (length == 0)
+            return 0;
+        if (value.endsWith("\r\n"))
+            return length - 2;
+        return isLineTerminator(value.charAt(length - 1)) ? length - 1 : length;
+    }
+
+    private static final class LiteralPattern extends SimplePattern {
+        private final String literal;
+        private final boolean start, end;
+
+        LiteralPattern(String literal, boolean start, boolean end) {
+            this.literal = literal;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        boolean matches(String value) {
+            if (!this.end)
+                return this.start ? value.startsWith(this.literal) : value.contains(this.literal);
+
+            // $ matches at the end of the input and prior to a final line
+            // terminator
+            int trimmed = lengthBeforeTerminator(value);
+            if (this.start) {
+                return (value.length() == this.literal.length() || trimmed == this.literal.length())
+                        && value.startsWith(this.literal);
+            }
+            return value.endsWith(this.literal) || (trimmed < value.length()
+                    && value.regionMatches(trimmed - this.literal.length(), this.literal, 0, this.literal.length()));
+        }
+    }
+
+    private static final class ClassPattern extends SimplePattern {
+        private final BitSet members;
+        private final boolean nonEmpty;
+
+        ClassPattern(BitSet members, boolean nonEmpty) {
+            this.members = members;
+            this.nonEmpty = nonEmpty;
+        }
+
+        @Override
+        boolean matches(String value) {
+            // Line terminators are never class members so the match must
+            // stop prior to any final line terminator
+            int length = lengthBeforeTerminator(value);
+            if (this.nonEmpty && length == 0)
+                return false;
+            for (int i = 0; i < length; i++) {
+                if (!this.members.get(value.charAt(i)))
+                    return false;
+            }
+            return true;
+        }
+    }
+}
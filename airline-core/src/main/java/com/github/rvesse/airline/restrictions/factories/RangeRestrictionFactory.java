@@ -32,6 +32,8 @@ import com.github.rvesse.airline.annotations.restrictions.ranges.LongRange;
 import com.github.rvesse.airline.annotations.restrictions.ranges.ShortRange;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.common.FloatingPointRangeRestriction;
+import com.github.rvesse.airline.restrictions.common.IntegralRangeRestriction;
 import com.github.rvesse.airline.restrictions.common.RangeRestriction;
 import com.github.rvesse.airline.utils.comparators.ByteComparator;
 import com.github.rvesse.airline.utils.comparators.DoubleComparator;
@@ -115,7 +117,7 @@ public class RangeRestrictionFactory implements OptionRestrictionFactory, Argume
 
     protected RangeRestriction createFloatRange(Annotation annotation) {
         FloatRange sRange = (FloatRange) annotation;
-        return new RangeRestriction(
+        return new FloatingPointRangeRestriction(Float.class,
                 sRange.min() != Float.MIN_VALUE || !sRange.minInclusive() ? Float.valueOf(sRange.min()) : null,
                 sRange.minInclusive(),
                 sRange.max() != Float.MAX_VALUE || !sRange.maxInclusive() ? Float.valueOf(sRange.max()) : null,
@@ -124,7 +126,7 @@ public class RangeRestrictionFactory implements OptionRestrictionFactory, Argume
 
     protected RangeRestriction createDoubleRange(Annotation annotation) {
         DoubleRange sRange = (DoubleRange) annotation;
-        return new RangeRestriction(
+        return new FloatingPointRangeRestriction(Double.class,
                 sRange.min() != Double.MIN_VALUE || !sRange.minInclusive() ? Double.valueOf(sRange.min()) : null,
                 sRange.minInclusive(),
                 sRange.max() != Double.MAX_VALUE || !sRange.maxInclusive() ? Double.valueOf(sRange.max()) : null,
@@ -133,13 +135,13 @@ public class RangeRestrictionFactory implements OptionRestrictionFactory, Argume
 
     protected RangeRestriction createByteRange(Annotation annotation) {
         ByteRange sRange = (ByteRange) annotation;
-        return new RangeRestriction(Byte.valueOf(sRange.min()), sRange.minInclusive(), Byte.valueOf(sRange.max()),
-                sRange.maxInclusive(), BYTE_COMPARATOR);
+        return new IntegralRangeRestriction(Byte.class, Byte.valueOf(sRange.min()), sRange.minInclusive(),
+                Byte.valueOf(sRange.max()), sRange.maxInclusive(), BYTE_COMPARATOR);
     }
 
     protected RangeRestriction createShortRange(Annotation annotation) {
         ShortRange sRange = (ShortRange) annotation;
-        return new RangeRestriction(
+        return new IntegralRangeRestriction(Short.class,
                 sRange.min() != Short.MIN_VALUE || !sRange.minInclusive() ? Short.valueOf(sRange.min()) : null,
                 sRange.minInclusive(),
                 sRange.max() != Short.MAX_VALUE || !sRange.maxInclusive() ? Short.valueOf(sRange.max()) : null,
@@ -148,7 +150,7 @@ public class RangeRestrictionFactory implements OptionRestrictionFactory, Argume
 
     protected RangeRestriction createIntegerRange(Annotation annotation) {
         IntegerRange iRange = (IntegerRange) annotation;
-        return new RangeRestriction(
+        return new IntegralRangeRestriction(Integer.class,
                 iRange.min() != Integer.MIN_VALUE || !iRange.minInclusive() ? Integer.valueOf(iRange.min()) : null,
                 iRange.minInclusive(),
                 iRange.max() != Integer.MAX_VALUE || !iRange.maxInclusive() ? Integer.valueOf(iRange.max()) : null,
@@ -157,7 +159,7 @@ public class RangeRestrictionFactory implements OptionRestrictionFactory, Argume
 
     protected RangeRestriction createLongRange(Annotation annotation) {
         LongRange iRange = (LongRange) annotation;
-        return new RangeRestriction(
+        return new IntegralRangeRestriction(Long.class,
                 iRange.min() != Long.MIN_VALUE || !iRange.minInclusive() ? Long.valueOf(iRange.min()) : null,
                 iRange.minInclusive(),
                 iRange.max() != Long.MAX_VALUE || !iRange.maxInclusive() ? Long.valueOf(iRange.max()) : null,
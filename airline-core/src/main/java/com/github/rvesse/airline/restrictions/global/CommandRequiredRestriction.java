@@ -21,6 +21,7 @@ import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseCommandMissingException;
 import com.github.rvesse.airline.parser.errors.ParseCommandUnrecognizedException;
+import com.github.rvesse.airline.parser.suggester.NearMisses;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 
 public class CommandRequiredRestriction implements GlobalRestriction {
@@ -33,7 +34,9 @@ public class CommandRequiredRestriction implements GlobalRestriction {
             if (unparsedInput.isEmpty()) {
                 throw new ParseCommandMissingException();
             } else {
-                throw new ParseCommandUnrecognizedException(unparsedInput);
+                ParseCommandUnrecognizedException e = new ParseCommandUnrecognizedException(unparsedInput);
+                e.setSuggestions(NearMisses.suggestCommands(state, unparsedInput.get(0)));
+                throw e;
             }
         }
     }
@@ -17,6 +17,7 @@ package com.github.rvesse.airline.restrictions.global;
 
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsUnexpectedException;
+import com.github.rvesse.airline.parser.suggester.NearMisses;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 
 public class NoUnexpectedArgumentsRestriction implements GlobalRestriction {
@@ -24,7 +25,14 @@ public class NoUnexpectedArgumentsRestriction implements GlobalRestriction {
     @Override
     public <T> void validate(ParseState<T> state) {
         if (!state.getUnparsedInput().isEmpty()) {
-            throw new ParseArgumentsUnexpectedException(state.getUnparsedInput());
+            ParseArgumentsUnexpectedException e = new ParseArgumentsUnexpectedException(state.getUnparsedInput());
+            String unexpected = state.getUnparsedInput().get(0);
+            if (unexpected.startsWith("-")) {
+                e.setSuggestions(NearMisses.suggestOptions(state, unexpected));
+            } else if (state.getCommand() == null) {
+                e.setSuggestions(NearMisses.suggestCommands(state, unexpected));
+            }
+            throw e;
         }
     }
 
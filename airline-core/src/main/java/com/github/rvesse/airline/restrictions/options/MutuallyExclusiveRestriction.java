@@ -17,8 +17,10 @@ package com.github.rvesse.airline.restrictions.options;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -29,12 +31,14 @@ import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseOptionGroupException;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.PhasedRestriction;
+import com.github.rvesse.airline.restrictions.ValidationPhase;
 import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithFinder;
 import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithTagParsedOptionFinder;
 import com.github.rvesse.airline.utils.predicates.restrictions.RequiredTagOptionFinder;
 
-public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint {
+public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint, PhasedRestriction {
 
     private final String tag;
 
@@ -132,4 +136,9 @@ public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint
     public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
         // No post-validation
     }
+
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.of(ValidationPhase.FINAL);
+    }
 }
@@ -16,6 +16,7 @@
 package com.github.rvesse.airline.restrictions.options;
 
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -29,10 +30,12 @@ import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseOptionMissingException;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.PhasedRestriction;
+import com.github.rvesse.airline.restrictions.ValidationPhase;
 import com.github.rvesse.airline.utils.AirlineUtils;
 import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
-public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
+public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint, PhasedRestriction {
 
     private final Set<String> names = new LinkedHashSet<>();
 
@@ -100,4 +103,8 @@ public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
         // No post-validation
     }
 
+    @Override
+    public Set<ValidationPhase> getValidationPhases() {
+        return EnumSet.of(ValidationPhase.FINAL);
+    }
 }
@@ -31,7 +31,9 @@ import com.github.rvesse.airline.builder.CliBuilder;
 import com.github.rvesse.airline.builder.GroupBuilder;
 import com.github.rvesse.airline.help.Help;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.errors.ParseCommandMissingException;
 import com.github.rvesse.airline.parser.errors.ParseCommandUnrecognizedException;
 import com.github.rvesse.airline.utils.AirlineUtils;
@@ -421,4 +423,36 @@ public class TestSubGroups {
         cmd = cli.parse("foo", "bar", "show");
         Assert.assertTrue(cmd instanceof RemoteShow);
     }
+
+    @Test
+    public void sub_groups_modification_stamp() {
+        //@formatter:off
+        CliBuilder<Object> builder
+            = Cli.<Object>builder("test");
+        builder.withGroup("foo")
+               .withSubGroup("bar")
+               .withDefaultCommand(Help.class);
+        //@formatter:on
+
+        GlobalMetadata<Object> global = builder.build().getMetadata();
+        CommandGroupMetadata parentGroup = global.getCommandGroups().get(0);
+        CommandGroupMetadata subGroup = parentGroup.getSubGroups().get(0);
+        int globalStamp = global.getModificationStamp();
+        int parentStamp = parentGroup.getModificationStamp();
+        int subStamp = subGroup.getModificationStamp();
+        Assert.assertEquals(global.getModificationStamp(), globalStamp);
+        Assert.assertEquals(parentGroup.getModificationStamp(), parentStamp);
+
+        // Adding to a nested group changes the stamps of all its ancestors
+        subGroup.addSubGroup(new CommandGroupMetadata("faz", null, false, Collections.<OptionMetadata> emptyList(),
+                Collections.<CommandGroupMetadata> emptyList(), null, Collections.<CommandMetadata> emptyList()));
+        Assert.assertNotEquals(subGroup.getModificationStamp(), subStamp);
+        Assert.assertNotEquals(parentGroup.getModificationStamp(), parentStamp);
+        Assert.assertNotEquals(global.getModificationStamp(), globalStamp);
+
+        // Adding a command changes the stamps
+        globalStamp = global.getModificationStamp();
+        parentGroup.addCommand(subGroup.getDefaultCommand());
+        Assert.assertNotEquals(global.getModificationStamp(), globalStamp);
+    }
 }
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.cli.CliCommandGroupUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliCommandUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliGlobalUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliGlobalUsageSummaryGenerator;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+
+public class TestHelpCache {
+
+    private static GlobalMetadata<Runnable> git() {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("git").withDescription("the stupid content tracker")
+                .withDefaultCommand(Help.class).withCommand(Help.class).withCommand(Add.class);
+        builder.withGroup("remote").withDescription("Manage set of tracked repositories")
+                .withDefaultCommand(RemoteShow.class).withCommand(RemoteShow.class);
+        return builder.build().getMetadata();
+    }
+
+    private static String help(GlobalMetadata<Runnable> global, String... commandNames) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Help.help(global, Arrays.asList(commandNames), false, output);
+        return new String(output.toByteArray());
+    }
+
+    private static final class CountingRenderer implements HelpCache.Renderer {
+        private int count = 0;
+
+        @Override
+        public void render(OutputStream out) throws IOException {
+            this.count++;
+            out.write(("render " + this.count).getBytes());
+        }
+    }
+
+    @Test
+    public void help_cache_01() throws IOException {
+        GlobalMetadata<Runnable> global = git();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new CliGlobalUsageSummaryGenerator<Runnable>().usage(global, expected);
+
+        long renders = HelpCache.getDefault().getRenderCount();
+        Assert.assertEquals(help(global), new String(expected.toByteArray()));
+        Assert.assertEquals(help(global), new String(expected.toByteArray()));
+        Assert.assertEquals(HelpCache.getDefault().getRenderCount(), renders + 1);
+    }
+
+    @Test
+    public void help_cache_02() throws IOException {
+        GlobalMetadata<Runnable> global = git();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new CliGlobalUsageGenerator<Runnable>().usage(global, expected);
+        Assert.assertEquals(help(global, "git"), new String(expected.toByteArray()));
+
+        expected = new ByteArrayOutputStream();
+        new CliCommandUsageGenerator().usage("git", null, "add", MetadataLoader.loadCommand(Add.class),
+                global.getParserConfiguration(), expected);
+        Assert.assertEquals(help(global, "add"), new String(expected.toByteArray()));
+
+        expected = new ByteArrayOutputStream();
+        new CliCommandGroupUsageGenerator<Runnable>().usage(global,
+                new CommandGroupMetadata[] { global.getCommandGroups().get(0) }, expected);
+        Assert.assertEquals(help(global, "remote"), new String(expected.toByteArray()));
+
+        expected = new ByteArrayOutputStream();
+        new CliCommandUsageGenerator().usage("git", new String[] { "remote" }, "show",
+                MetadataLoader.loadCommand(RemoteShow.class), global.getParserConfiguration(), expected);
+        Assert.assertEquals(help(global, "remote", "show"), new String(expected.toByteArray()));
+
+        // Every different help is rendered once
+        long renders = HelpCache.getDefault().getRenderCount();
+        help(global, "git");
+        help(global, "add");
+        help(global, "remote");
+        help(global, "remote", "show");
+        Assert.assertEquals(HelpCache.getDefault().getRenderCount(), renders);
+    }
+
+    @Test
+    public void help_cache_03() throws IOException {
+        // Adding a command to a group invalidates the cached help
+        GlobalMetadata<Runnable> global = git();
+        String before = help(global, "remote");
+        Assert.assertFalse(before.contains("add"));
+
+        global.getCommandGroups().get(0).addCommand(MetadataLoader.loadCommand(RemoteAdd.class));
+        String after = help(global, "remote");
+        Assert.assertNotEquals(after, before);
+        Assert.assertTrue(after.contains("add"));
+    }
+
+    @Test
+    public void help_cache_04() throws IOException {
+        // Different meta-data, generators and settings are cached separately
+        HelpCache cache = new HelpCache();
+        CountingRenderer renderer = new CountingRenderer();
+        GlobalMetadata<Runnable> global = git();
+        GlobalMetadata<Runnable> other = git();
+
+        byte[] first = cache.get(global, CliGlobalUsageGenerator.class, false, 79, null, renderer);
+        Assert.assertEquals(new String(first), "render 1");
+        Assert.assertSame(cache.get(global, CliGlobalUsageGenerator.class, false, 79, null, renderer), first);
+        Assert.assertSame(cache.get(global, CliGlobalUsageGenerator.class, false, 79, new String[0], renderer),
+                first);
+
+        cache.get(global, CliGlobalUsageGenerator.class, true, 79, null, renderer);
+        cache.get(global, CliGlobalUsageGenerator.class, false, 120, null, renderer);
+        cache.get(global, CliGlobalUsageSummaryGenerator.class, false, 79, null, renderer);
+        cache.get(global, CliGlobalUsageGenerator.class, false, 79, new String[] { "remote" }, renderer);
+        cache.get(other, CliGlobalUsageGenerator.class, false, 79, null, renderer);
+        Assert.assertEquals(renderer.count, 6);
+        Assert.assertEquals(cache.getRenderCount(), 6);
+
+        cache.invalidate(global);
+        Assert.assertEquals(new String(cache.get(global, CliGlobalUsageGenerator.class, false, 79, null, renderer)),
+                "render 7");
+        cache.clear();
+        cache.get(other, CliGlobalUsageGenerator.class, false, 79, null, renderer);
+        Assert.assertEquals(renderer.count, 8);
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.common;
+
+import java.io.File;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.help.cli.CliCommandUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliGlobalUsageGenerator;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+
+public class TestFingerprint {
+
+    private static GlobalMetadata<Runnable> git(String description, boolean withRemoteAdd) {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("git").withDescription(description)
+                .withDefaultCommand(Help.class).withCommand(Help.class).withCommand(Add.class);
+        builder.withGroup("remote").withDescription("Manage set of tracked repositories")
+                .withDefaultCommand(RemoteShow.class).withCommand(RemoteShow.class);
+        if (withRemoteAdd)
+            builder.withGroup("remote").withCommand(RemoteAdd.class);
+        return builder.build().getMetadata();
+    }
+
+    @Test
+    public void fingerprint_01() {
+        // Fingerprints do not depend on object identity
+        Assert.assertEquals(new Fingerprint().add(git("content tracker", true)).complete(),
+                new Fingerprint().add(git("content tracker", true)).complete());
+        Assert.assertEquals(new Fingerprint().add(MetadataLoader.loadCommand(Add.class)).complete(),
+                new Fingerprint().add(MetadataLoader.loadCommand(Add.class)).complete());
+    }
+
+    @Test
+    public void fingerprint_02() {
+        // Any change in the meta-data changes the fingerprint
+        String fingerprint = new Fingerprint().add(git("content tracker", true)).complete();
+        Assert.assertNotEquals(new Fingerprint().add(git("content tracker!", true)).complete(), fingerprint);
+        Assert.assertNotEquals(new Fingerprint().add(git("content tracker", false)).complete(), fingerprint);
+        Assert.assertNotEquals(new Fingerprint().add(MetadataLoader.loadCommand(Add.class)).complete(),
+                new Fingerprint().add(MetadataLoader.loadCommand(RemoteAdd.class)).complete());
+    }
+
+    @Test
+    public void fingerprint_03() {
+        // Values are delimited
+        Assert.assertNotEquals(new Fingerprint().add("ab").add("c").complete(),
+                new Fingerprint().add("a").add("bc").complete());
+        Assert.assertNotEquals(new Fingerprint().add((String) null).complete(),
+                new Fingerprint().add("").complete());
+        Assert.assertEquals(new Fingerprint().complete().length(), 64);
+    }
+
+    @Test
+    public void fingerprint_pages_01() {
+        // Generator settings are part of page fingerprints
+        CommandMetadata command = MetadataLoader.loadCommand(Add.class);
+        File file = new File("target/add.txt");
+        String fingerprint = new CommandUsagePage(file, new CliCommandUsageGenerator(), "git", null, command, null)
+                .getFingerprint();
+        Assert.assertEquals(new CommandUsagePage(file, new CliCommandUsageGenerator(), "git", null, command, null)
+                .getFingerprint(), fingerprint);
+        Assert.assertNotEquals(new CommandUsagePage(file, new CliCommandUsageGenerator(true), "git", null, command,
+                null).getFingerprint(), fingerprint);
+        Assert.assertNotEquals(new CommandUsagePage(file, new CliCommandUsageGenerator(100), "git", null, command,
+                null).getFingerprint(), fingerprint);
+        Assert.assertNotEquals(new CommandUsagePage(file, new CliCommandUsageGenerator(), "git", null, command, null,
+                "extra").getFingerprint(), fingerprint);
+        Assert.assertNotEquals(new CommandUsagePage(file, new CliCommandUsageGenerator(), "git",
+                new String[] { "remote" }, command, null).getFingerprint(), fingerprint);
+
+        GlobalMetadata<Runnable> global = git("content tracker", true);
+        Assert.assertNotEquals(
+                new GlobalUsagePage<Runnable>(file, new CliGlobalUsageGenerator<Runnable>(), global).getFingerprint(),
+                new GlobalUsagePage<Runnable>(file, new CliGlobalUsageGenerator<Runnable>(true), global)
+                        .getFingerprint());
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.help.cli.CliCommandGroupUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliCommandUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliGlobalUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliGlobalUsageSummaryGenerator;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+
+public class TestHelpModel {
+
+    private static GlobalMetadata<Runnable> git() {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("git").withDescription("the stupid content tracker")
+                .withDefaultCommand(Help.class).withCommand(Help.class).withCommand(Add.class);
+        builder.withGroup("remote").withDescription("Manage set of tracked repositories")
+                .withDefaultCommand(RemoteShow.class).withCommand(RemoteShow.class).withCommand(RemoteAdd.class);
+        return builder.build().getMetadata();
+    }
+
+    private static CommandMetadata add(GlobalMetadata<Runnable> global) {
+        for (CommandMetadata command : global.getDefaultGroupCommands()) {
+            if (command.getName().equals("add"))
+                return command;
+        }
+        throw new IllegalStateException("No add command");
+    }
+
+    private static String usage(GlobalMetadata<Runnable> global) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new CliGlobalUsageGenerator<Runnable>().usage(global, output);
+        new CliGlobalUsageSummaryGenerator<Runnable>().usage(global, output);
+        for (CommandGroupMetadata group : global.getCommandGroups()) {
+            new CliCommandGroupUsageGenerator<Runnable>().usage(global, new CommandGroupMetadata[] { group },
+                    output);
+            for (CommandMetadata command : group.getCommands()) {
+                new CliCommandUsageGenerator().usage("git", new String[] { group.getName() }, command.getName(),
+                        command, global.getParserConfiguration(), output);
+            }
+        }
+        for (CommandMetadata command : global.getDefaultGroupCommands()) {
+            new CliCommandUsageGenerator().usage("git", null, command.getName(), command,
+                    global.getParserConfiguration(), output);
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void model_01() throws IOException {
+        // All the generators share a single model
+        GlobalMetadata<Runnable> global = git();
+        int builds = HelpModel.getBuildCount();
+        usage(global);
+        Assert.assertEquals(HelpModel.getBuildCount(), builds + 1);
+        usage(global);
+        Assert.assertEquals(HelpModel.getBuildCount(), builds + 1);
+    }
+
+    @Test
+    public void model_02() throws IOException {
+        // Output is the same whether or not the model was already built
+        GlobalMetadata<Runnable> global = git();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CommandMetadata command = add(global);
+        new CliCommandUsageGenerator().usage("git", null, command.getName(), command,
+                global.getParserConfiguration(), output);
+        String first = usage(global);
+        String second = usage(global);
+        Assert.assertEquals(second, first);
+        Assert.assertEquals(usage(git()), first);
+
+        // The command on its own gets the same help
+        ByteArrayOutputStream commandOutput = new ByteArrayOutputStream();
+        new CliCommandUsageGenerator().usage("git", null, command.getName(), command,
+                global.getParserConfiguration(), commandOutput);
+        Assert.assertEquals(commandOutput.toString("UTF-8"), output.toString("UTF-8"));
+    }
+
+    @Test
+    public void model_03() {
+        // Models are immutable and contain the analysis results
+        GlobalMetadata<Runnable> global = git();
+        CliGlobalUsageGenerator<Runnable> generator = new CliGlobalUsageGenerator<>();
+        HelpModel model = generator.useHelpModel(global);
+        Assert.assertSame(generator.useHelpModel(global), model);
+        Assert.assertTrue(model.contains(global.getOptions()));
+
+        List<OptionMetadata> options = model.getSortedOptions(global.getOptions());
+        Assert.assertNotNull(options);
+        Assert.assertSame(generator.sortOptions(global.getOptions()), options);
+        for (OptionMetadata option : options) {
+            Assert.assertNotNull(model.getUsage(option));
+            Assert.assertNotNull(model.getDescription(option));
+        }
+        try {
+            options.clear();
+            Assert.fail("Model lists should be immutable");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+
+        CommandMetadata add = add(global);
+        Assert.assertTrue(model.contains(add));
+        Assert.assertNotNull(model.getPreSections(add));
+        Assert.assertNotNull(model.getPostSections(add));
+        Assert.assertNotNull(model.getUsage(add.getArguments()));
+    }
+
+    @Test
+    public void model_04() {
+        // Adding commands invalidates the model
+        GlobalMetadata<Runnable> global = git();
+        CliGlobalUsageGenerator<Runnable> generator = new CliGlobalUsageGenerator<>();
+        HelpModel model = generator.useHelpModel(global);
+        CommandGroupMetadata remote = global.getCommandGroups().get(0);
+        Assert.assertEquals(generator.sortCommands(remote.getCommands()).size(), 2);
+
+        remote.addCommand(MetadataLoader.loadCommand(Add.class));
+        Assert.assertEquals(generator.sortCommands(remote.getCommands()).size(), 3);
+        HelpModel rebuilt = generator.useHelpModel(global);
+        Assert.assertNotSame(rebuilt, model);
+        Assert.assertEquals(rebuilt.getSortedCommands(remote.getCommands()).size(), 3);
+    }
+
+    @Test
+    public void model_05() throws IOException {
+        // Overridden formatting methods are respected
+        GlobalMetadata<Runnable> global = git();
+        usage(global);
+        CommandMetadata add = add(global);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new CliCommandUsageGenerator() {
+            @Override
+            protected String toUsage(OptionMetadata option) {
+                return "custom" + super.toUsage(option);
+            }
+        }.usage("git", null, add.getName(), add, global.getParserConfiguration(), output);
+        Assert.assertTrue(output.toString("UTF-8").contains("custom[ -i ]"), output.toString("UTF-8"));
+    }
+
+    @Test
+    public void model_06() throws IOException {
+        // Models are attached to the meta-data and found without searching
+        GlobalMetadata<Runnable> global = git();
+        CliGlobalUsageGenerator<Runnable> generator = new CliGlobalUsageGenerator<>();
+        HelpModel model = generator.useHelpModel(global);
+        CommandMetadata add = add(global);
+        Assert.assertSame(new CliCommandUsageGenerator().useHelpModel(add), model);
+
+        // Freshly built lists are never in a model so are looked up quickly
+        Assert.assertFalse(model.contains(add.getAllOptions()));
+        Assert.assertTrue(model.contains(add.getCommandOptions()));
+    }
+
+    @Test
+    public void model_07() throws IOException, InterruptedException {
+        // Models do not prevent the meta-data being garbage collected
+        GlobalMetadata<Runnable> global = git();
+        usage(global);
+        CommandMetadata command = MetadataLoader.loadCommand(Add.class);
+        new CliCommandUsageGenerator().usage("add", null, command.getName(), command,
+                global.getParserConfiguration(), new ByteArrayOutputStream());
+        WeakReference<GlobalMetadata<Runnable>> globalRef = new WeakReference<>(global);
+        WeakReference<CommandMetadata> commandRef = new WeakReference<>(command);
+        global = null;
+        command = null;
+
+        for (int i = 0; i < 50 && (globalRef.get() != null || commandRef.get() != null); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assert.assertNull(globalRef.get());
+        Assert.assertNull(commandRef.get());
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestMultiPageWriter {
+
+    private final File directory = new File("target/multi-page-writer");
+
+    private int renders = 0;
+
+    private class TextPage extends MultiPageWriter.Page {
+        private final String text;
+
+        private TextPage(String name, String text) {
+            super(new File(directory, name));
+            this.text = text;
+        }
+
+        @Override
+        public String getFingerprint() {
+            return this.text != null ? new Fingerprint().add(this.text).complete() : null;
+        }
+
+        @Override
+        public void render(OutputStream output) throws IOException {
+            synchronized (TestMultiPageWriter.this) {
+                renders++;
+            }
+            if (this.text == null)
+                throw new IOException("Failed " + getFile().getName());
+            output.write(this.text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        this.renders = 0;
+        if (this.directory.exists()) {
+            Files.walkFileTree(this.directory.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        this.directory.mkdirs();
+    }
+
+    private String read(String name) throws IOException {
+        return new String(Files.readAllBytes(new File(this.directory, name).toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void multi_page_writer_01() throws IOException {
+        List<TextPage> pages = new ArrayList<TextPage>();
+        for (int i = 0; i < 100; i++) {
+            pages.add(new TextPage("page" + i + ".txt", "Page " + i));
+        }
+        MultiPageWriter writer = new MultiPageWriter(8, 3);
+        writer.write(pages);
+        Assert.assertEquals(writer.getPagesWritten(), 100);
+        Assert.assertEquals(this.directory.list().length, 100);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(read("page" + i + ".txt"), "Page " + i);
+        }
+
+        writer.write(pages);
+        Assert.assertEquals(writer.getPagesWritten(), 100);
+        Assert.assertEquals(writer.getPagesUnchanged(), 100);
+    }
+
+    @Test
+    public void multi_page_writer_02() throws IOException {
+        // Last page for a file wins
+        List<TextPage> pages = new ArrayList<TextPage>();
+        for (int i = 0; i < 20; i++) {
+            pages.add(new TextPage("page.txt", "Page " + i));
+        }
+        MultiPageWriter writer = new MultiPageWriter(4, 1);
+        writer.write(pages);
+        Assert.assertEquals(writer.getPagesWritten(), 1);
+        Assert.assertEquals(read("page.txt"), "Page 19");
+    }
+
+    @Test
+    public void multi_page_writer_03() throws IOException {
+        // Error for the first failing page is thrown, other pages are still
+        // written
+        List<TextPage> pages = new ArrayList<TextPage>();
+        for (int i = 0; i < 20; i++) {
+            pages.add(new TextPage("page" + i + ".txt", i % 7 == 5 ? null : "Page " + i));
+        }
+        MultiPageWriter writer = new MultiPageWriter(4, 2);
+        try {
+            writer.write(pages);
+            Assert.fail("Expected an error");
+        } catch (IOException e) {
+            Assert.assertEquals(e.getMessage(), "Failed page5.txt");
+        }
+        Assert.assertEquals(writer.getPagesWritten(), 17);
+    }
+
+    @Test
+    public void multi_page_writer_incremental_01() throws IOException {
+        File manifestFile = new File(this.directory, "manifest.txt");
+        List<TextPage> pages = new ArrayList<TextPage>();
+        for (int i = 0; i < 50; i++) {
+            pages.add(new TextPage("page" + i + ".txt", "Page " + i));
+        }
+        MultiPageWriter writer = new MultiPageWriter(4, 2, manifestFile);
+        writer.write(pages);
+        Assert.assertEquals(writer.getPagesWritten(), 50);
+        Assert.assertEquals(this.renders, 50);
+        PageManifest manifest = PageManifest.load(manifestFile);
+        Assert.assertEquals(manifest.getPaths().size(), 50);
+        Assert.assertEquals(manifest.get(new File(this.directory, "page7.txt")).getContentHash(),
+                Fingerprint.toHex(MultiPageWriter.hash("Page 7".getBytes(StandardCharsets.UTF_8))));
+
+        // Unchanged pages are not rendered again
+        writer.write(pages);
+        Assert.assertEquals(writer.getPagesSkipped(), 50);
+        Assert.assertEquals(this.renders, 50);
+
+        // Changed and modified pages are rendered again, removed pages are
+        // pruned
+        pages.set(3, new TextPage("page3.txt", "Changed 3"));
+        pages.remove(pages.size() - 1);
+        Files.write(new File(this.directory, "page10.txt").toPath(), "Edited".getBytes(StandardCharsets.UTF_8));
+        writer.write(pages);
+        Assert.assertEquals(this.renders, 52);
+        Assert.assertEquals(writer.getPagesWritten(), 52);
+        Assert.assertEquals(writer.getPagesPruned(), 1);
+        Assert.assertEquals(read("page3.txt"), "Changed 3");
+        Assert.assertEquals(read("page10.txt"), "Page 10");
+        Assert.assertFalse(new File(this.directory, "page49.txt").exists());
+        Assert.assertEquals(PageManifest.load(manifestFile).getPaths().size(), 49);
+    }
+
+    @Test
+    public void multi_page_writer_incremental_02() throws IOException {
+        // Pages without fingerprints and pages that fail are always rendered
+        File manifestFile = new File(this.directory, "manifest.txt");
+        List<MultiPageWriter.Page> pages = new ArrayList<MultiPageWriter.Page>();
+        pages.add(new TextPage("good.txt", "Good"));
+        pages.add(new TextPage("bad.txt", null));
+        pages.add(new MultiPageWriter.Page(new File(this.directory, "plain.txt")) {
+            @Override
+            public void render(OutputStream output) throws IOException {
+                renders++;
+                output.write("Plain".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        MultiPageWriter writer = new MultiPageWriter(1, 1, manifestFile);
+        for (int i = 1; i <= 2; i++) {
+            try {
+                writer.write(pages);
+                Assert.fail("Expected an error");
+            } catch (IOException e) {
+                Assert.assertEquals(e.getMessage(), "Failed bad.txt");
+            }
+        }
+        Assert.assertEquals(this.renders, 5);
+        Assert.assertEquals(writer.getPagesSkipped(), 1);
+        Assert.assertEquals(PageManifest.load(manifestFile).getPaths().size(), 2);
+    }
+
+    @Test
+    public void multi_page_writer_manifest_01() throws IOException {
+        File manifestFile = new File(this.directory, "sub/manifest.txt");
+        PageManifest manifest = new PageManifest(manifestFile);
+        manifest.put(new File(this.directory, "sub/b/page.txt"), new PageManifest.Entry(null, "abc", 3, 100));
+        manifest.put(new File(this.directory, "other.txt"), new PageManifest.Entry("f", "def", 4, 200));
+        manifest.save();
+
+        List<String> lines = Files.readAllLines(manifestFile.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(lines.size(), 3);
+        Assert.assertEquals(lines.get(1), "f\tdef\t4\t200\t../other.txt");
+        Assert.assertEquals(lines.get(2), "-\tabc\t3\t100\tb/page.txt");
+
+        PageManifest loaded = PageManifest.load(manifestFile);
+        Assert.assertEquals(loaded.getPaths().size(), 2);
+        PageManifest.Entry entry = loaded.get(new File(this.directory, "sub/b/page.txt"));
+        Assert.assertNull(entry.getFingerprint());
+        Assert.assertEquals(entry.getContentHash(), "abc");
+        Assert.assertEquals(entry.getLength(), 3);
+        Assert.assertEquals(entry.getLastModified(), 100);
+        Assert.assertEquals(loaded.toFile("b/page.txt").getAbsoluteFile(),
+                new File(this.directory, "sub/b/page.txt").getAbsoluteFile());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void multi_page_writer_bad_01() {
+        new MultiPageWriter(0, 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void multi_page_writer_bad_02() {
+        new MultiPageWriter(1, 0);
+    }
+}
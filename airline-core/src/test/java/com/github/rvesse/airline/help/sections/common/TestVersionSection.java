@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.sections.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.lang3.StringUtils;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.help.sections.HelpFormat;
+
+public class TestVersionSection {
+
+    private static VersionSection section(String source, boolean suppressErrors) {
+        return new VersionSection(new String[] { source }, "component", "version", "build", "buildDate",
+                new String[0], new String[0], suppressErrors, false);
+    }
+
+    private static VersionSection manifestSection(String className, boolean suppressErrors) {
+        return new VersionSection(new String[] { VersionSection.MANIFEST_PREFIX + className },
+                "Implementation-Title", "Implementation-Version", "build", "buildDate", new String[0], new String[0],
+                suppressErrors, false);
+    }
+
+    private static File versionFile(String content) throws IOException {
+        File f = File.createTempFile("lazy", ".version");
+        f.deleteOnExit();
+        write(f, content);
+        return f;
+    }
+
+    private static void write(File f, String content) throws IOException {
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void version_section_lazy_01() throws IOException {
+        File f = versionFile("component=Lazy\nversion=1.0\n");
+
+        // Nothing is read until the section is rendered so changes made in
+        // the meantime are seen
+        VersionSection section = section(f.getAbsolutePath(), false);
+        write(f, "component=Lazy\nversion=2.0\n");
+        Assert.assertEquals(section.getFormat(), HelpFormat.LIST);
+        Assert.assertEquals(section.getContentBlock(0), new String[] { "Component: Lazy", "Version: 2.0" });
+
+        // Once rendered the section keeps the information it loaded while new
+        // sections read the file again
+        write(f, "component=Lazy\nversion=3.0\n");
+        Assert.assertEquals(section.getContentBlock(0), new String[] { "Component: Lazy", "Version: 2.0" });
+        Assert.assertEquals(section(f.getAbsolutePath(), false).getContentBlock(0),
+                new String[] { "Component: Lazy", "Version: 3.0" });
+    }
+
+    @Test
+    public void version_section_lazy_02() throws IOException {
+        File f = new File("target/lazy-created.version");
+        f.delete();
+        VersionSection section = section(f.getPath(), true);
+        Assert.assertEquals(section.getFormat(), HelpFormat.NONE_PRINTABLE);
+        Assert.assertEquals(section.numContentBlocks(), 0);
+
+        // Failures are not cached so a source that appears later is used
+        write(f, "component=Created\n");
+        try {
+            Assert.assertEquals(section(f.getPath(), false).getContentBlock(0), new String[] { "Component: Created" });
+        } finally {
+            f.delete();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ".*lazy-missing\\.version.*")
+    public void version_section_lazy_03() {
+        // Missing data sources are still detected up front
+        section("/lazy-missing.version", false);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ".*no valid version information sources.*")
+    public void version_section_lazy_04() {
+        new VersionSection(new String[0], "component", "version", "build", "buildDate", new String[0], new String[0],
+                false, false);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ".*could not be resolved.*")
+    public void version_section_lazy_05() {
+        // Directories can't be read as data sources
+        section(new File("target").getAbsolutePath(), false);
+    }
+
+    @Test
+    public void version_section_lazy_06() throws IOException {
+        // A source that disappears after the section was created doesn't
+        // cause rendering to fail
+        File f = versionFile("component=Lazy\n");
+        VersionSection section = section(f.getAbsolutePath(), false);
+        Assert.assertTrue(f.delete());
+        Assert.assertEquals(section.getFormat(), HelpFormat.NONE_PRINTABLE);
+        Assert.assertEquals(section.numContentBlocks(), 0);
+    }
+
+    @Test
+    public void version_section_resource_01() throws IOException {
+        // Resources visible only to the context class loader are found and
+        // cached for that class loader
+        File dir = new File("target/context-resources");
+        dir.mkdirs();
+        File f = new File(dir, "context.version");
+        write(f, "component=Context\n");
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, original)) {
+            thread.setContextClassLoader(loader);
+            Assert.assertEquals(section("/context.version", false).getContentBlock(0),
+                    new String[] { "Component: Context" });
+        } finally {
+            thread.setContextClassLoader(original);
+            f.delete();
+        }
+
+        // Not visible without that class loader
+        Assert.assertEquals(section("/context.version", true).getFormat(), HelpFormat.NONE_PRINTABLE);
+    }
+
+    @Test
+    public void version_section_manifest_01() {
+        Package pkg = StringUtils.class.getPackage();
+        if (pkg == null || pkg.getImplementationTitle() == null)
+            throw new SkipException("No manifest information available for Commons Lang");
+
+        VersionSection section = manifestSection(StringUtils.class.getName(), false);
+        Assert.assertEquals(section.getContentBlock(0),
+                new String[] { "Component: " + pkg.getImplementationTitle(),
+                        "Version: " + pkg.getImplementationVersion() });
+    }
+
+    @Test
+    public void version_section_manifest_02() {
+        // Classes that are not loaded from a JAR have no manifest information
+        Assert.assertEquals(manifestSection(TestVersionSection.class.getName(), true).getFormat(),
+                HelpFormat.NONE_PRINTABLE);
+        Assert.assertEquals(manifestSection("com.example.NoSuchClass", true).getFormat(),
+                HelpFormat.NONE_PRINTABLE);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void version_section_manifest_03() {
+        manifestSection("com.example.NoSuchClass", false);
+    }
+}
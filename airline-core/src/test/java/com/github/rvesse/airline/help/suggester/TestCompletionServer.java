@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+public class TestCompletionServer {
+
+    @SuppressWarnings("unchecked")
+    private GlobalMetadata<Runnable> createMetadata() {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                .withDefaultCommand(Help.class)
+                .withCommands(Help.class, Git.Add.class, SuggestCommand.class, CompletionServerCommand.class);
+
+        builder.withGroup("remote")
+                .withDefaultCommand(Git.RemoteShow.class)
+                .withCommands(Git.RemoteShow.class, Git.RemoteAdd.class);
+        //@formatter:on
+        return builder.build().getMetadata();
+    }
+
+    private static File createStateFile() throws IOException {
+        File dir = Files.createTempDirectory("completion").toFile();
+        dir.deleteOnExit();
+        return new File(new File(dir, "state"), "git.completion");
+    }
+
+    private static String[] readState(File stateFile) throws IOException {
+        return new String(Files.readAllBytes(stateFile.toPath()), StandardCharsets.US_ASCII).trim().split(" ");
+    }
+
+    private static List<String> request(int port, String token, String partial, String... words)
+            throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            writer.write(token + "\n" + words.length + "\n");
+            for (String word : words) {
+                writer.write(word + "\n");
+            }
+            writer.write(partial + "\n");
+            writer.flush();
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            // No response for rejected requests
+            if (!CompletionServer.RESPONSE_OK.equals(reader.readLine()))
+                return null;
+            List<String> suggestions = new ArrayList<String>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                suggestions.add(line);
+            }
+            return suggestions;
+        }
+    }
+
+    @Test
+    public void completion_server_answers_requests() throws IOException, InterruptedException {
+        GlobalMetadata<Runnable> metadata = createMetadata();
+        File stateFile = createStateFile();
+        try (CompletionServer<Runnable> server = new CompletionServer<Runnable>(metadata, stateFile)) {
+            server.start();
+            Assert.assertTrue(server.isRunning());
+
+            String[] state = readState(stateFile);
+            Assert.assertEquals(Integer.parseInt(state[0]), server.getPort());
+
+            SuggestionEngine<Runnable> engine = new SuggestionEngine<Runnable>(metadata);
+            Assert.assertEquals(request(server.getPort(), state[1], ""), engine.suggest(new ArrayList<String>(), ""));
+            Assert.assertEquals(request(server.getPort(), state[1], "re"), Arrays.asList("remote"));
+            Assert.assertEquals(request(server.getPort(), state[1], "", "remote"),
+                    engine.suggest(Arrays.asList("remote"), ""));
+            Assert.assertEquals(request(server.getPort(), state[1], "-", "add"),
+                    engine.suggest(Arrays.asList("add"), "-"));
+            Assert.assertEquals(server.getRequestCount(), 4);
+        }
+        Assert.assertFalse(stateFile.exists());
+    }
+
+    @Test
+    public void completion_server_rejects_bad_token() throws IOException {
+        File stateFile = createStateFile();
+        try (CompletionServer<Runnable> server = new CompletionServer<Runnable>(createMetadata(), stateFile)) {
+            server.start();
+
+            Assert.assertNull(request(server.getPort(), "wrong", ""));
+            Assert.assertNull(request(server.getPort(), readState(stateFile)[1] + "extra", ""));
+            Assert.assertEquals(server.getRequestCount(), 0);
+
+            // Server continues to answer valid requests
+            Assert.assertFalse(request(server.getPort(), readState(stateFile)[1], "").isEmpty());
+            Assert.assertEquals(server.getRequestCount(), 1);
+        }
+    }
+
+    @Test
+    public void completion_server_state_file_permissions() throws IOException {
+        File stateFile = createStateFile();
+        if (!Files.getFileStore(stateFile.getParentFile().getParentFile().toPath())
+                .supportsFileAttributeView("posix"))
+            return;
+        try (CompletionServer<Runnable> server = new CompletionServer<Runnable>(createMetadata(), stateFile)) {
+            server.start();
+
+            Assert.assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(stateFile.toPath())),
+                    "rw-------");
+            Assert.assertEquals(
+                    PosixFilePermissions.toString(Files.getPosixFilePermissions(stateFile.getParentFile().toPath())),
+                    "rwx------");
+        }
+    }
+
+    @Test
+    public void completion_server_idle_timeout() throws IOException, InterruptedException {
+        File stateFile = createStateFile();
+        try (CompletionServer<Runnable> server = new CompletionServer<Runnable>(createMetadata(), stateFile, 200)) {
+            server.start();
+            Assert.assertTrue(stateFile.exists());
+
+            Assert.assertTrue(server.awaitStop(10, TimeUnit.SECONDS));
+            Assert.assertFalse(server.isRunning());
+            Assert.assertFalse(stateFile.exists());
+        }
+    }
+
+    @Test
+    public void completion_server_command() throws IOException, InterruptedException {
+        File stateFile = createStateFile();
+        CompletionServerCommand<Runnable> command = new CompletionServerCommand<Runnable>();
+        command.metadata = createMetadata();
+        command.stateFile = stateFile.getAbsolutePath();
+        command.idleTimeout = 1;
+
+        command.run();
+        Assert.assertFalse(stateFile.exists());
+    }
+
+    @Test
+    public void completion_server_no_suggestions() throws IOException {
+        File stateFile = createStateFile();
+        try (CompletionServer<Runnable> server = new CompletionServer<Runnable>(createMetadata(), stateFile)) {
+            server.start();
+
+            // Valid request with no suggestions is distinguishable from a
+            // rejected request
+            Assert.assertEquals(request(server.getPort(), readState(stateFile)[1], "x"), new ArrayList<String>());
+        }
+    }
+
+    @Test
+    public void completion_server_rejects_long_words() throws IOException {
+        File stateFile = createStateFile();
+        try (CompletionServer<Runnable> server = new CompletionServer<Runnable>(createMetadata(), stateFile)) {
+            server.start();
+
+            char[] chars = new char[20000];
+            Arrays.fill(chars, 'a');
+            Assert.assertNull(request(server.getPort(), readState(stateFile)[1], "", new String(chars)));
+            Assert.assertEquals(server.getRequestCount(), 0);
+        }
+    }
+
+    @Test
+    public void completion_server_concurrent_requests() throws IOException {
+        File stateFile = createStateFile();
+        try (CompletionServer<Runnable> server = new CompletionServer<Runnable>(createMetadata(), stateFile)) {
+            server.start();
+            String token = readState(stateFile)[1];
+
+            // A client that connects but sends nothing does not hold up others
+            try (Socket idle = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                long start = System.nanoTime();
+                Assert.assertEquals(request(server.getPort(), token, "re"), Arrays.asList("remote"));
+                Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 4000);
+            }
+        }
+    }
+
+    @Test
+    public void completion_server_idle_ignores_invalid_requests() throws IOException, InterruptedException {
+        File stateFile = createStateFile();
+        try (CompletionServer<Runnable> server = new CompletionServer<Runnable>(createMetadata(), stateFile, 500)) {
+            server.start();
+
+            // Invalid requests don't keep the server alive
+            long start = System.nanoTime();
+            while (server.isRunning() && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000) {
+                try {
+                    request(server.getPort(), "wrong", "");
+                } catch (IOException e) {
+                    // Server stopped
+                }
+                Thread.sleep(50);
+            }
+            Assert.assertTrue(server.awaitStop(10, TimeUnit.SECONDS));
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.suggester.SuggestionParser;
+
+public class TestSuggesters {
+
+    public static class CommandNameSuggester implements Suggester {
+        @Inject
+        public CommandMetadata command;
+
+        @Override
+        public Iterable<String> suggest() {
+            return Collections.singletonList(command.getName());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private GlobalMetadata<Runnable> createMetadata() {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                .withDefaultCommand(Help.class)
+                .withCommands(Help.class, Git.Add.class, SuggestCommand.class);
+
+        builder.withGroup("remote")
+                .withDefaultCommand(Git.RemoteShow.class)
+                .withCommands(Git.RemoteShow.class, Git.RemoteAdd.class);
+        //@formatter:on
+        return builder.build().getMetadata();
+    }
+
+    private static ParseState<Runnable> parse(GlobalMetadata<Runnable> metadata, String... args) {
+        return new SuggestionParser<Runnable>().parse(metadata, Arrays.asList(args));
+    }
+
+    private static List<String> toList(Iterable<String> suggestions) {
+        List<String> list = new ArrayList<String>();
+        for (String suggestion : suggestions) {
+            list.add(suggestion);
+        }
+        return list;
+    }
+
+    @Test
+    public void suggesters_metadata_cached() {
+        Assert.assertSame(MetadataLoader.loadSuggester(GlobalSuggester.class),
+                MetadataLoader.loadSuggester(GlobalSuggester.class));
+        Assert.assertEquals(MetadataLoader.loadSuggester(CommandNameSuggester.class).getMetadataInjections().size(),
+                1);
+    }
+
+    @Test
+    public void suggesters_stateless_singleton() {
+        Assert.assertSame(Suggesters.getInstance(GroupSuggester.class), Suggesters.getInstance(GroupSuggester.class));
+    }
+
+    @Test
+    public void suggesters_stateless_same_as_injected() {
+        GlobalMetadata<Runnable> metadata = createMetadata();
+
+        ParseState<Runnable> state = parse(metadata);
+        Assert.assertEquals(toList(Suggesters.suggest(GlobalSuggester.class, state)),
+                toList(Suggesters.createInstance(GlobalSuggester.class, state).suggest()));
+
+        state = parse(metadata, "remote");
+        Assert.assertEquals(toList(Suggesters.suggest(GroupSuggester.class, state)),
+                toList(Suggesters.createInstance(GroupSuggester.class, state).suggest()));
+
+        state = parse(metadata, "add");
+        List<String> suggestions = toList(Suggesters.suggest(CommandSuggester.class, state));
+        Assert.assertEquals(suggestions, toList(Suggesters.createInstance(CommandSuggester.class, state).suggest()));
+        Assert.assertTrue(suggestions.contains("--"));
+    }
+
+    @Test
+    public void suggesters_injected() {
+        ParseState<Runnable> state = parse(createMetadata(), "remote", "add");
+        Assert.assertEquals(toList(Suggesters.suggest(CommandNameSuggester.class, state)), Arrays.asList("add"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void suggesters_bad_class() {
+        Suggesters.suggest(String.class, parse(createMetadata()));
+    }
+}
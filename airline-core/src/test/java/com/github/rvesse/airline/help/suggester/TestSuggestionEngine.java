@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+public class TestSuggestionEngine {
+
+    @SuppressWarnings("unchecked")
+    private Cli<Runnable> createCli() {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                .withDefaultCommand(Help.class)
+                .withCommands(Help.class, Git.Add.class, SuggestCommand.class);
+
+        builder.withGroup("remote")
+                .withDefaultCommand(Git.RemoteShow.class)
+                .withCommands(Git.RemoteShow.class, Git.RemoteAdd.class);
+        //@formatter:on
+        return builder.build();
+    }
+
+    private static List<String> toList(Iterable<String> suggestions) {
+        List<String> list = new ArrayList<String>();
+        for (String suggestion : suggestions) {
+            list.add(suggestion);
+        }
+        return list;
+    }
+
+    private static CommandGroupMetadata findGroup(GlobalMetadata<Runnable> metadata, String name) {
+        for (CommandGroupMetadata group : metadata.getCommandGroups()) {
+            if (group.getName().equals(name))
+                return group;
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private static CommandMetadata findCommand(List<CommandMetadata> commands, String name) {
+        for (CommandMetadata command : commands) {
+            if (command.getName().equals(name))
+                return command;
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    @Test
+    public void suggestion_engine_same_as_suggesters() {
+        GlobalMetadata<Runnable> metadata = createCli().getMetadata();
+        SuggestionEngine<Runnable> engine = new SuggestionEngine<Runnable>(metadata);
+
+        GlobalSuggester<Runnable> global = new GlobalSuggester<Runnable>();
+        global.metadata = metadata;
+        Assert.assertEquals(engine.suggest(Collections.<String> emptyList()), toList(global.suggest()));
+
+        GroupSuggester group = new GroupSuggester();
+        group.group = findGroup(metadata, "remote");
+        Assert.assertEquals(engine.suggest(Arrays.asList("remote")), toList(group.suggest()));
+
+        CommandSuggester command = new CommandSuggester();
+        command.command = findCommand(metadata.getDefaultGroupCommands(), "add");
+        Assert.assertEquals(engine.suggest(Arrays.asList("add")), toList(command.suggest()));
+    }
+
+    @Test
+    public void suggestion_engine_prefixes() {
+        SuggestionEngine<Runnable> engine = new SuggestionEngine<Runnable>(createCli().getMetadata());
+        List<String> none = Collections.<String> emptyList();
+
+        Assert.assertEquals(engine.suggest(none, "re"), Arrays.asList("remote"));
+        Assert.assertEquals(engine.suggest(none, "a"), Arrays.asList("add"));
+        Assert.assertEquals(engine.suggest(none, "s"), Arrays.asList("suggest"));
+        Assert.assertEquals(engine.suggest(none, "x"), Collections.emptyList());
+        Assert.assertEquals(engine.suggest(Arrays.asList("remote"), "s"), Arrays.asList("show"));
+        Assert.assertEquals(engine.suggest(Arrays.asList("add"), "-"), Arrays.asList("--", "-i"));
+        Assert.assertEquals(engine.suggest(Arrays.asList("add"), "-i"), Arrays.asList("-i"));
+    }
+
+    @Test
+    public void suggestion_engine_resumes() {
+        GlobalMetadata<Runnable> metadata = createCli().getMetadata();
+        SuggestionEngine<Runnable> engine = new SuggestionEngine<Runnable>(metadata);
+
+        engine.suggest(Arrays.asList("add"));
+        Assert.assertEquals(engine.getResumedCount(), 0);
+
+        // Extending the input resumes from the previous state
+        List<String> words = Arrays.asList("add", "-i", "file");
+        List<String> suggestions = engine.suggest(words, "-");
+        Assert.assertEquals(engine.getResumedCount(), 1);
+        Assert.assertEquals(suggestions, new SuggestionEngine<Runnable>(metadata).suggest(words, "-"));
+        Assert.assertEquals(engine.parse(words).getParsedArguments(), Arrays.asList("file"));
+
+        // Other input is parsed from scratch
+        Assert.assertEquals(engine.suggest(Arrays.asList("remote"), "a"), Arrays.asList("add"));
+        Assert.assertEquals(engine.getResumedCount(), 2);
+    }
+
+    @Test
+    public void suggestion_engine_suggest_command() {
+        Cli<Runnable> cli = createCli();
+        Runnable cmd = cli.parse("suggest", "remote");
+        Assert.assertTrue(cmd instanceof SuggestCommand);
+
+        @SuppressWarnings("unchecked")
+        SuggestCommand<Runnable> suggest = (SuggestCommand<Runnable>) cmd;
+        Assert.assertSame(SuggestCommand.getEngine(suggest.metadata), SuggestCommand.getEngine(suggest.metadata));
+
+        GroupSuggester group = new GroupSuggester();
+        group.group = findGroup(cli.getMetadata(), "remote");
+        Assert.assertEquals(toList(suggest.generateSuggestions()), toList(group.suggest()));
+    }
+
+    @Test
+    public void suggestion_engine_attached_to_metadata() {
+        GlobalMetadata<Runnable> metadata = createCli().getMetadata();
+        SuggestionEngine<Runnable> engine = SuggestCommand.getEngine(metadata);
+        Assert.assertSame(metadata.getAttachment(SuggestionEngine.class), engine);
+        Assert.assertNotSame(SuggestCommand.getEngine(createCli().getMetadata()), engine);
+    }
+
+    @Test
+    public void suggestion_engine_group_changes() {
+        GlobalMetadata<Runnable> metadata = createCli().getMetadata();
+        SuggestionEngine<Runnable> engine = new SuggestionEngine<Runnable>(metadata);
+        List<String> remote = Arrays.asList("remote");
+        Assert.assertEquals(engine.suggest(remote, "a"), Arrays.asList("add"));
+        Assert.assertEquals(engine.suggest(remote, "he"), Collections.emptyList());
+
+        // Adding a command to the group must be reflected in suggestions
+        findGroup(metadata, "remote").addCommand(findCommand(metadata.getDefaultGroupCommands(), "help"));
+        Assert.assertEquals(engine.suggest(remote, "he"), Arrays.asList("help"));
+    }
+}
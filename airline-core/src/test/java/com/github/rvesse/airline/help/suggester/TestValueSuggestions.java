@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.help.ValueSuggestions;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.annotations.restrictions.Port;
+import com.github.rvesse.airline.annotations.restrictions.PortType;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+public class TestValueSuggestions {
+
+    public enum Colour {
+        RED, GREEN, BLUE
+    }
+
+    public static class Clusters implements ValueSuggester {
+        static final AtomicInteger CALLS = new AtomicInteger();
+
+        @Override
+        public <T> Iterable<String> suggestValues(ParseState<T> state, OptionMetadata option) {
+            CALLS.incrementAndGet();
+            return Arrays.asList("alpha", "beta", "gamma");
+        }
+
+        @Override
+        public <T> Iterable<String> suggestValues(ParseState<T> state, ArgumentsMetadata arguments) {
+            return Arrays.asList("node1", "node2");
+        }
+    }
+
+    @Command(name = "deploy")
+    public static class Deploy implements Runnable {
+        @Option(name = "--colour")
+        public Colour colour;
+
+        @Option(name = "--mode")
+        @AllowedRawValues(allowedValues = { "fast", "safe" })
+        public String mode;
+
+        @Option(name = "--level")
+        @IntegerRange(min = 1, max = 3)
+        public int level;
+
+        @Option(name = "--port")
+        @Port(acceptablePorts = PortType.OS_ALLOCATED)
+        public int port;
+
+        @Option(name = "--count")
+        public int count;
+
+        @Option(name = "--cluster")
+        @ValueSuggestions(suggester = Clusters.class)
+        public String cluster;
+
+        @Arguments
+        @ValueSuggestions(suggester = Clusters.class)
+        public List<String> nodes = new ArrayList<String>();
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private SuggestionEngine<Runnable> createEngine() {
+        return new SuggestionEngine<Runnable>(
+                Cli.<Runnable> builder("test").withCommands(Deploy.class).build().getMetadata());
+    }
+
+    @Test
+    public void value_suggestions_builtin() {
+        SuggestionEngine<Runnable> engine = createEngine();
+
+        Assert.assertEquals(engine.suggest(Arrays.asList("deploy", "--colour"), ""),
+                Arrays.asList("RED", "GREEN", "BLUE"));
+        Assert.assertEquals(engine.suggest(Arrays.asList("deploy", "--colour"), "G"), Arrays.asList("GREEN"));
+        Assert.assertEquals(engine.suggest(Arrays.asList("deploy", "--mode"), "s"), Arrays.asList("safe"));
+        Assert.assertEquals(engine.suggest(Arrays.asList("deploy", "--level"), null), Arrays.asList("1", "2", "3"));
+        Assert.assertEquals(engine.suggest(Arrays.asList("deploy", "--port"), null), Arrays.asList("0"));
+        Assert.assertEquals(engine.suggest(Arrays.asList("deploy", "--count"), null), Collections.emptyList());
+    }
+
+    @Test
+    public void value_suggestions_annotated() {
+        SuggestionEngine<Runnable> engine = createEngine();
+
+        Assert.assertEquals(engine.suggest(Arrays.asList("deploy", "--cluster"), "b"), Arrays.asList("beta"));
+        Assert.assertEquals(engine.suggest(Arrays.asList("deploy", "--colour", "RED", "--cluster"), ""),
+                Arrays.asList("alpha", "beta", "gamma"));
+
+        // Arguments after the separator
+        Assert.assertEquals(engine.suggest(Arrays.asList("deploy", "--"), "node"), Arrays.asList("node1", "node2"));
+
+        // Arguments alongside options
+        List<String> suggestions = engine.suggest(Arrays.asList("deploy"), "");
+        Assert.assertTrue(suggestions.contains("--cluster"));
+        Assert.assertTrue(suggestions.contains("node1"));
+        Assert.assertEquals(engine.suggest(Arrays.asList("deploy"), "--cl"), Arrays.asList("--cluster"));
+    }
+
+    @Test
+    public void value_suggestions_suggester_created_once() {
+        SuggestionEngine<Runnable> engine = createEngine();
+        OptionMetadata cluster = null;
+        for (OptionMetadata option : engine.getMetadata().getDefaultGroupCommands().get(0).getCommandOptions()) {
+            if (option.getOptions().contains("--cluster"))
+                cluster = option;
+        }
+        Assert.assertNotNull(cluster);
+        ValueSuggester suggester = engine.getValueSuggester(cluster);
+        Assert.assertTrue(suggester instanceof Clusters);
+        Assert.assertSame(engine.getValueSuggester(cluster), suggester);
+    }
+
+    private static class SlowSuggester implements ValueSuggester {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public <T> Iterable<String> suggestValues(ParseState<T> state, OptionMetadata option) {
+            try {
+                this.release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Arrays.asList("value" + this.calls.incrementAndGet());
+        }
+
+        @Override
+        public <T> Iterable<String> suggestValues(ParseState<T> state, ArgumentsMetadata arguments) {
+            return Collections.emptyList();
+        }
+    }
+
+    @Test
+    public void value_suggestions_caching() throws InterruptedException {
+        OptionMetadata option = createEngine().getMetadata().getDefaultGroupCommands().get(0).getCommandOptions()
+                .get(0);
+        SlowSuggester slow = new SlowSuggester();
+        CachingValueSuggester caching = new CachingValueSuggester(slow, 100, TimeUnit.MILLISECONDS, 10);
+
+        // Slow suggester doesn't block, suggestions are cached once available
+        Assert.assertFalse(caching.suggestValues(null, option).iterator().hasNext());
+        Assert.assertFalse(caching.suggestValues(null, option).iterator().hasNext());
+        slow.release.countDown();
+        List<String> values = waitForValues(caching, option, "value1");
+        Assert.assertEquals(values, Arrays.asList("value1"));
+        Assert.assertEquals(caching.getLoadCount(), 1);
+
+        // Expired suggestions are served while refreshed in the background
+        Thread.sleep(150);
+        Assert.assertEquals(toList(caching.suggestValues(null, option)), Arrays.asList("value1"));
+        Assert.assertEquals(waitForValues(caching, option, "value2"), Arrays.asList("value2"));
+        Assert.assertEquals(caching.getLoadCount(), 2);
+    }
+
+    private static List<String> waitForValues(CachingValueSuggester suggester, OptionMetadata option,
+            String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        List<String> values = toList(suggester.suggestValues(null, option));
+        while (!values.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            values = toList(suggester.suggestValues(null, option));
+        }
+        return values;
+    }
+
+    private static List<String> toList(Iterable<String> values) {
+        List<String> list = new ArrayList<String>();
+        for (String value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
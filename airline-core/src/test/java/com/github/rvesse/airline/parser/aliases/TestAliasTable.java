@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.args.Args1;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.model.AliasMetadata;
+import com.github.rvesse.airline.parser.errors.ParseAliasCircularReferenceException;
+
+public class TestAliasTable {
+
+    /**
+     * Reference implementation of alias expansion used prior to aliases being
+     * compiled
+     */
+    private List<String> expandReference(List<String> arguments, List<String> remaining) {
+        List<String> remainingParams = new ArrayList<String>(remaining);
+        List<String> newParams = new ArrayList<String>();
+        Set<Integer> used = new TreeSet<Integer>();
+        for (String arg : arguments) {
+            if (arg.startsWith("$")) {
+                try {
+                    int num = Integer.parseInt(arg.substring(1));
+                    num--;
+                    if (num >= 0 && num < remainingParams.size()) {
+                        newParams.add(remainingParams.get(num));
+                        used.add(num);
+                        continue;
+                    }
+                } catch (NumberFormatException e) {
+                    // Treat as ordinary parameter
+                }
+            }
+            newParams.add(arg);
+        }
+        int removed = 0;
+        for (int pos : used) {
+            remainingParams.remove(pos - removed);
+            removed++;
+        }
+        newParams.addAll(remainingParams);
+        return newParams;
+    }
+
+    @Test
+    public void alias_table_expansion_matches_reference() {
+        List<List<String>> templates = new ArrayList<List<String>>();
+        templates.add(Arrays.<String> asList());
+        templates.add(Arrays.asList("-debug"));
+        templates.add(Arrays.asList("$1"));
+        templates.add(Arrays.asList("$2", "$1"));
+        templates.add(Arrays.asList("$1", "$1", "-x"));
+        templates.add(Arrays.asList("$0", "$-1", "$x", "$", "$+1", "$01"));
+        templates.add(Arrays.asList("cmd", "$3", "--opt", "$1"));
+
+        List<List<String>> inputs = new ArrayList<List<String>>();
+        inputs.add(Arrays.<String> asList());
+        inputs.add(Arrays.asList("a"));
+        inputs.add(Arrays.asList("a", "b"));
+        inputs.add(Arrays.asList("a", "b", "c", "d"));
+
+        for (List<String> arguments : templates) {
+            AliasTemplate template = new AliasTemplate(new AliasMetadata("test", arguments));
+            for (List<String> input : inputs) {
+                Assert.assertEquals(template.expand(new ArrayList<String>(input)), expandReference(arguments, input),
+                        "Expansion of " + arguments + " with " + input);
+            }
+        }
+    }
+
+    @Test
+    public void alias_table_first_literal() {
+        Assert.assertEquals(new AliasTemplate(new AliasMetadata("a", Arrays.asList("b", "$1"))).getFirstLiteral(),
+                "b");
+        Assert.assertNull(new AliasTemplate(new AliasMetadata("a", Arrays.asList("$1", "b"))).getFirstLiteral());
+        Assert.assertNull(new AliasTemplate(new AliasMetadata("a", Arrays.<String> asList())).getFirstLiteral());
+    }
+
+    @Test
+    public void alias_table_lookup() {
+        List<AliasMetadata> aliases = new ArrayList<AliasMetadata>();
+        for (int i = 0; i < 500; i++) {
+            aliases.add(new AliasMetadata("alias" + i, Arrays.asList("-verbose", Integer.toString(i))));
+        }
+        aliases.add(new AliasMetadata("alias0", Arrays.asList("duplicate")));
+
+        AliasTable table = new AliasTable(aliases, true);
+        Assert.assertEquals(table.size(), 500);
+        Assert.assertEquals(table.get("alias42").getAlias().getArguments(), Arrays.asList("-verbose", "42"));
+        // First definition wins
+        Assert.assertEquals(table.get("alias0").getAlias().getArguments(), Arrays.asList("-verbose", "0"));
+        Assert.assertNull(table.get("missing"));
+        Assert.assertNull(table.get(null));
+        Assert.assertTrue(table.getCircularAliases().isEmpty());
+    }
+
+    @Test
+    public void alias_table_circular_detected_at_build() {
+        List<AliasMetadata> aliases = new ArrayList<AliasMetadata>();
+        aliases.add(new AliasMetadata("a", Arrays.asList("b")));
+        aliases.add(new AliasMetadata("b", Arrays.asList("c", "-debug")));
+        aliases.add(new AliasMetadata("c", Arrays.asList("a")));
+        aliases.add(new AliasMetadata("x", Arrays.asList("a")));
+        aliases.add(new AliasMetadata("y", Arrays.asList("$1", "a")));
+
+        AliasTable table = new AliasTable(aliases, true);
+        Assert.assertEquals(table.getCircularAliases(), Arrays.asList("a", "b", "c", "x"));
+        Assert.assertEquals(table.get("a").getCircularAlias(), "a");
+        Assert.assertEquals(table.get("a").getCircularChain(), new TreeSet<String>(Arrays.asList("a", "b", "c")));
+        Assert.assertEquals(table.get("x").getCircularAlias(), "a");
+        Assert.assertEquals(table.get("x").getCircularChain(),
+                new TreeSet<String>(Arrays.asList("a", "b", "c", "x")));
+        Assert.assertFalse(table.get("y").isCircular());
+
+        // Without chaining there can be no circular references
+        Assert.assertTrue(new AliasTable(aliases, false).getCircularAliases().isEmpty());
+    }
+
+    @Test
+    public void alias_table_circular_message() {
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                       .withCommand(Args1.class)
+                                       .withDefaultCommand(Args1.class);
+        builder.withParser()
+               .withAlias("a")
+               .withArguments("b");
+        builder.withParser()
+               .withAlias("b")
+               .withArguments("a");
+        builder.withParser()
+               .withAliasesChaining();
+        //@formatter:on
+
+        try {
+            builder.build().parse("a");
+            Assert.fail("Expected a circular reference");
+        } catch (ParseAliasCircularReferenceException e) {
+            Assert.assertEquals(e.getOffendingAlias(), "a");
+            Assert.assertEquals(e.getAliasChain(), new TreeSet<String>(Arrays.asList("a", "b")));
+        }
+    }
+
+    @Test(expectedExceptions = ParseAliasCircularReferenceException.class)
+    public void alias_table_circular_input_dependent() {
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                       .withCommand(Args1.class)
+                                       .withDefaultCommand(Args1.class);
+        builder.withParser()
+               .withAlias("a")
+               .withArguments("$1");
+        builder.withParser()
+               .withAliasesChaining();
+        //@formatter:on
+
+        // Can only be detected during resolution since it depends on the
+        // input
+        builder.build().parse("a", "a");
+    }
+}
@@ -20,6 +20,8 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -140,6 +142,35 @@ public class TestAliases {
         Assert.assertEquals(cmd.parameters.get(0), "bar");
     }
 
+    @Test
+    public void user_aliases_custom_table() throws IOException {
+        prepareConfig(f, "foo=Args1 bar");
+
+        // Sources may supply their own compiled alias table
+        final AliasTable table = new AliasTable(
+                Collections.singletonList(new AliasMetadata("foo", Arrays.asList("Args1", "custom"))), false);
+        UserAliasesSource<Args1> source = new UserAliasesSource<Args1>(f.getName(), null, "target/") {
+            @Override
+            public AliasTable getAliasTable(List<AliasMetadata> aliases, boolean aliasesMayChain) {
+                Assert.assertEquals(aliases.size(), 1);
+                return table;
+            }
+        };
+
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                            .withCommand(Args1.class);
+        builder.withParser()
+               .withUserAliases(source);
+        Cli<Args1> cli = builder.build();
+        //@formatter:on
+
+        Assert.assertSame(cli.getMetadata().getParserConfiguration().getAliasTable(), table);
+        Args1 cmd = cli.parse("foo");
+        Assert.assertEquals(cmd.parameters.size(), 1);
+        Assert.assertEquals(cmd.parameters.get(0), "custom");
+    }
+
     @Test
     public void user_aliases_02() throws IOException {
         prepareConfig(f, "a.foo=Args1 bar", "b.foo=Args1 faz");
@@ -0,0 +1,210 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.args.Args1;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.model.AliasMetadata;
+
+public class TestCachingUserAliasesSource {
+
+    private static final File BASE = new File("target/caching-aliases/");
+    private static final File HIGH = new File(BASE, "high");
+    private static final File LOW = new File(BASE, "low");
+    private static final String FILENAME = "test.config";
+
+    @BeforeMethod
+    public void setup() {
+        HIGH.mkdirs();
+        LOW.mkdirs();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        new File(HIGH, FILENAME).delete();
+        new File(LOW, FILENAME).delete();
+    }
+
+    private Map<String, List<String>> toMap(List<AliasMetadata> aliases) {
+        Map<String, List<String>> map = new HashMap<String, List<String>>();
+        for (AliasMetadata alias : aliases) {
+            Assert.assertNull(map.put(alias.getName(), alias.getArguments()), "Duplicate alias " + alias.getName());
+        }
+        return map;
+    }
+
+    private void update(File dir, String... lines) throws IOException {
+        File f = new File(dir, FILENAME);
+        long previous = f.exists() ? f.lastModified() : 0;
+        TestAliases.prepareConfig(f, lines);
+        // Ensure the modification time changes even on file systems with
+        // coarse timestamps
+        Files.setLastModifiedTime(f.toPath(), FileTime.fromMillis(Math.max(previous + 2000, f.lastModified())));
+    }
+
+    private CachingUserAliasesSource<Args1> createSource(boolean watch) throws IOException {
+        return new CachingUserAliasesSource<Args1>(watch, FILENAME, null, HIGH.getPath(), LOW.getPath());
+    }
+
+    @Test
+    public void caching_aliases_precedence() throws IOException {
+        update(HIGH, "foo=Args1 high");
+        update(LOW, "foo=Args1 low", "bar=Args1 bar");
+
+        try (CachingUserAliasesSource<Args1> source = createSource(false)) {
+            Map<String, List<String>> aliases = toMap(source.load());
+            Assert.assertEquals(aliases.size(), 2);
+            Assert.assertEquals(aliases.get("foo").get(1), "high");
+            Assert.assertEquals(aliases.get("bar").get(1), "bar");
+
+            // Same as the non-caching source
+            Assert.assertEquals(aliases, toMap(new UserAliasesSource<Args1>(FILENAME, null, HIGH.getPath(),
+                    LOW.getPath()).load()));
+        }
+    }
+
+    @Test
+    public void caching_aliases_unchanged() throws IOException {
+        update(HIGH, "foo=Args1 high");
+        update(LOW, "bar=Args1 bar");
+
+        try (CachingUserAliasesSource<Args1> source = createSource(false)) {
+            List<AliasMetadata> first = source.load();
+            List<AliasMetadata> second = source.load();
+            Assert.assertSame(second, first);
+        }
+    }
+
+    @Test
+    public void caching_aliases_incremental() throws IOException {
+        update(HIGH, "foo=Args1 high");
+        update(LOW, "foo=Args1 low", "bar=Args1 bar");
+
+        try (CachingUserAliasesSource<Args1> source = createSource(false)) {
+            source.load();
+
+            // Lower precedence change does not override higher precedence
+            update(LOW, "foo=Args1 changed", "bar=Args1 changed", "baz=Args1 new");
+            Map<String, List<String>> aliases = toMap(source.load());
+            Assert.assertEquals(aliases.size(), 3);
+            Assert.assertEquals(aliases.get("foo").get(1), "high");
+            Assert.assertEquals(aliases.get("bar").get(1), "changed");
+            Assert.assertEquals(aliases.get("baz").get(1), "new");
+
+            // Removing from higher precedence reveals the lower precedence
+            // definition
+            new File(HIGH, FILENAME).delete();
+            aliases = toMap(source.load());
+            Assert.assertEquals(aliases.size(), 3);
+            Assert.assertEquals(aliases.get("foo").get(1), "changed");
+
+            // Removing from the only file removes the alias
+            update(LOW, "foo=Args1 changed");
+            aliases = toMap(source.load());
+            Assert.assertEquals(aliases.size(), 1);
+            Assert.assertEquals(aliases.get("foo").get(1), "changed");
+        }
+    }
+
+    private boolean isUpdated(Map<String, List<String>> aliases) {
+        return aliases.size() == 2 && "changed".equals(aliases.get("foo").get(1));
+    }
+
+    @Test
+    public void caching_aliases_watched() throws IOException, InterruptedException {
+        update(HIGH, "foo=Args1 high");
+
+        try (CachingUserAliasesSource<Args1> source = createSource(true)) {
+            Assert.assertTrue(source.isWatching());
+            List<AliasMetadata> first = source.load();
+            Assert.assertEquals(toMap(first).get("foo").get(1), "high");
+
+            update(LOW, "bar=Args1 bar");
+            update(HIGH, "foo=Args1 changed");
+
+            // Watch services may deliver events asynchronously
+            Map<String, List<String>> aliases = toMap(source.load());
+            for (int i = 0; i < 300 && !isUpdated(aliases); i++) {
+                Thread.sleep(100);
+                aliases = toMap(source.load());
+            }
+            Assert.assertEquals(aliases.size(), 2);
+            Assert.assertEquals(aliases.get("bar").get(1), "bar");
+            Assert.assertEquals(aliases.get("foo").get(1), "changed");
+        }
+    }
+
+    @Test
+    public void caching_aliases_builder() throws IOException {
+        update(HIGH, "foo=Args1 high");
+
+        try (CachingUserAliasesSource<Args1> source = createSource(false)) {
+            for (int i = 0; i < 3; i++) {
+                //@formatter:off
+                CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                               .withCommand(Args1.class);
+                builder.withParser()
+                       .withUserAliases(source);
+                Cli<Args1> cli = builder.build();
+                //@formatter:on
+
+                Args1 cmd = cli.parse("foo");
+                Assert.assertEquals(cmd.parameters.size(), 1);
+                Assert.assertEquals(cmd.parameters.get(0), "high");
+            }
+        }
+    }
+
+    @Test
+    public void caching_aliases_compiled_table() throws IOException {
+        update(HIGH, "foo=Args1 high");
+
+        try (CachingUserAliasesSource<Args1> source = createSource(false)) {
+            AliasTable first = build(source).getMetadata().getParserConfiguration().getAliasTable();
+            Assert.assertSame(build(source).getMetadata().getParserConfiguration().getAliasTable(), first);
+
+            // Recompiled only once the file changes
+            update(HIGH, "foo=Args1 changed");
+            Cli<Args1> cli = build(source);
+            Assert.assertNotSame(cli.getMetadata().getParserConfiguration().getAliasTable(), first);
+            Assert.assertEquals(cli.parse("foo").parameters.get(0), "changed");
+        }
+    }
+
+    private Cli<Args1> build(CachingUserAliasesSource<Args1> source) {
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                       .withCommand(Args1.class);
+        builder.withParser()
+               .withUserAliases(source);
+        //@formatter:on
+        return builder.build();
+    }
+}
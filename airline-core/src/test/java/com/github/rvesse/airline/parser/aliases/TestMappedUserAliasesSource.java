@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.args.Args1;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.model.AliasMetadata;
+import com.github.rvesse.airline.parser.errors.ParseAliasCircularReferenceException;
+
+public class TestMappedUserAliasesSource {
+
+    private static final File BASE = new File("target/mapped-aliases/");
+    private static final File HIGH = new File(BASE, "high");
+    private static final File LOW = new File(BASE, "low");
+    private static final String FILENAME = "test.config";
+
+    @BeforeMethod
+    public void setup() {
+        HIGH.mkdirs();
+        LOW.mkdirs();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        new File(HIGH, FILENAME).delete();
+        new File(LOW, FILENAME).delete();
+    }
+
+    private void write(File dir, String content) throws IOException {
+        try (FileOutputStream output = new FileOutputStream(new File(dir, FILENAME))) {
+            output.write(content.getBytes("ISO-8859-1"));
+        }
+    }
+
+    private MappedUserAliasesSource<Args1> createSource(String prefix) {
+        return new MappedUserAliasesSource<Args1>(FILENAME, prefix, HIGH.getPath(), LOW.getPath());
+    }
+
+    @Test
+    public void mapped_aliases_same_as_properties() throws IOException {
+        //@formatter:off
+        String content = "# Comment = ignored\n"
+                       + "! Another comment \\\n"
+                       + "plain=Args1 plain\n"
+                       + "   indented   =   Args1 indented\n"
+                       + "colon:Args1 colon\n"
+                       + "space Args1 space\n"
+                       + "continued=Args1 \\\n"
+                       + "          continued\r\n"
+                       + "crlf=Args1 crlf\r\n"
+                       + "\n"
+                       + "escaped\\ key=Args1 escaped\n"
+                       + "\\u0075nicode=Args1 unicode\n"
+                       + "split\\\n"
+                       + "   key=Args1 split\n"
+                       + "empty=\n"
+                       + "duplicate=Args1 first\n"
+                       + "duplicate=Args1 last\n"
+                       + "trailing=Args1 trailing\\\\\n"
+                       + "last=Args1 last";
+        //@formatter:on
+        write(HIGH, content);
+
+        Properties properties = new Properties();
+        try (FileInputStream input = new FileInputStream(new File(HIGH, FILENAME))) {
+            properties.load(input);
+        }
+        Assert.assertEquals(properties.size(), 13);
+
+        MappedUserAliasesSource<Args1> source = createSource(null);
+        Assert.assertEquals(source.getIndexedCount(), 14);
+        for (String key : properties.stringPropertyNames()) {
+            AliasMetadata alias = source.lookup(key);
+            Assert.assertNotNull(alias, "Missing alias " + key);
+            Assert.assertEquals(alias.getArguments(), source.createAlias(key, properties.getProperty(key)).getArguments());
+        }
+        Assert.assertNull(source.lookup("Comment"));
+        Assert.assertNull(source.lookup("Another"));
+        Assert.assertNull(source.lookup("missing"));
+    }
+
+    @Test
+    public void mapped_aliases_lazy() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            content.append("alias.a").append(i).append("=Args1 ").append(i).append('\n');
+            content.append("other").append(i).append("=ignored\n");
+        }
+        write(HIGH, content.toString());
+
+        MappedUserAliasesSource<Args1> source = createSource("alias.");
+        Assert.assertEquals(source.getIndexedCount(), 20000);
+        Assert.assertEquals(source.getDecodedCount(), 0);
+
+        AliasMetadata alias = source.lookup("a1234");
+        Assert.assertNotNull(alias);
+        Assert.assertEquals(alias.getArguments().get(1), "1234");
+        Assert.assertSame(source.lookup("a1234"), alias);
+        Assert.assertNull(source.lookup("other1234"));
+        Assert.assertEquals(source.getDecodedCount(), 1);
+
+        // Explicit load still provides every alias
+        Assert.assertEquals(source.load().size(), 10000);
+    }
+
+    @Test
+    public void mapped_aliases_precedence() throws IOException {
+        write(HIGH, "foo=Args1 high\n");
+        write(LOW, "foo=Args1 low\nbar=Args1 bar\n");
+
+        MappedUserAliasesSource<Args1> source = createSource(null);
+        Assert.assertEquals(source.lookup("foo").getArguments().get(1), "high");
+        Assert.assertEquals(source.lookup("bar").getArguments().get(1), "bar");
+    }
+
+    @Test
+    public void mapped_aliases_missing_files() {
+        MappedUserAliasesSource<Args1> source = createSource(null);
+        Assert.assertEquals(source.getIndexedCount(), 0);
+        Assert.assertNull(source.lookup("foo"));
+    }
+
+    @Test
+    public void mapped_aliases_parser() throws IOException {
+        write(HIGH, "foo=Args1 high\nchained=foo chained\n");
+
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                       .withCommand(Args1.class);
+        builder.withParser()
+               .withAlias("foo").withArguments("Args1", "explicit");
+        builder.withParser()
+               .withAlias("bar").withArguments("Args1", "explicit");
+        builder.withParser()
+               .withAliasesChaining()
+               .withUserAliases(createSource(null));
+        Cli<Args1> cli = builder.build();
+        //@formatter:on
+
+        // Lazily looked up aliases are not listed
+        Assert.assertEquals(cli.getMetadata().getParserConfiguration().getAliases().size(), 2);
+
+        // User aliases override explicit aliases
+        Args1 cmd = cli.parse("foo");
+        Assert.assertEquals(cmd.parameters.size(), 1);
+        Assert.assertEquals(cmd.parameters.get(0), "high");
+
+        cmd = cli.parse("bar");
+        Assert.assertEquals(cmd.parameters.get(0), "explicit");
+
+        cmd = cli.parse("chained");
+        Assert.assertEquals(cmd.parameters.size(), 2);
+        Assert.assertEquals(cmd.parameters.get(0), "high");
+        Assert.assertEquals(cmd.parameters.get(1), "chained");
+    }
+
+    @Test(expectedExceptions = ParseAliasCircularReferenceException.class)
+    public void mapped_aliases_circular() throws IOException {
+        write(HIGH, "foo=bar\nbar=foo\n");
+
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                       .withCommand(Args1.class);
+        builder.withParser()
+               .withAliasesChaining()
+               .withUserAliases(createSource(null));
+        Cli<Args1> cli = builder.build();
+        //@formatter:on
+
+        cli.parse("foo");
+    }
+
+    @Test
+    public void mapped_aliases_remapped_on_change() throws IOException {
+        write(HIGH, "foo=Args1 before\n");
+        File f = new File(HIGH, FILENAME);
+        MappedUserAliasesSource<Args1> source = new MappedUserAliasesSource<Args1>(0, FILENAME, null,
+                HIGH.getPath(), LOW.getPath());
+        Assert.assertEquals(source.lookup("foo").getArguments().get(1), "before");
+        Assert.assertNull(source.lookup("bar"));
+        Assert.assertNull(source.lookup("baz"));
+        // Only hits are cached
+        Assert.assertEquals(source.getDecodedCount(), 1);
+
+        write(HIGH, "foo=Args1 after changed\nbar=Args1 bar\n");
+        f.setLastModified(f.lastModified() + 2000);
+        Assert.assertEquals(source.lookup("foo").getArguments().get(1), "after");
+        Assert.assertEquals(source.lookup("bar").getArguments().get(1), "bar");
+
+        Assert.assertTrue(f.delete());
+        Assert.assertNull(source.lookup("foo"));
+        Assert.assertFalse(source.hasAliases());
+    }
+
+    @Test
+    public void mapped_aliases_truncated() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            content.append("a").append(i).append("=Args1 ").append(i).append('\n');
+        }
+        write(HIGH, content.toString());
+        MappedUserAliasesSource<Args1> source = new MappedUserAliasesSource<Args1>(Long.MAX_VALUE, FILENAME, null,
+                HIGH.getPath(), LOW.getPath());
+        Assert.assertNotNull(source.lookup("a1"));
+
+        // Truncating a mapped file is detected before it is read
+        try (RandomAccessFile file = new RandomAccessFile(new File(HIGH, FILENAME), "rw")) {
+            file.setLength(0);
+        }
+        Assert.assertNull(source.lookup("a9999"));
+        Assert.assertNull(source.lookup("a1"));
+        Assert.assertEquals(source.getIndexedCount(), 0);
+    }
+
+    @Test
+    public void mapped_aliases_table_empty() throws IOException {
+        AliasTable table = new AliasTable(Collections.<AliasMetadata> emptyList(), false,
+                createSource(null));
+        Assert.assertTrue(table.isEmpty());
+
+        write(HIGH, "foo=Args1 foo\n");
+        table = new AliasTable(Collections.<AliasMetadata> emptyList(), false, createSource(null));
+        Assert.assertFalse(table.isEmpty());
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors.handlers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.args.ArgsRequired;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.ParseErrorAggregate;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.restrictions.ManyRestricted;
+
+public class TestCollectBounded {
+
+    private static final int FILES = 1000;
+
+    private ParseResult<ManyRestricted> parse(ParserErrorHandler handler) {
+        List<String> args = new ArrayList<String>();
+        for (int i = 0; i < FILES; i++) {
+            args.add("--file");
+            args.add("target/no-such-dir/missing" + i);
+        }
+        SingleCommand<ManyRestricted> parser = SingleCommand.singleCommand(ManyRestricted.class,
+                new ParserBuilder<ManyRestricted>().withErrorHandler(handler).build());
+        return parser.parseWithResult(args);
+    }
+
+    @Test
+    public void collect_bounded_limits() {
+        ParseResult<ManyRestricted> result = parse(new CollectBounded(5, 3));
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getErrors().size(), 5);
+        Assert.assertTrue(result.getErrorCount() > FILES, "Expected more than " + FILES + " errors");
+
+        // Every path error is aggregated under the same option
+        ParseErrorAggregate files = result.getErrorsByOption().get("files");
+        Assert.assertNotNull(files);
+        Assert.assertEquals(files.getCount(), FILES);
+        Assert.assertEquals(files.getSamples().size(), 3);
+        for (ParseException e : files.getSamples()) {
+            Assert.assertTrue(e.getMessage().contains("missing"), e.getMessage());
+        }
+
+        for (ParseErrorAggregate aggregate : result.getErrorsByType().values()) {
+            Assert.assertTrue(aggregate.getSamples().size() <= 3);
+        }
+        Assert.assertTrue(result.getErrorsByType().get(ParseRestrictionViolatedException.class).getCount() >= FILES);
+    }
+
+    @Test
+    public void collect_bounded_same_as_collect_all() {
+        ParseResult<ManyRestricted> bounded = parse(new CollectBounded(0, 1));
+        ParseResult<ManyRestricted> all = parse(new CollectAll(true));
+
+        Assert.assertFalse(bounded.wasSuccessful());
+        Assert.assertTrue(bounded.getErrors().isEmpty());
+        Assert.assertEquals(bounded.getErrorCount(), all.getErrors().size());
+        Assert.assertEquals(all.getErrorCount(), all.getErrors().size());
+
+        Assert.assertEquals(bounded.getErrorsByType().keySet(), all.getErrorsByType().keySet());
+        for (Map.Entry<Class<? extends ParseException>, ParseErrorAggregate> e : all.getErrorsByType().entrySet()) {
+            Assert.assertEquals(bounded.getErrorsByType().get(e.getKey()).getCount(), e.getValue().getCount());
+            Assert.assertEquals(e.getValue().getSamples().size(), e.getValue().getCount());
+        }
+        Assert.assertEquals(bounded.getErrorsByOption().keySet(), all.getErrorsByOption().keySet());
+        for (Map.Entry<String, ParseErrorAggregate> e : all.getErrorsByOption().entrySet()) {
+            Assert.assertEquals(bounded.getErrorsByOption().get(e.getKey()).getCount(), e.getValue().getCount());
+        }
+        // Required options are reported per option
+        Assert.assertEquals(all.getErrorsByOption().get("--a").getCount(), 1);
+    }
+
+    @Test
+    public void collect_bounded_reusable() {
+        CollectBounded handler = new CollectBounded(1, 1);
+        SingleCommand<ArgsRequired> parser = SingleCommand.singleCommand(ArgsRequired.class,
+                new ParserBuilder<ArgsRequired>().withErrorHandler(handler).build());
+        for (int i = 0; i < 2; i++) {
+            ParseResult<ArgsRequired> result = parser.parseWithResult();
+            Assert.assertFalse(result.wasSuccessful());
+            Assert.assertEquals(result.getErrorCount(), 1);
+            Assert.assertEquals(result.getErrors().size(), 1);
+        }
+    }
+
+    @Test
+    public void collect_bounded_successful() {
+        SingleCommand<ArgsRequired> parser = SingleCommand.singleCommand(ArgsRequired.class,
+                new ParserBuilder<ArgsRequired>().withErrorHandler(new CollectBounded()).build());
+        ParseResult<ArgsRequired> result = parser.parseWithResult("foo");
+        Assert.assertTrue(result.wasSuccessful());
+        Assert.assertEquals(result.getErrorCount(), 0);
+        Assert.assertTrue(result.getErrorsByType().isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void collect_bounded_bad_samples_01() {
+        new CollectBounded(10, 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void collect_bounded_bad_samples_02() {
+        new ParserBuilder<ArgsRequired>().withErrorHandler(new CollectBounded(10, -1)).build();
+    }
+}
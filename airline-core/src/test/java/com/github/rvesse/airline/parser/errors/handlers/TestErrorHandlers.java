@@ -15,6 +15,8 @@
  */
 package com.github.rvesse.airline.parser.errors.handlers;
 
+import java.util.Iterator;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -24,6 +26,9 @@ import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseOptionOutOfRangeException;
+import com.github.rvesse.airline.parser.errors.ParsePatternMismatchException;
+import com.github.rvesse.airline.parser.errors.ParseValueLengthException;
 import com.github.rvesse.airline.restrictions.Strings;
 
 public class TestErrorHandlers {
@@ -82,4 +87,78 @@ public class TestErrorHandlers {
         Strings cmd = result.getCommand();
         Assert.assertFalse(cmd.helpOption.showHelpIfErrors(result));
     }
+
+    @Test
+    public void errorHandlerCollectAllStackless() {
+        ParseResult<Strings> result = SingleCommand
+                .<Strings> singleCommand(Strings.class, this.<Strings> prepareParser(new CollectAll(true)))
+                .parseWithResult("--not-empty", "", "--not-blank", "  ");
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getErrors().size(), 2);
+        for (ParseException e : result.getErrors()) {
+            Assert.assertEquals(e.getStackTrace().length, 0);
+            Assert.assertNotNull(e.getMessage());
+        }
+
+        // Stackless mode only applies while parsing
+        Assert.assertFalse(ParseException.isStacklessMode());
+        Assert.assertTrue(new ParseException("test").getStackTrace().length > 0);
+    }
+
+    @Test
+    public void errorHandlerCollectAllStacks() {
+        ParseResult<Strings> result = SingleCommand
+                .<Strings> singleCommand(Strings.class, this.<Strings> prepareParser(new CollectAll()))
+                .parseWithResult("--not-empty", "");
+        Assert.assertEquals(result.getErrors().size(), 1);
+        Assert.assertTrue(result.getErrors().iterator().next().getStackTrace().length > 0);
+    }
+
+    @Test
+    public void errorLazyMessage() {
+        ParseException e = new ParseException("Value %s is %d", "foo", 3);
+        Assert.assertEquals(e.getMessageFormat(), "Value %s is %d");
+        Assert.assertEquals(e.getMessageArguments(), new Object[] { "foo", 3 });
+        Assert.assertEquals(e.getMessage(), "Value foo is 3");
+        Assert.assertSame(e.getMessage(), e.getMessage());
+    }
+
+    @Test
+    public void errorOutOfRangeMessage() {
+        ParseException e = new ParseOptionOutOfRangeException("port", 0, 1, true, 65535, true);
+        // Format and arguments are those actually used to produce the message
+        Assert.assertEquals(e.getMessageArguments().length, 3);
+        Assert.assertEquals(e.getMessage(), String.format(e.getMessageFormat(), e.getMessageArguments()));
+        Assert.assertEquals(e.getMessage(),
+                "Value for option 'port' was given as '0' which is not in the acceptable range: 1 <= value <= 65535");
+    }
+
+    @Test
+    public void errorStructuredRestrictions() {
+        ParseResult<Strings> result = SingleCommand
+                .<Strings> singleCommand(Strings.class, this.<Strings> prepareParser(new CollectAll()))
+                .parseWithResult("--max", "toolong", "--tel", "foo");
+        Assert.assertEquals(result.getErrors().size(), 2);
+        Iterator<ParseException> errors = result.getErrors().iterator();
+
+        ParseException e = errors.next();
+        Assert.assertTrue(e instanceof ParseValueLengthException);
+        ParseValueLengthException length = (ParseValueLengthException) e;
+        Assert.assertEquals(length.getIllegalValue(), "toolong");
+        Assert.assertEquals(length.getLength(), 4);
+        Assert.assertTrue(length.isMaximum());
+        Assert.assertEquals(length.getOptionTitle(), "maxLength");
+        Assert.assertTrue(length.getMessage().contains("has length 7"));
+
+        e = errors.next();
+        Assert.assertTrue(e instanceof ParsePatternMismatchException);
+        ParsePatternMismatchException pattern = (ParsePatternMismatchException) e;
+        Assert.assertEquals(pattern.getIllegalValue(), "foo");
+        Assert.assertEquals(pattern.getPattern().pattern(), "(\\+1-)?\\d{3}-\\d{3}-\\d{4}");
+        Assert.assertEquals(pattern.getOptionTitle(), "tel");
+
+        // Option context only applies while validating
+        Assert.assertNull(ParseException.getOptionContext());
+        Assert.assertNull(new ParseException("test").getOptionTitle());
+    }
 }
@@ -0,0 +1,221 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.results;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.args.Args1;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+
+public class TestParseResultView {
+
+    private ParseResultView<Args1> parse(String... args) {
+        ParseResult<Args1> result = SingleCommand.singleCommand(Args1.class).parseWithResult(args);
+        Assert.assertTrue(result.wasSuccessful());
+        Assert.assertSame(result.getView(), result.getView());
+        return result.getView();
+    }
+
+    @Test
+    public void view_index() {
+        ParseResultView<Args1> view = parse("-log", "2", "-groups", "a", "-debug", "-long", "-5", "-double", "1.5",
+                "-groups", "b", "x", "y");
+        Assert.assertEquals(view.getCommand().getName(), "Args1");
+        Assert.assertEquals(view.getOptionCount(), view.getCommand().getAllOptions().size());
+
+        int log = view.indexOf("-log");
+        Assert.assertEquals(view.indexOf("-verbose"), log);
+        Assert.assertEquals(view.indexOf(view.getOption(log)), log);
+        Assert.assertEquals(view.getValueCount(log), 1);
+        Assert.assertEquals(view.getLongValue(log, 0), 2);
+        Assert.assertEquals(view.getLongValue(view.indexOf("-long"), 0), -5);
+        Assert.assertEquals(view.getDoubleValue(view.indexOf("-double"), 0), 1.5);
+        Assert.assertTrue(view.getBooleanValue(view.indexOf("-debug"), 0));
+
+        // Repeated options keep all values in order
+        int groups = view.indexOf("-groups");
+        Assert.assertEquals(view.getValueCount(groups), 2);
+        Assert.assertEquals(view.getValue(groups, 0), "a");
+        Assert.assertEquals(view.getValue(groups, 1), "b");
+
+        Assert.assertFalse(view.isPresent(view.indexOf("-float")));
+        Assert.assertEquals(view.indexOf("-missing"), -1);
+
+        Assert.assertEquals(view.getArgumentCount(), 2);
+        Assert.assertEquals(view.getArgument(1), "y");
+        Assert.assertEquals(view.getUnparsedCount(), 0);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void view_index_out_of_range() {
+        ParseResultView<Args1> view = parse("-log", "2");
+        view.getValue(view.indexOf("-log"), 1);
+    }
+
+    @Test
+    public void view_visitor() {
+        ParseResultView<Args1> view = parse("-groups", "a", "-groups", "b", "x");
+        final List<String> events = new ArrayList<String>();
+        view.accept(new ParseResultVisitor() {
+
+            @Override
+            public void visitCommand(GlobalMetadata<?> global, CommandGroupMetadata group, CommandMetadata command) {
+                events.add("command " + command.getName());
+            }
+
+            @Override
+            public void visitOption(OptionMetadata option, int optionIndex, int valueCount) {
+                events.add("option " + option.getTitle() + " " + valueCount);
+            }
+
+            @Override
+            public void visitOptionValue(OptionMetadata option, int valueIndex, Object value) {
+                events.add("value " + valueIndex + " " + value);
+            }
+
+            @Override
+            public void visitArgument(ArgumentsMetadata arguments, int index, Object value) {
+                events.add("argument " + index + " " + value);
+            }
+
+            @Override
+            public void visitUnparsed(int index, String input) {
+                events.add("unparsed " + input);
+            }
+
+            @Override
+            public void visitEnd() {
+                events.add("end");
+            }
+        });
+        Assert.assertEquals(events.toString(),
+                "[command Args1, option groups 2, value 0 a, value 1 b, argument 0 x, end]");
+    }
+
+    @Test
+    public void view_json() {
+        ParseResultView<Args1> view = parse("-groups", "a\"b\\c\n", "-log", "3", "-double", "0.5", "-debug", "x");
+        String json = new JsonResultWriter().toJson(view);
+        Assert.assertTrue(json.startsWith("{\"cli\":null,\"group\":null,\"command\":\"Args1\",\"options\":["), json);
+        Assert.assertTrue(json.endsWith("],\"arguments\":[\"x\"],\"unparsed\":[]}"), json);
+        Assert.assertTrue(json.contains("{\"title\":\"groups\",\"names\":[\"-groups\"],\"values\":[\"a\\\"b\\\\c\\n\"]}"),
+                json);
+        Assert.assertTrue(json.contains("\"title\":\"verbose\",\"names\":[\"-log\",\"-verbose\"],\"values\":[3]"),
+                json);
+        Assert.assertTrue(json.contains("\"title\":\"doub\",\"names\":[\"-double\"],\"values\":[0.5]"), json);
+        Assert.assertTrue(json.contains("\"title\":\"debug\",\"names\":[\"-debug\"],\"values\":[true]"), json);
+    }
+
+    @Command(name = "shared")
+    public static class SharedTitles {
+        @Option(name = "-a", title = "value")
+        public String a;
+
+        @Option(name = "-b", title = "value")
+        public String b;
+    }
+
+    @Test
+    public void view_json_shared_titles() {
+        ParseResult<SharedTitles> result = SingleCommand.singleCommand(SharedTitles.class)
+                .parseWithResult("-a", "1", "-b", "2");
+        ParseResultView<SharedTitles> view = result.getView();
+        Assert.assertEquals(view.getValue(view.indexOf("-a"), 0), "1");
+        Assert.assertEquals(view.getValue(view.indexOf("-b"), 0), "2");
+
+        // Both options are written even though they share a title
+        String json = new JsonResultWriter().toJson(view);
+        Assert.assertTrue(json.contains("\"options\":[{\"title\":\"value\",\"names\":[\"-a\"],\"values\":[\"1\"]},"
+                + "{\"title\":\"value\",\"names\":[\"-b\"],\"values\":[\"2\"]}]"), json);
+    }
+
+    private static long readVarint(InputStream input) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = input.read();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = (int) readVarint(input);
+        if (length == 0)
+            return null;
+        byte[] bytes = new byte[length - 1];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void view_binary() throws IOException {
+        ParseResultView<Args1> view = parse("-long", "-300", "-groups", "g", "x", "y");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BinaryResultWriter().write(view, output);
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(output.toByteArray()));
+        Assert.assertEquals(input.read(), 'A');
+        Assert.assertEquals(input.read(), 'R');
+        Assert.assertEquals(input.read(), BinaryResultWriter.VERSION);
+        Assert.assertNull(readString(input));
+        Assert.assertNull(readString(input));
+        Assert.assertEquals(readString(input), "Args1");
+
+        Assert.assertEquals(readVarint(input), 2);
+        for (int i = 0; i < 2; i++) {
+            String title = readString(input);
+            Assert.assertEquals(readVarint(input), 1);
+            if (title.equals("l")) {
+                Assert.assertEquals(input.read(), BinaryResultWriter.INTEGRAL);
+                long zigzag = readVarint(input);
+                Assert.assertEquals((zigzag >>> 1) ^ -(zigzag & 1), -300);
+            } else {
+                Assert.assertEquals(title, "groups");
+                Assert.assertEquals(input.read(), BinaryResultWriter.STRING);
+                Assert.assertEquals(readString(input), "g");
+            }
+        }
+
+        Assert.assertEquals(readVarint(input), 2);
+        Assert.assertEquals(input.read(), BinaryResultWriter.STRING);
+        Assert.assertEquals(readString(input), "x");
+        Assert.assertEquals(input.read(), BinaryResultWriter.STRING);
+        Assert.assertEquals(readString(input), "y");
+        Assert.assertEquals(readVarint(input), 0);
+        Assert.assertEquals(input.read(), -1);
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.suggester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.parser.errors.ParseArgumentsUnexpectedException;
+import com.github.rvesse.airline.parser.errors.ParseCommandUnrecognizedException;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+public class TestNearMisses {
+
+    @Command(name = "status")
+    public static class Status implements Runnable {
+        @Option(name = { "-v", "--verbose" })
+        public boolean verbose;
+
+        @Option(name = "--quiet")
+        public boolean quiet;
+
+        @Option(name = "--verbatim", hidden = true)
+        public boolean verbatim;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Command(name = "checkout")
+    public static class Checkout extends Status {
+    }
+
+    @Command(name = "checkin", hidden = true)
+    public static class Checkin extends Status {
+    }
+
+    @Command(name = "commit")
+    public static class Commit extends Status {
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cli<Runnable> createCli() {
+        return Cli.<Runnable> builder("test").withCommands(Status.class, Checkout.class, Checkin.class, Commit.class)
+                .build();
+    }
+
+    @Test
+    public void near_misses_unrecognized_command() {
+        try {
+            createCli().parse("chekout");
+            Assert.fail("Expected an unrecognized command error");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertEquals(e.getMessage(), "Command 'chekout' not recognized");
+            Assert.assertEquals(e.getSuggestions(), Arrays.asList("checkout"));
+        }
+    }
+
+    @Test
+    public void near_misses_unrecognized_command_none() {
+        try {
+            createCli().parse("frobnicate");
+            Assert.fail("Expected an unrecognized command error");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertTrue(e.getSuggestions().isEmpty());
+        }
+    }
+
+    @Test
+    public void near_misses_unexpected_option() {
+        try {
+            createCli().parse("status", "--verbsoe");
+            Assert.fail("Expected an unexpected arguments error");
+        } catch (ParseArgumentsUnexpectedException e) {
+            Assert.assertEquals(e.getSuggestions(), Arrays.asList("--verbose"));
+        }
+    }
+
+    @Test
+    public void near_misses_rebuilt_on_change() {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("test").withCommand(Status.class);
+        builder.withGroup("remote").withCommand(Status.class);
+        Cli<Runnable> cli = builder.build();
+        GlobalMetadata<Runnable> global = cli.getMetadata();
+        Assert.assertEquals(suggest(cli, "chekout"), Collections.emptyList());
+        Assert.assertNotNull(global.getAttachment(NearMisses.class));
+
+        // Adding a command to the group rebuilds its index
+        global.getCommandGroups().get(0).addCommand(MetadataLoader.loadCommand(Checkout.class));
+        Assert.assertEquals(suggest(cli, "chekout"), Arrays.asList("checkout"));
+    }
+
+    private List<String> suggest(Cli<Runnable> cli, String input) {
+        try {
+            cli.parse("remote", input);
+            Assert.fail("Expected a parser error");
+            return null;
+        } catch (ParseException e) {
+            return e.getSuggestions();
+        }
+    }
+
+    @Test
+    public void near_misses_ranked() {
+        NameIndex index = new NameIndex(Arrays.asList("commit", "comment", "command", "compile", "status"));
+        Assert.assertEquals(index.find("commnd", 2, 5, 0), Arrays.asList("command", "comment", "commit"));
+        Assert.assertEquals(index.find("commnd", 2, 1, 0), Arrays.asList("command"));
+        Assert.assertEquals(index.find("commnd", 0, 5, 0), Collections.emptyList());
+    }
+
+    @Test
+    public void near_misses_index_same_as_scan() {
+        Random random = new Random(42);
+        Set<String> names = new LinkedHashSet<String>();
+        while (names.size() < 1000) {
+            names.add(randomName(random));
+        }
+        NameIndex index = new NameIndex(names);
+        Assert.assertEquals(index.size(), names.size());
+
+        for (int i = 0; i < 100; i++) {
+            String query = randomName(random);
+            List<String> expected = new ArrayList<String>();
+            for (String name : names) {
+                if (NameIndex.distance(query, name) <= 2)
+                    expected.add(name);
+            }
+            List<String> actual = index.find(query, 2, Integer.MAX_VALUE, 0);
+            Assert.assertEquals(actual.size(), expected.size(), query);
+            Assert.assertTrue(actual.containsAll(expected), query);
+        }
+    }
+
+    @Test
+    public void near_misses_distance() {
+        Assert.assertEquals(NameIndex.distance("", "abc"), 3);
+        Assert.assertEquals(NameIndex.distance("kitten", "sitting"), 3);
+        Assert.assertEquals(NameIndex.distance("sitting", "kitten"), 3);
+        Assert.assertEquals(NameIndex.distance("same", "same"), 0);
+    }
+
+    private static String randomName(Random random) {
+        char[] chars = new char[3 + random.nextInt(6)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(6));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.util.List;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.Parser;
+import com.github.rvesse.airline.annotations.restrictions.MutuallyExclusiveWith;
+import com.github.rvesse.airline.annotations.restrictions.Path;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.annotations.restrictions.RequiredOnlyIf;
+
+@Command(name = "many")
+@Parser(validationParallelism = 4)
+public class ManyRestricted {
+
+    @Option(name = "--a")
+    @Required
+    public String a;
+
+    @Option(name = "--b")
+    @Required
+    public String b;
+
+    @Option(name = "--c")
+    @Required
+    public String c;
+
+    @Option(name = "--d")
+    @Required
+    public String d;
+
+    @Option(name = "--e")
+    @Required
+    public String e;
+
+    @Option(name = "--f")
+    @Required
+    public String f;
+
+    @Option(name = "--x")
+    @MutuallyExclusiveWith(tag = "xy")
+    public boolean x;
+
+    @Option(name = "--y")
+    @MutuallyExclusiveWith(tag = "xy")
+    public boolean y;
+
+    @Option(name = "--only-if")
+    @RequiredOnlyIf(names = { "--x" })
+    public String onlyIf;
+
+    @Option(name = "--file")
+    @Path(mustExist = true, deferred = true)
+    public List<String> files;
+
+    @Arguments
+    @Required
+    public List<String> args;
+}
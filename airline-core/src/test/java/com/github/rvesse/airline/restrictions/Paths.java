@@ -15,6 +15,8 @@
  */
 package com.github.rvesse.airline.restrictions;
 
+import java.util.List;
+
 import com.github.rvesse.airline.annotations.Command;
 import com.github.rvesse.airline.annotations.Option;
 import com.github.rvesse.airline.annotations.restrictions.PathKind;
@@ -50,4 +52,12 @@ public class Paths {
     @Option(name = "--any", arity = 1)
     @Path(mustExist = false, readable = false, writable = false, executable = false, kind = PathKind.ANY)
     public String anyPath;
+
+    @Option(name = "--deferred", arity = 1)
+    @Path(mustExist = true, kind = PathKind.FILE, deferred = true)
+    public List<String> deferred;
+
+    @Option(name = "--parallel", arity = 1)
+    @Path(mustExist = true, kind = PathKind.FILE, deferred = true, parallelism = 4)
+    public List<String> parallel;
 }
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+
+public class TestParallelValidation {
+
+    private static final String[] ARGS = { "--b", "value", "--x", "--y", "--file", "no-such-file-1", "--file",
+            "no-such-file-2" };
+
+    private List<String> collectErrors(ParserMetadata<ManyRestricted> config, String... args) {
+        ParseResult<ManyRestricted> result = SingleCommand.singleCommand(ManyRestricted.class, config)
+                .parseWithResult(args);
+        Assert.assertFalse(result.wasSuccessful());
+        List<String> errors = new ArrayList<String>();
+        for (ParseException e : result.getErrors()) {
+            errors.add(e.getMessage());
+        }
+        return errors;
+    }
+
+    private String failFast(ParserMetadata<ManyRestricted> config, String... args) {
+        try {
+            SingleCommand.singleCommand(ManyRestricted.class, config).parse(args);
+        } catch (ParseException e) {
+            return e.getMessage();
+        }
+        Assert.fail("Expected a parse error");
+        return null;
+    }
+
+    @Test
+    public void parallel_validation_annotation() {
+        ParserMetadata<ManyRestricted> config = SingleCommand.singleCommand(ManyRestricted.class)
+                .getParserConfiguration();
+        Assert.assertEquals(config.getValidationParallelism(), 4);
+        Assert.assertNotNull(config.getValidationExecutor());
+    }
+
+    @Test
+    public void parallel_validation_sequential_by_default() {
+        ParserMetadata<ManyRestricted> config = new ParserBuilder<ManyRestricted>().build();
+        Assert.assertEquals(config.getValidationParallelism(), 1);
+        Assert.assertNull(config.getValidationExecutor());
+    }
+
+    @Test
+    public void parallel_validation_collect_all_order() {
+        List<String> expected = collectErrors(
+                new ParserBuilder<ManyRestricted>().withErrorHandler(new CollectAll()).build(), ARGS);
+        Assert.assertTrue(expected.size() > 5, "Expected errors for many restrictions");
+
+        ParserMetadata<ManyRestricted> parallel = new ParserBuilder<ManyRestricted>()
+                .withErrorHandler(new CollectAll()).withParallelValidation(4).build();
+        for (int i = 0; i < 25; i++) {
+            Assert.assertEquals(collectErrors(parallel, ARGS), expected);
+        }
+    }
+
+    @Test
+    public void parallel_validation_fail_fast_order() {
+        String expected = failFast(new ParserBuilder<ManyRestricted>().build(), ARGS);
+
+        ParserMetadata<ManyRestricted> parallel = new ParserBuilder<ManyRestricted>().withParallelValidation(4)
+                .build();
+        for (int i = 0; i < 25; i++) {
+            Assert.assertEquals(failFast(parallel, ARGS), expected);
+        }
+    }
+
+    @Test
+    public void parallel_validation_shutdown() {
+        ParserMetadata<ManyRestricted> parallel = new ParserBuilder<ManyRestricted>()
+                .withErrorHandler(new CollectAll()).withParallelValidation(4).build();
+        ParserMetadata<ManyRestricted> copy = parallel.withErrorHandler(new CollectAll());
+        ExecutorService executor = parallel.getValidationExecutor();
+        Assert.assertSame(copy.getValidationExecutor(), executor);
+
+        // Shutting down releases the pool for all copies and a new pool is
+        // created on next use
+        copy.shutdownValidationExecutor();
+        Assert.assertTrue(executor.isShutdown());
+        ExecutorService replacement = parallel.getValidationExecutor();
+        Assert.assertNotSame(replacement, executor);
+        Assert.assertFalse(replacement.isShutdown());
+        parallel.shutdownValidationExecutor();
+    }
+
+    @Test
+    public void parallel_validation_custom_executor() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ParserMetadata<ManyRestricted> parallel = new ParserBuilder<ManyRestricted>()
+                    .withErrorHandler(new CollectAll()).withParallelValidation(executor).build();
+            Assert.assertSame(parallel.getValidationExecutor(), executor);
+
+            List<String> expected = collectErrors(
+                    new ParserBuilder<ManyRestricted>().withErrorHandler(new CollectAll()).build(), ARGS);
+            Assert.assertEquals(collectErrors(parallel, ARGS), expected);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void parallel_validation_success() {
+        ParserMetadata<ManyRestricted> parallel = new ParserBuilder<ManyRestricted>().withParallelValidation(4)
+                .build();
+        ManyRestricted cmd = SingleCommand.singleCommand(ManyRestricted.class, parallel).parse("--a", "1", "--b",
+                "2", "--c", "3", "--d", "4", "--e", "5", "--f", "6", "arg");
+        Assert.assertEquals(cmd.f, "6");
+        Assert.assertEquals(cmd.args.size(), 1);
+    }
+}
@@ -20,13 +20,20 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
 
 public class TestPathRestriction {
 
@@ -286,4 +293,163 @@ public class TestPathRestriction {
         Assert.assertTrue(usage.contains("must be executable"));
         Assert.assertTrue(usage.contains("must exist"));
     }
+
+    private List<File> createFiles(int count) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            File f = new File("target/deferred-paths-" + i + ".txt");
+            try (FileWriter writer = new FileWriter(f)) {
+                writer.append("test");
+            }
+            files.add(f);
+        }
+        return files;
+    }
+
+    private void deleteFiles(List<File> files) {
+        for (File f : files) {
+            if (f.exists())
+                f.delete();
+        }
+    }
+
+    private void path_restriction_deferred_valid(String option) throws IOException {
+        path_restriction_deferred_valid(option, new ParserBuilder<Paths>().build());
+    }
+
+    private void path_restriction_deferred_valid(String option, ParserMetadata<Paths> config) throws IOException {
+        List<File> files = createFiles(20);
+        try {
+            List<String> args = new ArrayList<>();
+            for (File f : files) {
+                args.add(option);
+                args.add(f.getPath());
+            }
+            SingleCommand<Paths> parser = SingleCommand.<Paths> singleCommand(Paths.class, config);
+            Paths cmd = parser.parse(args);
+            Assert.assertEquals(option.equals("--deferred") ? cmd.deferred.size() : cmd.parallel.size(), 20);
+        } finally {
+            deleteFiles(files);
+        }
+    }
+
+    private void path_restriction_deferred_invalid(String option) throws IOException {
+        path_restriction_deferred_invalid(option, new ParserBuilder<Paths>());
+    }
+
+    private void path_restriction_deferred_invalid(String option, ParserBuilder<Paths> builder) throws IOException {
+        List<File> files = createFiles(10);
+        try {
+            // Interleave some non-existent files and directories
+            List<String> args = new ArrayList<>();
+            List<String> invalid = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                args.add(option);
+                args.add(files.get(i).getPath());
+                if (i % 3 == 0) {
+                    String missing = "target/no-such-dir/missing-" + i + ".txt";
+                    args.add(option);
+                    args.add(missing);
+                    invalid.add(missing);
+                }
+            }
+            args.add(option);
+            args.add("target");
+            invalid.add("target");
+
+            SingleCommand<Paths> parser = SingleCommand.<Paths> singleCommand(Paths.class,
+                    builder.withErrorHandler(new CollectAll()).build());
+            ParseResult<Paths> result = parser.parseWithResult(args);
+            Assert.assertFalse(result.wasSuccessful());
+            Assert.assertEquals(result.getErrors().size(), invalid.size());
+
+            // Errors reported in the order values were given
+            int i = 0;
+            for (ParseException e : result.getErrors()) {
+                Assert.assertTrue(e.getMessage().contains("'" + invalid.get(i) + "'"), e.getMessage());
+                i++;
+            }
+        } finally {
+            deleteFiles(files);
+        }
+    }
+
+    @Test
+    public void path_restriction_deferred_01() throws IOException {
+        path_restriction_deferred_valid("--deferred");
+    }
+
+    @Test
+    public void path_restriction_deferred_02() throws IOException {
+        path_restriction_deferred_invalid("--deferred");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void path_restriction_deferred_03() throws IOException {
+        SingleCommand<Paths> parser = SingleCommand.<Paths> singleCommand(Paths.class);
+        parser.parse("--deferred", "target/paths.txt");
+    }
+
+    @Test
+    public void path_restriction_parallel_01() throws IOException {
+        path_restriction_deferred_valid("--parallel");
+    }
+
+    @Test
+    public void path_restriction_parallel_02() throws IOException {
+        path_restriction_deferred_invalid("--parallel");
+    }
+
+    @Test
+    public void path_restriction_parallel_03() throws IOException {
+        ParserMetadata<Paths> config = new ParserBuilder<Paths>().withParallelValidation(4).build();
+        try {
+            path_restriction_deferred_valid("--parallel", config);
+        } finally {
+            config.shutdownValidationExecutor();
+        }
+    }
+
+    @Test
+    public void path_restriction_parallel_04() throws IOException {
+        path_restriction_deferred_invalid("--parallel", new ParserBuilder<Paths>().withParallelValidation(4));
+    }
+
+    @Test
+    public void path_restriction_parallel_05() throws IOException {
+        // Errors reported to the handler rather than thrown so fail fast
+        // reports the first
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            args.add("--parallel");
+            args.add("target/no-such-dir/missing-" + i + ".txt");
+        }
+        ParserMetadata<Paths> config = new ParserBuilder<Paths>().withParallelValidation(4).build();
+        try {
+            SingleCommand.<Paths> singleCommand(Paths.class, config).parse(args);
+            Assert.fail("Expected a path restriction violation");
+        } catch (ParseRestrictionViolatedException e) {
+            Assert.assertTrue(e.getMessage().contains("missing-0.txt"), e.getMessage());
+            Assert.assertEquals(e.getOptionTitle(), "parallel");
+        } finally {
+            config.shutdownValidationExecutor();
+        }
+    }
+
+    @Test
+    public void path_restriction_invalid_path_01() {
+        // Invalid paths are accepted when they need not exist, as for any
+        // other path that does not exist the first portion that exists is
+        // checked instead
+        SingleCommand<Paths> parser = SingleCommand.<Paths> singleCommand(Paths.class);
+        Paths cmd = parser.parse("--readable", "target/invalid\u0000path", "--any", "invalid\u0000path");
+        Assert.assertEquals(cmd.readable, "target/invalid\u0000path");
+        Assert.assertEquals(cmd.anyPath, "invalid\u0000path");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class, expectedExceptionsMessageRegExp = ".*not a valid path")
+    public void path_restriction_invalid_path_02() {
+        // Invalid paths can never exist
+        SingleCommand.<Paths> singleCommand(Paths.class).parse("--path", "invalid\u0000path");
+    }
 }
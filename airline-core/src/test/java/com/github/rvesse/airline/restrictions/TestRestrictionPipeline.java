@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseOptionMissingException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.restrictions.common.AbstractStringRestriction;
+import com.github.rvesse.airline.restrictions.common.FusedStringRestriction;
+import com.github.rvesse.airline.restrictions.common.IsRequiredRestriction;
+import com.github.rvesse.airline.restrictions.common.LengthRestriction;
+import com.github.rvesse.airline.restrictions.common.NotBlankRestriction;
+import com.github.rvesse.airline.restrictions.common.NotEmptyRestriction;
+import com.github.rvesse.airline.restrictions.common.PatternRestriction;
+import com.github.rvesse.airline.restrictions.common.RangeRestriction;
+import com.github.rvesse.airline.utils.comparators.IntegerComparator;
+
+public class TestRestrictionPipeline {
+
+    private OptionMetadata findOption(String name) {
+        for (OptionMetadata option : SingleCommand.singleCommand(StringsCombined.class).getCommandMetadata()
+                .getAllOptions()) {
+            if (option.getOptions().contains(name))
+                return option;
+        }
+        Assert.fail("No option " + name);
+        return null;
+    }
+
+    private SingleCommand<StringsCombined> collectingParser() {
+        return SingleCommand.singleCommand(StringsCombined.class,
+                new ParserBuilder<StringsCombined>().withErrorHandler(new CollectAll()).build());
+    }
+
+    @Test
+    public void pipeline_string_restrictions_fused() {
+        OptionMetadata option = findOption("--name");
+        Assert.assertEquals(option.getRestrictions().size(), 3);
+
+        OptionRestrictionPipeline pipeline = option.getRestrictionPipeline();
+        List<OptionRestriction> pre = pipeline.getPreValidators();
+        Assert.assertEquals(pre.size(), 1);
+        Assert.assertTrue(pre.get(0) instanceof FusedStringRestriction);
+        Assert.assertEquals(((FusedStringRestriction) pre.get(0)).getRestrictions().size(), 3);
+
+        // None of these restrictions do post or final validation
+        Assert.assertEquals(pipeline.getPostValidators().size(), 0);
+        Assert.assertEquals(pipeline.getFinalValidators().size(), 0);
+    }
+
+    @Test
+    public void pipeline_phases_partitioned() {
+        OptionMetadata option = findOption("--required");
+        OptionRestrictionPipeline pipeline = option.getRestrictionPipeline();
+
+        // Required only does final validation, not blank only pre-validation
+        Assert.assertEquals(pipeline.getPreValidators().size(), 1);
+        Assert.assertFalse(pipeline.getPreValidators().get(0) instanceof IsRequiredRestriction);
+        Assert.assertEquals(pipeline.getPostValidators().size(), 0);
+        Assert.assertEquals(pipeline.getFinalValidators().size(), 1);
+        Assert.assertTrue(pipeline.getFinalValidators().get(0) instanceof IsRequiredRestriction);
+    }
+
+    @Test
+    public void pipeline_fused_valid() {
+        StringsCombined cmd = SingleCommand.singleCommand(StringsCombined.class).parse("--name", "foo bar",
+                "--required", "x");
+        Assert.assertEquals(cmd.name, "foo bar");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class, expectedExceptionsMessageRegExp = ".*maximum permitted length.*")
+    public void pipeline_fused_invalid() {
+        SingleCommand.singleCommand(StringsCombined.class).parse("--name", "foobarfoobar", "--required", "x");
+    }
+
+    @Test
+    public void pipeline_fused_collects_all_violations() {
+        ParseResult<StringsCombined> result = collectingParser().parseWithResult("--name", "   FOOBARFOO",
+                "--required", "x");
+        Assert.assertFalse(result.wasSuccessful());
+        // Not blank but violates both the pattern and the maximum length
+        Assert.assertEquals(result.getErrors().size(), 2);
+    }
+
+    @Test
+    public void pipeline_fused_collects_all_violations_in_order() {
+        ParseResult<StringsCombined> result = collectingParser().parseWithResult("--name", "         ");
+        Assert.assertFalse(result.wasSuccessful());
+        // Blank, too long and missing required option
+        List<ParseException> errors = new ArrayList<>(result.getErrors());
+        Assert.assertEquals(errors.size(), 3);
+
+        // Violations are reported in the order the restrictions are declared
+        // on the option
+        int blank = -1, length = -1;
+        List<OptionRestriction> restrictions = findOption("--name").getRestrictions();
+        for (int i = 0; i < restrictions.size(); i++) {
+            if (restrictions.get(i) instanceof NotBlankRestriction) {
+                blank = i;
+            } else if (restrictions.get(i) instanceof LengthRestriction) {
+                length = i;
+            }
+        }
+        Assert.assertTrue(errors.get(blank < length ? 0 : 1).getMessage().contains("non-blank"));
+        Assert.assertTrue(errors.get(blank < length ? 1 : 0).getMessage().contains("maximum permitted length"));
+        Assert.assertTrue(errors.get(2) instanceof ParseOptionMissingException);
+    }
+
+    @Test
+    public void pipeline_fused_merges_bounds() {
+        // Not empty, minimum length 2 and maximum length 4 become a single
+        // pair of bounds ahead of the pattern
+        FusedStringRestriction fused = new FusedStringRestriction(Arrays.<AbstractStringRestriction> asList(
+                new NotEmptyRestriction(), new LengthRestriction(2, false), new LengthRestriction(4, true),
+                new PatternRestriction("^[a-z]+$", 0, null)));
+        ArgumentsRestrictionPipeline pipeline = ArgumentsRestrictionPipeline
+                .compile(Arrays.<ArgumentsRestriction> asList(fused));
+        Assert.assertEquals(pipeline.getPreValidators().size(), 1);
+        for (String valid : new String[] { "ab", "abcd" }) {
+            fused.preValidate(null, (ArgumentsMetadata) null, valid);
+        }
+        for (String invalid : new String[] { "", "a", "abcde", "AB" }) {
+            try {
+                fused.preValidate(null, (ArgumentsMetadata) null, invalid);
+                Assert.fail("Value '" + invalid + "' should be invalid");
+            } catch (ParseRestrictionViolatedException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void pipeline_undeclared_phases() {
+        // Restrictions that don't declare their phases are called in every
+        // phase
+        OptionRestriction restriction = new AbstractCommonRestriction() {
+        };
+        OptionRestrictionPipeline pipeline = OptionRestrictionPipeline
+                .compile(Arrays.<OptionRestriction> asList(restriction));
+        Assert.assertEquals(pipeline.getPreValidators().size(), 1);
+        Assert.assertEquals(pipeline.getPostValidators().size(), 1);
+        Assert.assertEquals(pipeline.getFinalValidators().size(), 1);
+    }
+
+    @Test
+    public void pipeline_subclass_undeclared_phases() {
+        // Subclasses of phased restrictions that override the validation
+        // method of another phase are also called in that phase
+        OptionRestriction range = new RangeRestriction(1, true, 10, true, new IntegerComparator()) {
+            @Override
+            public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
+            }
+        };
+        OptionRestriction notBlank = new NotBlankRestriction() {
+            @Override
+            public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
+            }
+        };
+        OptionRestrictionPipeline pipeline = OptionRestrictionPipeline
+                .compile(Arrays.<OptionRestriction> asList(range, notBlank));
+        Assert.assertEquals(pipeline.getPreValidators(), Arrays.asList(range, notBlank));
+        Assert.assertEquals(pipeline.getPostValidators(), Arrays.asList(range, notBlank));
+        Assert.assertEquals(pipeline.getFinalValidators().size(), 0);
+
+        // Subclasses that declare their own phases are trusted
+        OptionRestriction declared = new RangeRestriction(1, true, 10, true, new IntegerComparator()) {
+            @Override
+            public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
+            }
+
+            @Override
+            public Set<ValidationPhase> getValidationPhases() {
+                return EnumSet.of(ValidationPhase.POST);
+            }
+        };
+        pipeline = OptionRestrictionPipeline.compile(Arrays.<OptionRestriction> asList(declared));
+        Assert.assertEquals(pipeline.getPreValidators().size(), 0);
+        Assert.assertEquals(pipeline.getPostValidators().size(), 1);
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions.common;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.utils.comparators.DoubleComparator;
+import com.github.rvesse.airline.utils.comparators.FloatComparator;
+import com.github.rvesse.airline.utils.comparators.IntegerComparator;
+import com.github.rvesse.airline.utils.comparators.LongComparator;
+
+public class TestRangeFastPaths {
+
+    private void verify(RangeRestriction fast, RangeRestriction slow, Object... values) {
+        for (Object value : values) {
+            Assert.assertEquals(fast.inRange(value), slow.inRange(value),
+                    "Fast path disagrees with comparator for value " + value);
+        }
+    }
+
+    @Test
+    public void range_fast_path_integer() {
+        for (boolean minInclusive : new boolean[] { true, false }) {
+            for (boolean maxInclusive : new boolean[] { true, false }) {
+                verify(new IntegralRangeRestriction(Integer.class, 0, minInclusive, 100, maxInclusive,
+                        new IntegerComparator()),
+                        new RangeRestriction(0, minInclusive, 100, maxInclusive, new IntegerComparator()),
+                        Integer.MIN_VALUE, -1, 0, 1, 50, 99, 100, 101, Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    @Test
+    public void range_fast_path_integer_open_ended() {
+        verify(new IntegralRangeRestriction(Integer.class, null, true, 100, false, new IntegerComparator()),
+                new RangeRestriction(null, true, 100, false, new IntegerComparator()), Integer.MIN_VALUE, 0, 99, 100);
+        verify(new IntegralRangeRestriction(Integer.class, 0, false, null, true, new IntegerComparator()),
+                new RangeRestriction(0, false, null, true, new IntegerComparator()), Integer.MIN_VALUE, 0, 1,
+                Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void range_fast_path_long() {
+        verify(new IntegralRangeRestriction(Long.class, Long.MIN_VALUE, false, Long.MAX_VALUE, false,
+                new LongComparator()),
+                new RangeRestriction(Long.MIN_VALUE, false, Long.MAX_VALUE, false, new LongComparator()),
+                Long.MIN_VALUE, Long.MIN_VALUE + 1, 0l, Long.MAX_VALUE - 1, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void range_fast_path_double() {
+        verify(new FloatingPointRangeRestriction(Double.class, -1d, true, 1d, false, new DoubleComparator()),
+                new RangeRestriction(-1d, true, 1d, false, new DoubleComparator()), -1.5d, -1d, -0d, 0d, 0.5d, 1d,
+                Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        verify(new FloatingPointRangeRestriction(Double.class, 0d, false, null, true, new DoubleComparator()),
+                new RangeRestriction(0d, false, null, true, new DoubleComparator()), -0d, 0d, Double.MIN_VALUE,
+                Double.NaN);
+    }
+
+    @Test
+    public void range_fast_path_float() {
+        verify(new FloatingPointRangeRestriction(Float.class, 0.1f, true, 0.3f, true, new FloatComparator()),
+                new RangeRestriction(0.1f, true, 0.3f, true, new FloatComparator()), 0.09f, 0.1f, 0.2f, 0.3f, 0.31f,
+                Float.NaN);
+    }
+}
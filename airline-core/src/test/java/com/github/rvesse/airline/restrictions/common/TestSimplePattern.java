@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions.common;
+
+import java.util.regex.Pattern;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestSimplePattern {
+
+    private static final String[] VALUES = { "", "a", "abc", "ABC", "xabc", "abcx", "xabcx", "abc\n", "abc\r\n", "abc\r",
+            "abc\u0085", "abc ", "abc ", "abc\n\n", "abc\nx", "\n", "\r\n", "\n\r", "ab c", "a_b-c", "0123",
+            "abc$", "^abc", "abcabc", "😀", "a😀" };
+
+    private void verify(String regex, boolean expectSimple) {
+        SimplePattern simple = SimplePattern.compile(regex, 0);
+        if (!expectSimple) {
+            Assert.assertNull(simple, "Pattern " + regex + " should not be simple");
+            return;
+        }
+        Assert.assertNotNull(simple, "Pattern " + regex + " should be simple");
+
+        Pattern pattern = Pattern.compile(regex);
+        for (String value : VALUES) {
+            Assert.assertEquals(simple.matches(value), pattern.matcher(value).find(),
+                    "Pattern " + regex + " disagrees with regular expression engine for value " + value);
+        }
+    }
+
+    @Test
+    public void simple_pattern_literals() {
+        verify("", true);
+        verify("abc", true);
+        verify("b c", true);
+        verify("^abc", true);
+        verify("abc$", true);
+        verify("^abc$", true);
+        verify("^", true);
+        verify("$", true);
+        verify("^$", true);
+    }
+
+    @Test
+    public void simple_pattern_classes() {
+        verify("^[a-z]+$", true);
+        verify("^[a-z]*$", true);
+        verify("^[a-z ]*$", true);
+        verify("^[abc]+$", true);
+        verify("^[a-zA-Z0-9_]+$", true);
+        verify("^[0-9]+$", true);
+    }
+
+    @Test
+    public void simple_pattern_unsupported() {
+        verify("a.c", false);
+        verify("abc\\$", false);
+        verify("^[^a-z]+$", false);
+        verify("^[a-z]+", false);
+        verify("[a-z]+$", false);
+        verify("^[a-z]$", false);
+        verify("^[a-z]+?$", false);
+        verify("^[\\w]+$", false);
+        verify("^[a-z&&[^b]]+$", false);
+        verify("^[-a]+$", false);
+        verify("^[a-]+$", false);
+        verify("a|b", false);
+        verify("(abc)", false);
+    }
+
+    @Test
+    public void simple_pattern_flags() {
+        Assert.assertNull(SimplePattern.compile("abc", Pattern.CASE_INSENSITIVE));
+        Assert.assertNull(SimplePattern.compile("abc$", Pattern.MULTILINE));
+    }
+
+    @Test
+    public void simple_pattern_restriction() {
+        PatternRestriction simple = new PatternRestriction("^[a-z]+$", 0, null);
+        PatternRestriction complex = new PatternRestriction("^[a-z]+(-[a-z]+)*$", 0, null);
+
+        Assert.assertTrue(simple.isValid("abc"));
+        Assert.assertFalse(simple.isValid("abc-def"));
+        Assert.assertTrue(complex.isValid("abc-def"));
+        Assert.assertFalse(complex.isValid("abc-"));
+        // Matcher is reused so check repeated evaluation
+        Assert.assertTrue(complex.isValid("abc"));
+    }
+}
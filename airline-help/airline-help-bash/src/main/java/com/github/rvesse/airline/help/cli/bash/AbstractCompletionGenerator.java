@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.cli.bash;
+
+import java.util.Collection;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.help.BashCompletion;
+import com.github.rvesse.airline.help.common.AbstractGlobalUsageGenerator;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+
+/**
+ * Abstract generator for shell completion scripts
+ * <p>
+ * Completion data is taken from {@link BashCompletion} annotations on the
+ * fields of options and arguments, generators for shells other than Bash use
+ * the same annotations. Derived generators will usually generate their script
+ * from the {@link CompletionModel} returned by
+ * {@link #getCompletionModel(GlobalMetadata)}.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public abstract class AbstractCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T> {
+
+    public AbstractCompletionGenerator(boolean includeHidden) {
+        super(includeHidden);
+    }
+
+    /**
+     * Overridden so that it is accessible to the {@link CompletionModel}
+     */
+    @Override
+    protected boolean includeHidden() {
+        return super.includeHidden();
+    }
+
+    /**
+     * Gets the completion model for a CLI
+     * 
+     * @param global
+     *            Global meta-data
+     * @return Completion model
+     */
+    protected CompletionModel getCompletionModel(GlobalMetadata<T> global) {
+        return CompletionModel.compile(global, this);
+    }
+
+    /**
+     * Converts a value into a form that is safe to use in shell function and
+     * variable names
+     * 
+     * @param value
+     *            Value
+     * @return Value with any characters other than letters, digits and
+     *         underscores removed
+     */
+    protected String bashize(String value) {
+        StringBuilder builder = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Gets the completion info for an option
+     * 
+     * @param option
+     *            Option
+     * @return Completion data, {@code null} if none specified
+     */
+    protected BashCompletion getCompletionData(OptionMetadata option) {
+        return getCompletionData(option.getAccessors());
+    }
+
+    /**
+     * Gets the completion info for arguments
+     * 
+     * @param arguments
+     *            Arguments
+     * @return Completion data, {@code null} if none specified
+     */
+    protected BashCompletion getCompletionData(ArgumentsMetadata arguments) {
+        return getCompletionData(arguments.getAccessors());
+    }
+
+    protected BashCompletion getCompletionData(Collection<Accessor> accessors) {
+        BashCompletion info = null;
+        for (Accessor accessor : accessors) {
+            info = accessor.getAnnotation(BashCompletion.class);
+            if (info != null)
+                break;
+        }
+        return info;
+    }
+}
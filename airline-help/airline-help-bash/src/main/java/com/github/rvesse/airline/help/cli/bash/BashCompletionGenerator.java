@@ -18,19 +18,25 @@ package com.github.rvesse.airline.help.cli.bash;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.annotations.help.BashCompletion;
-import com.github.rvesse.airline.help.common.AbstractGlobalUsageGenerator;
-import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel.CommandCompletion;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel.GroupCompletion;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel.OptionCompletion;
+import com.github.rvesse.airline.help.common.Fingerprint;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
@@ -38,11 +44,13 @@ import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.restrictions.common.AbstractAllowedValuesRestriction;
 import com.github.rvesse.airline.utils.predicates.restrictions.AllowedValuesOptionFinder;
 
-public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T> {
+public class BashCompletionGenerator<T> extends AbstractCompletionGenerator<T> {
 
     private static final char NEWLINE = '\n';
     private static final String DOUBLE_NEWLINE = "\n\n";
     private final boolean withDebugging;
+    private final String serverCommand;
+    private final boolean lookupTables;
 
     public BashCompletionGenerator() {
         this(false, false);
@@ -57,16 +65,85 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
      *            {@code set +o xtrace} at the end of its functions
      */
     public BashCompletionGenerator(boolean includeHidden, boolean enableDebugging) {
+        this(includeHidden, enableDebugging, null);
+    }
+
+    /**
+     * Creates a new completion generator whose script first asks a completion
+     * server for completions
+     * <p>
+     * The generated script reads the server port and access token from the
+     * default state file of a
+     * {@link com.github.rvesse.airline.help.suggester.CompletionServer} and
+     * talks to it over the loopback interface so completing does not start a
+     * JVM. If no server is running the given command of the CLI is started in
+     * the background to run one, e.g. a
+     * {@link com.github.rvesse.airline.help.suggester.CompletionServerCommand},
+     * and the static completions are used until it is available. The process
+     * id of the started server is recorded in a pid file next to the state file
+     * so only one server is started while it is starting up. Static
+     * completions are also used whenever the server does not reply. The
+     * connection uses a file descriptor allocated by Bash so the generated
+     * script requires Bash 4.1 or later.
+     * </p>
+     * 
+     * @param includeHidden
+     *            Whether to include hidden commands and options
+     * @param enableDebugging
+     *            Whether to enable debugging
+     * @param serverCommand
+     *            Name of the command that runs the completion server, if
+     *            {@code null} only static completions are generated
+     */
+    public BashCompletionGenerator(boolean includeHidden, boolean enableDebugging, String serverCommand) {
+        this(includeHidden, enableDebugging, serverCommand, false);
+    }
+
+    /**
+     * Creates a new completion generator that optionally generates a script
+     * based on lookup tables
+     * <p>
+     * When {@code lookupTables} is true the generated script requires Bash 4.2
+     * or later. Rather than a function per group and command it declares
+     * associative arrays keyed by the group/command path that hold the words
+     * to complete, so sourcing the script only has to define a handful of
+     * arrays and completing does a few lookups rather than matching nested
+     * {@code case} statements. Commands whose options or arguments have
+     * {@link BashCompletion} data still get their own function but it is only
+     * defined the first time that command is completed.
+     * </p>
+     * 
+     * @param includeHidden
+     *            Whether to include hidden commands and options
+     * @param enableDebugging
+     *            Whether to enable debugging
+     * @param serverCommand
+     *            Name of the command that runs the completion server, if
+     *            {@code null} only static completions are generated
+     * @param lookupTables
+     *            Whether to generate a script based on lookup tables
+     */
+    public BashCompletionGenerator(boolean includeHidden, boolean enableDebugging, String serverCommand,
+            boolean lookupTables) {
         super(includeHidden);
         this.withDebugging = enableDebugging;
+        this.serverCommand = StringUtils.isBlank(serverCommand) ? null : serverCommand;
+        this.lookupTables = lookupTables;
     }
 
     @Override
     public void usage(GlobalMetadata<T> global, OutputStream output) throws IOException {
+        useHelpModel(global);
         Writer writer = new OutputStreamWriter(output);
 
         // Script header
         writeHeader(writer);
+        if (this.lookupTables) {
+            generateLookupTableScript(global, writer);
+            writer.flush();
+            output.flush();
+            return;
+        }
         writeHelperFunctions(writer);
 
         // If there are multiple groups then we will need to generate a function
@@ -77,10 +154,25 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         }
         // Need to generate functions for default group commands regardless
         generateCommandFunctions(global, writer);
+        if (this.serverCommand != null) {
+            generateServerFunction(global, writer);
+        }
 
         // Start main completion function
         writeFunctionName(writer, global, true);
 
+        if (this.serverCommand != null) {
+            // Prefer the completion server when it is available
+            indent(writer, 2);
+            writer.append("if ");
+            writeServerFunctionName(writer, global, false);
+            writer.append("; then").append(NEWLINE);
+            indent(writer, 4);
+            writer.append("return 0").append(NEWLINE);
+            indent(writer, 2);
+            writer.append("fi").append(DOUBLE_NEWLINE);
+        }
+
         indent(writer, 2);
         writer.append("# Get completion data").append(NEWLINE);
         indent(writer, 2);
@@ -130,9 +222,9 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         indent(writer, 4);
         writer.append("COMPREPLY=()").append(NEWLINE);
         if (global.getDefaultCommand() != null) {
-            writeCompletionGeneration(writer, 4, false, null, "COMMANDS", "DEFAULT_COMMAND_COMPLETIONS");
+            writeCompletionGeneration(writer, 4, false, CompletionBehaviour.NONE, "COMMANDS", "DEFAULT_COMMAND_COMPLETIONS");
         } else {
-            writeCompletionGeneration(writer, 4, false, null, "COMMANDS");
+            writeCompletionGeneration(writer, 4, false, CompletionBehaviour.NONE, "COMMANDS");
         }
         indent(writer, 2);
         writer.append("fi").append(DOUBLE_NEWLINE);
@@ -202,6 +294,219 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         output.flush();
     }
 
+    private void generateLookupTableScript(GlobalMetadata<T> global, Writer writer) throws IOException {
+        String prefix = "_complete_" + bashize(global.getName());
+        CompletionModel model = getCompletionModel(global);
+
+        // Tables are keyed by the path of a group/command
+        Map<String, String> words = new LinkedHashMap<>();
+        Map<String, String> defaults = new LinkedHashMap<>();
+        for (GroupCompletion group : model.getGroups()) {
+            words.put(group.getPath(), StringUtils.join(group.getWords(), ' '));
+            if (group.getDefaultCommand() != null)
+                defaults.put(group.getPath(), group.getDefaultCommand().getPath());
+        }
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, String> argOptions = new LinkedHashMap<>();
+        Map<String, String> values = new LinkedHashMap<>();
+        Map<String, String> functions = new LinkedHashMap<>();
+        Map<String, String> definitions = new LinkedHashMap<>();
+        for (CommandCompletion command : model.getCommands()) {
+            options.put(command.getPath(), StringUtils.join(command.getOptionNames(), ' '));
+            List<String> names = new ArrayList<>();
+            for (OptionCompletion option : command.getOptions()) {
+                if (!option.takesValue())
+                    continue;
+                names.addAll(option.getNames());
+                if (option.getAllowedValues().isEmpty())
+                    continue;
+                for (String name : option.getNames()) {
+                    values.put(command.getPath() + " " + name, StringUtils.join(option.getAllowedValues(), ' '));
+                }
+            }
+            if (names.size() > 0)
+                argOptions.put(command.getPath(), StringUtils.join(names, ' '));
+
+            if (command.hasCompletionData()) {
+                // Completion data may run commands so these commands need
+                // their own function, it is only defined when first needed
+                StringBuilder function = new StringBuilder(prefix);
+                for (String group : command.getGroupNames()) {
+                    function.append("_group_").append(bashize(group));
+                }
+                function.append("_command_").append(bashize(command.getName()));
+                StringWriter definition = new StringWriter();
+                generateLookupCompletionFunction(definition, function.toString(), command);
+                functions.put(command.getPath(), function.toString());
+                definitions.put(command.getPath(), definition.toString());
+            }
+        }
+
+        // Tables
+        writeLookupTable(writer, prefix + "_words", words);
+        writeLookupTable(writer, prefix + "_defaults", defaults);
+        writeLookupTable(writer, prefix + "_opts", options);
+        writeLookupTable(writer, prefix + "_arg_opts", argOptions);
+        writeLookupTable(writer, prefix + "_values", values);
+        writeLookupTable(writer, prefix + "_functions", functions);
+        writeLookupTable(writer, prefix + "_definitions", definitions);
+        writer.append(NEWLINE);
+
+        if (this.serverCommand != null) {
+            generateServerFunction(global, writer);
+        }
+        generateLookupCommandFunction(writer, prefix);
+        generateLookupMainFunction(writer, global, prefix);
+
+        // Completion setup
+        writer.append("complete -F ");
+        writeFunctionName(writer, global, false);
+        writer.append(" ").append(global.getName());
+    }
+
+    private void generateLookupCompletionFunction(Writer writer, String function, CommandCompletion command)
+            throws IOException {
+        writer.append("function ").append(function).append("() {").append(NEWLINE);
+        writer.append("  local ARG_VALUES= ARG_GENERATED_VALUES= ARGUMENTS=").append(NEWLINE);
+
+        // Completing a value for an option
+        writer.append("  case ${PREV_WORD} in").append(NEWLINE);
+        for (OptionCompletion option : command.getOptions()) {
+            if (!option.takesValue())
+                continue;
+
+            indent(writer, 4);
+            writer.append(StringUtils.join(option.getNames(), '|')).append(')').append(NEWLINE);
+            if (option.getCommand() != null) {
+                indent(writer, 6);
+                writer.append("ARG_GENERATED_VALUES=$( ").append(option.getCommand()).append(" )").append(NEWLINE);
+            }
+            if (option.getAllowedValues().size() > 0) {
+                writeWordListVariable(writer, 6, "ARG_VALUES", option.getAllowedValues().iterator());
+            }
+            writeCompletionGeneration(writer, 6, false, option.getBehaviour(), "ARG_VALUES", "ARG_GENERATED_VALUES");
+            indent(writer, 6);
+            writer.append(";;").append(NEWLINE);
+        }
+        writer.append("  esac").append(NEWLINE);
+
+        // Otherwise completing options or arguments
+        if (command.getArgumentsCommand() != null) {
+            writer.append("  ARGUMENTS=$( ").append(command.getArgumentsCommand()).append(" )").append(NEWLINE);
+        }
+        writeCompletionGeneration(writer, 2, false, command.getArgumentsBehaviour(), "OPTS", "ARGUMENTS");
+        writer.append('}');
+    }
+
+    private void writeLookupTable(Writer writer, String varName, Map<String, String> table) throws IOException {
+        writer.append("declare -gA ").append(varName).append("=(").append(NEWLINE);
+        for (Entry<String, String> entry : table.entrySet()) {
+            indent(writer, 2);
+            writer.append('[');
+            writeSingleQuoted(writer, entry.getKey());
+            writer.append("]=");
+            writeSingleQuoted(writer, entry.getValue());
+            writer.append(NEWLINE);
+        }
+        writer.append(')').append(NEWLINE);
+    }
+
+    private void writeSingleQuoted(Writer writer, String value) throws IOException {
+        writer.append('\'');
+        int start = 0, quote;
+        while ((quote = value.indexOf('\'', start)) >= 0) {
+            writer.append(value, start, quote).append("'\\''");
+            start = quote + 1;
+        }
+        writer.append(value, start, value.length()).append('\'');
+    }
+
+    private void generateLookupCommandFunction(Writer writer, String prefix) throws IOException {
+        // Completes the command whose path is the first argument
+        writer.append("function ").append(prefix).append("_command() {").append(NEWLINE);
+        writer.append("  local KEY=$1 FUNCTION=${").append(prefix).append("_functions[$1]}").append(NEWLINE);
+        writer.append("  local OPTS=${").append(prefix).append("_opts[$1]}").append(NEWLINE);
+        writer.append("  if [[ -n \"${FUNCTION}\" ]]; then").append(NEWLINE);
+        writer.append("    # Define the command specific function on first use").append(NEWLINE);
+        writer.append("    declare -F ${FUNCTION} >/dev/null || eval \"${").append(prefix)
+                .append("_definitions[${KEY}]}\"").append(NEWLINE);
+        writer.append("    ${FUNCTION}").append(NEWLINE);
+        writer.append("  elif [[ -n \"${PREV_WORD}\" && \" ${").append(prefix)
+                .append("_arg_opts[${KEY}]} \" == *\" ${PREV_WORD} \"* ]]; then").append(NEWLINE);
+        writer.append("    COMPREPLY=( $(compgen -W \"${").append(prefix)
+                .append("_values[${KEY} ${PREV_WORD}]}\" -- ${CURR_WORD}) )").append(NEWLINE);
+        writer.append("  else").append(NEWLINE);
+        writer.append("    COMPREPLY=( $(compgen -W \"${OPTS}\" -- ${CURR_WORD}) )").append(NEWLINE);
+        writer.append("  fi").append(NEWLINE);
+        writer.append("}").append(DOUBLE_NEWLINE);
+    }
+
+    private void generateLookupMainFunction(Writer writer, GlobalMetadata<T> global, String prefix)
+            throws IOException {
+        writeFunctionName(writer, global, true);
+        if (this.withDebugging) {
+            writer.append("  set -o xtrace").append(NEWLINE);
+        }
+        if (this.serverCommand != null) {
+            // Prefer the completion server when it is available
+            writer.append("  if ");
+            writeServerFunctionName(writer, global, false);
+            writer.append("; then").append(NEWLINE);
+            if (this.withDebugging) {
+                writer.append("    set +o xtrace").append(NEWLINE);
+            }
+            writer.append("    return 0").append(NEWLINE);
+            writer.append("  fi").append(DOUBLE_NEWLINE);
+        }
+
+        writer.append("  # Get completion data").append(NEWLINE);
+        writer.append("  local CURR_WORD=${COMP_WORDS[COMP_CWORD]}").append(NEWLINE);
+        writer.append("  local PREV_WORD=${COMP_WORDS[COMP_CWORD-1]}").append(NEWLINE);
+        writer.append("  local GROUP=");
+        writeSingleQuoted(writer, global.getName());
+        writer.append(" CMD= PATH_WORD I=1").append(NEWLINE);
+        writer.append("  local COMMANDS=${").append(prefix).append("_words[${GROUP}]}").append(NEWLINE);
+        writer.append("  COMPREPLY=()").append(DOUBLE_NEWLINE);
+
+        writer.append("  # Find the group/command being completed").append(NEWLINE);
+        writer.append("  while [[ ${I} -lt ${COMP_CWORD} ]]; do").append(NEWLINE);
+        writer.append("    PATH_WORD=\"${GROUP} ${COMP_WORDS[I]}\"").append(NEWLINE);
+        writer.append("    if [[ -n \"${").append(prefix).append("_words[${PATH_WORD}]+x}\" ]]; then")
+                .append(NEWLINE);
+        writer.append("      GROUP=${PATH_WORD}").append(NEWLINE);
+        writer.append("    elif [[ -n \"${").append(prefix).append("_opts[${PATH_WORD}]+x}\" ]]; then")
+                .append(NEWLINE);
+        writer.append("      CMD=${PATH_WORD}").append(NEWLINE);
+        writer.append("      break").append(NEWLINE);
+        writer.append("    else").append(NEWLINE);
+        writer.append("      break").append(NEWLINE);
+        writer.append("    fi").append(NEWLINE);
+        writer.append("    I=$(( I + 1 ))").append(NEWLINE);
+        writer.append("  done").append(DOUBLE_NEWLINE);
+
+        writer.append("  if [[ -n \"${CMD}\" ]]; then").append(NEWLINE);
+        writer.append("    ").append(prefix).append("_command \"${CMD}\"").append(NEWLINE);
+        writer.append("  else").append(NEWLINE);
+        writer.append("    # Otherwise use the default command for the group, if any").append(NEWLINE);
+        writer.append("    CMD=${").append(prefix).append("_defaults[${GROUP}]}").append(NEWLINE);
+        writer.append("    if [[ -n \"${CMD}\" ]]; then").append(NEWLINE);
+        writer.append("      ").append(prefix).append("_command \"${CMD}\"").append(NEWLINE);
+        writer.append("    fi").append(NEWLINE);
+        writer.append("    if [[ ${I} -eq ${COMP_CWORD} ]]; then").append(NEWLINE);
+        writer.append("      # Completing a group/command name").append(NEWLINE);
+        writer.append("      COMPREPLY=( $(compgen -W \"${").append(prefix)
+                .append("_words[${GROUP}]}\" -- ${CURR_WORD}) \"${COMPREPLY[@]}\" )").append(NEWLINE);
+        writer.append("    fi").append(NEWLINE);
+        writer.append("  fi").append(NEWLINE);
+
+        // End Function
+        if (this.withDebugging) {
+            writer.append("  set +o xtrace").append(NEWLINE);
+        }
+        writer.append("  return 0").append(NEWLINE);
+        writer.append("}").append(DOUBLE_NEWLINE);
+    }
+
     private void generateCommandFunctions(GlobalMetadata<T> global, Writer writer) throws IOException {
         for (CommandMetadata command : global.getDefaultGroupCommands()) {
             if (command.isHidden() && !this.includeHidden())
@@ -230,6 +535,97 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         }
     }
 
+    private void generateServerFunction(GlobalMetadata<T> global, Writer writer) throws IOException {
+        writeServerFunctionName(writer, global, true);
+
+        indent(writer, 2);
+        writer.append("local STATE_FILE=\"${HOME}/.airline/").append(global.getName()).append(".completion\"")
+                .append(NEWLINE);
+        indent(writer, 2);
+        writer.append("local PID_FILE=\"${STATE_FILE}.pid\"").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("local PORT TOKEN WORD STATUS PID FD").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("if [[ ! -r \"${STATE_FILE}\" ]] || ! read -r PORT TOKEN < \"${STATE_FILE}\" || ")
+                .append("! { exec {FD}<>/dev/tcp/127.0.0.1/${PORT}; } 2>/dev/null; then").append(NEWLINE);
+        indent(writer, 4);
+        writer.append("# Start a server in the background for later completions unless one is already starting")
+                .append(NEWLINE);
+        indent(writer, 4);
+        writer.append("if ! { read -r PID < \"${PID_FILE}\" && kill -0 \"${PID}\"; } 2>/dev/null; then")
+                .append(NEWLINE);
+        indent(writer, 6);
+        writer.append("rm -f \"${PID_FILE}\"").append(NEWLINE);
+        indent(writer, 6);
+        writer.append("if mkdir -p -m 700 \"${STATE_FILE%/*}\" && ( set -C; : > \"${PID_FILE}\" ) 2>/dev/null; then")
+                .append(NEWLINE);
+        indent(writer, 8);
+        writer.append("( ").append(global.getName()).append(' ').append(this.serverCommand)
+                .append(" >/dev/null 2>&1 & echo $! > \"${PID_FILE}\" )").append(NEWLINE);
+        indent(writer, 6);
+        writer.append("fi").append(NEWLINE);
+        indent(writer, 4);
+        writer.append("fi").append(NEWLINE);
+        indent(writer, 4);
+        writer.append("return 1").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("fi").append(DOUBLE_NEWLINE);
+
+        indent(writer, 2);
+        writer.append("# Send the token, completed words and the partial word").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("printf '%s\\n%d\\n' \"${TOKEN}\" $(( COMP_CWORD - 1 )) >&\"${FD}\"").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("for WORD in \"${COMP_WORDS[@]:1:COMP_CWORD-1}\"; do").append(NEWLINE);
+        indent(writer, 4);
+        writer.append("printf '%s\\n' \"${WORD}\" >&\"${FD}\"").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("done").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("printf '%s\\n' \"${COMP_WORDS[COMP_CWORD]}\" >&\"${FD}\"").append(DOUBLE_NEWLINE);
+
+        indent(writer, 2);
+        writer.append("# Fall back to static completions unless the server replies").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("if ! IFS= read -r -t 1 STATUS <&\"${FD}\" || [[ \"${STATUS}\" != \"OK\" ]]; then")
+                .append(NEWLINE);
+        indent(writer, 4);
+        writer.append("exec {FD}<&-").append(NEWLINE);
+        indent(writer, 4);
+        writer.append("return 1").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("fi").append(DOUBLE_NEWLINE);
+
+        indent(writer, 2);
+        writer.append("# Read one suggestion per line").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("COMPREPLY=()").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("while IFS= read -r -t 1 WORD <&\"${FD}\"; do").append(NEWLINE);
+        indent(writer, 4);
+        writer.append("COMPREPLY+=( \"${WORD}\" )").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("done").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("exec {FD}<&-").append(NEWLINE);
+        indent(writer, 2);
+        writer.append("return 0").append(NEWLINE);
+        writer.append("}").append(DOUBLE_NEWLINE);
+    }
+
+    private void writeServerFunctionName(Writer writer, GlobalMetadata<T> global, boolean declare)
+            throws IOException {
+        if (declare) {
+            writer.append("function ");
+        }
+
+        writer.append("_complete_").append(bashize(global.getName())).append("_server");
+
+        if (declare) {
+            writer.append("() {").append(NEWLINE);
+        }
+    }
+
     private void writeHeader(Writer writer) throws IOException {
         // Bash Header
         writer.append("#!/bin/bash").append(DOUBLE_NEWLINE);
@@ -343,9 +739,9 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
             writer.append("DEFAULT_GROUP_COMMAND_COMPLETIONS=(${COMPREPLY[@]})").append(NEWLINE);
         }
         if (global.getDefaultCommand() != null) {
-            writeCompletionGeneration(writer, 4, true, null, "COMMANDS", "DEFAULT_GROUP_COMMAND_COMPLETIONS");
+            writeCompletionGeneration(writer, 4, true, CompletionBehaviour.NONE, "COMMANDS", "DEFAULT_GROUP_COMMAND_COMPLETIONS");
         } else {
-            writeCompletionGeneration(writer, 4, true, null, "COMMANDS");
+            writeCompletionGeneration(writer, 4, true, CompletionBehaviour.NONE, "COMMANDS");
         }
         writer.append("  fi").append(DOUBLE_NEWLINE);
 
@@ -537,12 +933,18 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
 
     private void writeCompletionGeneration(Writer writer, int indent, boolean isNestedFunction,
             BashCompletion completion, String... varNames) throws IOException {
+        writeCompletionGeneration(writer, indent, isNestedFunction, completion != null ? completion.behaviour() : null,
+                varNames);
+    }
+
+    private void writeCompletionGeneration(Writer writer, int indent, boolean isNestedFunction,
+            CompletionBehaviour behaviour, String... varNames) throws IOException {
         indent(writer, indent);
         writer.append("COMPREPLY=( $(compgen ");
 
-        if (completion != null) {
+        if (behaviour != null) {
             // Add -o flag as appropriate
-            switch (completion.behaviour()) {
+            switch (behaviour) {
             case FILENAMES:
                 writer.append("-o default ");
                 break;
@@ -571,7 +973,7 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
             if (i < varNames.length - 1)
                 writer.append(' ');
         }
-        if (completion != null && completion.behaviour() == CompletionBehaviour.CLI_COMMANDS) {
+        if (behaviour == CompletionBehaviour.CLI_COMMANDS) {
             writer.append(" ${COMMANDS}");
         }
         writer.append("\" -- ${CURR_WORD}) )").append(NEWLINE);
@@ -585,46 +987,9 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         writer.append("return 0").append(NEWLINE);
     }
 
-    private String bashize(String value) {
-        StringBuilder builder = new StringBuilder();
-        for (char c : value.toCharArray()) {
-            if (Character.isLetterOrDigit(c) || c == '_') {
-                builder.append(c);
-            }
-        }
-        return builder.toString();
-    }
-
-    /**
-     * Gets the completion info for an option
-     * 
-     * @param option
-     *            Option
-     * @return Completion data, {@code null} if none specified
-     */
-    protected BashCompletion getCompletionData(OptionMetadata option) {
-        return getCompletionData(option.getAccessors());
-    }
-
-    /**
-     * Gets the completion info for arguments
-     * 
-     * @param arguments
-     *            Arguments
-     * @return Completion data, {@code null} if none specified
-     */
-    protected BashCompletion getCompletionData(ArgumentsMetadata arguments) {
-        return getCompletionData(arguments.getAccessors());
-    }
-
-    protected BashCompletion getCompletionData(Collection<Accessor> accessors) {
-        BashCompletion info = null;
-        for (Accessor accessor : accessors) {
-            info = accessor.getAnnotation(BashCompletion.class);
-            if (info != null)
-                break;
-        }
-        return info;
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.add(this.withDebugging).add(this.serverCommand).add(this.lookupTables);
     }
-
 }
@@ -0,0 +1,544 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.cli.bash;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.github.rvesse.airline.annotations.help.BashCompletion;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.restrictions.common.AbstractAllowedValuesRestriction;
+import com.github.rvesse.airline.utils.predicates.restrictions.AllowedValuesOptionFinder;
+
+/**
+ * An immutable model of the completions for a CLI compiled from its meta-data
+ * and {@link BashCompletion} annotations
+ * <p>
+ * The model is shared by the completion script generators for the different
+ * shells so the meta-data is only analysed once, the generators then write out
+ * the model as lookup tables in the syntax of their shell. Groups and commands
+ * are identified by their path i.e. the CLI name followed by the group and
+ * command names separated by spaces.
+ * </p>
+ * <p>
+ * Models compiled by generators that use the default completion data are
+ * cached per CLI and are recompiled if commands or groups are subsequently
+ * added.
+ * </p>
+ */
+public final class CompletionModel {
+
+    private static final Map<GlobalMetadata<?>, Map<Boolean, CompletionModel>> MODELS = new WeakHashMap<>();
+
+    private final String name;
+    private final int stamp;
+    private final GroupCompletion root;
+    private final Map<String, GroupCompletion> groups = new LinkedHashMap<>();
+    private final Map<String, CommandCompletion> commands = new LinkedHashMap<>();
+
+    /**
+     * Completion data for an option
+     */
+    public static final class OptionCompletion {
+        private final List<String> names, allowedValues;
+        private final String description, command;
+        private final boolean takesValue;
+        private final CompletionBehaviour behaviour;
+
+        private OptionCompletion(OptionMetadata option, BashCompletion completion) {
+            this.names = Collections.unmodifiableList(new ArrayList<>(option.getOptions()));
+            this.description = StringUtils.defaultString(option.getDescription());
+            this.takesValue = option.getArity() > 0;
+            AbstractAllowedValuesRestriction allowedValues = (AbstractAllowedValuesRestriction) CollectionUtils
+                    .find(option.getRestrictions(), new AllowedValuesOptionFinder());
+            List<String> values = new ArrayList<>();
+            if (this.takesValue && allowedValues != null) {
+                values.addAll(allowedValues.getAllowedValues());
+            }
+            this.allowedValues = Collections.unmodifiableList(values);
+            this.command = completion != null && StringUtils.isNotEmpty(completion.command()) ? completion.command()
+                    : null;
+            this.behaviour = completion != null ? completion.behaviour() : CompletionBehaviour.NONE;
+        }
+
+        /**
+         * Gets the names of the option
+         * 
+         * @return Names
+         */
+        public List<String> getNames() {
+            return this.names;
+        }
+
+        /**
+         * Gets the description of the option
+         * 
+         * @return Description, empty if none
+         */
+        public String getDescription() {
+            return this.description;
+        }
+
+        /**
+         * Gets whether the option takes a value
+         * 
+         * @return True if the option takes a value
+         */
+        public boolean takesValue() {
+            return this.takesValue;
+        }
+
+        /**
+         * Gets the allowed values for the option
+         * 
+         * @return Allowed values, empty if any value is allowed
+         */
+        public List<String> getAllowedValues() {
+            return this.allowedValues;
+        }
+
+        /**
+         * Gets the command used to generate completions for the value of the
+         * option
+         * 
+         * @return Command, {@code null} if none
+         */
+        public String getCommand() {
+            return this.command;
+        }
+
+        /**
+         * Gets the completion behaviour for the value of the option
+         * 
+         * @return Completion behaviour
+         */
+        public CompletionBehaviour getBehaviour() {
+            return this.behaviour;
+        }
+
+        /**
+         * Gets whether the option has {@link BashCompletion} data
+         * 
+         * @return True if there is a completion command or behaviour
+         */
+        public boolean hasCompletionData() {
+            return this.command != null || this.behaviour != CompletionBehaviour.NONE;
+        }
+    }
+
+    /**
+     * Completion data for a command
+     */
+    public static final class CommandCompletion {
+        private final String path, name, description, argumentsCommand;
+        private final List<String> groupNames, optionNames;
+        private final List<OptionCompletion> options;
+        private final CompletionBehaviour argumentsBehaviour;
+
+        private CommandCompletion(String path, List<String> groupNames, CommandMetadata command,
+                List<OptionCompletion> options, BashCompletion arguments) {
+            this.path = path;
+            this.name = command.getName();
+            this.description = StringUtils.defaultString(command.getDescription());
+            this.groupNames = Collections.unmodifiableList(new ArrayList<>(groupNames));
+            this.options = Collections.unmodifiableList(options);
+            Set<String> names = new LinkedHashSet<>();
+            for (OptionCompletion option : options) {
+                names.addAll(option.getNames());
+            }
+            this.optionNames = Collections.unmodifiableList(new ArrayList<>(names));
+            this.argumentsCommand = arguments != null && StringUtils.isNotEmpty(arguments.command())
+                    ? arguments.command() : null;
+            this.argumentsBehaviour = arguments != null ? arguments.behaviour() : CompletionBehaviour.NONE;
+        }
+
+        /**
+         * Gets the path of the command
+         * 
+         * @return Path
+         */
+        public String getPath() {
+            return this.path;
+        }
+
+        /**
+         * Gets the name of the command
+         * 
+         * @return Name
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Gets the description of the command
+         * 
+         * @return Description, empty if none
+         */
+        public String getDescription() {
+            return this.description;
+        }
+
+        /**
+         * Gets the names of the groups the command is in
+         * 
+         * @return Group names, empty for commands in the default group
+         */
+        public List<String> getGroupNames() {
+            return this.groupNames;
+        }
+
+        /**
+         * Gets the options of the command
+         * 
+         * @return Options
+         */
+        public List<OptionCompletion> getOptions() {
+            return this.options;
+        }
+
+        /**
+         * Gets the names of all the options of the command
+         * 
+         * @return Option names
+         */
+        public List<String> getOptionNames() {
+            return this.optionNames;
+        }
+
+        /**
+         * Gets the command used to generate completions for the arguments
+         * 
+         * @return Command, {@code null} if none
+         */
+        public String getArgumentsCommand() {
+            return this.argumentsCommand;
+        }
+
+        /**
+         * Gets the completion behaviour for the arguments
+         * 
+         * @return Completion behaviour
+         */
+        public CompletionBehaviour getArgumentsBehaviour() {
+            return this.argumentsBehaviour;
+        }
+
+        /**
+         * Gets whether the command has {@link BashCompletion} data on its
+         * arguments or options
+         * 
+         * @return True if there is any completion data
+         */
+        public boolean hasCompletionData() {
+            if (this.argumentsCommand != null || this.argumentsBehaviour != CompletionBehaviour.NONE)
+                return true;
+            for (OptionCompletion option : this.options) {
+                if (option.takesValue() && option.hasCompletionData())
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Completion data for a group, the CLI itself is represented as the root
+     * group
+     */
+    public static final class GroupCompletion {
+        private final String path, name, description;
+        private final List<GroupCompletion> subGroups = new ArrayList<>();
+        private final List<CommandCompletion> commands = new ArrayList<>();
+        private CommandCompletion defaultCommand;
+
+        private GroupCompletion(String path, String name, String description) {
+            this.path = path;
+            this.name = name;
+            this.description = StringUtils.defaultString(description);
+        }
+
+        /**
+         * Gets the path of the group
+         * 
+         * @return Path
+         */
+        public String getPath() {
+            return this.path;
+        }
+
+        /**
+         * Gets the name of the group
+         * 
+         * @return Name
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Gets the description of the group
+         * 
+         * @return Description, empty if none
+         */
+        public String getDescription() {
+            return this.description;
+        }
+
+        /**
+         * Gets the sub-groups of the group
+         * 
+         * @return Sub-groups
+         */
+        public List<GroupCompletion> getSubGroups() {
+            return Collections.unmodifiableList(this.subGroups);
+        }
+
+        /**
+         * Gets the commands of the group, where a command has the same name as
+         * a sub-group it is omitted
+         * 
+         * @return Commands
+         */
+        public List<CommandCompletion> getCommands() {
+            return Collections.unmodifiableList(this.commands);
+        }
+
+        /**
+         * Gets the words that may follow the group i.e. the names of its
+         * sub-groups followed by the names of its commands
+         * 
+         * @return Words
+         */
+        public List<String> getWords() {
+            List<String> words = new ArrayList<>();
+            for (GroupCompletion subGroup : this.subGroups) {
+                words.add(subGroup.getName());
+            }
+            for (CommandCompletion command : this.commands) {
+                words.add(command.getName());
+            }
+            return words;
+        }
+
+        /**
+         * Gets the default command of the group
+         * 
+         * @return Default command, {@code null} if none
+         */
+        public CommandCompletion getDefaultCommand() {
+            return this.defaultCommand;
+        }
+    }
+
+    private CompletionModel(GlobalMetadata<?> global, AbstractCompletionGenerator<?> generator) {
+        this.name = global.getName();
+        this.stamp = stamp(global);
+        this.root = new GroupCompletion(this.name, this.name, global.getDescription());
+        this.groups.put(this.name, this.root);
+
+        // Where a group and a command share a name the group takes precedence
+        List<String> groupNames = new ArrayList<>();
+        addGroups(generator, this.root, groupNames, global.getCommandGroups());
+        addCommands(generator, this.root, groupNames, global.getDefaultGroupCommands(), global.getDefaultCommand());
+    }
+
+    private void addGroups(AbstractCompletionGenerator<?> generator, GroupCompletion parent, List<String> groupNames,
+            List<CommandGroupMetadata> subGroups) {
+        for (CommandGroupMetadata group : subGroups) {
+            if (group.isHidden() && !generator.includeHidden())
+                continue;
+            GroupCompletion completion = new GroupCompletion(parent.getPath() + " " + group.getName(),
+                    group.getName(), group.getDescription());
+            parent.subGroups.add(completion);
+            this.groups.put(completion.getPath(), completion);
+
+            List<String> names = new ArrayList<>(groupNames);
+            names.add(group.getName());
+            addGroups(generator, completion, names, group.getSubGroups());
+            addCommands(generator, completion, names, group.getCommands(), group.getDefaultCommand());
+        }
+    }
+
+    private void addCommands(AbstractCompletionGenerator<?> generator, GroupCompletion group, List<String> groupNames,
+            List<CommandMetadata> commands, CommandMetadata defaultCommand) {
+        Set<String> subGroups = new LinkedHashSet<>();
+        for (GroupCompletion subGroup : group.subGroups) {
+            subGroups.add(subGroup.getName());
+        }
+        List<CommandMetadata> candidates = new ArrayList<>(commands);
+        if (defaultCommand != null && !candidates.contains(defaultCommand))
+            candidates.add(defaultCommand);
+        for (CommandMetadata command : candidates) {
+            if (subGroups.contains(command.getName()))
+                continue;
+            String path = group.getPath() + " " + command.getName();
+            if (this.commands.containsKey(path))
+                continue;
+            boolean isDefault = command.equals(defaultCommand);
+            if (command.isHidden() && !generator.includeHidden() && !isDefault)
+                continue;
+
+            List<OptionCompletion> options = new ArrayList<>();
+            for (OptionMetadata option : command.getAllOptions()) {
+                if (option.isHidden() && !generator.includeHidden())
+                    continue;
+                options.add(new OptionCompletion(option, generator.getCompletionData(option)));
+            }
+            ArgumentsMetadata arguments = command.getArguments();
+            CommandCompletion completion = new CommandCompletion(path, groupNames, command, options,
+                    arguments != null ? generator.getCompletionData(arguments) : null);
+            group.commands.add(completion);
+            this.commands.put(path, completion);
+            if (isDefault)
+                group.defaultCommand = completion;
+        }
+    }
+
+    private static int stamp(GlobalMetadata<?> global) {
+        int stamp = global.getDefaultGroupCommands().size();
+        for (CommandGroupMetadata group : global.getCommandGroups()) {
+            stamp += stamp(group);
+        }
+        return stamp;
+    }
+
+    private static int stamp(CommandGroupMetadata group) {
+        int stamp = 1 + group.getCommands().size();
+        for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+            stamp += stamp(subGroup);
+        }
+        return stamp;
+    }
+
+    /**
+     * Compiles the completion model for a CLI
+     * <p>
+     * If the generator uses the default completion data the model is cached
+     * so other generators that use the default completion data can use the
+     * same model.
+     * </p>
+     * 
+     * @param global
+     *            Global meta-data
+     * @param generator
+     *            Generator whose completion data and settings are used
+     * @return Completion model
+     */
+    public static CompletionModel compile(GlobalMetadata<?> global, AbstractCompletionGenerator<?> generator) {
+        if (overridesCompletionData(generator.getClass()))
+            return new CompletionModel(global, generator);
+
+        synchronized (MODELS) {
+            Map<Boolean, CompletionModel> models = MODELS.get(global);
+            if (models == null) {
+                models = new HashMap<>();
+                MODELS.put(global, models);
+            }
+            Boolean includeHidden = generator.includeHidden();
+            CompletionModel model = models.get(includeHidden);
+            if (model == null || model.stamp != stamp(global)) {
+                model = new CompletionModel(global, generator);
+                models.put(includeHidden, model);
+            }
+            return model;
+        }
+    }
+
+    private static boolean overridesCompletionData(Class<?> type) {
+        for (Class<?> cls = type; cls != AbstractCompletionGenerator.class; cls = cls.getSuperclass()) {
+            for (Method method : cls.getDeclaredMethods()) {
+                if (method.getName().equals("getCompletionData"))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the name of the CLI
+     * 
+     * @return Name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the root group i.e. the top level commands and groups of the CLI
+     * 
+     * @return Root group
+     */
+    public GroupCompletion getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Gets all the groups, including the root group, in the order they were
+     * compiled
+     * 
+     * @return Groups
+     */
+    public Collection<GroupCompletion> getGroups() {
+        return Collections.unmodifiableCollection(this.groups.values());
+    }
+
+    /**
+     * Gets all the commands in the order they were compiled
+     * 
+     * @return Commands
+     */
+    public Collection<CommandCompletion> getCommands() {
+        return Collections.unmodifiableCollection(this.commands.values());
+    }
+
+    /**
+     * Gets a group by its path
+     * 
+     * @param path
+     *            Path
+     * @return Group, {@code null} if no such group
+     */
+    public GroupCompletion getGroup(String path) {
+        return this.groups.get(path);
+    }
+
+    /**
+     * Gets a command by its path
+     * 
+     * @param path
+     *            Path
+     * @return Command, {@code null} if no such command
+     */
+    public CommandCompletion getCommand(String path) {
+        return this.commands.get(path);
+    }
+}
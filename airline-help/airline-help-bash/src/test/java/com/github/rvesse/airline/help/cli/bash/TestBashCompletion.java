@@ -0,0 +1,301 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.cli.bash;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.annotations.help.BashCompletion;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.suggester.CompletionServer;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+public class TestBashCompletion {
+
+    public static abstract class BaseCommand implements Runnable {
+        @Option(name = { "-v", "--verbose" }, type = OptionType.GLOBAL)
+        public boolean verbose;
+
+        @Option(name = "--config")
+        public String config;
+
+        @Option(name = "--format")
+        @AllowedRawValues(allowedValues = { "json", "text", "xml" })
+        public String format;
+
+        @Option(name = "--dry-run")
+        public boolean dryRun;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Command(name = "create")
+    public static class Create extends BaseCommand {
+        @Option(name = "--name")
+        public String name;
+
+        @Arguments
+        public List<String> arguments = new ArrayList<String>();
+    }
+
+    @Command(name = "delete")
+    public static class Delete extends BaseCommand {
+        @Option(name = "--force")
+        public boolean force;
+    }
+
+    @Command(name = "load")
+    public static class Load extends BaseCommand {
+        @Option(name = "--from")
+        @BashCompletion(command = "echo remote local")
+        public String from;
+    }
+
+    private static GlobalMetadata<Runnable> large(int groups) {
+        @SuppressWarnings("unchecked")
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("large").withDefaultCommand(Create.class)
+                .withCommands(Create.class, Delete.class, Load.class);
+        for (int i = 0; i < groups; i++) {
+            builder.withGroup("group" + i).withDefaultCommand(Delete.class).withCommands(Create.class,
+                    Delete.class, Load.class);
+        }
+        return builder.build().getMetadata();
+    }
+
+    private static File generate(GlobalMetadata<Runnable> global, boolean lookupTables) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BashCompletionGenerator<Runnable>(false, false, null, lookupTables).usage(global, output);
+        File file = new File("target/" + global.getName() + (lookupTables ? "-lookup" : "-functions") + ".bash");
+        Files.write(file.toPath(), output.toByteArray());
+        return file;
+    }
+
+    private static String bash(String script) throws IOException, InterruptedException {
+        Process process;
+        try {
+            process = new ProcessBuilder("bash", "-c", script).redirectErrorStream(true).start();
+        } catch (IOException e) {
+            throw new SkipException("Bash not available");
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (InputStream input = process.getInputStream()) {
+            byte[] bytes = new byte[8192];
+            int read;
+            while ((read = input.read(bytes)) >= 0) {
+                buffer.write(bytes, 0, read);
+            }
+        }
+        String output = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertEquals(process.waitFor(), 0, output);
+        return output;
+    }
+
+    private static void requireBash(int version, String reason) throws IOException, InterruptedException {
+        String actual = bash("echo $(( BASH_VERSINFO[0] * 100 + BASH_VERSINFO[1] ))").trim();
+        if (Integer.parseInt(actual) < version)
+            throw new SkipException(reason);
+    }
+
+    private static void requireBash42() throws IOException, InterruptedException {
+        requireBash(402, "Lookup table scripts require Bash 4.2 or later");
+    }
+
+    private static String completionCall(String... words) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("COMP_WORDS=(");
+        for (String word : words) {
+            builder.append(" '").append(word).append('\'');
+        }
+        builder.append(" ); COMP_CWORD=").append(words.length - 1).append("; _complete_large; ");
+        return builder.toString();
+    }
+
+    private static List<String> complete(File script, String... words) throws IOException, InterruptedException {
+        String output = bash("source " + script.getAbsolutePath() + "; " + completionCall(words)
+                + "printf '%s\\n' \"${COMPREPLY[@]}\"");
+        List<String> completions = new ArrayList<>();
+        for (String completion : output.split("\n")) {
+            if (!completion.isEmpty())
+                completions.add(completion);
+        }
+        Collections.sort(completions);
+        return completions;
+    }
+
+    private static List<String> sorted(String... words) {
+        List<String> sorted = new ArrayList<>(Arrays.asList(words));
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    @Test
+    public void bash_lookup_tables_01() throws IOException {
+        String script = new String(Files.readAllBytes(generate(large(2), true).toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(script.contains("declare -gA _complete_large_words=("));
+        Assert.assertTrue(script.contains("  ['large group1']='create delete load'\n"));
+        Assert.assertTrue(script.contains("  ['large group1']='large group1 delete'\n"));
+        Assert.assertTrue(script.contains("  ['large group0 create --format']='json text xml'\n"));
+
+        // Only commands with completion data have a function and it is only
+        // defined when first needed
+        Assert.assertTrue(script.contains("  ['large group0 load']='_complete_large_group_group0_command_load'\n"));
+        Assert.assertFalse(script.contains("_command_create"));
+        Assert.assertFalse(script.contains("\nfunction _complete_large_group_group0_command_load"));
+    }
+
+    @Test
+    public void bash_lookup_tables_02() throws IOException, InterruptedException {
+        requireBash42();
+        File script = generate(large(2), true);
+
+        Assert.assertEquals(complete(script, "large", ""),
+                sorted("--config", "--dry-run", "--format", "--name", "-v", "--verbose", "create", "delete",
+                        "group0", "group1", "load"));
+        Assert.assertEquals(complete(script, "large", "gr"), sorted("group0", "group1"));
+        Assert.assertEquals(complete(script, "large", "group1", ""),
+                sorted("--config", "--dry-run", "--force", "--format", "-v", "--verbose", "create", "delete",
+                        "load"));
+        Assert.assertEquals(complete(script, "large", "group1", "create", "--f"), sorted("--format"));
+        Assert.assertEquals(complete(script, "large", "group1", "create", "--format", ""),
+                sorted("json", "text", "xml"));
+        Assert.assertEquals(complete(script, "large", "group1", "create", "--name", ""),
+                sorted());
+        Assert.assertEquals(complete(script, "large", "load", "--from", "r"), sorted("remote"));
+        Assert.assertEquals(complete(script, "large", "load", "--f"), sorted("--format", "--from"));
+
+        // Default commands
+        Assert.assertEquals(complete(script, "large", "--name", ""), sorted());
+        Assert.assertEquals(complete(script, "large", "group0", "--dry-run", "--fo"), sorted("--force",
+                "--format"));
+    }
+
+    @Test
+    public void bash_server_started_once() throws IOException, InterruptedException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BashCompletionGenerator<Runnable>(false, false, "completion-server").usage(large(2), output);
+        File script = new File("target/large-server.bash");
+        Files.write(script.toPath(), output.toByteArray());
+        File home = Files.createTempDirectory("home").toFile();
+
+        // Stand in for the CLI which records each server started
+        String output1 = bash("export HOME=" + home.getAbsolutePath() + "; "
+                + "large() { echo started >> \"${HOME}/starts\"; sleep 3; }; source " + script.getAbsolutePath()
+                + "; " + completionCall("large", "gr") + completionCall("large", "gr")
+                + "printf '%s\\n' \"${COMPREPLY[@]}\"; sleep 1; cat \"${HOME}/starts\"");
+
+        // Static completions are used while no server is available and the
+        // server is only started once
+        Assert.assertEquals(output1, "group0\ngroup1\nstarted\n");
+        Assert.assertTrue(new File(home, ".airline/large.completion.pid").exists());
+    }
+
+    @Test
+    public void bash_server_preserves_descriptors() throws IOException, InterruptedException {
+        requireBash(401, "Server scripts require Bash 4.1 or later");
+        GlobalMetadata<Runnable> global = large(2);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BashCompletionGenerator<Runnable>(false, false, "completion-server").usage(global, output);
+        File script = new File("target/large-server-descriptors.bash");
+        Files.write(script.toPath(), output.toByteArray());
+        File home = Files.createTempDirectory("home").toFile();
+
+        try (CompletionServer<Runnable> server = new CompletionServer<Runnable>(global,
+                new File(home, ".airline/large.completion"))) {
+            server.start();
+
+            // Descriptors the user already has open are left alone
+            String output1 = bash("export HOME=" + home.getAbsolutePath() + "; exec 9> \"${HOME}/fd9\"; source "
+                    + script.getAbsolutePath() + "; " + completionCall("large", "gr")
+                    + "echo still open >&9; printf '%s\\n' \"${COMPREPLY[@]}\"; cat \"${HOME}/fd9\"");
+
+            Assert.assertEquals(output1, "group0\ngroup1\nstill open\n");
+            Assert.assertEquals(server.getRequestCount(), 1);
+        }
+    }
+
+    @Test
+    public void bash_lookup_tables_size() throws IOException {
+        // Synthetic CLI with 900 commands
+        GlobalMetadata<Runnable> global = large(300);
+        File functions = generate(global, false);
+        File lookups = generate(global, true);
+
+        Assert.assertTrue(lookups.length() < functions.length());
+    }
+
+    @Test
+    public void bash_lookup_tables_timing() throws IOException, InterruptedException {
+        requireBash42();
+        if (!bash("echo ${EPOCHREALTIME}").trim().matches("[0-9]+[.,][0-9]+"))
+            throw new SkipException("Timing requires Bash 5");
+
+        // Synthetic CLI with 900 commands
+        GlobalMetadata<Runnable> global = large(300);
+        File functions = generate(global, false);
+        File lookups = generate(global, true);
+
+        // Timings are only reported, wall-clock comparisons are too noisy to
+        // assert on
+        String[] completions = { completionCall("large", "group150", "c"),
+                completionCall("large", "group299", "create", "--"),
+                completionCall("large", "group7", "load", "--from", "") };
+        double[] functionTimes = time(functions, completions);
+        double[] lookupTimes = time(lookups, completions);
+        Reporter.log(String.format(
+                "Bash completion for %d commands: functions %d bytes, sourced in %.1f ms, completed in %.2f ms",
+                3 * 301, functions.length(), functionTimes[0], functionTimes[1]));
+        Reporter.log(String.format(
+                "Bash completion for %d commands: lookups %d bytes, sourced in %.1f ms, completed in %.2f ms",
+                3 * 301, lookups.length(), lookupTimes[0], lookupTimes[1]));
+    }
+
+    private static double[] time(File script, String[] completions) throws IOException, InterruptedException {
+        StringBuilder builder = new StringBuilder();
+        builder.append("now() { local T=${EPOCHREALTIME/,/.}; echo ${T/./}; }; ");
+        builder.append("START=$(now); for I in 1 2 3 4 5; do source ").append(script.getAbsolutePath())
+                .append("; done; SOURCED=$(now); ");
+        builder.append("for I in $(seq 1 20); do ");
+        for (String completion : completions) {
+            builder.append(completion);
+        }
+        builder.append("done; COMPLETED=$(now); ");
+        builder.append("echo $(( SOURCED - START )) $(( COMPLETED - SOURCED ))");
+        String[] times = bash(builder.toString()).trim().split(" ");
+        return new double[] { Long.parseLong(times[0]) / 5000.0,
+                Long.parseLong(times[1]) / (20000.0 * completions.length) };
+    }
+}
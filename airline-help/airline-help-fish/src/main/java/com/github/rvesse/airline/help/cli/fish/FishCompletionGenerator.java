@@ -0,0 +1,288 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.cli.fish;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.github.rvesse.airline.annotations.help.BashCompletion;
+import com.github.rvesse.airline.help.cli.bash.AbstractCompletionGenerator;
+import com.github.rvesse.airline.help.cli.bash.CompletionBehaviour;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel.CommandCompletion;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel.GroupCompletion;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel.OptionCompletion;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * A generator for Fish completion scripts
+ * <p>
+ * The generated script is built from the same {@link CompletionModel} as the
+ * {@link com.github.rvesse.airline.help.cli.bash.BashCompletionGenerator} and
+ * honours the same {@link BashCompletion} annotations. Fish has no associative
+ * arrays so each group and command is given a numeric identifier and the
+ * script declares list variables named after those identifiers that hold the
+ * words to complete, completing only does list lookups so the CLI itself is
+ * never run. Commands given in {@link BashCompletion#command()} are still run
+ * when completing the relevant option values or arguments.
+ * </p>
+ * <p>
+ * The script may be placed in a Fish completions directory as
+ * {@code <cli>.fish} or simply sourced.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public class FishCompletionGenerator<T> extends AbstractCompletionGenerator<T> {
+
+    private static final char NEWLINE = '\n';
+    private static final String DOUBLE_NEWLINE = "\n\n";
+
+    public FishCompletionGenerator() {
+        this(false);
+    }
+
+    /**
+     * Creates a new completion generator
+     * 
+     * @param includeHidden
+     *            Whether to include hidden commands and options
+     */
+    public FishCompletionGenerator(boolean includeHidden) {
+        super(includeHidden);
+    }
+
+    @Override
+    public void usage(GlobalMetadata<T> global, OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output);
+        String prefix = "__complete_" + bashize(global.getName());
+        CompletionModel model = getCompletionModel(global);
+
+        // Script header
+        writer.append("# Generated by airline FishCompletionGenerator").append(DOUBLE_NEWLINE);
+
+        // Number the groups and commands, the root group is always 1
+        Map<Object, Integer> ids = new IdentityHashMap<>();
+        for (GroupCompletion group : model.getGroups()) {
+            ids.put(group, ids.size() + 1);
+        }
+        List<String> commandIds = new ArrayList<>();
+        for (CommandCompletion command : model.getCommands()) {
+            ids.put(command, ids.size() + 1);
+            commandIds.add(Integer.toString(ids.get(command)));
+        }
+        writeList(writer, prefix + "_commands", commandIds);
+
+        // Groups
+        for (GroupCompletion group : model.getGroups()) {
+            int id = ids.get(group);
+            List<String> names = new ArrayList<>();
+            List<String> children = new ArrayList<>();
+            List<String> words = new ArrayList<>();
+            for (GroupCompletion subGroup : group.getSubGroups()) {
+                names.add(subGroup.getName());
+                children.add(Integer.toString(ids.get(subGroup)));
+                words.add(describe(subGroup.getName(), subGroup.getDescription()));
+            }
+            for (CommandCompletion command : group.getCommands()) {
+                names.add(command.getName());
+                children.add(Integer.toString(ids.get(command)));
+                words.add(describe(command.getName(), command.getDescription()));
+            }
+            writeList(writer, prefix + "_names_" + id, names);
+            writeList(writer, prefix + "_ids_" + id, children);
+            writeList(writer, prefix + "_words_" + id, words);
+            if (group.getDefaultCommand() != null) {
+                writeValue(writer, prefix + "_default_" + id,
+                        Integer.toString(ids.get(group.getDefaultCommand())));
+            }
+        }
+
+        // Commands
+        for (CommandCompletion command : model.getCommands()) {
+            int id = ids.get(command);
+            List<String> options = new ArrayList<>();
+            List<String> argOptions = new ArrayList<>();
+            for (OptionCompletion option : command.getOptions()) {
+                for (String name : option.getNames()) {
+                    options.add(describe(name, option.getDescription()));
+                }
+                if (!option.takesValue())
+                    continue;
+                for (String name : option.getNames()) {
+                    argOptions.add(name);
+                    String key = id + "_" + argOptions.size();
+                    writeList(writer, prefix + "_values_" + key, option.getAllowedValues());
+                    if (option.getCommand() != null)
+                        writeValue(writer, prefix + "_value_command_" + key, option.getCommand());
+                    if (option.getBehaviour() != CompletionBehaviour.NONE)
+                        writeValue(writer, prefix + "_value_behaviour_" + key, toBehaviour(option.getBehaviour()));
+                }
+            }
+            writeList(writer, prefix + "_opts_" + id, options);
+            writeList(writer, prefix + "_arg_opts_" + id, argOptions);
+            if (command.getArgumentsCommand() != null)
+                writeValue(writer, prefix + "_arg_command_" + id, command.getArgumentsCommand());
+            if (command.getArgumentsBehaviour() != CompletionBehaviour.NONE)
+                writeValue(writer, prefix + "_arg_behaviour_" + id, toBehaviour(command.getArgumentsBehaviour()));
+        }
+        writer.append(NEWLINE);
+
+        generateCompletionFunction(writer, prefix);
+
+        // Completion setup
+        writer.append("complete -c ").append(global.getName()).append(" -f -a '(").append(prefix).append(")'")
+                .append(NEWLINE);
+
+        // Flush the output
+        writer.flush();
+        output.flush();
+    }
+
+    private void generateCompletionFunction(Writer writer, String prefix) throws IOException {
+        writer.append("function ").append(prefix).append(NEWLINE);
+        writer.append("    set -l tokens (commandline -opc)").append(NEWLINE);
+        writer.append("    set -l current (commandline -ct)").append(NEWLINE);
+        writer.append("    set -l node 1").append(NEWLINE);
+        writer.append("    set -l cmd").append(NEWLINE);
+        writer.append("    set -l behaviour").append(NEWLINE);
+        writer.append("    set -l i 2").append(DOUBLE_NEWLINE);
+
+        writer.append("    # Find the group/command being completed").append(NEWLINE);
+        writer.append("    while test $i -le (count $tokens)").append(NEWLINE);
+        writer.append("        set -l names ").append(prefix).append("_names_$node").append(NEWLINE);
+        writer.append("        set -l ids ").append(prefix).append("_ids_$node").append(NEWLINE);
+        writer.append("        set -l index (contains -i -- $tokens[$i] $$names)").append(NEWLINE);
+        writer.append("        or break").append(NEWLINE);
+        writer.append("        set ids $$ids").append(NEWLINE);
+        writer.append("        set node $ids[$index]").append(NEWLINE);
+        writer.append("        if contains -- $node $").append(prefix).append("_commands").append(NEWLINE);
+        writer.append("            set cmd $node").append(NEWLINE);
+        writer.append("            break").append(NEWLINE);
+        writer.append("        end").append(NEWLINE);
+        writer.append("        set i (math $i + 1)").append(NEWLINE);
+        writer.append("    end").append(DOUBLE_NEWLINE);
+
+        writer.append("    if test -z \"$cmd\"").append(NEWLINE);
+        writer.append("        # Offer the groups/commands that may follow the group").append(NEWLINE);
+        writer.append("        if test $i -gt (count $tokens)").append(NEWLINE);
+        writer.append("            set -l words ").append(prefix).append("_words_$node").append(NEWLINE);
+        writer.append("            printf '%s\\n' $$words").append(NEWLINE);
+        writer.append("        end").append(NEWLINE);
+        writer.append("        set -l fallback ").append(prefix).append("_default_$node").append(NEWLINE);
+        writer.append("        set cmd $$fallback").append(NEWLINE);
+        writer.append("        test -n \"$cmd\"; or return 0").append(NEWLINE);
+        writer.append("    end").append(DOUBLE_NEWLINE);
+
+        writer.append("    set -l arg_opts ").append(prefix).append("_arg_opts_$cmd").append(NEWLINE);
+        writer.append("    set -l index (contains -i -- $tokens[-1] $$arg_opts)").append(NEWLINE);
+        writer.append("    if test -n \"$index\"").append(NEWLINE);
+        writer.append("        # Completing a value for an option").append(NEWLINE);
+        writer.append("        set -l values ").append(prefix).append("_values_{$cmd}_$index").append(NEWLINE);
+        writer.append("        set -l value_command ").append(prefix).append("_value_command_{$cmd}_$index")
+                .append(NEWLINE);
+        writer.append("        set -l value_behaviour ").append(prefix).append("_value_behaviour_{$cmd}_$index")
+                .append(NEWLINE);
+        writer.append("        printf '%s\\n' $$values").append(NEWLINE);
+        writer.append("        set -q $value_command; and eval $$value_command | string split -n ' '")
+                .append(NEWLINE);
+        writer.append("        set behaviour $$value_behaviour").append(NEWLINE);
+        writer.append("    else").append(NEWLINE);
+        writer.append("        # Otherwise completing options or arguments").append(NEWLINE);
+        writer.append("        set -l opts ").append(prefix).append("_opts_$cmd").append(NEWLINE);
+        writer.append("        set -l arg_command ").append(prefix).append("_arg_command_$cmd").append(NEWLINE);
+        writer.append("        set -l arg_behaviour ").append(prefix).append("_arg_behaviour_$cmd").append(NEWLINE);
+        writer.append("        printf '%s\\n' $$opts").append(NEWLINE);
+        writer.append("        set -q $arg_command; and eval $$arg_command | string split -n ' '").append(NEWLINE);
+        writer.append("        set behaviour $$arg_behaviour").append(NEWLINE);
+        writer.append("    end").append(DOUBLE_NEWLINE);
+
+        writer.append("    switch \"$behaviour\"").append(NEWLINE);
+        writer.append("        case files").append(NEWLINE);
+        writer.append("            __fish_complete_path $current").append(NEWLINE);
+        writer.append("        case directories").append(NEWLINE);
+        writer.append("            __fish_complete_directories $current").append(NEWLINE);
+        writer.append("        case commands").append(NEWLINE);
+        writer.append("            __fish_complete_command").append(NEWLINE);
+        writer.append("        case cli").append(NEWLINE);
+        writer.append("            printf '%s\\n' $").append(prefix).append("_words_1").append(NEWLINE);
+        writer.append("    end").append(NEWLINE);
+        writer.append("end").append(DOUBLE_NEWLINE);
+    }
+
+    private String describe(String word, String description) {
+        // Fish shows anything after a tab as the description of a completion
+        description = StringUtils.normalizeSpace(description);
+        return StringUtils.isEmpty(description) ? word : word + '\t' + description;
+    }
+
+    private String toBehaviour(CompletionBehaviour behaviour) {
+        switch (behaviour) {
+        case FILENAMES:
+        case AS_FILENAMES:
+            return "files";
+        case DIRECTORIES:
+        case AS_DIRECTORIES:
+            return "directories";
+        case SYSTEM_COMMANDS:
+            return "commands";
+        case CLI_COMMANDS:
+            return "cli";
+        default:
+            return "";
+        }
+    }
+
+    private void writeValue(Writer writer, String varName, String value) throws IOException {
+        writer.append("set -g ").append(varName).append(' ');
+        writeSingleQuoted(writer, value);
+        writer.append(NEWLINE);
+    }
+
+    private void writeList(Writer writer, String varName, Collection<String> values) throws IOException {
+        if (values.isEmpty())
+            return;
+        writer.append("set -g ").append(varName);
+        for (String value : values) {
+            writer.append(' ');
+            writeSingleQuoted(writer, value);
+        }
+        writer.append(NEWLINE);
+    }
+
+    private void writeSingleQuoted(Writer writer, String value) throws IOException {
+        // Within single quotes Fish only treats backslashes and quotes
+        // specially
+        writer.append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '\'')
+                writer.append('\\');
+            writer.append(c);
+        }
+        writer.append('\'');
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.cli.fish;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.help.BashCompletion;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.cli.bash.BashCompletionGenerator;
+import com.github.rvesse.airline.help.cli.bash.CompletionBehaviour;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+public class TestFishCompletion {
+
+    public static abstract class BaseCommand implements Runnable {
+        @Option(name = { "-v", "--verbose" })
+        public boolean verbose;
+
+        @Option(name = "--format")
+        @AllowedRawValues(allowedValues = { "json", "text", "xml" })
+        public String format;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Command(name = "create", description = "Creates a thing: quickly")
+    public static class Create extends BaseCommand {
+        @Arguments
+        @BashCompletion(behaviour = CompletionBehaviour.FILENAMES)
+        public List<String> arguments = new ArrayList<String>();
+    }
+
+    @Command(name = "load", description = "Loads a thing")
+    public static class Load extends BaseCommand {
+        @Option(name = "--from")
+        @BashCompletion(command = "echo remote local")
+        public String from;
+    }
+
+    private static GlobalMetadata<Runnable> cli() {
+        @SuppressWarnings("unchecked")
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("tool").withDefaultCommand(Create.class)
+                .withCommands(Create.class, Load.class);
+        builder.withGroup("remote").withDefaultCommand(Load.class).withCommands(Create.class, Load.class);
+        return builder.build().getMetadata();
+    }
+
+    private static String generate(GlobalMetadata<Runnable> global) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new FishCompletionGenerator<Runnable>().usage(global, output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> complete(String script, String line) throws IOException, InterruptedException {
+        File file = new File("target/tool.fish");
+        Files.write(file.toPath(), script.getBytes(StandardCharsets.UTF_8));
+
+        Process process;
+        try {
+            process = new ProcessBuilder("fish", "--no-config", "-c",
+                    "source " + file.getAbsolutePath() + "; complete -C'" + line + "'").redirectErrorStream(true)
+                    .start();
+        } catch (IOException e) {
+            throw new SkipException("Fish not available");
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (InputStream input = process.getInputStream()) {
+            byte[] bytes = new byte[8192];
+            int read;
+            while ((read = input.read(bytes)) >= 0) {
+                buffer.write(bytes, 0, read);
+            }
+        }
+        String output = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertEquals(process.waitFor(), 0, output);
+
+        // Strip the descriptions
+        List<String> completions = new ArrayList<>();
+        for (String completion : output.split("\n")) {
+            if (!completion.isEmpty())
+                completions.add(completion.split("\t")[0]);
+        }
+        Collections.sort(completions);
+        return completions;
+    }
+
+    private static List<String> sorted(String... words) {
+        List<String> sorted = new ArrayList<>(Arrays.asList(words));
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    @Test
+    public void fish_completion_01() throws IOException {
+        String script = generate(cli());
+        Assert.assertTrue(script.contains("set -g __complete_tool_commands '3' '4' '5' '6'\n"));
+        Assert.assertTrue(script.contains("set -g __complete_tool_names_1 'remote' 'create' 'load'\n"));
+        Assert.assertTrue(script.contains("set -g __complete_tool_ids_1 '2' '5' '6'\n"));
+        Assert.assertTrue(script.contains("set -g __complete_tool_words_1 'remote' 'create\tCreates a thing: quickly' 'load\tLoads a thing'\n"));
+        Assert.assertTrue(script.contains("set -g __complete_tool_default_2 '4'\n"));
+        Assert.assertTrue(script.contains("set -g __complete_tool_values_5_1 'json' 'text' 'xml'\n"));
+        Assert.assertTrue(script.contains("set -g __complete_tool_value_command_4_2 'echo remote local'\n"));
+        Assert.assertTrue(script.contains("set -g __complete_tool_arg_behaviour_3 'files'\n"));
+        Assert.assertTrue(script.contains("complete -c tool -f -a '(__complete_tool)'\n"));
+    }
+
+    @Test
+    public void fish_completion_02() {
+        // All completion generators share the same compiled model
+        GlobalMetadata<Runnable> global = cli();
+        CompletionModel model = CompletionModel.compile(global, new FishCompletionGenerator<Runnable>());
+        Assert.assertSame(CompletionModel.compile(global, new BashCompletionGenerator<Runnable>()), model);
+        Assert.assertNotSame(CompletionModel.compile(global, new FishCompletionGenerator<Runnable>(true)), model);
+    }
+
+    @Test
+    public void fish_completion_03() throws IOException, InterruptedException {
+        String script = generate(cli());
+
+        Assert.assertEquals(complete(script, "tool remote "),
+                sorted("--format", "--from", "-v", "--verbose", "create", "load"));
+        Assert.assertEquals(complete(script, "tool remote create --format "), sorted("json", "text", "xml"));
+        Assert.assertEquals(complete(script, "tool load --from r"), sorted("remote"));
+        Assert.assertEquals(complete(script, "tool load --f"), sorted("--format", "--from"));
+        Assert.assertEquals(complete(script, "tool cr"), sorted("create"));
+    }
+}
@@ -0,0 +1,95 @@
+# Generated by airline FishCompletionGenerator
+
+set -g __complete_tool_commands '3' '4' '5' '6'
+set -g __complete_tool_names_1 'remote' 'create' 'load'
+set -g __complete_tool_ids_1 '2' '5' '6'
+set -g __complete_tool_words_1 'remote' 'create	Creates a thing: quickly' 'load	Loads a thing'
+set -g __complete_tool_default_1 '5'
+set -g __complete_tool_names_2 'create' 'load'
+set -g __complete_tool_ids_2 '3' '4'
+set -g __complete_tool_words_2 'create	Creates a thing: quickly' 'load	Loads a thing'
+set -g __complete_tool_default_2 '4'
+set -g __complete_tool_values_3_1 'json' 'text' 'xml'
+set -g __complete_tool_opts_3 '-v' '--verbose' '--format'
+set -g __complete_tool_arg_opts_3 '--format'
+set -g __complete_tool_arg_behaviour_3 'files'
+set -g __complete_tool_values_4_1 'json' 'text' 'xml'
+set -g __complete_tool_value_command_4_2 'echo remote local'
+set -g __complete_tool_opts_4 '-v' '--verbose' '--format' '--from'
+set -g __complete_tool_arg_opts_4 '--format' '--from'
+set -g __complete_tool_values_5_1 'json' 'text' 'xml'
+set -g __complete_tool_opts_5 '-v' '--verbose' '--format'
+set -g __complete_tool_arg_opts_5 '--format'
+set -g __complete_tool_arg_behaviour_5 'files'
+set -g __complete_tool_values_6_1 'json' 'text' 'xml'
+set -g __complete_tool_value_command_6_2 'echo remote local'
+set -g __complete_tool_opts_6 '-v' '--verbose' '--format' '--from'
+set -g __complete_tool_arg_opts_6 '--format' '--from'
+
+function __complete_tool
+    set -l tokens (commandline -opc)
+    set -l current (commandline -ct)
+    set -l node 1
+    set -l cmd
+    set -l behaviour
+    set -l i 2
+
+    # Find the group/command being completed
+    while test $i -le (count $tokens)
+        set -l names __complete_tool_names_$node
+        set -l ids __complete_tool_ids_$node
+        set -l index (contains -i -- $tokens[$i] $$names)
+        or break
+        set ids $$ids
+        set node $ids[$index]
+        if contains -- $node $__complete_tool_commands
+            set cmd $node
+            break
+        end
+        set i (math $i + 1)
+    end
+
+    if test -z "$cmd"
+        # Offer the groups/commands that may follow the group
+        if test $i -gt (count $tokens)
+            set -l words __complete_tool_words_$node
+            printf '%s\n' $$words
+        end
+        set -l fallback __complete_tool_default_$node
+        set cmd $$fallback
+        test -n "$cmd"; or return 0
+    end
+
+    set -l arg_opts __complete_tool_arg_opts_$cmd
+    set -l index (contains -i -- $tokens[-1] $$arg_opts)
+    if test -n "$index"
+        # Completing a value for an option
+        set -l values __complete_tool_values_{$cmd}_$index
+        set -l value_command __complete_tool_value_command_{$cmd}_$index
+        set -l value_behaviour __complete_tool_value_behaviour_{$cmd}_$index
+        printf '%s\n' $$values
+        set -q $value_command; and eval $$value_command | string split -n ' '
+        set behaviour $$value_behaviour
+    else
+        # Otherwise completing options or arguments
+        set -l opts __complete_tool_opts_$cmd
+        set -l arg_command __complete_tool_arg_command_$cmd
+        set -l arg_behaviour __complete_tool_arg_behaviour_$cmd
+        printf '%s\n' $$opts
+        set -q $arg_command; and eval $$arg_command | string split -n ' '
+        set behaviour $$arg_behaviour
+    end
+
+    switch "$behaviour"
+        case files
+            __fish_complete_path $current
+        case directories
+            __fish_complete_directories $current
+        case commands
+            __fish_complete_command
+        case cli
+            printf '%s\n' $__complete_tool_words_1
+    end
+end
+
+complete -c tool -f -a '(__complete_tool)'
@@ -15,9 +15,11 @@
  */
 package com.github.rvesse.airline.help.html;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -26,6 +28,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.help.UsageHelper;
 import com.github.rvesse.airline.help.common.AbstractCommandUsageGenerator;
+import com.github.rvesse.airline.help.common.Fingerprint;
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
@@ -37,6 +40,11 @@ import com.github.rvesse.airline.restrictions.OptionRestriction;
 
 /**
  * A usage generator that generates HTML documentation
+ * <p>
+ * Output is buffered and values are escaped directly into the buffer, the
+ * fixed fragments of markup are precomputed constants and the HTML header is
+ * computed once per generator.
+ * </p>
  */
 public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
 
@@ -49,12 +57,44 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
      * })
      */
     protected static final String NEWLINE = "<br/>\n";
+    /**
+     * Start of a row whose content is indented by one column
+     */
+    protected static final String ROW_START_OFFSET_1 = "<div class=\"row\">\n<div class=\"span8 offset1\">\n";
+    /**
+     * Start of a row whose content is indented by two columns
+     */
+    protected static final String ROW_START_OFFSET_2 = "<div class=\"row\">\n<div class=\"span8 offset2\">\n";
+    /**
+     * Start of a row whose content is indented by three columns
+     */
+    protected static final String ROW_START_OFFSET_3 = "<div class=\"row\">\n<div class=\"span8 offset3\">\n";
+    /**
+     * End of a row
+     */
+    protected static final String ROW_END = "</div>\n</div>\n";
+    /**
+     * Default additional CSS
+     */
+    protected static final String DEFAULT_CSS = "    body { margin: 50px; }\n";
+
+    static final String HEAD_START = "<html>\n<head>\n", STYLE_START = "<style>\n",
+            HEAD_END = "</style>\n</head>\n", BODY_START = "<body>\n", BODY_END = "</body>\n</html>\n",
+            OPTIONS_HEADER = "<h1 class=\"text-info\">OPTIONS</h1>\n" + NEWLINE,
+            SYNOPSIS_HEADER = "<h1 class=\"text-info\">SYNOPSIS</h1>\n" + NEWLINE,
+            NAME_HEADER = "<h2 class=\"text-info\">NAME</h1>\n" + NEWLINE,
+            ARGUMENTS_SEPARATOR_DESCRIPTION = "This option can be used to separate command-line options from the "
+                    + "list of argument, (useful when arguments might be mistaken for command-line options)\n";
+
+    private static final int BUFFER_SIZE = 8192;
 
     /**
      * List of stylesheet URLs
      */
     protected final List<String> stylesheetUrls = new ArrayList<>();
 
+    private volatile String htmlHeader;
+
     public HtmlCommandUsageGenerator() {
         this(UsageHelper.DEFAULT_OPTION_COMPARATOR, false, DEFAULT_STYLESHEET);
     }
@@ -82,16 +122,17 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
     @Override
     public <T> void usage(String programName, String[] groupNames, String commandName, CommandMetadata command,
             ParserMetadata<T> parserConfig, OutputStream output) throws IOException {
+        useHelpModel(command);
 
         if (parserConfig == null) {
             parserConfig = MetadataLoader.loadParser(command.getType());
         }
 
-        Writer writer = new OutputStreamWriter(output);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output), BUFFER_SIZE);
 
         // Header
         outputHtmlHeader(writer);
-        writer.append("<body>\n");
+        writer.write(BODY_START);
 
         // Page Header i.e. <h1>
         outputPageHeader(writer, programName, groupNames, command);
@@ -112,8 +153,7 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
 
         // TODO Output post help sections
 
-        writer.append("</body>\n");
-        writer.append("</html>\n");
+        writer.write(BODY_END);
 
         // Flush the output
         writer.flush();
@@ -131,8 +171,8 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
      */
     protected <T> void outputOptions(Writer writer, List<OptionMetadata> options, ArgumentsMetadata arguments,
             ParserMetadata<T> parserConfig) throws IOException {
-        writer.append(NEWLINE);
-        writer.append("<h1 class=\"text-info\">OPTIONS</h1>\n").append(NEWLINE);
+        writer.write(NEWLINE);
+        writer.write(OPTIONS_HEADER);
 
         for (OptionMetadata option : options) {
             // skip hidden options
@@ -141,18 +181,14 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
             }
 
             // Option names
-            writer.append("<div class=\"row\">\n");
-            writer.append("<div class=\"span8 offset1\">\n");
-            writer.append(htmlize(toDescription(option)));
-            writer.append("</div>\n");
-            writer.append("</div>\n");
+            writer.write(ROW_START_OFFSET_1);
+            htmlize(writer, toDescription(option));
+            writer.write(ROW_END);
 
             // Description
-            writer.append("<div class=\"row\">\n");
-            writer.append("<div class=\"span8 offset2\">\n");
-            writer.append(htmlize(option.getDescription()));
-            writer.append("</div>\n");
-            writer.append("</div>\n");
+            writer.write(ROW_START_OFFSET_2);
+            htmlize(writer, option.getDescription());
+            writer.write(ROW_END);
 
             // Allowed values
             for (OptionRestriction restriction : option.getRestrictions()) {
@@ -164,41 +200,24 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
 
         if (arguments != null) {
             // Arguments separator
-            writer.append("<div class=\"row\">\n");
-            writer.append("<div class=\"span8 offset1\">\n");
-
-            writer.append(parserConfig.getArgumentsSeparator()).append("\n");
-
-            writer.append("</div>\n");
-            writer.append("</div>\n");
+            writer.write(ROW_START_OFFSET_1);
+            writer.append(parserConfig.getArgumentsSeparator()).append('\n');
+            writer.write(ROW_END);
 
             // description
-            writer.append("<div class=\"row\">\n");
-            writer.append("<div class=\"span8 offset2\">\n");
-
-            writer.append("This option can be used to separate command-line options from the "
-                    + "list of argument, (useful when arguments might be mistaken for command-line options)\n");
-
-            writer.append("</div>\n");
-            writer.append("</div>\n");
+            writer.write(ROW_START_OFFSET_2);
+            writer.write(ARGUMENTS_SEPARATOR_DESCRIPTION);
+            writer.write(ROW_END);
 
             // arguments name
-            writer.append("<div class=\"row\">\n");
-            writer.append("<div class=\"span8 offset1\">\n");
-
-            writer.append(htmlize(toDescription(arguments)));
-
-            writer.append("</div>\n");
-            writer.append("</div>\n");
+            writer.write(ROW_START_OFFSET_1);
+            htmlize(writer, toDescription(arguments));
+            writer.write(ROW_END);
 
             // description
-            writer.append("<div class=\"row\">\n");
-            writer.append("<div class=\"span8 offset2\">\n");
-
-            writer.append(htmlize(arguments.getDescription()));
-
-            writer.append("</div>\n");
-            writer.append("</div>\n");
+            writer.write(ROW_START_OFFSET_2);
+            htmlize(writer, arguments.getDescription());
+            writer.write(ROW_END);
         }
     }
 
@@ -217,13 +236,12 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
      */
     protected void outputOptionRestriction(Writer writer, OptionMetadata option, OptionRestriction restriction,
             HelpHint hint) throws IOException {
-        writer.append("<div class=\"row\">\n");
-        writer.append("<div class=\"span8 offset3\">\n");
+        writer.write(ROW_START_OFFSET_3);
 
         // Append preamble if present
         if (!StringUtils.isEmpty(hint.getPreamble())) {
-            writer.append(htmlize(hint.getPreamble()));
-            writer.append(NEWLINE);
+            htmlize(writer, hint.getPreamble());
+            writer.write(NEWLINE);
         }
 
         if (hint.numContentBlocks() > 0) {
@@ -241,7 +259,7 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
                         String[] explanations = hint.getContentBlock(j);
                         if (i < explanations.length) {
                             writer.append("<p>").append(NEWLINE);
-                            writer.append(htmlize(explanations[i]));
+                            htmlize(writer, explanations[i]);
                             writer.append("</p>").append(NEWLINE);
                         }
                     }
@@ -252,7 +270,7 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
                 writer.append("<ul>").append(NEWLINE);
                 for (String item : hint.getContentBlock(0)) {
                     writer.append("<li>");
-                    writer.append(htmlize(item));
+                    htmlize(writer, item);
                     writer.append("</li>").append(NEWLINE);
                 }
                 writer.append("</ul>");
@@ -274,7 +292,7 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
                         String[] colData = hint.getContentBlock(col);
                         writer.append(useHeaders ? "<th>" : "<td>");
                         if (row < colData.length) {
-                            writer.append(htmlize(colData[row]));
+                            htmlize(writer, colData[row]);
                         }
                         writer.append(useHeaders ? "</th>" : "</td>");
                         writer.append(NEWLINE);
@@ -290,7 +308,7 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
                 for (int i = 0; i < hint.numContentBlocks(); i++) {
                     for (String para : hint.getContentBlock(i)) {
                         writer.append("<p>").append(NEWLINE);
-                        writer.append(htmlize(para));
+                        htmlize(writer, para);
                         writer.append("</p>").append(NEWLINE);
                     }
                 }
@@ -298,8 +316,7 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
             }
         }
 
-        writer.append("</div>\n");
-        writer.append("</div>\n");
+        writer.write(ROW_END);
     }
 
     /**
@@ -318,36 +335,38 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
      */
     protected List<OptionMetadata> outputSynopsis(Writer writer, String programName, String[] groupNames,
             CommandMetadata command) throws IOException {
-        writer.append("<h1 class=\"text-info\">SYNOPSIS</h1>\n").append(NEWLINE);
+        writer.write(SYNOPSIS_HEADER);
 
         List<OptionMetadata> options = new ArrayList<>();
-        writer.append("<div class=\"row\">\n");
-        writer.append("<div class=\"span8 offset1\">\n");
+        writer.write(ROW_START_OFFSET_1);
 
         if (programName != null) {
-            writer.append(htmlize(programName)).append(" ")
-                    .append(htmlize(StringUtils.join(toSynopsisUsage(sortOptions(command.getGlobalOptions())), ' ')));
+            htmlize(writer, programName);
+            writer.write(' ');
+            htmlize(writer, StringUtils.join(toSynopsisUsage(sortOptions(command.getGlobalOptions())), ' '));
             options.addAll(command.getGlobalOptions());
         }
         if (groupNames != null) {
             for (int i = 0; i < groupNames.length; i++) {
-                writer.append(htmlize(groupNames[i])).append(" ");
+                htmlize(writer, groupNames[i]);
+                writer.write(' ');
             }
-            writer.append(htmlize(StringUtils.join(toSynopsisUsage(sortOptions(command.getGroupOptions())), ' ')));
+            htmlize(writer, StringUtils.join(toSynopsisUsage(sortOptions(command.getGroupOptions())), ' '));
             options.addAll(command.getGroupOptions());
         }
-        writer.append(htmlize(command.getName())).append(" ")
-                .append(htmlize(StringUtils.join(toSynopsisUsage(sortOptions(command.getCommandOptions())), ' ')));
+        htmlize(writer, command.getName());
+        writer.write(' ');
+        htmlize(writer, StringUtils.join(toSynopsisUsage(sortOptions(command.getCommandOptions())), ' '));
         options.addAll(command.getCommandOptions());
 
         // command arguments (optional)
         ArgumentsMetadata arguments = command.getArguments();
         if (arguments != null) {
-            writer.append(" [--] ").append(htmlize(toUsage(arguments)));
+            writer.write(" [--] ");
+            htmlize(writer, toUsage(arguments));
         }
 
-        writer.append("</div>\n");
-        writer.append("</div>\n");
+        writer.write(ROW_END);
 
         return options;
     }
@@ -368,23 +387,15 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
      */
     protected void outputDescription(Writer writer, String programName, String[] groupNames, CommandMetadata command)
             throws IOException {
-        writer.append("<h2 class=\"text-info\">NAME</h1>\n").append(NEWLINE);
+        writer.write(NAME_HEADER);
 
-        writer.append("<div class=\"row\">");
-        writer.append("<div class=\"span8 offset1\">");
-        writer.append(htmlize(programName)).append(" ");
-        if (groupNames != null) {
-            for (int i = 0; i < groupNames.length; i++) {
-                writer.append(htmlize(groupNames[i])).append(" ");
-            }
-        }
-        writer.append(htmlize(command.getName())).append(" ");
-        writer.append("&mdash;");
-        writer.append(htmlize(command.getDescription()));
-        writer.append("</div>\n");
-        writer.append("</div>\n");
+        writer.write("<div class=\"row\"><div class=\"span8 offset1\">");
+        outputCommandName(writer, programName, groupNames, command);
+        writer.write("&mdash;");
+        htmlize(writer, command.getDescription());
+        writer.write(ROW_END);
 
-        writer.append(NEWLINE);
+        writer.write(NEWLINE);
     }
 
     /**
@@ -402,32 +413,62 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
      */
     protected void outputPageHeader(Writer writer, String programName, String[] groupNames, CommandMetadata command)
             throws IOException {
-        writer.append("<hr/>\n");
-        writer.append("<h1 class=\"text-info\">").append(htmlize(programName)).append(" ");
+        writer.write("<hr/>\n<h1 class=\"text-info\">");
+        outputCommandName(writer, programName, groupNames, command);
+        writer.write("Manual Page\n<hr/>\n");
+    }
+
+    /**
+     * Outputs the full name of a command followed by a space
+     * 
+     * @param writer
+     *            Writer
+     * @param programName
+     *            Program name
+     * @param groupNames
+     *            Group name(s)
+     * @param command
+     *            Command meta-data
+     * @throws IOException
+     */
+    private void outputCommandName(Writer writer, String programName, String[] groupNames, CommandMetadata command)
+            throws IOException {
+        htmlize(writer, programName);
+        writer.write(' ');
         if (groupNames != null) {
             for (int i = 0; i < groupNames.length; i++) {
-                writer.append(htmlize(groupNames[i])).append(" ");
+                htmlize(writer, groupNames[i]);
+                writer.write(' ');
             }
         }
-        writer.append(htmlize(command.getName())).append(" Manual Page\n");
-        writer.append("<hr/>\n");
+        htmlize(writer, command.getName());
+        writer.write(' ');
     }
 
     /**
      * Outputs the HTML header for the page
+     * <p>
+     * The header only depends upon the stylesheets and additional CSS so it is
+     * computed the first time it is needed and reused for subsequent pages.
+     * </p>
      * 
      * @param writer
      *            Writer
      * @throws IOException
      */
     protected void outputHtmlHeader(Writer writer) throws IOException {
-        writer.append("<html>\n");
-        writer.append("<head>\n");
-        outputStylesheets(writer);
-        writer.append("<style>\n");
-        outputAdditionalCss(writer);
-        writer.append("</style>\n");
-        writer.append("</head>\n");
+        String header = this.htmlHeader;
+        if (header == null) {
+            StringWriter headerWriter = new StringWriter();
+            headerWriter.write(HEAD_START);
+            outputStylesheets(headerWriter);
+            headerWriter.write(STYLE_START);
+            outputAdditionalCss(headerWriter);
+            headerWriter.write(HEAD_END);
+            header = headerWriter.toString();
+            this.htmlHeader = header;
+        }
+        writer.write(header);
     }
 
     /**
@@ -438,7 +479,7 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
      * @throws IOException
      */
     protected void outputAdditionalCss(Writer writer) throws IOException {
-        writer.append("    body { margin: 50px; }\n");
+        writer.write(DEFAULT_CSS);
     }
 
     /**
@@ -454,4 +495,9 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
         }
     }
 
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.addAll(this.stylesheetUrls);
+    }
 }
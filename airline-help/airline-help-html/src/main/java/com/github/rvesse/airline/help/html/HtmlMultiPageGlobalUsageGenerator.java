@@ -0,0 +1,315 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.html;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.github.rvesse.airline.help.common.AbstractGlobalUsageGenerator;
+import com.github.rvesse.airline.help.common.CommandUsagePage;
+import com.github.rvesse.airline.help.common.Fingerprint;
+import com.github.rvesse.airline.help.common.MultiPageWriter;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+
+/**
+ * A global usage generator that generates an HTML index page for the CLI
+ * linking to a separate HTML page for each command
+ * <p>
+ * The index page is written to the output stream given to
+ * {@link #usage(GlobalMetadata, OutputStream)}, the command pages are written
+ * to the files given by
+ * {@link #getCommandFile(GlobalMetadata, String[], CommandMetadata)}. When a
+ * {@link MultiPageWriter} is provided the command pages are rendered
+ * concurrently by it, otherwise they are written one after the other.
+ * </p>
+ */
+public class HtmlMultiPageGlobalUsageGenerator<T> extends AbstractGlobalUsageGenerator<T> {
+
+    protected final HtmlCommandUsageGenerator commandUsageGenerator;
+    private final MultiPageWriter pageWriter;
+
+    public HtmlMultiPageGlobalUsageGenerator() {
+        this(false, new HtmlCommandUsageGenerator(false));
+    }
+
+    public HtmlMultiPageGlobalUsageGenerator(boolean includeHidden) {
+        this(includeHidden, new HtmlCommandUsageGenerator(includeHidden));
+    }
+
+    /**
+     * Creates a new generator that renders the command pages concurrently
+     * using the given writer, pages whose files already have the same content
+     * are not rewritten
+     * 
+     * @param includeHidden
+     *            Whether to include hidden commands and options
+     * @param pageWriter
+     *            Page writer
+     */
+    public HtmlMultiPageGlobalUsageGenerator(boolean includeHidden, MultiPageWriter pageWriter) {
+        this(includeHidden, new HtmlCommandUsageGenerator(includeHidden), pageWriter);
+    }
+
+    protected HtmlMultiPageGlobalUsageGenerator(boolean includeHidden,
+            HtmlCommandUsageGenerator commandUsageGenerator) {
+        this(includeHidden, commandUsageGenerator, null);
+    }
+
+    protected HtmlMultiPageGlobalUsageGenerator(boolean includeHidden,
+            HtmlCommandUsageGenerator commandUsageGenerator, MultiPageWriter pageWriter) {
+        super(includeHidden);
+        if (commandUsageGenerator == null)
+            throw new NullPointerException("commandUsageGenerator cannot be null");
+        this.commandUsageGenerator = commandUsageGenerator;
+        this.pageWriter = pageWriter;
+    }
+
+    @Override
+    public void usage(GlobalMetadata<T> global, OutputStream output) throws IOException {
+        useHelpModel(global);
+        List<CommandUsagePage> pages = getCommandPages(global);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output));
+
+        // Header, uses the same header as the command pages so the index is
+        // styled consistently with them
+        this.commandUsageGenerator.outputHtmlHeader(writer);
+        writer.write(HtmlCommandUsageGenerator.BODY_START);
+
+        outputPageHeader(writer, global);
+        outputDescription(writer, global);
+        outputSynopsis(writer, global);
+
+        // Global options
+        List<OptionMetadata> options = sortOptions(global.getOptions());
+        if (options.size() > 0) {
+            this.commandUsageGenerator.outputOptions(writer, options, null, global.getParserConfiguration());
+        }
+
+        outputCommandList(writer, global, pages);
+
+        writer.write(HtmlCommandUsageGenerator.BODY_END);
+        writer.flush();
+        output.flush();
+
+        // Command pages
+        outputCommandPages(pages);
+    }
+
+    /**
+     * Outputs a page header
+     * 
+     * @param writer
+     *            Writer
+     * @param global
+     *            Global meta-data
+     * @throws IOException
+     */
+    protected void outputPageHeader(Writer writer, GlobalMetadata<T> global) throws IOException {
+        writer.write("<hr/>\n<h1 class=\"text-info\">");
+        htmlize(writer, global.getName());
+        writer.write(" Manual Page\n<hr/>\n");
+    }
+
+    /**
+     * Outputs a documentation section with the name and description of the
+     * CLI
+     * 
+     * @param writer
+     *            Writer
+     * @param global
+     *            Global meta-data
+     * @throws IOException
+     */
+    protected void outputDescription(Writer writer, GlobalMetadata<T> global) throws IOException {
+        writer.write(HtmlCommandUsageGenerator.NAME_HEADER);
+        writer.write(HtmlCommandUsageGenerator.ROW_START_OFFSET_1);
+        htmlize(writer, global.getName());
+        writer.write(" &mdash;");
+        htmlize(writer, global.getDescription());
+        writer.write(HtmlCommandUsageGenerator.ROW_END);
+        writer.write(HtmlCommandUsageGenerator.NEWLINE);
+    }
+
+    /**
+     * Outputs a documentation section with a synopsis of the CLI
+     * 
+     * @param writer
+     *            Writer
+     * @param global
+     *            Global meta-data
+     * @throws IOException
+     */
+    protected void outputSynopsis(Writer writer, GlobalMetadata<T> global) throws IOException {
+        writer.write(HtmlCommandUsageGenerator.SYNOPSIS_HEADER);
+        writer.write(HtmlCommandUsageGenerator.ROW_START_OFFSET_1);
+        htmlize(writer, global.getName());
+        writer.write(' ');
+        htmlize(writer, StringUtils.join(toSynopsisUsage(sortOptions(global.getOptions())), ' '));
+        writer.write(" &lt;command&gt; [ &lt;args&gt; ]\n");
+        writer.write(HtmlCommandUsageGenerator.ROW_END);
+    }
+
+    /**
+     * Outputs a documentation section listing the commands, each command links
+     * to its page
+     * 
+     * @param writer
+     *            Writer
+     * @param global
+     *            Global meta-data
+     * @param pages
+     *            Command pages
+     * @throws IOException
+     */
+    protected void outputCommandList(Writer writer, GlobalMetadata<T> global, List<CommandUsagePage> pages)
+            throws IOException {
+        writer.write(HtmlCommandUsageGenerator.NEWLINE);
+        writer.write("<h1 class=\"text-info\">COMMANDS</h1>\n");
+        writer.write(HtmlCommandUsageGenerator.NEWLINE);
+
+        for (CommandUsagePage page : pages) {
+            writer.write(HtmlCommandUsageGenerator.ROW_START_OFFSET_1);
+            writer.write("<a href=\"");
+            htmlize(writer, page.getFile().getName());
+            writer.write("\">");
+            htmlize(writer, global.getName());
+            writer.write(' ');
+            if (page.getGroupNames() != null) {
+                for (String groupName : page.getGroupNames()) {
+                    htmlize(writer, groupName);
+                    writer.write(' ');
+                }
+            }
+            htmlize(writer, page.getCommand().getName());
+            writer.write("</a>\n");
+            writer.write(HtmlCommandUsageGenerator.ROW_END);
+
+            writer.write(HtmlCommandUsageGenerator.ROW_START_OFFSET_2);
+            htmlize(writer, page.getCommand().getDescription());
+            writer.write(HtmlCommandUsageGenerator.ROW_END);
+        }
+    }
+
+    /**
+     * Writes the command pages
+     * 
+     * @param pages
+     *            Command pages
+     * @throws IOException
+     */
+    protected void outputCommandPages(List<CommandUsagePage> pages) throws IOException {
+        if (this.pageWriter != null) {
+            this.pageWriter.write(pages);
+            return;
+        }
+
+        for (CommandUsagePage page : pages) {
+            try (OutputStream output = new FileOutputStream(page.getFile())) {
+                page.render(output);
+            }
+        }
+    }
+
+    /**
+     * Gets the pages for all the commands in the order they are listed on the
+     * index page
+     * 
+     * @param global
+     *            Global meta-data
+     * @return Command pages
+     */
+    protected List<CommandUsagePage> getCommandPages(GlobalMetadata<T> global) {
+        List<CommandUsagePage> pages = new ArrayList<CommandUsagePage>();
+        addCommandPages(global, null, global.getDefaultGroupCommands(), pages);
+
+        List<String> groupNames = new ArrayList<String>();
+        for (CommandGroupMetadata group : sortCommandGroups(global.getCommandGroups())) {
+            if (group.isHidden() && !this.includeHidden())
+                continue;
+
+            addGroupPages(global, groupNames, group, pages);
+        }
+        return pages;
+    }
+
+    private void addGroupPages(GlobalMetadata<T> global, List<String> groupNames, CommandGroupMetadata group,
+            List<CommandUsagePage> pages) {
+        groupNames.add(group.getName());
+        addCommandPages(global, groupNames.toArray(new String[groupNames.size()]), group.getCommands(), pages);
+
+        for (CommandGroupMetadata subGroup : sortCommandGroups(group.getSubGroups())) {
+            if (subGroup.isHidden() && !this.includeHidden())
+                continue;
+
+            addGroupPages(global, groupNames, subGroup, pages);
+        }
+        groupNames.remove(groupNames.size() - 1);
+    }
+
+    private void addCommandPages(GlobalMetadata<T> global, String[] groupNames, List<CommandMetadata> commands,
+            List<CommandUsagePage> pages) {
+        for (CommandMetadata command : sortCommands(commands)) {
+            if (command.isHidden() && !this.includeHidden())
+                continue;
+
+            pages.add(new CommandUsagePage(getCommandFile(global, groupNames, command), this.commandUsageGenerator,
+                    global.getName(), groupNames, command, global.getParserConfiguration()));
+        }
+    }
+
+    /**
+     * Gets the file that the HTML page for a command is written to
+     * 
+     * @param global
+     *            Global meta-data
+     * @param groupNames
+     *            Group names, may be null
+     * @param command
+     *            Command meta-data
+     * @return Command file
+     */
+    protected File getCommandFile(GlobalMetadata<T> global, String[] groupNames, CommandMetadata command) {
+        StringBuilder fileName = new StringBuilder();
+        fileName.append(global.getName()).append('-');
+        if (groupNames != null) {
+            for (int i = 0; i < groupNames.length; i++) {
+                fileName.append(groupNames[i]).append('-');
+            }
+        }
+        fileName.append(command.getName());
+        fileName.append(".html");
+        return new File(fileName.toString());
+    }
+
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.addGenerator(this.commandUsageGenerator);
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.html;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.help.common.MultiPageWriter;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+
+public class TestHelpHtml {
+    private final Charset utf8 = Charset.forName("utf-8");
+
+    private static class DirectoryHtmlGenerator extends HtmlMultiPageGlobalUsageGenerator<Runnable> {
+        private final File directory;
+
+        private DirectoryHtmlGenerator(File directory, MultiPageWriter pageWriter) {
+            super(false, new HtmlCommandUsageGenerator(false), pageWriter);
+            this.directory = directory;
+        }
+
+        @Override
+        protected File getCommandFile(GlobalMetadata<Runnable> global, String[] groupNames, CommandMetadata command) {
+            return new File(this.directory, super.getCommandFile(global, groupNames, command).getName());
+        }
+    }
+
+    private static class Htmlizer extends HtmlCommandUsageGenerator {
+        private String escape(String value) {
+            return htmlize(value);
+        }
+
+        private String legacyHtmlize(String value) {
+            if (value == null || value.isEmpty())
+                return "";
+            return value.replaceAll("<", "&lt;").replaceAll(">", "&gt;").replaceAll("\n", "<br/>");
+        }
+    }
+
+    private static GlobalMetadata<Runnable> git() {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                .withDescription("the stupid content tracker")
+                .withDefaultCommand(Help.class)
+                .withCommand(Help.class)
+                .withCommand(Add.class);
+
+        builder.withGroup("remote")
+                .withDescription("Manage set of tracked repositories")
+                .withDefaultCommand(RemoteShow.class)
+                .withCommand(RemoteShow.class)
+                .withCommand(RemoteAdd.class);
+        //@formatter:on
+        return builder.build().getMetadata();
+    }
+
+    @Test
+    public void testHtmlize() {
+        Htmlizer htmlizer = new Htmlizer();
+        char[] alphabet = { 'a', 'b', ' ', '<', '>', '\n', '&', '"' };
+        Random random = new Random(20161018L);
+        for (int run = 0; run < 1000; run++) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = random.nextInt(30); i > 0; i--) {
+                builder.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            String value = builder.toString();
+            Assert.assertEquals(htmlizer.escape(value), htmlizer.legacyHtmlize(value));
+        }
+        Assert.assertEquals(htmlizer.escape(null), "");
+    }
+
+    @Test
+    public void testHtmlCommand() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new HtmlCommandUsageGenerator().usage("git", new String[] { "remote" }, "add",
+                MetadataLoader.loadCommand(RemoteAdd.class), null, output);
+        String html = new String(output.toByteArray(), utf8);
+
+        Assert.assertTrue(html.startsWith("<html>\n<head>\n<link href=\"css/bootstrap.min.css\" rel=\"stylesheet\">\n"
+                + "<style>\n    body { margin: 50px; }\n</style>\n</head>\n<body>\n"));
+        Assert.assertTrue(html.contains("<h1 class=\"text-info\">git remote add Manual Page\n"));
+        Assert.assertTrue(html.contains("git remote add &mdash;Adds a remote</div>\n"));
+        Assert.assertTrue(html.contains("[ -t &lt;branch&gt; ]"));
+        Assert.assertTrue(html.endsWith("</body>\n</html>\n"));
+    }
+
+    @Test
+    public void testHtmlMultiPage() throws IOException {
+        GlobalMetadata<Runnable> global = git();
+
+        File serialDir = new File("target/html-serial");
+        File parallelDir = new File("target/html-parallel");
+        serialDir.mkdirs();
+        parallelDir.mkdirs();
+        for (File dir : new File[] { serialDir, parallelDir }) {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+        }
+
+        ByteArrayOutputStream serialOutput = new ByteArrayOutputStream();
+        new DirectoryHtmlGenerator(serialDir, null).usage(global, serialOutput);
+        MultiPageWriter writer = new MultiPageWriter(4, 2);
+        ByteArrayOutputStream parallelOutput = new ByteArrayOutputStream();
+        new DirectoryHtmlGenerator(parallelDir, writer).usage(global, parallelOutput);
+
+        // Index page links to each command page
+        Assert.assertEquals(parallelOutput.toByteArray(), serialOutput.toByteArray());
+        String index = new String(serialOutput.toByteArray(), utf8);
+        Assert.assertTrue(index.contains("<h1 class=\"text-info\">git Manual Page\n"));
+        Assert.assertTrue(index.contains("git &mdash;the stupid content tracker"));
+        Assert.assertTrue(index.contains("<a href=\"git-remote-add.html\">git remote add</a>\n"));
+        Assert.assertTrue(index.contains("<a href=\"git-add.html\">git add</a>\n"));
+
+        // Command pages are identical to generating them serially
+        String[] pages = serialDir.list();
+        Assert.assertEquals(pages.length, 4);
+        Assert.assertEquals(parallelDir.list().length, pages.length);
+        for (String page : pages) {
+            Assert.assertTrue(page.endsWith(".html"));
+            Assert.assertEquals(Files.readAllBytes(new File(parallelDir, page).toPath()),
+                    Files.readAllBytes(new File(serialDir, page).toPath()));
+        }
+        Assert.assertEquals(writer.getPagesWritten(), pages.length);
+
+        // Command pages are the same as using the command generator directly
+        ByteArrayOutputStream command = new ByteArrayOutputStream();
+        new HtmlCommandUsageGenerator(false).usage("git", new String[] { "remote" }, "add",
+                global.getCommandGroups().get(0).getCommands().get(1), global.getParserConfiguration(), command);
+        Assert.assertEquals(Files.readAllBytes(new File(serialDir, "git-remote-add.html").toPath()),
+                command.toByteArray());
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.help.UsageHelper;
 import com.github.rvesse.airline.help.common.AbstractCommandUsageGenerator;
+import com.github.rvesse.airline.help.common.Fingerprint;
 import com.github.rvesse.airline.help.sections.HelpSection;
 import com.github.rvesse.airline.io.printers.TroffPrinter;
 import com.github.rvesse.airline.model.CommandMetadata;
@@ -65,6 +66,7 @@ public class ManCommandUsageGenerator extends AbstractCommandUsageGenerator {
     @Override
     public <T> void usage(String programName, String[] groupNames, String commandName, CommandMetadata command,
             ParserMetadata<T> parserConfig, OutputStream output) throws IOException {
+        useHelpModel(command);
         
         // Get the parser metadata
         if (parserConfig == null) {
@@ -288,4 +290,10 @@ public class ManCommandUsageGenerator extends AbstractCommandUsageGenerator {
 
         return stringBuilder.toString();
     }
+
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.add(this.manSection);
+    }
 }
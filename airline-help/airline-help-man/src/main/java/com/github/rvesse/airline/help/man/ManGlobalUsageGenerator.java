@@ -26,6 +26,7 @@ import java.util.Set;
 import com.github.rvesse.airline.help.CommandUsageGenerator;
 import com.github.rvesse.airline.help.UsageHelper;
 import com.github.rvesse.airline.help.common.AbstractGlobalUsageGenerator;
+import com.github.rvesse.airline.help.common.Fingerprint;
 import com.github.rvesse.airline.help.man.ManSections;
 import com.github.rvesse.airline.io.printers.TroffPrinter;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
@@ -73,6 +74,7 @@ public class ManGlobalUsageGenerator<T> extends AbstractGlobalUsageGenerator<T>
 
     @Override
     public void usage(GlobalMetadata<T> global, OutputStream output) throws IOException {
+        useHelpModel(global);
         TroffPrinter printer = new TroffPrinter(new PrintWriter(output));
 
         outputTitle(global, printer);
@@ -434,4 +436,10 @@ public class ManGlobalUsageGenerator<T> extends AbstractGlobalUsageGenerator<T>
 
         return stringBuilder.toString();
     }
+
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.add(this.manSection).addGenerator(this.commandUsageGenerator);
+    }
 }
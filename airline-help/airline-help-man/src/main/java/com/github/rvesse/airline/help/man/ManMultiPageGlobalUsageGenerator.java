@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.help.man;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -25,6 +26,8 @@ import java.util.List;
 
 import com.github.rvesse.airline.help.CommandUsageGenerator;
 import com.github.rvesse.airline.help.UsageHelper;
+import com.github.rvesse.airline.help.common.CommandUsagePage;
+import com.github.rvesse.airline.help.common.MultiPageWriter;
 import com.github.rvesse.airline.io.printers.TroffPrinter;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
@@ -33,6 +36,8 @@ import com.github.rvesse.airline.utils.AirlineUtils;
 
 public class ManMultiPageGlobalUsageGenerator<T> extends ManGlobalUsageGenerator<T> {
 
+    private final MultiPageWriter pageWriter;
+
     public ManMultiPageGlobalUsageGenerator() {
         this(ManSections.GENERAL_COMMANDS, false, new ManCommandUsageGenerator(ManSections.GENERAL_COMMANDS, false));
     }
@@ -45,14 +50,41 @@ public class ManMultiPageGlobalUsageGenerator<T> extends ManGlobalUsageGenerator
         this(manSection, includeHidden, new ManCommandUsageGenerator(manSection, includeHidden));
     }
 
+    /**
+     * Creates a new generator that renders the command pages concurrently
+     * using the given writer, pages whose files already have the same content
+     * are not rewritten
+     * 
+     * @param manSection
+     *            Man section
+     * @param includeHidden
+     *            Whether to include hidden commands and options
+     * @param pageWriter
+     *            Page writer
+     */
+    public ManMultiPageGlobalUsageGenerator(int manSection, boolean includeHidden, MultiPageWriter pageWriter) {
+        this(manSection, includeHidden, new ManCommandUsageGenerator(manSection, includeHidden), pageWriter);
+    }
+
     protected ManMultiPageGlobalUsageGenerator(int manSection, boolean includeHidden,
             CommandUsageGenerator commandUsageGenerator) {
+        this(manSection, includeHidden, commandUsageGenerator, null);
+    }
+
+    protected ManMultiPageGlobalUsageGenerator(int manSection, boolean includeHidden,
+            CommandUsageGenerator commandUsageGenerator, MultiPageWriter pageWriter) {
         super(manSection, includeHidden, commandUsageGenerator);
+        this.pageWriter = pageWriter;
     }
 
     @Override
     protected void outputCommandUsages(OutputStream output, TroffPrinter printer, GlobalMetadata<T> global)
             throws IOException {
+        if (this.pageWriter != null) {
+            this.pageWriter.write(getCommandPages(global));
+            return;
+        }
+
         // Default group usages
         outputDefaultGroupCommandUsages(output, printer, global);
 
@@ -109,8 +141,81 @@ public class ManMultiPageGlobalUsageGenerator<T> extends ManGlobalUsageGenerator
         printer.println(" suite");
     }
 
+    /**
+     * Gets the pages for all the commands that are written when a page writer
+     * is used, in the order they would otherwise be written
+     * 
+     * @param global
+     *            Global meta-data
+     * @return Command pages
+     */
+    protected List<MultiPageWriter.Page> getCommandPages(GlobalMetadata<T> global) {
+        List<MultiPageWriter.Page> pages = new ArrayList<MultiPageWriter.Page>();
+        addCommandPages(global, null, global.getDefaultGroupCommands(), pages);
+
+        List<String> groupNames = new ArrayList<String>();
+        for (CommandGroupMetadata group : sortCommandGroups(global.getCommandGroups())) {
+            if (group.isHidden() && !this.includeHidden())
+                continue;
+
+            addGroupPages(global, groupNames, group, pages);
+        }
+        return pages;
+    }
+
+    private void addGroupPages(GlobalMetadata<T> global, List<String> groupNames, CommandGroupMetadata group,
+            List<MultiPageWriter.Page> pages) {
+        groupNames.add(group.getName());
+        addCommandPages(global, groupNames.toArray(new String[groupNames.size()]), group.getCommands(), pages);
+
+        for (CommandGroupMetadata subGroup : sortCommandGroups(group.getSubGroups())) {
+            if (subGroup.isHidden() && !this.includeHidden())
+                continue;
+
+            addGroupPages(global, groupNames, subGroup, pages);
+        }
+        groupNames.remove(groupNames.size() - 1);
+    }
+
+    private void addCommandPages(final GlobalMetadata<T> global, final String[] groupNames,
+            List<CommandMetadata> commands, List<MultiPageWriter.Page> pages) {
+        for (final CommandMetadata command : sortCommands(commands)) {
+            if (command.isHidden() && !this.includeHidden())
+                continue;
+
+            // The reference back to the suite man page depends on the man
+            // section as well as the command
+            pages.add(new CommandUsagePage(getCommandFile(global, groupNames, command), commandUsageGenerator,
+                    global.getName(), groupNames, command, global.getParserConfiguration(),
+                    Integer.toString(this.manSection)) {
+                @Override
+                public void render(OutputStream output) throws IOException {
+                    super.render(output);
+
+                    // Write a reference back to the suite man page
+                    outputReferenceToSuite(new TroffPrinter(new PrintWriter(output)), global);
+                }
+            });
+        }
+    }
+
     protected FileOutputStream createCommandFile(GlobalMetadata<T> global, String[] groupNames, CommandMetadata command)
             throws FileNotFoundException {
+        return new FileOutputStream(getCommandFile(global, groupNames, command));
+    }
+
+    /**
+     * Gets the file that the man page for a command is written to
+     * 
+     * @param global
+     *            Global meta-data
+     * @param groupNames
+     *            Group names, may be null
+     * @param command
+     *            Command meta-data
+     * @return Command file
+     */
+    protected File getCommandFile(GlobalMetadata<T> global, String[] groupNames, CommandMetadata command) {
         StringBuilder fileName = new StringBuilder();
         if (global.getName() != null) {
             fileName.append(global.getName());
@@ -125,7 +230,7 @@ public class ManMultiPageGlobalUsageGenerator<T> extends ManGlobalUsageGenerator
         fileName.append(getCommandName(global, groupNames, command));
         fileName.append(".");
         fileName.append(this.manSection);
-        return new FileOutputStream(fileName.toString());
+        return new File(fileName.toString());
     }
 
     @Override
@@ -18,7 +18,9 @@ package com.github.rvesse.airline.help.man;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
@@ -229,20 +231,11 @@ public class ManUsageHelper extends AbstractUsageGenerator {
 
         case TABLE:
         case TABLE_WITH_HEADERS:
-            // Convert to form that printTable() understands
-            // i.e. columns -> rows
+            // Stream rows to printTable() converting columns -> rows as we
+            // go
             int maxRows = CliUsageHelper.calculateMaxRows(hint);
-            List<List<String>> rows = new ArrayList<List<String>>();
-            for (int row = 0; row < maxRows; row++) {
-                List<String> rowData = new ArrayList<String>();
-                for (int col = 0; col < hint.numContentBlocks(); col++) {
-                    String[] colData = hint.getContentBlock(col);
-                    rowData.add(row < colData.length ? colData[row] : null);
-                }
-                rows.add(rowData);
-            }
-
-            printer.printTable(rows, hint.getFormat() == HelpFormat.TABLE_WITH_HEADERS);
+            printer.printTable(new TableRows(hint, maxRows), maxRows > 0 ? hint.numContentBlocks() : 0,
+                    hint.getFormat() == HelpFormat.TABLE_WITH_HEADERS);
             break;
 
         case LIST:
@@ -370,4 +363,42 @@ public class ManUsageHelper extends AbstractUsageGenerator {
         }
         printer.println();
     }
+
+    /**
+     * Iterates over the rows of a table help hint whose content blocks are the
+     * columns of the table
+     */
+    private static final class TableRows implements Iterator<List<String>> {
+        private final HelpHint hint;
+        private final int maxRows;
+        private int row = 0;
+
+        private TableRows(HelpHint hint, int maxRows) {
+            this.hint = hint;
+            this.maxRows = maxRows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.row < this.maxRows;
+        }
+
+        @Override
+        public List<String> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            List<String> rowData = new ArrayList<String>(this.hint.numContentBlocks());
+            for (int col = 0; col < this.hint.numContentBlocks(); col++) {
+                String[] colData = this.hint.getContentBlock(col);
+                rowData.add(this.row < colData.length ? colData[this.row] : null);
+            }
+            this.row++;
+            return rowData;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
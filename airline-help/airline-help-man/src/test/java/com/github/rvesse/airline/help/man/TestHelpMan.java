@@ -22,6 +22,7 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 
 import com.github.rvesse.airline.Cli;
 import com.github.rvesse.airline.Git.Add;
@@ -39,6 +40,9 @@ import com.github.rvesse.airline.args.ArgsVersionMissing;
 import com.github.rvesse.airline.args.ArgsVersionMissingSuppressed;
 import com.github.rvesse.airline.builder.CliBuilder;
 import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.help.common.MultiPageWriter;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
 import org.apache.commons.lang3.StringUtils;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -411,6 +415,145 @@ public class TestHelpMan {
         //@formatter:on
     }
 
+    private static class DirectoryManGenerator extends ManMultiPageGlobalUsageGenerator<Runnable> {
+        private final File directory;
+
+        private DirectoryManGenerator(File directory, MultiPageWriter pageWriter) {
+            this(directory, pageWriter, ManSections.GENERAL_COMMANDS);
+        }
+
+        private DirectoryManGenerator(File directory, MultiPageWriter pageWriter, int manSection) {
+            super(manSection, false, new ManCommandUsageGenerator(manSection, false), pageWriter);
+            this.directory = directory;
+        }
+
+        @Override
+        protected File getCommandFile(GlobalMetadata<Runnable> global, String[] groupNames, CommandMetadata command) {
+            return new File(this.directory, super.getCommandFile(global, groupNames, command).getName());
+        }
+    }
+
+    public void testManMultiPageParallel() throws IOException {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                .withDescription("the stupid content tracker")
+                .withDefaultCommand(Help.class)
+                .withCommand(Help.class)
+                .withCommand(Add.class);
+
+        builder.withGroup("remote")
+                .withDescription("Manage set of tracked repositories")
+                .withDefaultCommand(RemoteShow.class)
+                .withCommand(RemoteShow.class)
+                .withCommand(RemoteAdd.class);
+        //@formatter:on
+        GlobalMetadata<Runnable> global = builder.build().getMetadata();
+
+        File serialDir = new File("target/man-serial");
+        File parallelDir = new File("target/man-parallel");
+        serialDir.mkdirs();
+        parallelDir.mkdirs();
+        for (File dir : new File[] { serialDir, parallelDir }) {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+        }
+
+        ByteArrayOutputStream serialOutput = new ByteArrayOutputStream();
+        new DirectoryManGenerator(serialDir, null).usage(global, serialOutput);
+        MultiPageWriter writer = new MultiPageWriter(4, 2);
+        ByteArrayOutputStream parallelOutput = new ByteArrayOutputStream();
+        new DirectoryManGenerator(parallelDir, writer).usage(global, parallelOutput);
+
+        // Output is identical to generating the pages serially
+        Assert.assertEquals(parallelOutput.toByteArray(), serialOutput.toByteArray());
+        String[] pages = serialDir.list();
+        Assert.assertEquals(pages.length, 4);
+        Assert.assertEquals(parallelDir.list().length, pages.length);
+        for (String page : pages) {
+            Assert.assertTrue(page.endsWith(".1"));
+            Assert.assertEquals(Files.readAllBytes(new File(parallelDir, page).toPath()),
+                    Files.readAllBytes(new File(serialDir, page).toPath()));
+        }
+        Assert.assertEquals(writer.getPagesWritten(), pages.length);
+
+        // Unchanged pages are not rewritten, changed pages are
+        File changed = new File(parallelDir, pages[0]);
+        Files.write(changed.toPath(), "changed".getBytes(utf8));
+        new DirectoryManGenerator(parallelDir, writer).usage(global, new ByteArrayOutputStream());
+        Assert.assertEquals(writer.getPagesWritten(), pages.length + 1);
+        Assert.assertEquals(writer.getPagesUnchanged(), pages.length - 1);
+        Assert.assertEquals(Files.readAllBytes(changed.toPath()),
+                Files.readAllBytes(new File(serialDir, pages[0]).toPath()));
+    }
+
+    private static GlobalMetadata<Runnable> git(boolean withRemoteAdd) {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                .withDescription("the stupid content tracker")
+                .withDefaultCommand(Help.class)
+                .withCommand(Help.class)
+                .withCommand(Add.class);
+
+        builder.withGroup("remote")
+                .withDescription("Manage set of tracked repositories")
+                .withDefaultCommand(RemoteShow.class)
+                .withCommand(RemoteShow.class);
+        //@formatter:on
+        if (withRemoteAdd)
+            builder.withGroup("remote").withCommand(RemoteAdd.class);
+        return builder.build().getMetadata();
+    }
+
+    @Test
+    public void testManMultiPageIncremental() throws IOException {
+        File fullDir = new File("target/man-full");
+        File incrementalDir = new File("target/man-incremental");
+        File manifest = new File("target/man-incremental.manifest");
+        fullDir.mkdirs();
+        incrementalDir.mkdirs();
+        for (File dir : new File[] { fullDir, incrementalDir }) {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+        }
+        manifest.delete();
+
+        MultiPageWriter writer = new MultiPageWriter(1, 2, manifest);
+        new DirectoryManGenerator(incrementalDir, writer).usage(git(true), new ByteArrayOutputStream());
+        Assert.assertEquals(incrementalDir.list().length, 4);
+        Assert.assertEquals(writer.getPagesWritten(), 4);
+        Assert.assertTrue(manifest.exists());
+
+        // Nothing has changed so every page is skipped without rendering
+        writer = new MultiPageWriter(1, 2, manifest);
+        new DirectoryManGenerator(incrementalDir, writer).usage(git(true), new ByteArrayOutputStream());
+        Assert.assertEquals(writer.getPagesSkipped(), 4);
+        Assert.assertEquals(writer.getPagesWritten(), 0);
+
+        // Removing a command prunes its page
+        writer = new MultiPageWriter(1, 2, manifest);
+        new DirectoryManGenerator(incrementalDir, writer).usage(git(false), new ByteArrayOutputStream());
+        Assert.assertEquals(writer.getPagesPruned(), 1);
+        Assert.assertEquals(writer.getPagesSkipped(), 3);
+
+        // Incremental output is identical to a full rebuild
+        new DirectoryManGenerator(fullDir, null).usage(git(false), new ByteArrayOutputStream());
+        String[] pages = fullDir.list();
+        Assert.assertEquals(pages.length, 3);
+        Assert.assertEquals(incrementalDir.list().length, pages.length);
+        for (String page : pages) {
+            Assert.assertEquals(Files.readAllBytes(new File(incrementalDir, page).toPath()),
+                    Files.readAllBytes(new File(fullDir, page).toPath()));
+        }
+
+        // A different man section changes every fingerprint
+        writer = new MultiPageWriter(1, 2, manifest);
+        new DirectoryManGenerator(incrementalDir, writer, ManSections.MISCELLANEOUS).usage(git(false),
+                new ByteArrayOutputStream());
+        Assert.assertEquals(writer.getPagesSkipped(), 0);
+    }
+
     public void testManMultiPage() throws IOException {
         //@formatter:off
         CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
@@ -25,6 +25,7 @@ import org.apache.commons.lang3.StringUtils;
 import com.github.rvesse.airline.help.UsageHelper;
 import com.github.rvesse.airline.help.common.AbstractPrintedCommandUsageGenerator;
 import com.github.rvesse.airline.help.common.AbstractPrintedGlobalUsageGenerator;
+import com.github.rvesse.airline.help.common.Fingerprint;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.io.printers.UsagePrinter;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
@@ -365,4 +366,10 @@ public class MarkdownGlobalUsageGenerator<T> extends AbstractPrintedGlobalUsageG
             outputGroupCommandUsages(printer, global, subGroupPath);
         }
     }
+
+    @Override
+    protected void addSettings(Fingerprint fingerprint) {
+        super.addSettings(fingerprint);
+        fingerprint.addGenerator(this.commandUsageGenerator);
+    }
 }
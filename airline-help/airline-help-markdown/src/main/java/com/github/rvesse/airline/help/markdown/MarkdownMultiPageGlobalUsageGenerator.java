@@ -15,15 +15,19 @@
  */
 package com.github.rvesse.airline.help.markdown;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.github.rvesse.airline.help.UsageHelper;
 import com.github.rvesse.airline.help.common.AbstractPrintedCommandUsageGenerator;
+import com.github.rvesse.airline.help.common.CommandUsagePage;
+import com.github.rvesse.airline.help.common.MultiPageWriter;
 import com.github.rvesse.airline.help.markdown.MarkdownCommandUsageGenerator;
 import com.github.rvesse.airline.help.markdown.MarkdownGlobalUsageGenerator;
 import com.github.rvesse.airline.io.printers.UsagePrinter;
@@ -33,7 +37,9 @@ import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 public class MarkdownMultiPageGlobalUsageGenerator<T> extends MarkdownGlobalUsageGenerator<T> {
-    
+
+    private final MultiPageWriter pageWriter;
+
     public MarkdownMultiPageGlobalUsageGenerator() {
         this(false, new MarkdownCommandUsageGenerator(false));
     }
@@ -42,10 +48,94 @@ public class MarkdownMultiPageGlobalUsageGenerator<T> extends MarkdownGlobalUsag
         this(includeHidden, new MarkdownCommandUsageGenerator(includeHidden));
     }
 
+    /**
+     * Creates a new generator that renders the command pages concurrently
+     * using the given writer, pages whose files already have the same content
+     * are not rewritten
+     * 
+     * @param includeHidden
+     *            Whether to include hidden commands and options
+     * @param pageWriter
+     *            Page writer
+     */
+    public MarkdownMultiPageGlobalUsageGenerator(boolean includeHidden, MultiPageWriter pageWriter) {
+        this(includeHidden, new MarkdownCommandUsageGenerator(includeHidden), pageWriter);
+    }
+
     protected MarkdownMultiPageGlobalUsageGenerator(boolean includeHidden,
             AbstractPrintedCommandUsageGenerator commandUsageGenerator) {
+        this(includeHidden, commandUsageGenerator, null);
+    }
+
+    protected MarkdownMultiPageGlobalUsageGenerator(boolean includeHidden,
+            AbstractPrintedCommandUsageGenerator commandUsageGenerator, MultiPageWriter pageWriter) {
         super(DEFAULT_COLUMNS, UsageHelper.DEFAULT_HINT_COMPARATOR, UsageHelper.DEFAULT_OPTION_COMPARATOR, UsageHelper.DEFAULT_COMMAND_COMPARATOR,
                 UsageHelper.DEFAULT_COMMAND_GROUP_COMPARATOR, includeHidden, commandUsageGenerator);
+        this.pageWriter = pageWriter;
+    }
+
+    @Override
+    protected void outputCommandUsages(UsagePrinter printer, GlobalMetadata<T> global) throws IOException {
+        if (this.pageWriter != null) {
+            this.pageWriter.write(getCommandPages(global));
+            return;
+        }
+        super.outputCommandUsages(printer, global);
+    }
+
+    /**
+     * Gets the pages for all the commands that are written when a page writer
+     * is used, in the order they would otherwise be written
+     * 
+     * @param global
+     *            Global meta-data
+     * @return Command pages
+     */
+    protected List<MultiPageWriter.Page> getCommandPages(GlobalMetadata<T> global) {
+        List<MultiPageWriter.Page> pages = new ArrayList<MultiPageWriter.Page>();
+        addCommandPages(global, null, global.getDefaultGroupCommands(), pages);
+
+        List<String> groupNames = new ArrayList<String>();
+        for (CommandGroupMetadata group : sortCommandGroups(global.getCommandGroups())) {
+            if (group.isHidden() && !this.includeHidden())
+                continue;
+
+            addGroupPages(global, groupNames, group, pages);
+        }
+        return pages;
+    }
+
+    private void addGroupPages(GlobalMetadata<T> global, List<String> groupNames, CommandGroupMetadata group,
+            List<MultiPageWriter.Page> pages) {
+        groupNames.add(group.getName());
+        addCommandPages(global, groupNames.toArray(new String[groupNames.size()]), group.getCommands(), pages);
+
+        for (CommandGroupMetadata subGroup : sortCommandGroups(group.getSubGroups())) {
+            if (subGroup.isHidden() && !this.includeHidden())
+                continue;
+
+            addGroupPages(global, groupNames, subGroup, pages);
+        }
+        groupNames.remove(groupNames.size() - 1);
+    }
+
+    private void addCommandPages(final GlobalMetadata<T> global, final String[] groupNames,
+            List<CommandMetadata> commands, List<MultiPageWriter.Page> pages) {
+        for (final CommandMetadata command : sortCommands(commands)) {
+            if (command.isHidden() && !this.includeHidden())
+                continue;
+
+            pages.add(new CommandUsagePage(getCommandFile(global, groupNames, command), commandUsageGenerator,
+                    global.getName(), groupNames, command, global.getParserConfiguration()) {
+                @Override
+                public void render(OutputStream output) throws IOException {
+                    super.render(output);
+
+                    // Write a reference back to the suite man page
+                    outputReferenceToSuite(output, global);
+                }
+            });
+        }
     }
 
     @Override
@@ -94,10 +184,25 @@ public class MarkdownMultiPageGlobalUsageGenerator<T> extends MarkdownGlobalUsag
 
     protected FileOutputStream createCommandFile(GlobalMetadata<T> global, String[] groupNames, CommandMetadata command)
             throws FileNotFoundException {
+        return new FileOutputStream(getCommandFile(global, groupNames, command));
+    }
+
+    /**
+     * Gets the file that the Markdown page for a command is written to
+     * 
+     * @param global
+     *            Global meta-data
+     * @param groupNames
+     *            Group names, may be null
+     * @param command
+     *            Command meta-data
+     * @return Command file
+     */
+    protected File getCommandFile(GlobalMetadata<T> global, String[] groupNames, CommandMetadata command) {
         StringBuilder fileName = new StringBuilder();
         fileName.append(getCommandName(global, groupNames, command));
         fileName.append(".md");
-        return new FileOutputStream(fileName.toString());
+        return new File(fileName.toString());
     }
 
     @Override
@@ -22,6 +22,7 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.charset.StandardCharsets;
 
 import com.github.rvesse.airline.Cli;
@@ -37,6 +38,9 @@ import com.github.rvesse.airline.args.ArgsExamples;
 import com.github.rvesse.airline.args.ArgsExitCodes;
 import com.github.rvesse.airline.args.ArgsMultiParagraphDiscussion;
 import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.help.common.MultiPageWriter;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.help.markdown.MarkdownCommandUsageGenerator;
 import com.github.rvesse.airline.help.markdown.MarkdownGlobalUsageGenerator;
 import com.github.rvesse.airline.parser.aliases.TestAliases;
@@ -343,6 +347,74 @@ public class TestHelpMarkdown {
         //@formatter:on
     }
 
+    private static class DirectoryMarkdownGenerator extends MarkdownMultiPageGlobalUsageGenerator<Runnable> {
+        private final File directory;
+
+        private DirectoryMarkdownGenerator(File directory, MultiPageWriter pageWriter) {
+            super(false, new MarkdownCommandUsageGenerator(false), pageWriter);
+            this.directory = directory;
+        }
+
+        @Override
+        protected File getCommandFile(GlobalMetadata<Runnable> global, String[] groupNames, CommandMetadata command) {
+            return new File(this.directory, super.getCommandFile(global, groupNames, command).getName());
+        }
+    }
+
+    public void testMarkdownMultiPageParallel() throws IOException {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                .withDescription("the stupid content tracker")
+                .withDefaultCommand(Help.class)
+                .withCommand(Help.class)
+                .withCommand(Add.class);
+
+        builder.withGroup("remote")
+                .withDescription("Manage set of tracked repositories")
+                .withDefaultCommand(RemoteShow.class)
+                .withCommand(RemoteShow.class)
+                .withCommand(RemoteAdd.class);
+        //@formatter:on
+        GlobalMetadata<Runnable> global = builder.build().getMetadata();
+
+        File serialDir = new File("target/markdown-serial");
+        File parallelDir = new File("target/markdown-parallel");
+        serialDir.mkdirs();
+        parallelDir.mkdirs();
+        for (File dir : new File[] { serialDir, parallelDir }) {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+        }
+
+        ByteArrayOutputStream serialOutput = new ByteArrayOutputStream();
+        new DirectoryMarkdownGenerator(serialDir, null).usage(global, serialOutput);
+        MultiPageWriter writer = new MultiPageWriter(4, 2);
+        ByteArrayOutputStream parallelOutput = new ByteArrayOutputStream();
+        new DirectoryMarkdownGenerator(parallelDir, writer).usage(global, parallelOutput);
+
+        // Output is identical to generating the pages serially
+        Assert.assertEquals(parallelOutput.toByteArray(), serialOutput.toByteArray());
+        String[] pages = serialDir.list();
+        Assert.assertEquals(pages.length, 4);
+        Assert.assertEquals(parallelDir.list().length, pages.length);
+        for (String page : pages) {
+            Assert.assertTrue(page.endsWith(".md"));
+            Assert.assertEquals(Files.readAllBytes(new File(parallelDir, page).toPath()),
+                    Files.readAllBytes(new File(serialDir, page).toPath()));
+        }
+        Assert.assertEquals(writer.getPagesWritten(), pages.length);
+
+        // Unchanged pages are not rewritten, changed pages are
+        File changed = new File(parallelDir, pages[0]);
+        Files.write(changed.toPath(), "changed".getBytes(utf8));
+        new DirectoryMarkdownGenerator(parallelDir, writer).usage(global, new ByteArrayOutputStream());
+        Assert.assertEquals(writer.getPagesWritten(), pages.length + 1);
+        Assert.assertEquals(writer.getPagesUnchanged(), pages.length - 1);
+        Assert.assertEquals(Files.readAllBytes(changed.toPath()),
+                Files.readAllBytes(new File(serialDir, pages[0]).toPath()));
+    }
+
     public void testMarkdownMultiPage() throws IOException {
         //@formatter:off
         CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
@@ -0,0 +1,266 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.cli.zsh;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.github.rvesse.airline.annotations.help.BashCompletion;
+import com.github.rvesse.airline.help.cli.bash.AbstractCompletionGenerator;
+import com.github.rvesse.airline.help.cli.bash.CompletionBehaviour;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel.CommandCompletion;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel.GroupCompletion;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel.OptionCompletion;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * A generator for Zsh completion scripts
+ * <p>
+ * The generated script is built from the same {@link CompletionModel} as the
+ * {@link com.github.rvesse.airline.help.cli.bash.BashCompletionGenerator} and
+ * honours the same {@link BashCompletion} annotations. It declares associative
+ * arrays keyed by the group/command path that hold the words to complete so
+ * completing only does table lookups, the CLI itself is never run. Commands
+ * given in {@link BashCompletion#command()} are still run when completing the
+ * relevant option values or arguments.
+ * </p>
+ * <p>
+ * The script may be placed on the {@code fpath} as {@code _<cli>} or simply
+ * sourced after {@code compinit} has been run.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public class ZshCompletionGenerator<T> extends AbstractCompletionGenerator<T> {
+
+    private static final char NEWLINE = '\n';
+    private static final String DOUBLE_NEWLINE = "\n\n";
+
+    public ZshCompletionGenerator() {
+        this(false);
+    }
+
+    /**
+     * Creates a new completion generator
+     * 
+     * @param includeHidden
+     *            Whether to include hidden commands and options
+     */
+    public ZshCompletionGenerator(boolean includeHidden) {
+        super(includeHidden);
+    }
+
+    @Override
+    public void usage(GlobalMetadata<T> global, OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output);
+        String prefix = "_complete_" + bashize(global.getName());
+        CompletionModel model = getCompletionModel(global);
+
+        // Script header
+        writer.append("#compdef ").append(global.getName()).append(DOUBLE_NEWLINE);
+        writer.append("# Generated by airline ZshCompletionGenerator").append(DOUBLE_NEWLINE);
+
+        // Tables are keyed by the path of a group/command
+        Map<String, String> words = new LinkedHashMap<>();
+        Map<String, String> descriptions = new LinkedHashMap<>();
+        Map<String, String> defaults = new LinkedHashMap<>();
+        for (GroupCompletion group : model.getGroups()) {
+            words.put(group.getPath(), StringUtils.join(group.getWords(), ' '));
+            for (GroupCompletion subGroup : group.getSubGroups()) {
+                descriptions.put(subGroup.getPath(), StringUtils.normalizeSpace(subGroup.getDescription()));
+            }
+            for (CommandCompletion command : group.getCommands()) {
+                descriptions.put(command.getPath(), StringUtils.normalizeSpace(command.getDescription()));
+            }
+            if (group.getDefaultCommand() != null)
+                defaults.put(group.getPath(), group.getDefaultCommand().getPath());
+        }
+
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, String> argOptions = new LinkedHashMap<>();
+        Map<String, String> values = new LinkedHashMap<>();
+        Map<String, String> valueCommands = new LinkedHashMap<>();
+        Map<String, String> valueBehaviours = new LinkedHashMap<>();
+        Map<String, String> argCommands = new LinkedHashMap<>();
+        Map<String, String> argBehaviours = new LinkedHashMap<>();
+        for (CommandCompletion command : model.getCommands()) {
+            options.put(command.getPath(), StringUtils.join(command.getOptionNames(), ' '));
+            List<String> names = new ArrayList<>();
+            for (OptionCompletion option : command.getOptions()) {
+                if (!option.takesValue())
+                    continue;
+                names.addAll(option.getNames());
+                for (String name : option.getNames()) {
+                    String key = command.getPath() + " " + name;
+                    if (option.getAllowedValues().size() > 0)
+                        values.put(key, StringUtils.join(option.getAllowedValues(), ' '));
+                    if (option.getCommand() != null)
+                        valueCommands.put(key, option.getCommand());
+                    if (option.getBehaviour() != CompletionBehaviour.NONE)
+                        valueBehaviours.put(key, toBehaviour(option.getBehaviour()));
+                }
+            }
+            if (names.size() > 0)
+                argOptions.put(command.getPath(), StringUtils.join(names, ' '));
+            if (command.getArgumentsCommand() != null)
+                argCommands.put(command.getPath(), command.getArgumentsCommand());
+            if (command.getArgumentsBehaviour() != CompletionBehaviour.NONE)
+                argBehaviours.put(command.getPath(), toBehaviour(command.getArgumentsBehaviour()));
+        }
+
+        writeLookupTable(writer, prefix + "_words", words);
+        writeLookupTable(writer, prefix + "_descriptions", descriptions);
+        writeLookupTable(writer, prefix + "_defaults", defaults);
+        writeLookupTable(writer, prefix + "_opts", options);
+        writeLookupTable(writer, prefix + "_arg_opts", argOptions);
+        writeLookupTable(writer, prefix + "_values", values);
+        writeLookupTable(writer, prefix + "_value_commands", valueCommands);
+        writeLookupTable(writer, prefix + "_value_behaviours", valueBehaviours);
+        writeLookupTable(writer, prefix + "_arg_commands", argCommands);
+        writeLookupTable(writer, prefix + "_arg_behaviours", argBehaviours);
+        writer.append(NEWLINE);
+
+        generateCompletionFunction(writer, global, prefix);
+
+        // Completion setup, when autoloaded from the fpath the #compdef line
+        // suffices
+        writer.append("if (( $+functions[compdef] )); then").append(NEWLINE);
+        writer.append("  compdef ").append(prefix).append(' ').append(global.getName()).append(NEWLINE);
+        writer.append("fi").append(NEWLINE);
+
+        // Flush the output
+        writer.flush();
+        output.flush();
+    }
+
+    private void generateCompletionFunction(Writer writer, GlobalMetadata<T> global, String prefix)
+            throws IOException {
+        writer.append(prefix).append("() {").append(NEWLINE);
+        writer.append("  local root=");
+        writeSingleQuoted(writer, global.getName());
+        writer.append(" group= cmd= path_word= key= behaviour= prev=${words[CURRENT-1]}").append(NEWLINE);
+        writer.append("  local -i i=2").append(NEWLINE);
+        writer.append("  local -a candidates described").append(NEWLINE);
+        writer.append("  group=${root}").append(DOUBLE_NEWLINE);
+
+        writer.append("  # Find the group/command being completed").append(NEWLINE);
+        writer.append("  while (( i < CURRENT )); do").append(NEWLINE);
+        writer.append("    path_word=\"${group} ${words[i]}\"").append(NEWLINE);
+        writer.append("    if (( ${+").append(prefix).append("_words[$path_word]} )); then").append(NEWLINE);
+        writer.append("      group=${path_word}").append(NEWLINE);
+        writer.append("    elif (( ${+").append(prefix).append("_opts[$path_word]} )); then").append(NEWLINE);
+        writer.append("      cmd=${path_word}").append(NEWLINE);
+        writer.append("      break").append(NEWLINE);
+        writer.append("    else").append(NEWLINE);
+        writer.append("      break").append(NEWLINE);
+        writer.append("    fi").append(NEWLINE);
+        writer.append("    (( i++ ))").append(NEWLINE);
+        writer.append("  done").append(DOUBLE_NEWLINE);
+
+        writer.append("  if [[ -z \"${cmd}\" ]]; then").append(NEWLINE);
+        writer.append("    # Offer the groups/commands that may follow the group").append(NEWLINE);
+        writer.append("    if (( i == CURRENT )); then").append(NEWLINE);
+        writer.append("      for path_word in ${=").append(prefix).append("_words[$group]}; do").append(NEWLINE);
+        writer.append("        described+=( \"${path_word//:/\\\\:}:${").append(prefix)
+                .append("_descriptions[$group $path_word]}\" )").append(NEWLINE);
+        writer.append("      done").append(NEWLINE);
+        writer.append("      _describe -t commands 'command' described").append(NEWLINE);
+        writer.append("    fi").append(NEWLINE);
+        writer.append("    cmd=${").append(prefix).append("_defaults[$group]}").append(NEWLINE);
+        writer.append("    [[ -z \"${cmd}\" ]] && return 0").append(NEWLINE);
+        writer.append("  fi").append(DOUBLE_NEWLINE);
+
+        writer.append("  if [[ -n \"${prev}\" && \" ${").append(prefix)
+                .append("_arg_opts[$cmd]} \" == *\" ${prev} \"* ]]; then").append(NEWLINE);
+        writer.append("    # Completing a value for an option").append(NEWLINE);
+        writer.append("    key=\"${cmd} ${prev}\"").append(NEWLINE);
+        writer.append("    candidates=( ${=").append(prefix).append("_values[$key]} )").append(NEWLINE);
+        writer.append("    if (( ${+").append(prefix).append("_value_commands[$key]} )); then").append(NEWLINE);
+        writer.append("      candidates+=( ${=$(eval ${").append(prefix).append("_value_commands[$key]})} )")
+                .append(NEWLINE);
+        writer.append("    fi").append(NEWLINE);
+        writer.append("    behaviour=${").append(prefix).append("_value_behaviours[$key]}").append(NEWLINE);
+        writer.append("  else").append(NEWLINE);
+        writer.append("    # Otherwise completing options or arguments").append(NEWLINE);
+        writer.append("    candidates=( ${=").append(prefix).append("_opts[$cmd]} )").append(NEWLINE);
+        writer.append("    if (( ${+").append(prefix).append("_arg_commands[$cmd]} )); then").append(NEWLINE);
+        writer.append("      candidates+=( ${=$(eval ${").append(prefix).append("_arg_commands[$cmd]})} )")
+                .append(NEWLINE);
+        writer.append("    fi").append(NEWLINE);
+        writer.append("    behaviour=${").append(prefix).append("_arg_behaviours[$cmd]}").append(NEWLINE);
+        writer.append("  fi").append(DOUBLE_NEWLINE);
+
+        writer.append("  case ${behaviour} in").append(NEWLINE);
+        writer.append("    files) _files ;;").append(NEWLINE);
+        writer.append("    directories) _files -/ ;;").append(NEWLINE);
+        writer.append("    commands) _command_names -e ;;").append(NEWLINE);
+        writer.append("    cli) candidates+=( ${=").append(prefix).append("_words[$root]} ) ;;").append(NEWLINE);
+        writer.append("  esac").append(NEWLINE);
+        writer.append("  compadd -a candidates").append(NEWLINE);
+        writer.append("}").append(DOUBLE_NEWLINE);
+    }
+
+    private String toBehaviour(CompletionBehaviour behaviour) {
+        switch (behaviour) {
+        case FILENAMES:
+        case AS_FILENAMES:
+            return "files";
+        case DIRECTORIES:
+        case AS_DIRECTORIES:
+            return "directories";
+        case SYSTEM_COMMANDS:
+            return "commands";
+        case CLI_COMMANDS:
+            return "cli";
+        default:
+            return "";
+        }
+    }
+
+    private void writeLookupTable(Writer writer, String varName, Map<String, String> table) throws IOException {
+        writer.append("typeset -gA ").append(varName).append(NEWLINE);
+        writer.append(varName).append("=(").append(NEWLINE);
+        for (Entry<String, String> entry : table.entrySet()) {
+            writer.append("  ");
+            writeSingleQuoted(writer, entry.getKey());
+            writer.append(' ');
+            writeSingleQuoted(writer, entry.getValue());
+            writer.append(NEWLINE);
+        }
+        writer.append(')').append(NEWLINE);
+    }
+
+    private void writeSingleQuoted(Writer writer, String value) throws IOException {
+        writer.append('\'');
+        int start = 0, quote;
+        while ((quote = value.indexOf('\'', start)) >= 0) {
+            writer.append(value, start, quote).append("'\\''");
+            start = quote + 1;
+        }
+        writer.append(value, start, value.length()).append('\'');
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.cli.zsh;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.help.BashCompletion;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.cli.bash.BashCompletionGenerator;
+import com.github.rvesse.airline.help.cli.bash.CompletionBehaviour;
+import com.github.rvesse.airline.help.cli.bash.CompletionModel;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+public class TestZshCompletion {
+
+    public static abstract class BaseCommand implements Runnable {
+        @Option(name = { "-v", "--verbose" })
+        public boolean verbose;
+
+        @Option(name = "--format")
+        @AllowedRawValues(allowedValues = { "json", "text", "xml" })
+        public String format;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Command(name = "create", description = "Creates a thing: quickly")
+    public static class Create extends BaseCommand {
+        @Arguments
+        @BashCompletion(behaviour = CompletionBehaviour.FILENAMES)
+        public List<String> arguments = new ArrayList<String>();
+    }
+
+    @Command(name = "load", description = "Loads a thing")
+    public static class Load extends BaseCommand {
+        @Option(name = "--from")
+        @BashCompletion(command = "echo remote local")
+        public String from;
+    }
+
+    private static GlobalMetadata<Runnable> cli() {
+        @SuppressWarnings("unchecked")
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("tool").withDefaultCommand(Create.class)
+                .withCommands(Create.class, Load.class);
+        builder.withGroup("remote").withDefaultCommand(Load.class).withCommands(Create.class, Load.class);
+        return builder.build().getMetadata();
+    }
+
+    private static String generate(GlobalMetadata<Runnable> global) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ZshCompletionGenerator<Runnable>().usage(global, output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> complete(String script, String... words) throws IOException,
+            InterruptedException {
+        File file = new File("target/tool.zsh");
+        Files.write(file.toPath(), script.getBytes(StandardCharsets.UTF_8));
+
+        // Outside of a completion widget the completion system is not
+        // available so stub the functions the script calls
+        StringBuilder builder = new StringBuilder();
+        builder.append("compadd() { print -l -- ${(P)2} }; ");
+        builder.append("_describe() { local w; for w in ${(P)4}; do print -- ${w%%:*}; done }; ");
+        builder.append("_files() { print -- '<files>' }; ");
+        builder.append("source ").append(file.getAbsolutePath()).append("; words=(");
+        for (String word : words) {
+            builder.append(" '").append(word).append('\'');
+        }
+        builder.append(" ); CURRENT=").append(words.length).append("; _complete_tool");
+
+        Process process;
+        try {
+            process = new ProcessBuilder("zsh", "-f", "-c", builder.toString()).redirectErrorStream(true).start();
+        } catch (IOException e) {
+            throw new SkipException("Zsh not available");
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (InputStream input = process.getInputStream()) {
+            byte[] bytes = new byte[8192];
+            int read;
+            while ((read = input.read(bytes)) >= 0) {
+                buffer.write(bytes, 0, read);
+            }
+        }
+        String output = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertEquals(process.waitFor(), 0, output);
+
+        // The real compadd only offers candidates matching the current word
+        List<String> completions = new ArrayList<>();
+        for (String completion : output.split("\n")) {
+            if (!completion.isEmpty() && completion.startsWith(words[words.length - 1]))
+                completions.add(completion);
+        }
+        Collections.sort(completions);
+        return completions;
+    }
+
+    private static List<String> sorted(String... words) {
+        List<String> sorted = new ArrayList<>(Arrays.asList(words));
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    @Test
+    public void zsh_completion_01() throws IOException {
+        String script = generate(cli());
+        Assert.assertTrue(script.startsWith("#compdef tool\n"));
+        Assert.assertTrue(script.contains("typeset -gA _complete_tool_words\n"));
+        Assert.assertTrue(script.contains("  'tool' 'remote create load'\n"));
+        Assert.assertTrue(script.contains("  'tool remote' 'create load'\n"));
+        Assert.assertTrue(script.contains("  'tool remote' 'tool remote load'\n"));
+        Assert.assertTrue(script.contains("  'tool create' 'Creates a thing: quickly'\n"));
+        Assert.assertTrue(script.contains("  'tool remote create --format' 'json text xml'\n"));
+        Assert.assertTrue(script.contains("  'tool load --from' 'echo remote local'\n"));
+        Assert.assertTrue(script.contains("  'tool create' 'files'\n"));
+        Assert.assertTrue(script.contains("compdef _complete_tool tool\n"));
+    }
+
+    @Test
+    public void zsh_completion_02() {
+        // All completion generators share the same compiled model
+        GlobalMetadata<Runnable> global = cli();
+        CompletionModel model = CompletionModel.compile(global, new ZshCompletionGenerator<Runnable>());
+        Assert.assertSame(CompletionModel.compile(global, new BashCompletionGenerator<Runnable>()), model);
+        Assert.assertNotSame(CompletionModel.compile(global, new ZshCompletionGenerator<Runnable>(true)), model);
+    }
+
+    @Test
+    public void zsh_completion_03() throws IOException, InterruptedException {
+        String script = generate(cli());
+
+        Assert.assertEquals(complete(script, "tool", ""),
+                sorted("--format", "-v", "--verbose", "<files>", "create", "load", "remote"));
+        Assert.assertEquals(complete(script, "tool", "remote", ""),
+                sorted("--format", "--from", "-v", "--verbose", "create", "load"));
+        Assert.assertEquals(complete(script, "tool", "remote", "create", "--format", ""),
+                sorted("json", "text", "xml"));
+        Assert.assertEquals(complete(script, "tool", "load", "--from", "r"), sorted("remote"));
+        Assert.assertEquals(complete(script, "tool", "load", "--f"), sorted("--format", "--from"));
+    }
+}
@@ -16,6 +16,7 @@
 package com.github.rvesse.airline.io.printers;
 
 import java.io.PrintWriter;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
 
@@ -23,6 +24,13 @@ import org.apache.commons.lang3.StringUtils;
 
 /**
  * Printer class for generating Troff output
+ * <p>
+ * Text is escaped as it is copied into a reusable buffer which is written to
+ * the underlying writer in blocks, so printing does not create intermediate
+ * strings. Tables may be supplied as an iterator over their rows via
+ * {@link #printTable(Iterator, int, boolean)} so that large tables need not be
+ * materialized up front.
+ * </p>
  *
  */
 public class TroffPrinter {
@@ -80,13 +88,17 @@ public class TroffPrinter {
 
     private static final int DEFAULT_INDENTATION = 4;
 
+    private static final int BUFFER_SIZE = 1024;
+
     private final PrintWriter writer;
     private int level = 0;
     private boolean newline = true;
     private boolean inSection = false;
     private final int indentation = DEFAULT_INDENTATION;
     private Stack<ListType> lists = new Stack<ListType>();
-    private final String listGlyph;
+    private final String bullet, plainBullet;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int buffered = 0;
 
     public TroffPrinter(PrintWriter writer) {
         this(writer, DEFAULT_INDENTATION, BulletStyle.DASH);
@@ -96,7 +108,8 @@ public class TroffPrinter {
         if (writer == null)
             throw new NullPointerException("writer cannot be null");
         this.writer = writer;
-        this.listGlyph = style.glyph;
+        this.bullet = ".IP " + style.glyph + " " + this.indentation;
+        this.plainBullet = ".IP \"\" " + this.indentation;
     }
 
     public void start(String title, int manSection) {
@@ -109,8 +122,17 @@ public class TroffPrinter {
             newline = true;
         }
 
-        writer.println(String.format(".TH %s %s %s %s %s", asArg(title), asArg(Integer.toString(manSection)),
-                asArg(footer), asArg(footerExtra), asArg(header)));
+        writer.print(".TH ");
+        printArg(title);
+        writer.print(' ');
+        printArg(Integer.toString(manSection));
+        writer.print(' ');
+        printArg(footer);
+        writer.print(' ');
+        printArg(footerExtra);
+        writer.print(' ');
+        printArg(header);
+        writer.println();
         newline = true;
         inSection = false;
     }
@@ -121,7 +143,8 @@ public class TroffPrinter {
             newline = true;
         }
 
-        writer.println(String.format(".SH %s", sectionTitle));
+        writer.print(".SH ");
+        writer.println(sectionTitle);
         newline = true;
         inSection = true;
     }
@@ -130,22 +153,40 @@ public class TroffPrinter {
         if (StringUtils.isEmpty(value))
             return;
 
-        String[] lines = StringUtils.split(value, '\n');
-        if (lines.length == 0)
+        // Count the non-empty lines, we only need to know whether there are
+        // none, one or several
+        int lines = 0;
+        int length = value.length();
+        for (int start = 0; start < length && lines < 2;) {
+            int end = lineEnd(value, start);
+            if (end > start)
+                lines++;
+            start = end + 1;
+        }
+        if (lines == 0)
             return;
-        if (lines.length == 1) {
+        if (lines == 1) {
             // Append some text value directly
             if (newline)
                 prepareLine();
-            writer.print(escape(value));
+            escape(value, 0, length);
+            flushBuffer();
         } else {
-            // Append a series of lines
-            for (String line : lines) {
-                this.appendLine(line);
+            // Append a series of lines, empty lines are ignored
+            for (int start = 0; start < length;) {
+                int end = lineEnd(value, start);
+                if (end > start)
+                    this.appendLine(value, start, end);
+                start = end + 1;
             }
         }
     }
 
+    private static int lineEnd(String value, int start) {
+        int end = value.indexOf('\n', start);
+        return end == -1 ? value.length() : end;
+    }
+
     public void println(String value) {
         print(value);
         if (!newline) {
@@ -169,27 +210,24 @@ public class TroffPrinter {
     }
 
     public void printBold(String value) {
-        print(String.format("%s%s%s", REQUEST_FONT_BOLD, value, REQUEST_FONT_ROMAN));
+        print(REQUEST_FONT_BOLD + value + REQUEST_FONT_ROMAN);
     }
 
     public void printItalic(String value) {
-        print(String.format("%s%s%s", REQUEST_FONT_ITALIC, value, REQUEST_FONT_ROMAN));
+        print(REQUEST_FONT_ITALIC + value + REQUEST_FONT_ROMAN);
     }
 
     public void printBoldItalic(String value) {
-        print(String.format("%s%s%s", REQUEST_FONT_BOLD_ITALIC, value, REQUEST_FONT_ROMAN));
+        print(REQUEST_FONT_BOLD_ITALIC + value + REQUEST_FONT_ROMAN);
     }
 
-    private void appendLine(String line) {
-        if (StringUtils.isEmpty(line)) {
-            writer.println();
-            newline = true;
-        }
-
+    private void appendLine(String value, int start, int end) {
         if (newline)
             prepareLine();
 
-        writer.println(escape(line));
+        escape(value, start, end);
+        flushBuffer();
+        writer.println();
         newline = true;
     }
 
@@ -261,7 +299,7 @@ public class TroffPrinter {
         level++;
 
         if (title != null) {
-            writer.println(escape(title));
+            printEscapedLine(title);
             writer.println(REQUEST_BREAK);
         }
     }
@@ -339,7 +377,7 @@ public class TroffPrinter {
         }
 
         if (!StringUtils.isEmpty(title)) {
-            writer.println(escape(title));
+            printEscapedLine(title);
             writer.println(REQUEST_BREAK);
         }
     }
@@ -361,72 +399,114 @@ public class TroffPrinter {
         ListType type = lists.pop();
         if (type == ListType.NUMBERED) {
             // Clear the register
-            writer.println(String.format(".rr list%d", this.level));
+            writer.print(".rr list");
+            writer.println(this.level);
         }
         level--;
         newline = true;
     }
 
+    /**
+     * Prints a table
+     * 
+     * @param rows
+     *            Rows of the table
+     * @param hasHeader
+     *            Whether the first row is a header row
+     */
     public void printTable(List<List<String>> rows, boolean hasHeader) {
+        // Find the maximum number of columns
+        int maxColumns = 0;
+        for (List<String> row : rows) {
+            maxColumns = Math.max(maxColumns, row.size());
+        }
+
+        printTable(rows.iterator(), maxColumns, hasHeader);
+    }
+
+    /**
+     * Prints a table whose rows are streamed from an iterator, each row is
+     * printed as soon as it is retrieved so the rows need not all be held in
+     * memory
+     * <p>
+     * The table format precedes the rows in the output so the number of
+     * columns must be calculated by the caller, rows with fewer columns are
+     * permitted and columns beyond the given number are not printed.
+     * </p>
+     * 
+     * @param rows
+     *            Iterator over the rows of the table
+     * @param columns
+     *            Number of columns
+     * @param hasHeader
+     *            Whether the first row is a header row
+     */
+    public void printTable(Iterator<? extends List<String>> rows, int columns, boolean hasHeader) {
         if (!newline)
             writer.println();
 
         writer.println(REQUEST_TABLE_START);
         writer.println("box;");
 
-        // Find the maximum number of columns
-        int maxColumns = 0;
-        for (List<String> row : rows) {
-            maxColumns = Math.max(maxColumns, row.size());
-        }
+        // Only need to know whether there are zero, one or many rows to
+        // generate the format
+        List<String> first = rows.hasNext() ? rows.next() : null;
+        boolean singleRow = first != null && !rows.hasNext();
+        boolean multipleRows = first != null && !singleRow;
 
         // Generate format
         if (hasHeader) {
-            for (int i = 0; i < maxColumns; i++) {
-                writer.print("cb");
-                if (i < maxColumns - 1)
-                    writer.print(" | ");
-            }
-            if (rows.size() == 1)
+            printColumnFormat("cb", columns);
+            if (singleRow)
                 writer.print(" .");
             writer.println();
         }
-        if (rows.size() > 1) {
-            for (int i = 0; i < maxColumns; i++) {
-                writer.print("l");
-                if (i < maxColumns - 1)
-                    writer.print(" | ");
-            }
+        if (multipleRows) {
+            printColumnFormat("l", columns);
             writer.println(" .");
         }
 
         // Output row data
-        for (int r = 0; r < rows.size(); r++) {
-            List<String> row = rows.get(r);
-
-            if (r == 1 && hasHeader) {
+        if (first != null) {
+            printRow(first, columns);
+            if (rows.hasNext() && hasHeader) {
                 // Add divider between header and data
-                for (int c = 0; c < maxColumns; c++) {
-                    writer.print("_");
-                    if (c < maxColumns - 1)
+                for (int c = 0; c < columns; c++) {
+                    writer.print('_');
+                    if (c < columns - 1)
                         writer.print("\t|\t");
                 }
                 writer.println();
             }
-
-            for (int c = 0; c < maxColumns; c++) {
-                if (c >= row.size())
-                    break;
-                writer.print(escape(row.get(c)));
-                if (c < row.size() - 1)
-                    writer.print('\t');
+            while (rows.hasNext()) {
+                printRow(rows.next(), columns);
             }
-            writer.println();
         }
 
         writer.println(REQUEST_TABLE_END);
     }
 
+    private void printColumnFormat(String format, int columns) {
+        for (int i = 0; i < columns; i++) {
+            writer.print(format);
+            if (i < columns - 1)
+                writer.print(" | ");
+        }
+    }
+
+    private void printRow(List<String> row, int columns) {
+        int size = row.size();
+        for (int c = 0; c < columns; c++) {
+            if (c >= size)
+                break;
+            escape(row.get(c));
+            if (c < size - 1)
+                append('\t');
+        }
+        flushBuffer();
+        writer.println();
+    }
+
     private void prepareLine() {
         if (level > 0) {
             // Continue the current indentation
@@ -441,53 +521,111 @@ public class TroffPrinter {
     }
 
     protected void printBullet() {
-        writer.println(String.format(".IP %s %d", this.listGlyph, this.indentation));
+        writer.println(this.bullet);
     }
 
     protected void printTitledBullet() {
-        writer.println(String.format(REQUEST_PARAGRAPH_TITLED));
+        writer.println(REQUEST_PARAGRAPH_TITLED);
     }
 
     protected void printPlainBullet() {
-        writer.println(String.format(".IP \"\" %d", this.indentation));
+        writer.println(this.plainBullet);
     }
 
     protected void printNumberedBullet(boolean first) {
         if (first) {
             // Create the register
-            writer.println(String.format(".nr list%d 1 1", this.level));
-            writer.println(String.format(".IP \\n[list%d]. %d", this.level, this.indentation));
+            writer.print(".nr list");
+            writer.print(this.level);
+            writer.println(" 1 1");
+            writer.print(".IP \\n[list");
         } else {
-            writer.println(String.format(".IP \\n+[list%d]. %d", this.level, this.indentation));
+            writer.print(".IP \\n+[list");
+        }
+        writer.print(this.level);
+        writer.print("]. ");
+        writer.println(this.indentation);
+    }
+
+    private void printArg(String arg) {
+        append('"');
+        if (arg != null) {
+            for (int i = 0; i < arg.length(); i++) {
+                char c = arg.charAt(i);
+                if (c == '-') {
+                    append('\\');
+                    append('-');
+                } else if (c == '"') {
+                    append(' ');
+                } else {
+                    append(c);
+                }
+            }
         }
+        append('"');
+        flushBuffer();
     }
 
-    private String asArg(String arg) {
-        return String.format("\"%s\"", escapeArg(arg));
+    private void printEscapedLine(String line) {
+        escape(line);
+        flushBuffer();
+        writer.println();
     }
 
-    private String escapeArg(String arg) {
-        if (arg == null)
-            return "";
-        arg = arg.replace("-", "\\-");
-        return arg.replace('"', ' ');
+    private void escape(String value) {
+        if (StringUtils.isEmpty(value))
+            return;
+        escape(value, 0, value.length());
     }
 
-    private String escape(String line) {
-        if (StringUtils.isEmpty(line))
-            return "";
+    /**
+     * Escapes a portion of a string copying it into the buffer
+     * 
+     * @param value
+     *            Value
+     * @param start
+     *            Start index
+     * @param end
+     *            End index (exclusive)
+     */
+    private void escape(String value, int start, int end) {
+        if (start >= end)
+            return;
 
         // A leading . must be escaped
-        if (line.startsWith("."))
-            line = "\\" + line;
-
-        // Hyphen/Minus must be escaped
-        line = line.replace("-", "\\-");
+        if (value.charAt(start) == '.')
+            append('\\');
+
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '-':
+                // Hyphen/Minus must be escaped
+                append('\\');
+                append('-');
+                break;
+            case '\t':
+                // Tabs must be escaped
+                append('\\');
+                append('t');
+                break;
+            default:
+                append(c);
+            }
+        }
+    }
 
-        // Tabs must be escaped
-        line = line.replace("\t", "\\t");
+    private void append(char c) {
+        if (buffered == buffer.length)
+            flushBuffer();
+        buffer[buffered++] = c;
+    }
 
-        return line;
+    private void flushBuffer() {
+        if (buffered == 0)
+            return;
+        writer.write(buffer, 0, buffered);
+        buffered = 0;
     }
 
     public void flush() {
@@ -16,9 +16,8 @@
 package com.github.rvesse.airline.io.printers;
 
 import java.io.PrintWriter;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
@@ -28,84 +27,130 @@ import org.apache.commons.lang3.StringUtils;
  * <p>
  * Provides support for maintaining indents and wrapping text to a column width
  * </p>
+ * <p>
+ * Text is scanned for words in place and written straight to the underlying
+ * writer, indentation is written from a cached string of spaces, so wrapping
+ * text does not create garbage per word. Words are separated by the same
+ * whitespace characters as the regular expression {@code \s} i.e. space, tab,
+ * newline, vertical tab, form feed and carriage return.
+ * </p>
  * 
  */
 public class UsagePrinter {
+    private static final String SPACES = StringUtils.repeat(' ', 256);
+
     private final PrintWriter out;
     private final int maxSize;
     private final int indent;
     private final int hangingIndent;
-    private final AtomicInteger currentPosition;
+    private final Cursor cursor;
 
     public UsagePrinter(PrintWriter out) {
         this(out, 79);
     }
 
     public UsagePrinter(PrintWriter out, int maxSize) {
-        this(out, maxSize, 0, 0, new AtomicInteger());
+        this(out, maxSize, 0, 0, new Cursor());
     }
 
+    /**
+     * Creates a new printer
+     * 
+     * @param out
+     *            Writer
+     * @param maxSize
+     *            Column width
+     * @param indent
+     *            Indent
+     * @param hangingIndent
+     *            Hanging indent
+     * @param currentPosition
+     *            Current column, shared with other printers writing to the
+     *            same writer
+     * @deprecated Use {@link #UsagePrinter(PrintWriter, int)} and derive
+     *             further printers via {@link #newIndentedPrinter(int)} and
+     *             {@link #newPrinterWithHangingIndent(int)} which share the
+     *             current column without synchronization
+     */
+    @Deprecated
     public UsagePrinter(PrintWriter out, int maxSize, int indent, int hangingIndent, AtomicInteger currentPosition) {
+        this(out, maxSize, indent, hangingIndent, new AtomicCursor(currentPosition));
+    }
+
+    private UsagePrinter(PrintWriter out, int maxSize, int indent, int hangingIndent, Cursor cursor) {
         if (out == null)
             throw new NullPointerException("Writer cannot be null");
         this.out = out;
         this.maxSize = maxSize;
         this.indent = indent;
         this.hangingIndent = hangingIndent;
-        this.currentPosition = currentPosition;
+        this.cursor = cursor;
     }
 
     public UsagePrinter newIndentedPrinter(int size) {
-        return new UsagePrinter(out, maxSize, indent + size, hangingIndent, currentPosition);
+        return new UsagePrinter(out, maxSize, indent + size, hangingIndent, cursor);
     }
 
     public UsagePrinter newPrinterWithHangingIndent(int size) {
-        return new UsagePrinter(out, maxSize, indent, hangingIndent + size, currentPosition);
+        return new UsagePrinter(out, maxSize, indent, hangingIndent + size, cursor);
     }
 
     public UsagePrinter newline()  {
-        out.append("\n");
-        currentPosition.set(0);
+        out.write('\n');
+        cursor.set(0);
         return this;
     }
 
     public UsagePrinter appendTable(Iterable<? extends Iterable<String>> table, int rowSpacing)  {
-        List<Integer> columnSizes = new ArrayList<>();
+        int[] columnSizes = new int[8];
         for (Iterable<String> row : table) {
             int column = 0;
             for (String value : row) {
-                while (column >= columnSizes.size()) {
-                    columnSizes.add(0);
-                }
+                if (column >= columnSizes.length)
+                    columnSizes = Arrays.copyOf(columnSizes, columnSizes.length * 2);
                 int valueLength = value != null ? value.length() : 0;
-                columnSizes.set(column, Math.max(valueLength, columnSizes.get(column)));
+                columnSizes[column] = Math.max(valueLength, columnSizes[column]);
                 column++;
             }
         }
 
-        if (currentPosition.get() != 0) {
-            currentPosition.set(0);
-            out.append("\n");
+        if (cursor.get() != 0) {
+            cursor.set(0);
+            out.write('\n');
         }
 
+        // Rows are built in a single reusable buffer so that trailing
+        // whitespace can be trimmed before they are written
+        StringBuilder line = new StringBuilder();
+        char[] buffer = new char[0];
         for (Iterable<String> row : table) {
             int column = 0;
-            StringBuilder line = new StringBuilder();
+            line.setLength(0);
             for (String value : row) {
-                int columnSize = columnSizes.get(column);
+                int columnSize = columnSizes[column];
                 if (value != null) {
                     line.append(value);
-                    line.append(spaces(columnSize - value.length()));
+                    padLine(line, columnSize - value.length());
                 } else {
-                    line.append(spaces(columnSize));
+                    padLine(line, columnSize);
                 }
                 line.append("   ");
                 column++;
             }
-            out.append(spaces(indent)).append(trimEnd(line.toString())).append("\n");
+            int end = line.length();
+            while (end != 0 && Character.isWhitespace(line.charAt(end - 1))) {
+                end--;
+            }
+            if (buffer.length < end)
+                buffer = new char[Math.max(end, buffer.length * 2)];
+            line.getChars(0, end, buffer, 0);
+
+            writeSpaces(indent);
+            out.write(buffer, 0, end);
+            out.write('\n');
 
             for (int i = 0; i < rowSpacing; i++) {
-                out.append('\n');
+                out.write('\n');
             }
         }
 
@@ -142,13 +187,47 @@ public class UsagePrinter {
     }
 
     public UsagePrinter append(String value, boolean avoidNewlines)  {
+        return append((CharSequence) value, avoidNewlines);
+    }
+
+    /**
+     * Appends text, wrapping it as necessary
+     * 
+     * @param value
+     *            Text
+     * @param avoidNewlines
+     *            When true the text is treated as a single line of words and
+     *            is not wrapped, when false each non-empty line of the text is
+     *            printed on its own line
+     * @return Printer
+     */
+    public UsagePrinter append(CharSequence value, boolean avoidNewlines)  {
         if (value == null)
             return this;
         if (avoidNewlines) {
-            return appendWords(arrayToList(value.split("\\s+")), avoidNewlines);
-        } else {
-            return appendLines(arrayToList(StringUtils.split(value, '\n')), avoidNewlines);
+            appendWords(value, 0, value.length(), true);
+            return this;
         }
+
+        // Each non-empty line is printed separately with newlines between
+        // them
+        boolean first = true;
+        int length = value.length();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && value.charAt(end) != '\n') {
+                end++;
+            }
+            if (end > start) {
+                if (!first)
+                    this.newline();
+                appendWords(value, start, end, false);
+                first = false;
+            }
+            start = end + 1;
+        }
+        return this;
     }
 
     public UsagePrinter appendLines(Iterable<String> lines)  {
@@ -161,7 +240,7 @@ public class UsagePrinter {
             String line = iter.next();
             if (line == null || line.isEmpty())
                 continue;
-            appendWords(arrayToList(line.split("\\s+")), avoidNewlines);
+            appendWords(line, 0, line.length(), avoidNewlines);
             if (iter.hasNext()) {
                 this.newline();
             }
@@ -170,40 +249,137 @@ public class UsagePrinter {
     }
     
     public UsagePrinter appendWords(String[] words, boolean avoidNewlines) {
-        return appendWords(arrayToList(words), avoidNewlines);
+        int bracketCount = 0;
+        for (String word : words) {
+            bracketCount = appendWord(word, 0, word != null ? word.length() : 0, bracketCount, avoidNewlines);
+        }
+        return this;
     }
 
     public UsagePrinter appendWords(Iterable<String> words, boolean avoidNewlines)  {
         int bracketCount = 0;
         for (String word : words) {
-            if (null == word || "".equals(word)) {
-                continue;
+            bracketCount = appendWord(word, 0, word != null ? word.length() : 0, bracketCount, avoidNewlines);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the whitespace separated words in a region of some text
+     * 
+     * @param text
+     *            Text
+     * @param start
+     *            Start of the region
+     * @param end
+     *            End of the region
+     * @param avoidNewlines
+     *            Whether to avoid wrapping
+     */
+    private void appendWords(CharSequence text, int start, int end, boolean avoidNewlines) {
+        int bracketCount = 0;
+        int i = start;
+        while (i < end) {
+            while (i < end && isSeparator(text.charAt(i))) {
+                i++;
             }
-            if (currentPosition.get() == 0) {
-                // beginning of line
-                out.append(spaces(indent));
-                currentPosition.getAndAdd((indent));
-            } else if (word.length() > maxSize || currentPosition.get() + word.length() <= maxSize || bracketCount > 0
-                    || avoidNewlines) {
-                // between words
-                out.append(" ");
-                currentPosition.getAndIncrement();
-            } else {
-                // wrap line
-                out.append("\n").append(spaces(indent)).append(spaces(hangingIndent));
-                currentPosition.set(indent);
+            int wordStart = i;
+            while (i < end && !isSeparator(text.charAt(i))) {
+                i++;
             }
+            bracketCount = appendWord(text, wordStart, i, bracketCount, avoidNewlines);
+        }
+    }
 
-            out.append(word);
-            currentPosition.getAndAdd((word.length()));
-            if (word.contains("{") || word.contains("[") || word.contains("<")) {
-                bracketCount++;
+    /**
+     * Appends a single word
+     * 
+     * @param text
+     *            Text containing the word
+     * @param start
+     *            Start of the word
+     * @param end
+     *            End of the word
+     * @param bracketCount
+     *            Number of currently open brackets, words are not wrapped
+     *            while there are open brackets
+     * @param avoidNewlines
+     *            Whether to avoid wrapping
+     * @return Updated number of open brackets
+     */
+    private int appendWord(CharSequence text, int start, int end, int bracketCount, boolean avoidNewlines) {
+        int length = end - start;
+        if (text == null || length == 0)
+            return bracketCount;
+
+        int position = cursor.get();
+        if (position == 0) {
+            // beginning of line
+            writeSpaces(indent);
+            position = indent;
+        } else if (length > maxSize || position + length <= maxSize || bracketCount > 0 || avoidNewlines) {
+            // between words
+            out.write(' ');
+            position++;
+        } else {
+            // wrap line
+            out.write('\n');
+            writeSpaces(indent);
+            writeSpaces(hangingIndent);
+            position = indent;
+        }
+
+        boolean opens = false, closes = false;
+        if (text instanceof String) {
+            out.write((String) text, start, length);
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                opens |= c == '{' || c == '[' || c == '<';
+                closes |= c == '}' || c == ']' || c == '>';
             }
-            if (word.contains("}") || word.contains("]") || word.contains(">")) {
-                bracketCount--;
+        } else {
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                out.write(c);
+                opens |= c == '{' || c == '[' || c == '<';
+                closes |= c == '}' || c == ']' || c == '>';
             }
         }
-        return this;
+        cursor.set(position + length);
+
+        if (opens)
+            bracketCount++;
+        if (closes)
+            bracketCount--;
+        return bracketCount;
+    }
+
+    /**
+     * Gets whether a character separates words, these are the characters
+     * matched by the regular expression {@code \s}
+     * 
+     * @param c
+     *            Character
+     * @return True if a separator
+     */
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private void writeSpaces(int count) {
+        while (count > 0) {
+            int n = Math.min(count, SPACES.length());
+            out.write(SPACES, 0, n);
+            count -= n;
+        }
+    }
+
+    private static void padLine(StringBuilder line, int count) {
+        while (count > 0) {
+            int n = Math.min(count, SPACES.length());
+            line.append(SPACES, 0, n);
+            count -= n;
+        }
     }
 
     public void flush()  {
@@ -214,19 +390,41 @@ public class UsagePrinter {
         this.out.close();
     }
 
-    private static String spaces(int count) {
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < count; i++) {
-            result.append(" ");
+    /**
+     * Tracks the current column, shared between a printer and the printers
+     * derived from it
+     */
+    private static class Cursor {
+        private int column;
+
+        int get() {
+            return this.column;
+        }
+
+        void set(int column) {
+            this.column = column;
         }
-        return result.toString();
     }
-    
-    private static List<String> arrayToList(String[] values) {
-        List<String> list = new ArrayList<String>();
-        for (String value : values) {
-            list.add(value);
+
+    /**
+     * Cursor backed by a caller supplied {@link AtomicInteger} for backwards
+     * compatibility
+     */
+    private static final class AtomicCursor extends Cursor {
+        private final AtomicInteger position;
+
+        private AtomicCursor(AtomicInteger position) {
+            this.position = position;
+        }
+
+        @Override
+        int get() {
+            return this.position.get();
+        }
+
+        @Override
+        void set(int column) {
+            this.position.set(column);
         }
-        return list;
     }
 }
@@ -18,7 +18,9 @@ package com.github.rvesse.airline.io.printers;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.apache.commons.lang3.StringUtils;
 import org.testng.Assert;
@@ -584,4 +586,155 @@ public class TestTroffPrinter {
         printer.startTitledList();
         printer.nextBulletedListItem();
     }
+
+    @Test
+    public void table_streamed_01() {
+        StringWriter strWriter = new StringWriter();
+        TroffPrinter printer = new TroffPrinter(new PrintWriter(strWriter));
+
+        List<List<String>> rows = new ArrayList<List<String>>();
+        rows.add(Arrays.asList("A", "B", "C"));
+        rows.add(Arrays.asList("One", "-1"));
+        rows.add(Arrays.asList(".Two", null, "Three\tFour"));
+
+        printer.printTable(rows.iterator(), 3, true);
+
+        //@formatter:off
+        String expected = StringUtils.join(new String[] { 
+                TABLE_START,
+                "box;", 
+                "cb | cb | cb",
+                "l | l | l .",
+                "A\tB\tC", 
+                "_\t|\t_\t|\t_",
+                "One\t\\-1", 
+                "\\.Two\t\tThree\\tFour", 
+                TABLE_END,
+                ""
+            }, '\n');
+        //@formatter:on
+        Assert.assertEquals(strWriter.toString(), expected);
+    }
+
+    @Test
+    public void table_streamed_02() {
+        StringWriter strWriter = new StringWriter();
+        TroffPrinter printer = new TroffPrinter(new PrintWriter(strWriter));
+
+        printer.printTable(new ArrayList<List<String>>().iterator(), 0, false);
+
+        //@formatter:off
+        String expected = StringUtils.join(new String[] { 
+                TABLE_START,
+                "box;", 
+                TABLE_END,
+                ""
+            }, '\n');
+        //@formatter:on
+        Assert.assertEquals(strWriter.toString(), expected);
+    }
+
+    private static final char[] ALPHABET = { 'a', 'b', 'c', ' ', ' ', '.', '-', '-', '\t', '\n', '\n', '"', '\\' };
+
+    private static String randomText(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static List<String> randomRow(Random random) {
+        int columns = random.nextInt(4);
+        List<String> row = new ArrayList<String>();
+        for (int i = 0; i < columns; i++) {
+            row.add(random.nextInt(10) == 0 ? null : randomText(random, 10));
+        }
+        return row;
+    }
+
+    @Test
+    public void troff_printer_random_01() {
+        Random random = new Random(20161018L);
+        for (int run = 0; run < 500; run++) {
+            StringWriter expectedWriter = new StringWriter(), actualWriter = new StringWriter();
+            LegacyTroffPrinter expected = new LegacyTroffPrinter(new PrintWriter(expectedWriter));
+            TroffPrinter actual = new TroffPrinter(new PrintWriter(actualWriter));
+            for (int op = 0; op < 20; op++) {
+                Class<?> expectedError = null, actualError = null;
+                int choice = random.nextInt(16);
+                // Occasionally use text longer than the printer's buffer
+                String text = randomText(random, random.nextInt(20) == 0 ? 3000 : 40);
+                boolean flag = random.nextBoolean();
+                List<List<String>> rows = new ArrayList<List<String>>();
+                for (int r = random.nextInt(4); r > 0; r--) {
+                    rows.add(randomRow(random));
+                }
+                for (int i = 0; i < 2; i++) {
+                    try {
+                        if (i == 0) {
+                            apply(expected, choice, text, flag, rows);
+                        } else {
+                            apply(actual, choice, text, flag, rows);
+                        }
+                    } catch (IllegalStateException e) {
+                        if (i == 0) {
+                            expectedError = e.getClass();
+                        } else {
+                            actualError = e.getClass();
+                        }
+                    }
+                }
+                Assert.assertEquals(actualError, expectedError);
+            }
+            expected.finish();
+            actual.finish();
+            Assert.assertEquals(actualWriter.toString(), expectedWriter.toString());
+        }
+    }
+
+    private static void apply(Object printer, int choice, String text, boolean flag, List<List<String>> rows) {
+        if (printer instanceof LegacyTroffPrinter) {
+            LegacyTroffPrinter p = (LegacyTroffPrinter) printer;
+            switch (choice) {
+            case 0: p.start(text, 1, text, flag ? null : text, text); break;
+            case 1: p.nextSection(text); break;
+            case 2: p.print(text); break;
+            case 3: p.println(text); break;
+            case 4: p.lineBreak(); break;
+            case 5: p.printBold(text); break;
+            case 6: p.printItalic(text); break;
+            case 7: p.printBoldItalic(text); break;
+            case 8: p.startBulletedList(); break;
+            case 9: p.startNumberedList(); break;
+            case 10: p.startTitledList(flag ? null : text); break;
+            case 11: p.nextBulletedListItem(); break;
+            case 12: p.nextTitledListItem(flag ? null : text); break;
+            case 13: p.nextNumberedListItem(); break;
+            case 14: p.endList(); break;
+            default: p.printTable(rows, flag);
+            }
+        } else {
+            TroffPrinter p = (TroffPrinter) printer;
+            switch (choice) {
+            case 0: p.start(text, 1, text, flag ? null : text, text); break;
+            case 1: p.nextSection(text); break;
+            case 2: p.print(text); break;
+            case 3: p.println(text); break;
+            case 4: p.lineBreak(); break;
+            case 5: p.printBold(text); break;
+            case 6: p.printItalic(text); break;
+            case 7: p.printBoldItalic(text); break;
+            case 8: p.startBulletedList(); break;
+            case 9: p.startNumberedList(); break;
+            case 10: p.startTitledList(flag ? null : text); break;
+            case 11: p.nextBulletedListItem(); break;
+            case 12: p.nextTitledListItem(flag ? null : text); break;
+            case 13: p.nextNumberedListItem(); break;
+            case 14: p.endList(); break;
+            default: p.printTable(rows, flag);
+            }
+        }
+    }
 }
@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.io.printers;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestUsagePrinter {
+
+    private static final char[] ALPHABET = { 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', ' ', ' ', ' ', '\t', '\n', '\r',
+            '\f', '\u000B', '[', ']', '<', '>', '{', '}', '(', ')', ' ', ' ', '-' };
+
+    private static final class Printers {
+        private final StringWriter expectedWriter = new StringWriter(), actualWriter = new StringWriter();
+        private final PrintWriter expectedOut = new PrintWriter(expectedWriter),
+                actualOut = new PrintWriter(actualWriter);
+        private LegacyUsagePrinter expected;
+        private UsagePrinter actual;
+
+        private Printers(int maxSize) {
+            this.expected = new LegacyUsagePrinter(expectedOut, maxSize);
+            this.actual = new UsagePrinter(actualOut, maxSize);
+        }
+
+        private void verify() {
+            this.expected.flush();
+            this.actual.flush();
+            Assert.assertEquals(this.actualWriter.toString(), this.expectedWriter.toString());
+        }
+    }
+
+    private static String randomText(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static List<String> randomList(Random random, int maxItems, int maxLength) {
+        int items = random.nextInt(maxItems + 1);
+        List<String> list = new ArrayList<String>();
+        for (int i = 0; i < items; i++) {
+            list.add(random.nextInt(10) == 0 ? null : randomText(random, maxLength));
+        }
+        return list;
+    }
+
+    @Test
+    public void usage_printer_append_01() {
+        Printers printers = new Printers(20);
+        printers.expected.append("The quick brown fox jumps over the lazy dog");
+        printers.actual.append("The quick brown fox jumps over the lazy dog");
+        printers.verify();
+    }
+
+    @Test
+    public void usage_printer_append_02() {
+        Printers printers = new Printers(20);
+        String text = "First line\n\n\nSecond  line\twith tabs\r\nand a verylongwordthatexceedsthewidth";
+        printers.expected.append(text).append(text, true).appendOnOneLine(text);
+        printers.actual.append(text).append(text, true).appendOnOneLine(text);
+        printers.verify();
+    }
+
+    @Test
+    public void usage_printer_append_03() {
+        Printers printers = new Printers(15);
+        String text = "git [ -c <name=value> ] [ --git-dir <gitDir> ] { add | remote } [ <args>... ]";
+        printers.expected.newIndentedPrinter(4).newPrinterWithHangingIndent(6).append(text).newline();
+        printers.actual.newIndentedPrinter(4).newPrinterWithHangingIndent(6).append(text).newline();
+        printers.verify();
+    }
+
+    @Test
+    public void usage_printer_append_04() {
+        Printers printers = new Printers(79);
+        printers.expected.append(null).append("").append(" \t ").appendWords(new String[] { null, "", "a" });
+        printers.actual.append(null).append("").append(" \t ").appendWords(new String[] { null, "", "a" });
+        printers.verify();
+    }
+
+    @Test
+    public void usage_printer_table_01() {
+        Printers printers = new Printers(40);
+        List<List<String>> table = new ArrayList<List<String>>();
+        table.add(Arrays.asList("-a", "Option a  "));
+        table.add(Arrays.asList("--long-option", null, "Extra"));
+        table.add(Arrays.asList("", "Blank first column\t"));
+        printers.expected.newIndentedPrinter(2).appendTable(table, 1);
+        printers.actual.newIndentedPrinter(2).appendTable(table, 1);
+        printers.verify();
+    }
+
+    @Test
+    public void usage_printer_random_01() {
+        Random random = new Random(20161018L);
+        for (int run = 0; run < 500; run++) {
+            Printers printers = new Printers(5 + random.nextInt(60));
+            LegacyUsagePrinter expected = printers.expected;
+            UsagePrinter actual = printers.actual;
+            for (int op = 0; op < 20; op++) {
+                switch (random.nextInt(10)) {
+                case 0:
+                    int indent = random.nextInt(8);
+                    expected = expected.newIndentedPrinter(indent);
+                    actual = actual.newIndentedPrinter(indent);
+                    break;
+                case 1:
+                    int hanging = random.nextInt(8);
+                    expected = expected.newPrinterWithHangingIndent(hanging);
+                    actual = actual.newPrinterWithHangingIndent(hanging);
+                    break;
+                case 2:
+                    expected.newline();
+                    actual.newline();
+                    break;
+                case 3:
+                    String text = randomText(random, 120);
+                    expected.append(text);
+                    actual.append(text);
+                    break;
+                case 4:
+                    text = randomText(random, 120);
+                    expected.appendOnOneLine(text);
+                    actual.appendOnOneLine(text);
+                    break;
+                case 5:
+                    List<String> lines = randomList(random, 5, 60);
+                    boolean avoidNewlines = random.nextBoolean();
+                    expected.appendLines(lines, avoidNewlines);
+                    actual.appendLines(lines, avoidNewlines);
+                    break;
+                case 6:
+                    List<String> words = randomList(random, 10, 12);
+                    expected.appendWords(words);
+                    actual.appendWords(words);
+                    break;
+                case 7:
+                    words = randomList(random, 10, 12);
+                    expected.appendWords(words.toArray(new String[words.size()]), true);
+                    actual.appendWords(words.toArray(new String[words.size()]), true);
+                    break;
+                case 8:
+                    List<List<String>> table = new ArrayList<List<String>>();
+                    int rows = random.nextInt(5);
+                    for (int row = 0; row < rows; row++) {
+                        table.add(randomList(random, 4, 15));
+                    }
+                    int rowSpacing = random.nextInt(3);
+                    expected.appendTable(table, rowSpacing);
+                    actual.appendTable(table, rowSpacing);
+                    break;
+                default:
+                    text = randomText(random, 30);
+                    expected.append(text, true);
+                    actual.append(text, true);
+                    break;
+                }
+            }
+            printers.verify();
+        }
+    }
+}